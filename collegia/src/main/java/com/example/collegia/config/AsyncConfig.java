@@ -0,0 +1,139 @@
+package com.example.collegia.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executors for work that runs after the request that triggered it has
+ * been answered, or alongside it.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    public static final String IMAGE_DERIVATIVE_EXECUTOR = "imageDerivativeExecutor";
+
+    public static final String UPLOAD_EXECUTOR = "uploadExecutor";
+
+    public static final String UPLOAD_SWEEP_EXECUTOR = "uploadSweepExecutor";
+
+    public static final String PASSWORD_HASH_EXECUTOR = "passwordHashExecutor";
+
+    public static final String USER_IMPORT_EXECUTOR = "userImportExecutor";
+
+    public static final String AUTH_HASH_EXECUTOR = "authHashExecutor";
+
+    @Value("${images.derivatives.threads:2}")
+    private int derivativeThreads;
+
+    @Value("${images.derivatives.queue-capacity:100}")
+    private int derivativeQueueCapacity;
+
+    @Value("${file.upload.threads:4}")
+    private int uploadThreads;
+
+    @Value("${file.upload.queue-capacity:16}")
+    private int uploadQueueCapacity;
+
+    // 0 means one per available core
+    @Value("${users.import.hash-threads:0}")
+    private int hashThreads;
+
+    @Value("${users.import.jobs.queue-capacity:20}")
+    private int importQueueCapacity;
+
+    // 0 means one per available core
+    @Value("${auth.hash.threads:0}")
+    private int authHashThreads;
+
+    @Value("${auth.hash.queue-capacity:32}")
+    private int authHashQueueCapacity;
+
+    // decoding a phone photo takes ~100 MB of heap, so only a couple run at once;
+    // a full queue rejects the task, ImageDerivativeService counts it and the
+    // derivatives are made on a later request
+    @Bean(name = IMAGE_DERIVATIVE_EXECUTOR)
+    public ThreadPoolTaskExecutor imageDerivativeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("image-derivative-");
+        executor.setCorePoolSize(derivativeThreads);
+        executor.setMaxPoolSize(derivativeThreads);
+        executor.setQueueCapacity(derivativeQueueCapacity);
+        executor.initialize();
+        return executor;
+    }
+
+    // writes buffered file parts while the request thread reads the next one; a queued
+    // part holds its bytes in memory, so when the queue is full the request thread
+    // writes the part itself, which also stops it reading further ahead
+    @Bean(name = UPLOAD_EXECUTOR)
+    public Executor uploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("upload-");
+        executor.setCorePoolSize(uploadThreads);
+        executor.setMaxPoolSize(uploadThreads);
+        executor.setQueueCapacity(uploadQueueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // one sweep at a time, at low priority; UploadGarbageCollector never queues a second one
+    @Bean(name = UPLOAD_SWEEP_EXECUTOR)
+    public Executor uploadSweepExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("upload-sweep-");
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.initialize();
+        return executor;
+    }
+
+    // BCrypt is pure CPU, so one thread per core; the importer hands over a whole
+    // import's passwords at once, so the queue is unbounded
+    @Bean(name = PASSWORD_HASH_EXECUTOR)
+    public Executor passwordHashExecutor() {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.initialize();
+        return executor;
+    }
+
+    // import jobs run one at a time, each already spreading its hashing over every
+    // core; a full queue rejects the submission and the client is asked to retry
+    @Bean(name = USER_IMPORT_EXECUTOR)
+    public Executor userImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("user-import-");
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(importQueueCapacity);
+        executor.initialize();
+        return executor;
+    }
+
+    // sign-in, sign-up and password changes; a full queue rejects the task and
+    // PasswordHashingService answers 503 instead of parking another request thread
+    @Bean(name = AUTH_HASH_EXECUTOR)
+    public ThreadPoolTaskExecutor authHashExecutor() {
+        int threads = authHashThreads > 0 ? authHashThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("auth-hash-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(authHashQueueCapacity);
+        executor.initialize();
+        return executor;
+    }
+}
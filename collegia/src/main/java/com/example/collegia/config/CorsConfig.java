@@ -18,6 +18,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:3000")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH")
                 .allowedHeaders("*")
+                .exposedHeaders("ETag", "Content-Range", "Accept-Ranges", "Retry-After", "WWW-Authenticate")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -28,6 +29,11 @@ public class CorsConfig implements WebMvcConfigurer {
         config.setAllowCredentials(true);
         config.addAllowedOrigin("http://localhost:3000");
         config.addAllowedHeader("*");
+        config.addExposedHeader("ETag");
+        config.addExposedHeader("Content-Range");
+        config.addExposedHeader("Accept-Ranges");
+        config.addExposedHeader("Retry-After");
+        config.addExposedHeader("WWW-Authenticate");
         config.addAllowedMethod("GET");
         config.addAllowedMethod("POST");
         config.addAllowedMethod("PUT");
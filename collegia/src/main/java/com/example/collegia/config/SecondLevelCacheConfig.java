@@ -0,0 +1,86 @@
+package com.example.collegia.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Regions of the Hibernate second-level cache, held in a local Ehcache
+ * (JCache) manager that is handed to Hibernate instead of an XML config.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String VENUE_REGION = "venue";
+    public static final String VENUE_AMENITIES_REGION = "venue.amenities";
+    public static final String VENUE_GALLERY_REGION = "venue.galleryImages";
+    public static final String USER_REGION = "user";
+    public static final String VENUE_QUERY_REGION = "venue-queries";
+
+    // Hibernate's own regions for query results and table update timestamps
+    public static final String DEFAULT_QUERY_REGION = "default-query-results-region";
+    public static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    public static final List<String> REGIONS = List.of(VENUE_REGION, VENUE_AMENITIES_REGION, VENUE_GALLERY_REGION,
+        USER_REGION, VENUE_QUERY_REGION, DEFAULT_QUERY_REGION, TIMESTAMPS_REGION);
+
+    @Value("${cache.l2.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${cache.l2.venue-entries:2000}")
+    private long venueEntries;
+
+    @Value("${cache.l2.user-entries:10000}")
+    private long userEntries;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+            EhcacheCachingProvider.class.getName());
+        // one manager per application context, so test contexts never share or close each other's regions
+        CacheManager cacheManager = provider.getCacheManager(
+            URI.create("urn:collegia-l2:" + UUID.randomUUID()), new DefaultConfiguration(getClass().getClassLoader()));
+
+        Duration ttl = Duration.ofMinutes(ttlMinutes);
+        createRegion(cacheManager, VENUE_REGION, venueEntries, ttl);
+        createRegion(cacheManager, VENUE_AMENITIES_REGION, venueEntries, ttl);
+        createRegion(cacheManager, VENUE_GALLERY_REGION, venueEntries, ttl);
+        createRegion(cacheManager, USER_REGION, userEntries, ttl);
+        createRegion(cacheManager, VENUE_QUERY_REGION, 100, ttl);
+        createRegion(cacheManager, DEFAULT_QUERY_REGION, 1000, ttl);
+        // update timestamps must outlive every cached query result, so they never expire
+        createRegion(cacheManager, TIMESTAMPS_REGION, 10000, null);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long entries, Duration ttl) {
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(entries));
+        if (ttl != null) {
+            builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl));
+        }
+        cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(builder.build()));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.collegia.config;
+
+import com.example.collegia.exception.InvalidSessionTokenException;
+import com.example.collegia.service.SessionTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Resolves the caller of each request from an "Authorization: Bearer" session
+ * token, by its signature and expiry alone, and hands the principal to
+ * handlers as the {@link #PRINCIPAL_ATTRIBUTE} request attribute. Requests
+ * without a valid token still pass through anonymously; an invalid or expired
+ * one is answered with a WWW-Authenticate header so the client can refresh it.
+ */
+@Component
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    public static final String PRINCIPAL_ATTRIBUTE = "collegia.sessionPrincipal";
+
+    private static final String BEARER = "Bearer ";
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = bearerToken(request);
+        if (token != null) {
+            try {
+                request.setAttribute(PRINCIPAL_ATTRIBUTE, sessionTokenService.verify(token));
+            } catch (InvalidSessionTokenException e) {
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE,
+                    "Bearer error=\"invalid_token\", error_description=\"" + e.getMessage() + "\"");
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * The token of an "Authorization: Bearer" header, or null without one.
+     */
+    public static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        String token = header.substring(BEARER.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+}
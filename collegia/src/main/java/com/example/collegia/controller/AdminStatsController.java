@@ -1,11 +1,21 @@
 package com.example.collegia.controller;
 
-import com.example.collegia.repository.UserRepository;
+import com.example.collegia.dto.CounterReconciliationDTO;
+import com.example.collegia.dto.DashboardStatsDTO;
+import com.example.collegia.service.BlobReferenceService;
+import com.example.collegia.service.BookingCounterService;
+import com.example.collegia.service.CacheStatsService;
+import com.example.collegia.service.DashboardStatsService;
+import com.example.collegia.service.ImageDerivativeService;
+import com.example.collegia.service.PasswordHashingService;
+import com.example.collegia.service.UploadGarbageCollector;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
@@ -14,25 +24,121 @@ import java.util.Map;
 public class AdminStatsController {
 
     @Autowired
-    private UserRepository userRepository;
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private BookingCounterService bookingCounterService;
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
+
+    @Autowired
+    private UploadGarbageCollector uploadGarbageCollector;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
 
     @GetMapping("/user-counts")
     public ResponseEntity<Map<String, Long>> getUserCounts() {
-        long students     = userRepository.countByUserType("Student");
-        long faculty      = userRepository.countByUserType("Faculty");
-        long coordinators = userRepository.countByUserType("Coordinator");
-        long custodians   = userRepository.countByUserType("Custodian");
-        long admins       = userRepository.countByUserType("Admin");
-        long total        = students + faculty + coordinators + custodians + admins;
-
-        Map<String, Long> counts = new HashMap<>();
-        counts.put("totalUsers",   total);
-        counts.put("students",     students);
-        counts.put("faculty",      faculty);
-        counts.put("coordinators", coordinators);
-        counts.put("custodians",   custodians);
-        counts.put("admins",       admins);
-
-        return ResponseEntity.ok(counts);
+        return ResponseEntity.ok(dashboardStatsService.getUserCounts());
+    }
+
+    // Whole admin dashboard in one round trip; refresh=true bypasses the short-lived cache
+    @GetMapping("/dashboard-stats")
+    public ResponseEntity<?> getDashboardStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean refresh) {
+        try {
+            DashboardStatsDTO stats = dashboardStatsService.getDashboardStats(from, to, refresh);
+            return ResponseEntity.ok(stats);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Materialized booking counters of one dimension: status, venue, custodian or day
+    @GetMapping("/booking-counters/{dimension}")
+    public ResponseEntity<Map<String, Long>> getBookingCounters(@PathVariable String dimension) {
+        return ResponseEntity.ok(bookingCounterService.getCounts(dimension));
+    }
+
+    // Recount from booking_entity and report drift; repair=true also adds the drift to each drifted
+    // counter that no booking has moved since, the rest are left for the next pass
+    @PostMapping("/booking-counters/reconcile")
+    public ResponseEntity<CounterReconciliationDTO> reconcileBookingCounters(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(bookingCounterService.reconcile(repair));
+    }
+
+    @GetMapping("/booking-counters/reconcile")
+    public ResponseEntity<?> getLastReconciliation() {
+        CounterReconciliationDTO report = bookingCounterService.getLastReconciliation();
+        if (report == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    // Second-level / query cache hit and miss counts, overall and per region
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getCacheStats());
+    }
+
+    @DeleteMapping("/cache-stats")
+    public ResponseEntity<Void> resetCacheStats() {
+        cacheStatsService.resetStats();
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> evictCache() {
+        cacheStatsService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    // Sign-in hashing pool: work factor, queue depth, rejections and hash times
+    @GetMapping("/password-hashing")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+
+    // Image derivative pool: queue depth and generation jobs rejected while it was full
+    @GetMapping("/image-derivatives")
+    public ResponseEntity<Map<String, Object>> getImageDerivativeStats() {
+        return ResponseEntity.ok(imageDerivativeService.getStats());
+    }
+
+    // Content-addressed upload store: blobs, bytes and duplicate uploads absorbed
+    @GetMapping("/blob-store")
+    public ResponseEntity<Map<String, Long>> getBlobStoreStats() {
+        return ResponseEntity.ok(blobReferenceService.getStoreStats());
+    }
+
+    @PostMapping("/blob-store/reconcile")
+    public ResponseEntity<Map<String, Integer>> reconcileBlobReferences() {
+        return ResponseEntity.ok(Map.of("corrections", blobReferenceService.reconcile()));
+    }
+
+    // Orphaned upload sweeper: totals since startup and the last report
+    @GetMapping("/uploads/sweep")
+    public ResponseEntity<Map<String, Object>> getUploadSweepStats() {
+        return ResponseEntity.ok(uploadGarbageCollector.getStats());
+    }
+
+    // Starts a sweep in the background; dryRun=true only reports. Poll GET for the result
+    @PostMapping("/uploads/sweep")
+    public ResponseEntity<Map<String, Object>> startUploadSweep(@RequestParam(defaultValue = "true") boolean dryRun) {
+        if (!uploadGarbageCollector.startSweep(dryRun)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "A sweep is already running"));
+        }
+        return ResponseEntity.accepted().body(Map.of("started", true, "dryRun", dryRun));
     }
 }
@@ -1,11 +1,21 @@
 package com.example.collegia.controller;
 
+import com.example.collegia.config.SessionTokenFilter;
+import com.example.collegia.dto.SessionPrincipalDTO;
 import com.example.collegia.entity.UserEntity;
+import com.example.collegia.exception.InvalidSessionTokenException;
+import com.example.collegia.exception.PasswordHashingBusyException;
 import com.example.collegia.service.AuthService;
+import com.example.collegia.service.SessionTokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "http://localhost:3000", maxAge = 3600, allowCredentials = "true")
@@ -23,6 +33,9 @@ public class AuthController {
     }
     @Autowired
     private AuthService authService;
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
     
     public static class SignUpRequest {
         private String firstName;
@@ -156,6 +169,8 @@ public class AuthController {
             UserEntity user = authService.registerUser(request);
             AuthResponse response = new AuthResponse("Registration successful", user);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            return busy(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -166,9 +181,43 @@ public class AuthController {
         try {
             UserEntity user = authService.authenticateUser(request.getEmail(), request.getPassword());
             AuthResponse response = new AuthResponse("Login successful", user);
+            // sent back as "Authorization: Bearer <token>"; see /refresh and /me
+            response.setToken(sessionTokenService.issue(user));
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            return busy(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    // a new token for a valid one, or one that expired within the refresh window
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(HttpServletRequest request) {
+        try {
+            String token = sessionTokenService.refresh(SessionTokenFilter.bearerToken(request));
+            AuthResponse response = new AuthResponse("Token refreshed", sessionTokenService.verify(token));
+            response.setToken(token);
+            return ResponseEntity.ok(response);
+        } catch (InvalidSessionTokenException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // the caller as read from their token, without a database query
+    @GetMapping("/me")
+    public ResponseEntity<?> me(
+            @RequestAttribute(name = SessionTokenFilter.PRINCIPAL_ATTRIBUTE, required = false) SessionPrincipalDTO principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not signed in"));
+        }
+        return ResponseEntity.ok(principal);
+    }
+
+    // the password hashing queue is full; the client backs off instead of piling on
+    static ResponseEntity<?> busy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
 }
\ No newline at end of file
@@ -1,12 +1,20 @@
 package com.example.collegia.controller;
 
+import com.example.collegia.dto.BookingPageDTO;
+import com.example.collegia.dto.BookingSearchCriteria;
+import com.example.collegia.dto.BookingSummaryDTO;
+import com.example.collegia.dto.VenueAvailabilityDTO;
 import com.example.collegia.entity.BookingEntity;
+import com.example.collegia.exception.BookingConflictException;
 import com.example.collegia.service.BookingService;
+import com.example.collegia.service.DashboardStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -17,52 +25,94 @@ public class BookingController {
     
      @Autowired
     private BookingService bookingService;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
     
     @PostMapping
-    public ResponseEntity<BookingEntity> createBooking(
+    public ResponseEntity<?> createBooking(
             @RequestBody BookingEntity booking,
             @RequestParam Long userId) {
-        BookingEntity createdBooking = bookingService.createBooking(booking, userId);
-        return ResponseEntity.ok(createdBooking);
+        try {
+            BookingEntity createdBooking = bookingService.createBooking(booking, userId);
+            return ResponseEntity.ok(createdBooking);
+        } catch (BookingConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
     }
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<BookingEntity>> getUserBookings(@PathVariable Long userId) {
-        List<BookingEntity> bookings = bookingService.getBookingsByUser(userId);
+    public ResponseEntity<List<BookingSummaryDTO>> getUserBookings(@PathVariable Long userId) {
+        List<BookingSummaryDTO> bookings = bookingService.getBookingSummariesByUser(userId);
         return ResponseEntity.ok(bookings);
     }
     
     @GetMapping("/user/{userId}/upcoming")
-    public ResponseEntity<List<BookingEntity>> getUserUpcomingBookings(@PathVariable Long userId) {
-        List<BookingEntity> bookings = bookingService.getUpcomingBookingsByUser(userId);
+    public ResponseEntity<List<BookingSummaryDTO>> getUserUpcomingBookings(@PathVariable Long userId) {
+        List<BookingSummaryDTO> bookings = bookingService.getUpcomingBookingSummariesByUser(userId);
         return ResponseEntity.ok(bookings);
     }
     
     @GetMapping("/user/{userId}/status/{status}")
-    public ResponseEntity<List<BookingEntity>> getUserBookingsByStatus(@PathVariable Long userId, 
-                                                                      @PathVariable String status) {
-        List<BookingEntity> bookings = bookingService.getBookingsByUserAndStatus(userId, status);
+    public ResponseEntity<List<BookingSummaryDTO>> getUserBookingsByStatus(
+            @PathVariable Long userId,
+            @PathVariable String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<BookingSummaryDTO> bookings = bookingService.getBookingSummariesByUserAndStatus(userId, status, from, to);
         return ResponseEntity.ok(bookings);
     }
     
     @GetMapping("/custodian/{custodianId}")
-    public ResponseEntity<List<BookingEntity>> getCustodianBookings(@PathVariable Long custodianId) {
-        List<BookingEntity> bookings = bookingService.getBookingsForCustodian(custodianId);
+    public ResponseEntity<List<BookingSummaryDTO>> getCustodianBookings(@PathVariable Long custodianId) {
+        List<BookingSummaryDTO> bookings = bookingService.getBookingSummariesForCustodian(custodianId);
         return ResponseEntity.ok(bookings);
     }
     
     @GetMapping("/custodian/{custodianId}/pending")
-    public ResponseEntity<List<BookingEntity>> getCustodianPendingBookings(@PathVariable Long custodianId) {
-        List<BookingEntity> bookings = bookingService.getPendingBookingsForCustodian(custodianId);
+    public ResponseEntity<List<BookingSummaryDTO>> getCustodianPendingBookings(@PathVariable Long custodianId) {
+        List<BookingSummaryDTO> bookings = bookingService.getPendingBookingSummariesForCustodian(custodianId);
         return ResponseEntity.ok(bookings);
     }
     
     @GetMapping
-    public ResponseEntity<List<BookingEntity>> getAllBookings() {
-        List<BookingEntity> bookings = bookingService.getAllBookings();
+    public ResponseEntity<List<BookingSummaryDTO>> getAllBookings() {
+        List<BookingSummaryDTO> bookings = bookingService.getAllBookingSummaries();
         return ResponseEntity.ok(bookings);
     }
     
+    // Keyset-paginated search for admin/custodian tables, e.g.
+    // /search?status=pending&venueId=3&from=2025-03-01&size=50, then &cursor=<nextCursor>
+    @GetMapping("/search")
+    public ResponseEntity<?> searchBookings(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long venueId,
+            @RequestParam(required = false) Long custodianId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "asc") String sort) {
+        BookingSearchCriteria criteria = new BookingSearchCriteria();
+        criteria.setStatus(status);
+        criteria.setVenueId(venueId);
+        criteria.setCustodianId(custodianId);
+        criteria.setUserId(userId);
+        criteria.setFrom(from);
+        criteria.setTo(to);
+        criteria.setCursor(cursor);
+        criteria.setSize(size);
+        criteria.setDescending("desc".equalsIgnoreCase(sort));
+
+        try {
+            BookingPageDTO page = bookingService.searchBookings(criteria);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<BookingEntity> getBookingById(@PathVariable Long id) {
         return bookingService.getBookingById(id)
@@ -71,20 +121,28 @@ public class BookingController {
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<BookingEntity> updateBooking(@PathVariable Long id, 
-                                                     @RequestBody BookingEntity bookingDetails) {
-        BookingEntity updatedBooking = bookingService.updateBooking(id, bookingDetails);
-        return ResponseEntity.ok(updatedBooking);
+    public ResponseEntity<?> updateBooking(@PathVariable Long id, 
+                                           @RequestBody BookingEntity bookingDetails) {
+        try {
+            BookingEntity updatedBooking = bookingService.updateBooking(id, bookingDetails);
+            return ResponseEntity.ok(updatedBooking);
+        } catch (BookingConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
     }
     
     @PutMapping("/{id}/status")
-    public ResponseEntity<BookingEntity> updateBookingStatus(@PathVariable Long id,
-                                                           @RequestBody Map<String, String> statusUpdate) {
+    public ResponseEntity<?> updateBookingStatus(@PathVariable Long id,
+                                                 @RequestBody Map<String, String> statusUpdate) {
         String status = statusUpdate.get("status");
         String cancelledBy = statusUpdate.get("cancelledBy");
         
-        BookingEntity updatedBooking = bookingService.updateBookingStatus(id, status, cancelledBy);
-        return ResponseEntity.ok(updatedBooking);
+        try {
+            BookingEntity updatedBooking = bookingService.updateBookingStatus(id, status, cancelledBy);
+            return ResponseEntity.ok(updatedBooking);
+        } catch (BookingConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
     }
     
     @DeleteMapping("/{id}")
@@ -118,16 +176,29 @@ public class BookingController {
         return ResponseEntity.ok(isAvailable);
     }
 
+    
+    // Free time windows for many venues over a date range in one call,
+    // e.g. /availability?venueIds=1,2,3&from=2025-03-03&to=2025-03-09
+    @GetMapping("/availability")
+    public ResponseEntity<?> getAvailability(
+            @RequestParam(required = false) List<Long> venueIds,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            List<VenueAvailabilityDTO> availability =
+                bookingService.getAvailability(venueIds, location, minCapacity, from, to);
+            return ResponseEntity.ok(availability);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 
     // Booking status summary for Admin Dashboard
     @GetMapping("/status-summary")
     public ResponseEntity<Map<String, Long>> getBookingStatusSummary() {
-        Map<String, Long> summary = new HashMap<>();
-        summary.put("pending",   bookingService.countByStatus("pending"));
-        summary.put("approved",  bookingService.countByStatus("approved"));
-        summary.put("rejected",  bookingService.countByStatus("rejected"));
-        summary.put("canceled",  bookingService.countByStatus("canceled"));
-        return ResponseEntity.ok(summary);
+        return ResponseEntity.ok(dashboardStatsService.getBookingStatusCounts());
     }
 
 }
\ No newline at end of file
@@ -1,23 +1,45 @@
 package com.example.collegia.controller;
 
+import com.example.collegia.dto.ChunkedUploadDTO;
+import com.example.collegia.dto.StoredFileDTO;
+import com.example.collegia.exception.UploadDigestMismatchException;
+import com.example.collegia.service.ChunkedUploadService;
 import com.example.collegia.service.FileStorageService;
+import com.example.collegia.service.ImageDerivativeService;
+import com.example.collegia.service.StreamingUploadService;
+import org.apache.commons.fileupload2.core.FileUploadException;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
-import java.util.Map;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/files")
@@ -27,55 +49,305 @@ public class FileController {
     @Autowired
     private FileStorageService fileStorageService;
     
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+    
+    @Autowired
+    private StreamingUploadService streamingUploadService;
+    
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+    
+    // names produced by FileStorageService.storeFile (a UUID or a content digest), optionally with a variant suffix
+    private static final Pattern STORED_NAME = Pattern.compile(
+        "([0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}|[0-9a-f]{64})(_[a-z]+)?(\\.[A-Za-z0-9]+)?");
+    
+    // more ranges than this is not a media player seeking; serve the whole file instead
+    private static final int MAX_RANGES = 16;
+    
+    // below this, copying is cheaper than handing the file to the connector
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+    
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    // file extension -> content type, so the servlet context is asked once per extension
+    private final Map<String, String> contentTypes = new ConcurrentHashMap<>();
+    
+    /**
+     * Serve an uploaded file. For images, {@code size} picks a variant
+     * (thumb, card, full or original); the original is served until the
+     * variant has been generated.
+     *
+     * Stored names are SHA-256 digests of the content (older uploads keep
+     * their random UUIDs), and a stored file is never rewritten, so the name
+     * is a strong validator and responses may be cached for a year.
+     * Conditional requests get a 304, Range requests a 206 (single range or
+     * multipart/byteranges), and bodies go out through sendfile when the
+     * connector supports it, else through FileChannel.transferTo.
+     */
     @GetMapping("/uploads/{fileName:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String fileName, 
-                                             HttpServletRequest request) {
+    public void serveFile(@PathVariable String fileName,
+                          @RequestParam(required = false) String size,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        ImageDerivativeService.Variant variant;
         try {
-            // Get the file path
-            Path filePath = fileStorageService.getFileStorageLocation().resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            // Check if file exists
-            if (!resource.exists()) {
-                System.out.println("❌ File not found: " + fileName);
-                return ResponseEntity.notFound().build();
+            variant = ImageDerivativeService.Variant.fromParameter(size);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        String servedName = imageDerivativeService.resolve(fileName, variant);
+
+        Path root = fileStorageService.getFileStorageLocation();
+        Path filePath = fileStorageService.resolvePath(servedName);
+        BasicFileAttributes attributes;
+        try {
+            if (!filePath.startsWith(root)) {
+                throw new NoSuchFileException(servedName);
             }
-            
-            // Try to determine file's content type
-            String contentType = null;
+            attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        } catch (IOException e) {
+            System.out.println("❌ File not found: " + fileName);
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        long length = attributes.size();
+        // HTTP dates have whole-second precision
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String etag = "\"" + servedName + "-" + Long.toHexString(length) + "\"";
+        // the original stands in for a variant still being generated: cache it only briefly
+        boolean fallback = variant != null && servedName.equals(fileName) && ImageDerivativeService.isImage(fileName);
+        String contentType = contentTypeOf(servedName, request);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, fallback || !STORED_NAME.matcher(servedName).matches()
+            ? CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic().getHeaderValue()
+            : CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + servedName + "\"");
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        List<long[]> ranges = null;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeHolds(request, etag, lastModified)) {
+            ranges = parseRanges(rangeHeader, length);
+            if (ranges != null && ranges.isEmpty()) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+        boolean head = "HEAD".equals(request.getMethod());
+
+        if (ranges == null || ranges.size() == 1) {
+            long start = ranges == null ? 0 : ranges.get(0)[0];
+            long end = ranges == null ? length - 1 : ranges.get(0)[1];
+            if (ranges != null) {
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+            response.setContentType(contentType);
+            response.setContentLengthLong(end - start + 1);
+            if (!head) {
+                send(filePath, start, end - start + 1, request, response);
+            }
+            return;
+        }
+
+        // several ranges: one multipart/byteranges body, its length known up front
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>();
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                + HttpHeaders.CONTENT_RANGE + ": bytes " + range[0] + "-" + range[1] + "/" + length + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + range[1] - range[0] + 1;
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        try (FileChannel file = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders.get(i));
+                transfer(file, ranges.get(i)[0], ranges.get(i)[1] - ranges.get(i)[0] + 1, channel);
+            }
+        }
+        out.write(closing);
+    }
+
+    private String contentTypeOf(String fileName, HttpServletRequest request) {
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        return contentTypes.computeIfAbsent(extension, ext -> {
+            String type = request.getServletContext().getMimeType(fileName);
+            if (type == null) {
+                type = MediaTypeFactory.getMediaType(fileName).map(MediaType::toString).orElse(null);
+            }
+            return type != null ? type : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        });
+    }
+
+    // If-None-Match takes precedence over If-Modified-Since (RFC 9110 13.2.2)
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = headerDate(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    // a Range only applies while If-Range still names this representation; otherwise send it whole
+    private static boolean ifRangeHolds(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // strong comparison
+            return ifRange.equals(etag);
+        }
+        return headerDate(request, HttpHeaders.IF_RANGE) == lastModified;
+    }
+
+    private static long headerDate(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Byte ranges of a "bytes=" Range header as inclusive [start, end] pairs,
+     * sorted with overlapping and adjacent ranges merged. Returns null when the
+     * header is malformed or asks for too many ranges (the whole file is sent),
+     * and an empty list when no range overlaps the file (416).
+     */
+    static List<long[]> parseRanges(String header, long length) {
+        if (!header.startsWith("bytes=")) {
+            return null;
+        }
+        String[] specs = header.substring(6).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        List<long[]> ranges = new ArrayList<>();
+        for (String spec : specs) {
+            String trimmed = spec.trim();
+            int dash = trimmed.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            long start;
+            long end;
             try {
-                contentType = request.getServletContext().getMimeType(resource.getFile().getAbsolutePath());
-            } catch (IOException ex) {
-                System.out.println("⚠️ Could not determine file type for: " + fileName);
+                if (dash == 0) {
+                    long suffix = Long.parseLong(trimmed.substring(1));
+                    start = Math.max(0, length - suffix);
+                    end = suffix == 0 ? -1 : length - 1;
+                } else {
+                    start = Long.parseLong(trimmed.substring(0, dash));
+                    if (dash == trimmed.length() - 1) {
+                        end = length - 1;
+                    } else {
+                        long last = Long.parseLong(trimmed.substring(dash + 1));
+                        if (last < start) {
+                            return null;
+                        }
+                        end = Math.min(length - 1, last);
+                    }
+                }
+            } catch (NumberFormatException e) {
+                return null;
             }
-            
-            // Fallback to default content type
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+            if (start < length && start <= end) {
+                ranges.add(new long[] {start, end});
             }
-            
-            System.out.println("✅ Serving file: " + fileName + " with content-type: " + contentType);
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"")
-                    .body(resource);
-                    
-        } catch (Exception e) {
-            System.err.println("❌ Error serving file: " + fileName);
-            e.printStackTrace();
-            return ResponseEntity.notFound().build();
         }
+
+        ranges.sort(Comparator.comparingLong(range -> range[0]));
+        List<long[]> merged = new ArrayList<>();
+        for (long[] range : ranges) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(range);
+            }
+        }
+        return merged;
     }
+
+    private static void send(Path filePath, long start, long count, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        // Tomcat's NIO connector writes the file itself with sendfile once the handler returns
+        if (count >= SENDFILE_THRESHOLD && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, filePath.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            transfer(file, start, count, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private static void transfer(FileChannel file, long position, long count, WritableByteChannel target)
+            throws IOException {
+        long end = position + count;
+        while (position < end) {
+            long sent = file.transferTo(position, end - position, target);
+            if (sent <= 0) {
+                throw new EOFException("File shrank while being served");
+            }
+            position += sent;
+        }
+    }
+
+    /**
+     * Store the "file" part of a multipart request. The part is streamed
+     * from the request straight into the store, so no temporary copy is
+     * made by the container; size and SHA-256 are computed on the way.
+     */
     @PostMapping("/upload")
-    public ResponseEntity<Map<String, String>> uploadFile(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> uploadFile(HttpServletRequest request) {
         try {
-            if (file.isEmpty()) {
+            StoredFileDTO stored = streamingUploadService.read(request).getFile("file");
+            if (stored == null) {
                 return ResponseEntity.badRequest().body(Map.of("error", "File is empty"));
             }
-            
-            // Store the file
-            String fileName = fileStorageService.storeFile(file);
+            String fileName = stored.getFileName();
             
             // Construct the full URL
             String fileUrl = "http://localhost:8080/api/files/uploads/" + fileName;
@@ -86,9 +358,17 @@ public class FileController {
             return ResponseEntity.ok(Map.of(
                 "fileUrl", fileUrl,
                 "fileName", fileName,
-                "message", "File uploaded successfully"
+                "message", "File uploaded successfully",
+                "size", stored.getSizeBytes(),
+                "sha256", stored.getSha256(),
+                "contentType", stored.getContentType()
             ));
             
+        } catch (FileUploadSizeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(Map.of("error", "File too large: " + e.getMessage()));
+        } catch (FileUploadException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Not a multipart upload: " + e.getMessage()));
         } catch (Exception e) {
             System.err.println("❌ Error uploading file: " + e.getMessage());
             e.printStackTrace();
@@ -96,4 +376,103 @@ public class FileController {
                     .body(Map.of("error", "Failed to upload file: " + e.getMessage()));
         }
     }
+
+    /**
+     * Open a resumable upload: {"fileName", "size", "sha256"} of the whole
+     * file. The response says how large each chunk must be.
+     */
+    @PostMapping("/chunked")
+    public ResponseEntity<?> startChunkedUpload(@RequestBody Map<String, Object> request) {
+        try {
+            Object size = request.get("size");
+            ChunkedUploadDTO upload = chunkedUploadService.start((String) request.get("fileName"),
+                size instanceof Number ? ((Number) size).longValue() : -1, (String) request.get("sha256"));
+            return ResponseEntity.status(HttpStatus.CREATED).body(upload);
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            System.err.println("❌ Error starting chunked upload: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to start upload: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Send the chunk starting at {@code offset} as the raw request body
+     * (application/octet-stream). Chunks may arrive in any order and in
+     * parallel; a failed chunk is simply sent again. An optional
+     * X-Chunk-SHA256 header is checked before the chunk counts.
+     */
+    @PutMapping("/chunked/{uploadId}")
+    public ResponseEntity<?> uploadChunk(@PathVariable String uploadId,
+                                         @RequestParam long offset,
+                                         @RequestHeader(value = "X-Chunk-SHA256", required = false) String chunkSha256,
+                                         HttpServletRequest request) {
+        try {
+            ChunkedUploadDTO upload = chunkedUploadService.writeChunk(uploadId, offset, request.getInputStream(), chunkSha256);
+            if (upload == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(upload);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (UploadDigestMismatchException e) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            System.err.println("❌ Error writing chunk of " + uploadId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to write chunk: " + e.getMessage()));
+        }
+    }
+    
+    // Which chunks are still missing, for resuming after a dropped connection
+    @GetMapping("/chunked/{uploadId}")
+    public ResponseEntity<ChunkedUploadDTO> getChunkedUpload(@PathVariable String uploadId) {
+        ChunkedUploadDTO upload = chunkedUploadService.getStatus(uploadId);
+        return upload == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(upload);
+    }
+    
+    /**
+     * Verify the assembled file against its SHA-256 and store it; answers
+     * like {@code /upload}. On a digest mismatch the upload is dropped.
+     */
+    @PostMapping("/chunked/{uploadId}/complete")
+    public ResponseEntity<Map<String, Object>> completeChunkedUpload(@PathVariable String uploadId) {
+        try {
+            StoredFileDTO stored = chunkedUploadService.complete(uploadId);
+            if (stored == null) {
+                return ResponseEntity.notFound().build();
+            }
+            String fileUrl = "http://localhost:8080/api/files/uploads/" + stored.getFileName();
+            return ResponseEntity.ok(Map.of(
+                "fileUrl", fileUrl,
+                "fileName", stored.getFileName(),
+                "message", "File uploaded successfully",
+                "size", stored.getSizeBytes(),
+                "sha256", stored.getSha256(),
+                "contentType", stored.getContentType()
+            ));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (UploadDigestMismatchException e) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            System.err.println("❌ Error completing chunked upload " + uploadId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to complete upload: " + e.getMessage()));
+        }
+    }
+    
+    @DeleteMapping("/chunked/{uploadId}")
+    public ResponseEntity<?> abortChunkedUpload(@PathVariable String uploadId) {
+        try {
+            return chunkedUploadService.abort(uploadId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
 }
\ No newline at end of file
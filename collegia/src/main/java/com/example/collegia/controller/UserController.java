@@ -1,17 +1,29 @@
 package com.example.collegia.controller;
 
+import com.example.collegia.dto.StoredFileDTO;
+import com.example.collegia.dto.UserImportJobDTO;
 import com.example.collegia.entity.CoordinatorEntity;
 import com.example.collegia.entity.FacultyEntity;
 import com.example.collegia.entity.StudentEntity;
 import com.example.collegia.entity.UserEntity;
+import com.example.collegia.exception.PasswordHashingBusyException;
 import com.example.collegia.repository.UserRepository;
 import com.example.collegia.service.UserService;
 import com.example.collegia.service.CoordinatorService;
 import com.example.collegia.service.FacultyService;
 import com.example.collegia.service.StudentService;
 import com.example.collegia.service.FileStorageService;
+import com.example.collegia.service.StreamingUploadService;
+import com.example.collegia.service.RosterImportService;
+import com.example.collegia.service.UserImportJobService;
+import com.example.collegia.service.UserImportService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.fileupload2.core.FileUploadException;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
@@ -20,7 +32,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +63,18 @@ public class UserController {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private StreamingUploadService streamingUploadService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserImportJobService userImportJobService;
+
+    @Autowired
+    private RosterImportService rosterImportService;
+
     @GetMapping
     public List<UserEntity> getAllUsers() {
         return userService.getAllUsers();
@@ -69,13 +95,17 @@ public class UserController {
     }
 
     @PostMapping
-    public UserEntity createUser(@RequestBody UserEntity user) {
+    public ResponseEntity<?> createUser(@RequestBody UserEntity user) {
         // Default password WITHOUT hashing
         String defaultPassword = "12345678";
         user.setPassword(defaultPassword);
         user.setFirstLogin(true);
 
-        return userService.createUser(user);
+        try {
+            return ResponseEntity.ok(userService.createUser(user));
+        } catch (PasswordHashingBusyException e) {
+            return AuthController.busy(e);
+        }
     }
 
     @PutMapping("/{id}")
@@ -91,23 +121,35 @@ public class UserController {
         }
     }
 
-    // Upload profile photo endpoint
+    // Upload profile photo endpoint; a stored file that is rejected or cannot be saved is discarded again
     @PutMapping("/{id}/profile-photo")
     public ResponseEntity<?> uploadProfilePhoto(
             @PathVariable Long id,
-            @RequestParam("photo") MultipartFile photoFile) {
+            HttpServletRequest request) {
         
+        StreamingUploadService.StreamedUpload upload = null;
         try {
-            // Upload the file
-            String fileName = fileStorageService.storeFile(photoFile);
-            String photoUrl = "http://localhost:8080/api/files/uploads/" + fileName;
-            
-            // Update user's profile photo
+            // Look the user up before the body is read, so nothing is stored for an unknown id
             UserEntity user = userService.getUserById(id)
                     .orElseThrow(() -> new RuntimeException("User not found"));
             
+            // Upload the file, streamed from the request
+            upload = streamingUploadService.read(request);
+            StoredFileDTO photo = upload.getFile("photo");
+            if (photo == null) {
+                streamingUploadService.discard(upload);
+                return ResponseEntity.badRequest().body("Profile photo is empty");
+            }
+            if (!photo.getContentType().startsWith("image/")) {
+                streamingUploadService.discard(upload);
+                return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                        .body("Profile photo must be an image, got " + photo.getContentType());
+            }
+            String photoUrl = "http://localhost:8080/api/files/uploads/" + photo.getFileName();
+            
+            // Update user's profile photo
             user.setProfilePhoto(photoUrl);
-            UserEntity updatedUser = userRepository.save(user);
+            UserEntity updatedUser = userService.saveUser(user);
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Profile photo uploaded successfully");
@@ -116,9 +158,15 @@ public class UserController {
             
             return ResponseEntity.ok(response);
             
+        } catch (FileUploadSizeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body("Profile photo too large: " + e.getMessage());
         } catch (Exception e) {
             System.err.println("Error uploading profile photo: " + e.getMessage());
             e.printStackTrace();
+            if (upload != null) {
+                streamingUploadService.discard(upload);
+            }
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Failed to upload profile photo: " + e.getMessage());
         }
@@ -171,7 +219,7 @@ public class UserController {
             }
             
             // Save updated user
-            UserEntity updatedUser = userRepository.save(user);
+            UserEntity updatedUser = userService.saveUser(user);
             
             return ResponseEntity.ok(updatedUser);
             
@@ -216,107 +264,95 @@ public class UserController {
                     .body("Password must be at least 6 characters long.");
         }
 
-        userService.changePassword(id, newPassword);
+        try {
+            userService.changePassword(id, newPassword);
+        } catch (PasswordHashingBusyException e) {
+            return AuthController.busy(e);
+        }
         return ResponseEntity.ok().build();
     }
 
+    // rows as parsed from the spreadsheet by the client; see UserImportService
     @PostMapping("/import-excel")
     public ResponseEntity<?> importExcel(@RequestBody List<Map<String, Object>> rows) {
+        return ResponseEntity.ok(userImportService.importUsers(rows));
+    }
 
-        int importedCount = 0;
-        int skippedCount = 0;
-
-        for (Map<String, Object> row : rows) {
-
-            String firstName = (row.get("firstName") + "").trim();
-            String lastName = (row.get("lastName") + "").trim();
-            String email = (row.get("email") + "").trim();
-            String userType = (row.get("userType") + "").trim();
+    /**
+     * Import a roster file as uploaded: CSV or .xlsx, optionally gzipped,
+     * as the file part of a multipart form or as the raw body. The header
+     * row names the columns, as in the spreadsheet template.
+     */
+    @PostMapping("/import-file")
+    public ResponseEntity<?> importFile(HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(rosterImportService.importRoster(request));
+        } catch (FileUploadSizeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException | FileUploadException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            System.err.println("❌ Error importing roster file: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to import roster: " + e.getMessage()));
+        }
+    }
 
-            if (firstName.isEmpty() || lastName.isEmpty() || email.isEmpty() || userType.isEmpty()) {
-                skippedCount++;
-                continue;
-            }
+    /**
+     * Same rows as /import-excel, imported in the background. Answers 202 with
+     * the job at once; follow it at /import-jobs/{jobId} or as Server-Sent
+     * Events at /import-jobs/{jobId}/events.
+     */
+    @PostMapping("/import-jobs")
+    public ResponseEntity<?> submitImportJob(@RequestBody List<Map<String, Object>> rows) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(userImportJobService.submit(rows));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Too many imports queued, try again later"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 
-            if (userService.emailExists(email)) {
-                skippedCount++;
-                continue;
-            }
+    @GetMapping("/import-jobs/{jobId}")
+    public ResponseEntity<?> getImportJob(@PathVariable String jobId) {
+        UserImportJobDTO job = userImportJobService.getJob(jobId);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
 
-            try {
-                switch (userType) {
-
-                    case "Student": {
-                        StudentEntity s = new StudentEntity();
-                        s.setFirstName(firstName);
-                        s.setLastName(lastName);
-                        s.setEmail(email);
-                        s.setUserType("Student");
-                        s.setPassword("12345678");
-                        s.setFirstLogin(true);
-
-                        // sub fields
-                        s.setCourse((String) row.getOrDefault("course", ""));
-                        s.setOrganization((String) row.getOrDefault("organization", ""));
-
-                        studentService.createStudent(s);
-                        break;
-                    }
-
-                    case "Faculty": {
-                        FacultyEntity f = new FacultyEntity();
-                        f.setFirstName(firstName);
-                        f.setLastName(lastName);
-                        f.setEmail(email);
-                        f.setUserType("Faculty");
-                        f.setPassword("12345678");
-                        f.setFirstLogin(true);
-
-                        f.setDepartment((String) row.getOrDefault("department", ""));
-
-                        facultyService.createFaculty(f);
-                        break;
-                    }
-
-                    case "Coordinator": {
-                        CoordinatorEntity c = new CoordinatorEntity();
-                        c.setFirstName(firstName);
-                        c.setLastName(lastName);
-                        c.setEmail(email);
-                        c.setUserType("Coordinator");
-                        c.setPassword("12345678");
-                        c.setFirstLogin(true);
-
-                        c.setAffiliation((String) row.getOrDefault("affiliation", ""));
-
-                        coordinatorService.createCoordinator(c);
-                        break;
-                    }
-
-                    default: {
-                        // Admin, Custodian, etc.
-                        UserEntity user = new UserEntity();
-                        user.setFirstName(firstName);
-                        user.setLastName(lastName);
-                        user.setEmail(email);
-                        user.setUserType(userType);
-                        user.setPassword("12345678");
-                        user.setFirstLogin(true);
-
-                        userService.createUser(user);
-                    }
-                }
+    // the rows a job skipped so far, by row number
+    @GetMapping("/import-jobs/{jobId}/errors")
+    public ResponseEntity<?> getImportJobErrors(@PathVariable String jobId,
+                                                @RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(defaultValue = "100") int size) {
+        if (userImportJobService.getJob(jobId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (page < 0 || size < 1 || size > 1000) {
+            return ResponseEntity.badRequest().body(Map.of("error", "page must be >= 0 and size between 1 and 1000"));
+        }
+        return ResponseEntity.ok(userImportJobService.getErrors(jobId, page, size));
+    }
 
-                importedCount++;
+    @GetMapping(value = "/import-jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamImportJob(@PathVariable String jobId) {
+        SseEmitter emitter = userImportJobService.subscribe(jobId);
+        return emitter == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(emitter);
+    }
 
-            } catch (Exception e) {
-                skippedCount++;
-            }
+    // stops the job before its next chunk; rows already imported are kept
+    @DeleteMapping("/import-jobs/{jobId}")
+    public ResponseEntity<?> cancelImportJob(@PathVariable String jobId) {
+        UserImportJobDTO job = userImportJobService.cancel(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
         }
-
-        return ResponseEntity.ok(
-                "Imported: " + importedCount + " | Skipped: " + skippedCount
-        );
+        if (!UserImportJobService.CANCELLED.equals(job.getStatus())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Import job already " + job.getStatus(), "job", job));
+        }
+        return ResponseEntity.ok(job);
     }
 
 
@@ -375,7 +411,11 @@ public class UserController {
                 user.setPassword("12345678");
                 user.setFirstLogin(true);
 
-                return ResponseEntity.ok(userService.createUser(user));
+                try {
+                    return ResponseEntity.ok(userService.createUser(user));
+                } catch (PasswordHashingBusyException e) {
+                    return AuthController.busy(e);
+                }
         }
     }
 }
\ No newline at end of file
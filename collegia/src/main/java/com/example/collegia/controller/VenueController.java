@@ -2,13 +2,21 @@ package com.example.collegia.controller;
 
 import com.example.collegia.dto.VenueDTO;
 import com.example.collegia.entity.VenueEntity;
+import com.example.collegia.dto.StoredFileDTO;
+import com.example.collegia.dto.SuggestionDTO;
+import com.example.collegia.dto.VenueFacetResultDTO;
+import com.example.collegia.dto.VenueSearchResultDTO;
+import com.example.collegia.service.VenueCatalogService;
+import com.example.collegia.service.VenueFacetIndex;
+import com.example.collegia.service.VenueSearchIndex;
 import com.example.collegia.service.VenueService;
-import com.example.collegia.service.FileStorageService;
+import com.example.collegia.service.StreamingUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
 import org.springframework.beans.factory.annotation.Autowired;
 import com.example.collegia.repository.VenueRepository;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -16,7 +24,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 
@@ -32,24 +41,41 @@ public class VenueController {
     private VenueRepository venueRepository;
     
     @Autowired
-    private FileStorageService fileStorageService;
+    private VenueCatalogService venueCatalogService;
+    
+    @Autowired
+    private VenueSearchIndex venueSearchIndex;
+    
+    @Autowired
+    private VenueFacetIndex venueFacetIndex;
+    
+    @Autowired
+    private StreamingUploadService streamingUploadService;
     
     @Autowired
     private ObjectMapper objectMapper;
         
+    // Served from the precomputed catalog snapshot; If-None-Match revalidations get an empty 304
     @GetMapping
-    public ResponseEntity<List<VenueDTO>> getAllVenues() {
+    public ResponseEntity<byte[]> getAllVenues(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            System.out.println("=== GET /api/venues ===");
-            List<VenueDTO> venues = venueService.getAllVenuesAsDTO();
+            VenueCatalogService.Snapshot catalog = venueCatalogService.getSnapshot();
             
-            if (venues == null || venues.isEmpty()) {
-                System.out.println("No venues found in database");
-                return ResponseEntity.ok(venues);
+            if (catalog.matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(catalog.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
             }
             
-            System.out.println("Found " + venues.size() + " venues");
-            return ResponseEntity.ok(venues);
+            System.out.println("=== GET /api/venues: " + catalog.getVenueCount() + " venues ===");
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(catalog.getEtag())
+                // always revalidate, so a venue change shows up on the next request
+                .cacheControl(CacheControl.noCache())
+                .body(catalog.getJson());
             
         } catch (Exception e) {
             System.out.println("ERROR in getAllVenues: " + e.getMessage());
@@ -58,14 +84,47 @@ public class VenueController {
         }
     }
 
+    // Ranked full-text search over name, location, description and amenities
+    @GetMapping("/search")
+    public ResponseEntity<?> searchVenues(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body("page must be >= 0 and size between 1 and 100");
+        }
+        VenueSearchResultDTO result = venueSearchIndex.search(query, page, size);
+        return ResponseEntity.ok(result);
+    }
+
+    // Search-as-you-type suggestions for the last word of q, typo-tolerant, served from memory
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<SuggestionDTO>> autocompleteVenues(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(venueSearchIndex.autocomplete(query, Math.max(1, Math.min(limit, 20))));
+    }
+
+    // Venues with every amenity, in any of the locations and within the capacity bounds, plus facet counts
+    @GetMapping("/facets")
+    public ResponseEntity<?> filterVenues(
+            @RequestParam(name = "amenity", required = false) List<String> amenities,
+            @RequestParam(name = "location", required = false) List<String> locations,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam(required = false) Integer maxCapacity,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body("page must be >= 0 and size between 1 and 100");
+        }
+        VenueFacetResultDTO result = venueFacetIndex.filter(amenities, locations, minCapacity, maxCapacity, page, size);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/custodian/{custodianId}")
     public ResponseEntity<List<VenueDTO>> getVenuesByCustodian(@PathVariable Long custodianId) {
         try {
-            List<VenueEntity> venues = venueRepository.findByCustodianUserId(custodianId);
-            List<VenueDTO> venueDTOs = venues.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-            
+            List<VenueDTO> venueDTOs = venueService.getVenuesByCustodianAsDTO(custodianId);
             return ResponseEntity.ok(venueDTOs);
         } catch (Exception e) {
             System.out.println("ERROR in getVenuesByCustodian: " + e.getMessage());
@@ -98,11 +157,7 @@ public class VenueController {
     @GetMapping("/location/{location}")
     public ResponseEntity<List<VenueDTO>> getVenuesByLocation(@PathVariable String location) {
         try {
-            List<VenueEntity> venues = venueService.getVenuesByLocation(location);
-            List<VenueDTO> venueDTOs = venues.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-            
+            List<VenueDTO> venueDTOs = venueService.getVenuesByLocationAsDTO(location);
             return ResponseEntity.ok(venueDTOs);
         } catch (Exception e) {
             System.out.println("ERROR in getVenuesByLocation: " + e.getMessage());
@@ -110,6 +165,18 @@ public class VenueController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @GetMapping("/capacity/{minCapacity}")
+    public ResponseEntity<List<VenueDTO>> getVenuesByCapacity(@PathVariable int minCapacity) {
+        try {
+            List<VenueDTO> venueDTOs = venueService.getVenuesByCapacityAsDTO(minCapacity);
+            return ResponseEntity.ok(venueDTOs);
+        } catch (Exception e) {
+            System.out.println("ERROR in getVenuesByCapacity: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
     
     @PostMapping
     public ResponseEntity<VenueEntity> createVenue(@RequestBody VenueEntity venue) {
@@ -126,33 +193,45 @@ public class VenueController {
         }
     }
     
+    // The multipart body is streamed: image and gallery files are written in parallel while it is read.
+    // Files that fail to store are reported in fileUploads; if the update itself fails,
+    // the files stored for it are discarded again.
     @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<VenueDTO> updateVenueWithFiles(
             @PathVariable Long id,
-            @RequestParam("venueName") String venueName,
-            @RequestParam("venueLocation") String venueLocation,
-            @RequestParam("venueCapacity") String venueCapacityStr,
-            @RequestParam(value = "description", required = false) String description,
-            @RequestParam(value = "amenities", required = false) String amenitiesJson,
-            @RequestParam(value = "image", required = false) MultipartFile imageFile,
-            @RequestParam(value = "imageUrl", required = false) String imageUrl,
-            @RequestParam(value = "galleryImages", required = false) List<MultipartFile> galleryFiles,
-            @RequestParam(value = "existingGalleryImages", required = false) String existingGalleryImagesJson) {
+            HttpServletRequest request) {
         
+        StreamingUploadService.StreamedUpload upload = null;
         try {
-            System.out.println("=== UPDATE VENUE ID: " + id + " ===");
-            System.out.println("Venue Name: " + venueName);
-            System.out.println("Image file provided: " + (imageFile != null && !imageFile.isEmpty()));
-            System.out.println("Image URL provided: " + imageUrl);
-            System.out.println("Gallery files count: " + (galleryFiles != null ? galleryFiles.size() : 0));
-            
-            // Get existing venue
+            // Get existing venue before reading the body, so nothing is stored for an unknown id
             Optional<VenueEntity> venueOpt = venueRepository.findById(id);
             if (!venueOpt.isPresent()) {
                 System.out.println("❌ Venue not found with ID: " + id);
                 return ResponseEntity.notFound().build();
             }
             
+            upload = streamingUploadService.readConcurrently(request);
+            String venueName = upload.getField("venueName");
+            String venueLocation = upload.getField("venueLocation");
+            String venueCapacityStr = upload.getField("venueCapacity");
+            if (venueName == null || venueLocation == null || venueCapacityStr == null) {
+                System.out.println("⚠️ Missing venueName, venueLocation or venueCapacity");
+                streamingUploadService.discard(upload);
+                return ResponseEntity.badRequest().build();
+            }
+            String description = upload.getField("description");
+            String amenitiesJson = upload.getField("amenities");
+            StoredFileDTO imageFile = upload.getFile("image");
+            String imageUrl = upload.getField("imageUrl");
+            List<StoredFileDTO> galleryFiles = upload.getFiles("galleryImages");
+            String existingGalleryImagesJson = upload.getField("existingGalleryImages");
+            
+            System.out.println("=== UPDATE VENUE ID: " + id + " ===");
+            System.out.println("Venue Name: " + venueName);
+            System.out.println("Image file provided: " + (imageFile != null));
+            System.out.println("Image URL provided: " + imageUrl);
+            System.out.println("Gallery files count: " + galleryFiles.size());
+            
             VenueEntity venue = venueOpt.get();
             
             // Update basic fields
@@ -183,9 +262,9 @@ public class VenueController {
             // Handle main image
             String finalImageUrl = null;
             
-            if (imageFile != null && !imageFile.isEmpty()) {
-                // Upload new image
-                String fileName = fileStorageService.storeFile(imageFile);
+            if (imageFile != null) {
+                // New image, already stored while the request was read
+                String fileName = imageFile.getFileName();
                 finalImageUrl = "http://localhost:8080/api/files/uploads/" + fileName;
                 System.out.println("✅ Uploaded new image: " + finalImageUrl);
             } else if (imageUrl != null && !imageUrl.trim().isEmpty()) {
@@ -214,20 +293,10 @@ public class VenueController {
             }
             
             // Add new gallery files
-            if (galleryFiles != null && !galleryFiles.isEmpty()) {
-                for (MultipartFile file : galleryFiles) {
-                    if (!file.isEmpty()) {
-                        try {
-                            String fileName = fileStorageService.storeFile(file);
-                            String galleryImageUrl = "http://localhost:8080/api/files/uploads/" + fileName;
-                            galleryImageUrls.add(galleryImageUrl);
-                            System.out.println("✅ Added new gallery image: " + galleryImageUrl);
-                        } catch (Exception e) {
-                            System.out.println("⚠️ Failed to upload gallery file: " + file.getOriginalFilename());
-                            e.printStackTrace();
-                        }
-                    }
-                }
+            for (StoredFileDTO file : galleryFiles) {
+                String galleryImageUrl = "http://localhost:8080/api/files/uploads/" + file.getFileName();
+                galleryImageUrls.add(galleryImageUrl);
+                System.out.println("✅ Added new gallery image: " + galleryImageUrl);
             }
             
             // Set gallery images (even if empty)
@@ -235,17 +304,24 @@ public class VenueController {
             System.out.println("✅ Total gallery images: " + galleryImageUrls.size());
             
             // Save updated venue
-            VenueEntity updatedVenue = venueRepository.save(venue);
+            VenueEntity updatedVenue = venueService.saveVenue(venue);
             System.out.println("✅ Venue updated successfully!");
             
             // Convert to DTO
             VenueDTO venueDTO = convertToDTO(updatedVenue);
+            venueDTO.setFileUploads(upload.getResults());
             
             return ResponseEntity.ok(venueDTO);
             
+        } catch (FileUploadSizeException e) {
+            System.out.println("⚠️ Venue upload too large: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
         } catch (Exception e) {
             System.err.println("❌ ERROR updating venue: " + e.getMessage());
             e.printStackTrace();
+            if (upload != null) {
+                streamingUploadService.discard(upload);
+            }
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(null);
         }
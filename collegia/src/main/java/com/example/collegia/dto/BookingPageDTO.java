@@ -0,0 +1,45 @@
+package com.example.collegia.dto;
+
+import java.util.List;
+
+/**
+ * One page of the keyset-paginated booking search. Pass {@code nextCursor}
+ * back as {@code cursor} to get the following page.
+ */
+public class BookingPageDTO {
+    private List<BookingSummaryDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public BookingPageDTO() {}
+
+    public BookingPageDTO(List<BookingSummaryDTO> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<BookingSummaryDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<BookingSummaryDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
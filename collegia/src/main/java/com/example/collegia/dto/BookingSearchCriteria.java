@@ -0,0 +1,91 @@
+package com.example.collegia.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Filters and keyset position for the paginated booking search.
+ * Every filter is optional; results are ordered by (date, bookingId).
+ */
+public class BookingSearchCriteria {
+    private String status;
+    private Long venueId;
+    private Long custodianId;
+    private Long userId;
+    private LocalDate from;
+    private LocalDate to;
+    private String cursor;
+    private int size = 50;
+    private boolean descending;
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getVenueId() {
+        return venueId;
+    }
+
+    public void setVenueId(Long venueId) {
+        this.venueId = venueId;
+    }
+
+    public Long getCustodianId() {
+        return custodianId;
+    }
+
+    public void setCustodianId(Long custodianId) {
+        this.custodianId = custodianId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.collegia.dto;
+
+import java.sql.Time;
+import java.util.Date;
+
+/**
+ * Minimal booking view used to (re)build the in-memory availability index
+ * without loading the eager user/custodian/venue graph of each booking.
+ */
+public class BookingSlotDTO {
+    private Long bookingId;
+    private Long venueId;
+    private Date date;
+    private Time timeSlot;
+    private String status;
+
+    public BookingSlotDTO() {}
+
+    public BookingSlotDTO(Long bookingId, Long venueId, Date date, Time timeSlot, String status) {
+        this.bookingId = bookingId;
+        this.venueId = venueId;
+        this.date = date;
+        this.timeSlot = timeSlot;
+        this.status = status;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public Long getVenueId() {
+        return venueId;
+    }
+
+    public void setVenueId(Long venueId) {
+        this.venueId = venueId;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public void setDate(Date date) {
+        this.date = date;
+    }
+
+    public Time getTimeSlot() {
+        return timeSlot;
+    }
+
+    public void setTimeSlot(Time timeSlot) {
+        this.timeSlot = timeSlot;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.collegia.dto;
+
+import java.sql.Time;
+import java.util.Date;
+
+/**
+ * Lean read model for booking listings. Built directly by a JPQL constructor
+ * expression, so a listing of any size is a single SELECT instead of loading
+ * every booking's user, custodian and venue (with its amenities and gallery).
+ *
+ * The nested venue/user/custodian objects keep the same JSON paths the
+ * frontend already reads from BookingEntity (e.g. venue.venueName, user.firstName).
+ */
+public class BookingSummaryDTO {
+    private Long bookingId;
+    private String eventName;
+    private Date date;
+    private Time timeSlot;
+    private String status;
+    private int capacity;
+    private String description;
+    private String eventType;
+    private String cancelledBy;
+    private Date cancelledAt;
+    private UserRef user;
+    private UserRef custodian;
+    private VenueRef venue;
+
+    public BookingSummaryDTO() {}
+
+    public BookingSummaryDTO(Long bookingId, String eventName, Date date, Time timeSlot, String status,
+                             int capacity, String description, String eventType,
+                             String cancelledBy, Date cancelledAt,
+                             Long userId, String userFirstName, String userLastName,
+                             String userEmail, String userType,
+                             Long custodianId, String custodianFirstName, String custodianLastName,
+                             Long venueId, String venueName, String venueLocation, String venueImage) {
+        this.bookingId = bookingId;
+        this.eventName = eventName;
+        this.date = date;
+        this.timeSlot = timeSlot;
+        this.status = status;
+        this.capacity = capacity;
+        this.description = description;
+        this.eventType = eventType;
+        this.cancelledBy = cancelledBy;
+        this.cancelledAt = cancelledAt;
+        if (userId != null) {
+            this.user = new UserRef(userId, userFirstName, userLastName, userEmail, userType);
+        }
+        if (custodianId != null) {
+            this.custodian = new UserRef(custodianId, custodianFirstName, custodianLastName, null, "Custodian");
+        }
+        if (venueId != null) {
+            this.venue = new VenueRef(venueId, venueName, venueLocation, venueImage);
+        }
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public void setEventName(String eventName) {
+        this.eventName = eventName;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public void setDate(Date date) {
+        this.date = date;
+    }
+
+    public Time getTimeSlot() {
+        return timeSlot;
+    }
+
+    public void setTimeSlot(Time timeSlot) {
+        this.timeSlot = timeSlot;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getCancelledBy() {
+        return cancelledBy;
+    }
+
+    public void setCancelledBy(String cancelledBy) {
+        this.cancelledBy = cancelledBy;
+    }
+
+    public Date getCancelledAt() {
+        return cancelledAt;
+    }
+
+    public void setCancelledAt(Date cancelledAt) {
+        this.cancelledAt = cancelledAt;
+    }
+
+    public UserRef getUser() {
+        return user;
+    }
+
+    public void setUser(UserRef user) {
+        this.user = user;
+    }
+
+    public UserRef getCustodian() {
+        return custodian;
+    }
+
+    public void setCustodian(UserRef custodian) {
+        this.custodian = custodian;
+    }
+
+    public VenueRef getVenue() {
+        return venue;
+    }
+
+    public void setVenue(VenueRef venue) {
+        this.venue = venue;
+    }
+
+    public Long getUserId() {
+        return user != null ? user.getUserId() : null;
+    }
+
+    public static class UserRef {
+        private Long userId;
+        private String firstName;
+        private String lastName;
+        private String email;
+        private String userType;
+
+        public UserRef() {}
+
+        public UserRef(Long userId, String firstName, String lastName, String email, String userType) {
+            this.userId = userId;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.email = email;
+            this.userType = userType;
+        }
+
+        public Long getUserId() { return userId; }
+        public void setUserId(Long userId) { this.userId = userId; }
+
+        public String getFirstName() { return firstName; }
+        public void setFirstName(String firstName) { this.firstName = firstName; }
+
+        public String getLastName() { return lastName; }
+        public void setLastName(String lastName) { this.lastName = lastName; }
+
+        public String getEmail() { return email; }
+        public void setEmail(String email) { this.email = email; }
+
+        public String getUserType() { return userType; }
+        public void setUserType(String userType) { this.userType = userType; }
+    }
+
+    public static class VenueRef {
+        private Long venueId;
+        private String venueName;
+        private String venueLocation;
+        private String image;
+
+        public VenueRef() {}
+
+        public VenueRef(Long venueId, String venueName, String venueLocation, String image) {
+            this.venueId = venueId;
+            this.venueName = venueName;
+            this.venueLocation = venueLocation;
+            this.image = image;
+        }
+
+        public Long getVenueId() { return venueId; }
+        public void setVenueId(Long venueId) { this.venueId = venueId; }
+
+        public String getVenueName() { return venueName; }
+        public void setVenueName(String venueName) { this.venueName = venueName; }
+
+        public String getVenueLocation() { return venueLocation; }
+        public void setVenueLocation(String venueLocation) { this.venueLocation = venueLocation; }
+
+        public String getImage() { return image; }
+        public void setImage(String image) { this.image = image; }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.collegia.dto;
+
+/**
+ * One booking counter whose stored total disagrees with a recount of booking_entity.
+ */
+public class CounterDriftDTO {
+    private String dimension;
+    private String key;
+    private long expected;
+    private long actual;
+
+    public CounterDriftDTO() {}
+
+    public CounterDriftDTO(String dimension, String key, long expected, long actual) {
+        this.dimension = dimension;
+        this.key = key;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getExpected() {
+        return expected;
+    }
+
+    public void setExpected(long expected) {
+        this.expected = expected;
+    }
+
+    public long getActual() {
+        return actual;
+    }
+
+    public void setActual(long actual) {
+        this.actual = actual;
+    }
+}
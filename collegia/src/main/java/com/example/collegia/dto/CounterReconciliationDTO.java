@@ -0,0 +1,47 @@
+package com.example.collegia.dto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of recomputing the booking counters from booking_entity.
+ */
+public class CounterReconciliationDTO {
+    private Instant checkedAt;
+    private int countersChecked;
+    private boolean repaired;
+    private List<CounterDriftDTO> drifts = new ArrayList<>();
+
+    public Instant getCheckedAt() {
+        return checkedAt;
+    }
+
+    public void setCheckedAt(Instant checkedAt) {
+        this.checkedAt = checkedAt;
+    }
+
+    public int getCountersChecked() {
+        return countersChecked;
+    }
+
+    public void setCountersChecked(int countersChecked) {
+        this.countersChecked = countersChecked;
+    }
+
+    public boolean isRepaired() {
+        return repaired;
+    }
+
+    public void setRepaired(boolean repaired) {
+        this.repaired = repaired;
+    }
+
+    public List<CounterDriftDTO> getDrifts() {
+        return drifts;
+    }
+
+    public void setDrifts(List<CounterDriftDTO> drifts) {
+        this.drifts = drifts;
+    }
+}
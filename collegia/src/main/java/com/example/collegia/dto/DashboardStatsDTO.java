@@ -0,0 +1,75 @@
+package com.example.collegia.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the admin dashboard shows, in one response.
+ */
+public class DashboardStatsDTO {
+    private Map<String, Long> userCounts;
+    private Map<String, Long> bookingStatus;
+    private List<VenueUtilizationDTO> venueUtilization;
+    private Map<LocalDate, Long> bookingsPerDay;
+    private LocalDate from;
+    private LocalDate to;
+    private Instant generatedAt;
+
+    public Map<String, Long> getUserCounts() {
+        return userCounts;
+    }
+
+    public void setUserCounts(Map<String, Long> userCounts) {
+        this.userCounts = userCounts;
+    }
+
+    public Map<String, Long> getBookingStatus() {
+        return bookingStatus;
+    }
+
+    public void setBookingStatus(Map<String, Long> bookingStatus) {
+        this.bookingStatus = bookingStatus;
+    }
+
+    public List<VenueUtilizationDTO> getVenueUtilization() {
+        return venueUtilization;
+    }
+
+    public void setVenueUtilization(List<VenueUtilizationDTO> venueUtilization) {
+        this.venueUtilization = venueUtilization;
+    }
+
+    public Map<LocalDate, Long> getBookingsPerDay() {
+        return bookingsPerDay;
+    }
+
+    public void setBookingsPerDay(Map<LocalDate, Long> bookingsPerDay) {
+        this.bookingsPerDay = bookingsPerDay;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public Instant getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(Instant generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.collegia.dto;
+
+/**
+ * Outcome of one file part of a multipart upload.
+ */
+public class FileUploadResultDTO {
+    private String field;
+    private String originalFileName;
+    private boolean success;
+    // set when success is true
+    private String fileName;
+    // set when success is false
+    private String error;
+
+    public FileUploadResultDTO() {}
+
+    public static FileUploadResultDTO stored(String field, String originalFileName, String fileName) {
+        FileUploadResultDTO result = new FileUploadResultDTO();
+        result.field = field;
+        result.originalFileName = originalFileName;
+        result.success = true;
+        result.fileName = fileName;
+        return result;
+    }
+
+    public static FileUploadResultDTO failed(String field, String originalFileName, String error) {
+        FileUploadResultDTO result = new FileUploadResultDTO();
+        result.field = field;
+        result.originalFileName = originalFileName;
+        result.error = error;
+        return result;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public String getOriginalFileName() {
+        return originalFileName;
+    }
+
+    public void setOriginalFileName(String originalFileName) {
+        this.originalFileName = originalFileName;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
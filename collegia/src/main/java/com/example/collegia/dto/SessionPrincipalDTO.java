@@ -0,0 +1,85 @@
+package com.example.collegia.dto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Who a request is from, as carried in its signed session token.
+ */
+public class SessionPrincipalDTO {
+    private Long userId;
+    private String email;
+    private String name;
+    private String userType;
+    // venues a custodian manages; empty for everyone else
+    private List<Long> venueIds = new ArrayList<>();
+    private Instant issuedAt;
+    // when the user signed in; kept across refreshes
+    private Instant authenticatedAt;
+    private Instant expiresAt;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getUserType() {
+        return userType;
+    }
+
+    public void setUserType(String userType) {
+        this.userType = userType;
+    }
+
+    public List<Long> getVenueIds() {
+        return venueIds;
+    }
+
+    public void setVenueIds(List<Long> venueIds) {
+        this.venueIds = venueIds;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public void setIssuedAt(Instant issuedAt) {
+        this.issuedAt = issuedAt;
+    }
+
+    public Instant getAuthenticatedAt() {
+        return authenticatedAt;
+    }
+
+    public void setAuthenticatedAt(Instant authenticatedAt) {
+        this.authenticatedAt = authenticatedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.collegia.dto;
+
+/**
+ * An upload as written by FileStorageService: the stored name plus what was
+ * learned about the bytes while they were copied.
+ */
+public class StoredFileDTO {
+    private String fileName;
+    private long sizeBytes;
+    private String sha256;
+    // sniffed from the leading bytes, not taken from the client
+    private String contentType;
+    // the same bytes were stored before and are reused
+    private boolean duplicate;
+
+    public StoredFileDTO() {}
+
+    public StoredFileDTO(String fileName, long sizeBytes, String sha256, String contentType, boolean duplicate) {
+        this.fileName = fileName;
+        this.sizeBytes = sizeBytes;
+        this.sha256 = sha256;
+        this.contentType = contentType;
+        this.duplicate = duplicate;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+
+    public void setDuplicate(boolean duplicate) {
+        this.duplicate = duplicate;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.collegia.dto;
+
+/**
+ * Autocomplete suggestion: either a search term ("term", with the number of
+ * venues containing it) or a venue name ("venue", with its id).
+ */
+public class SuggestionDTO {
+    private String text;
+    private String type;
+    private Long venueId;
+    private int venueCount;
+
+    public SuggestionDTO() {}
+
+    public SuggestionDTO(String text, String type, Long venueId, int venueCount) {
+        this.text = text;
+        this.type = type;
+        this.venueId = venueId;
+        this.venueCount = venueCount;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getVenueId() {
+        return venueId;
+    }
+
+    public void setVenueId(Long venueId) {
+        this.venueId = venueId;
+    }
+
+    public int getVenueCount() {
+        return venueCount;
+    }
+
+    public void setVenueCount(int venueCount) {
+        this.venueCount = venueCount;
+    }
+}
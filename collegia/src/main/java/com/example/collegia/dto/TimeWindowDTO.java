@@ -0,0 +1,32 @@
+package com.example.collegia.dto;
+
+/**
+ * A free time window within a day, as "HH:mm" strings.
+ */
+public class TimeWindowDTO {
+    private String start;
+    private String end;
+
+    public TimeWindowDTO() {}
+
+    public TimeWindowDTO(String start, String end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public String getStart() {
+        return start;
+    }
+
+    public void setStart(String start) {
+        this.start = start;
+    }
+
+    public String getEnd() {
+        return end;
+    }
+
+    public void setEnd(String end) {
+        this.end = end;
+    }
+}
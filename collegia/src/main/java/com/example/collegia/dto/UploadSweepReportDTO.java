@@ -0,0 +1,153 @@
+package com.example.collegia.dto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of one pass of the upload sweeper over the upload directory.
+ */
+public class UploadSweepReportDTO {
+    private Instant startedAt;
+    private long durationMillis;
+    private boolean dryRun;
+    // orphans moved to uploads/quarantine instead of deleted
+    private boolean quarantine;
+    // names referenced by venues and users, variants included
+    private int liveUploads;
+    private long filesScanned;
+    // unreferenced but younger than the grace period
+    private long recentFilesSkipped;
+    private long orphansFound;
+    private long orphanBytes;
+    // quarantined or deleted; zero on a dry run
+    private long filesRemoved;
+    private long bytesReclaimed;
+    // blob rows still counting references although no URL names them; left for reconciliation
+    private long referencedBlobsSkipped;
+    // quarantined files deleted after the retention period
+    private long quarantinePurged;
+    private long errors;
+    // the first orphans found, relative to the upload directory
+    private List<String> orphanSample = new ArrayList<>();
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public boolean isQuarantine() {
+        return quarantine;
+    }
+
+    public void setQuarantine(boolean quarantine) {
+        this.quarantine = quarantine;
+    }
+
+    public int getLiveUploads() {
+        return liveUploads;
+    }
+
+    public void setLiveUploads(int liveUploads) {
+        this.liveUploads = liveUploads;
+    }
+
+    public long getFilesScanned() {
+        return filesScanned;
+    }
+
+    public void setFilesScanned(long filesScanned) {
+        this.filesScanned = filesScanned;
+    }
+
+    public long getRecentFilesSkipped() {
+        return recentFilesSkipped;
+    }
+
+    public void setRecentFilesSkipped(long recentFilesSkipped) {
+        this.recentFilesSkipped = recentFilesSkipped;
+    }
+
+    public long getOrphansFound() {
+        return orphansFound;
+    }
+
+    public void setOrphansFound(long orphansFound) {
+        this.orphansFound = orphansFound;
+    }
+
+    public long getOrphanBytes() {
+        return orphanBytes;
+    }
+
+    public void setOrphanBytes(long orphanBytes) {
+        this.orphanBytes = orphanBytes;
+    }
+
+    public long getFilesRemoved() {
+        return filesRemoved;
+    }
+
+    public void setFilesRemoved(long filesRemoved) {
+        this.filesRemoved = filesRemoved;
+    }
+
+    public long getBytesReclaimed() {
+        return bytesReclaimed;
+    }
+
+    public void setBytesReclaimed(long bytesReclaimed) {
+        this.bytesReclaimed = bytesReclaimed;
+    }
+
+    public long getReferencedBlobsSkipped() {
+        return referencedBlobsSkipped;
+    }
+
+    public void setReferencedBlobsSkipped(long referencedBlobsSkipped) {
+        this.referencedBlobsSkipped = referencedBlobsSkipped;
+    }
+
+    public long getQuarantinePurged() {
+        return quarantinePurged;
+    }
+
+    public void setQuarantinePurged(long quarantinePurged) {
+        this.quarantinePurged = quarantinePurged;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public void setErrors(long errors) {
+        this.errors = errors;
+    }
+
+    public List<String> getOrphanSample() {
+        return orphanSample;
+    }
+
+    public void setOrphanSample(List<String> orphanSample) {
+        this.orphanSample = orphanSample;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.collegia.dto;
+
+/**
+ * A spreadsheet row that was not imported, and why.
+ */
+public class UserImportErrorDTO {
+    // 1-based position in the uploaded rows
+    private int row;
+    private String email;
+    private String reason;
+
+    public UserImportErrorDTO() {}
+
+    public UserImportErrorDTO(int row, String email, String reason) {
+        this.row = row;
+        this.email = email;
+        this.reason = reason;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.collegia.dto;
+
+import java.time.Instant;
+
+/**
+ * State of a background user import, as returned by the status endpoint
+ * and sent with each progress event.
+ */
+public class UserImportJobDTO {
+    private String jobId;
+    // queued, running, completed, cancelled or failed
+    private String status;
+    private int totalRows;
+    // rows up to the last committed chunk
+    private int processedRows;
+    private int imported;
+    private int skipped;
+    // over the current run
+    private double rowsPerSecond;
+    // non-zero when the job resumed after an interruption
+    private int resumedFromRow;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    // set when the job failed
+    private String message;
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(int totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public int getProcessedRows() {
+        return processedRows;
+    }
+
+    public void setProcessedRows(int processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public int getResumedFromRow() {
+        return resumedFromRow;
+    }
+
+    public void setResumedFromRow(int resumedFromRow) {
+        this.resumedFromRow = resumedFromRow;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.collegia.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a bulk user import.
+ */
+public class UserImportReportDTO {
+    private int received;
+    private int imported;
+    private int skipped;
+    private long durationMillis;
+    // one entry per skipped row, in row order
+    private List<UserImportErrorDTO> errors = new ArrayList<>();
+
+    // the summary line the import endpoint has always returned
+    public String getMessage() {
+        return "Imported: " + imported + " | Skipped: " + skipped;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public List<UserImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<UserImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.collegia.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Free time windows of one venue for every day of a requested date range.
+ */
+public class VenueAvailabilityDTO {
+    private Long venueId;
+    private String venueName;
+    private Map<LocalDate, List<TimeWindowDTO>> freeWindows = new TreeMap<>();
+
+    public VenueAvailabilityDTO() {}
+
+    public VenueAvailabilityDTO(Long venueId, String venueName) {
+        this.venueId = venueId;
+        this.venueName = venueName;
+    }
+
+    public Long getVenueId() {
+        return venueId;
+    }
+
+    public void setVenueId(Long venueId) {
+        this.venueId = venueId;
+    }
+
+    public String getVenueName() {
+        return venueName;
+    }
+
+    public void setVenueName(String venueName) {
+        this.venueName = venueName;
+    }
+
+    public Map<LocalDate, List<TimeWindowDTO>> getFreeWindows() {
+        return freeWindows;
+    }
+
+    public void setFreeWindows(Map<LocalDate, List<TimeWindowDTO>> freeWindows) {
+        this.freeWindows = freeWindows;
+    }
+}
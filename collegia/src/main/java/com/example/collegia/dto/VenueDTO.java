@@ -1,5 +1,8 @@
 package com.example.collegia.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
 import java.util.List;
 
 public class VenueDTO {
@@ -13,6 +16,9 @@ public class VenueDTO {
     private List<String> galleryImages;
     private Long custodianId;
     private String custodianName;
+    // per-file outcome of the files sent with a multipart update; absent elsewhere
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<FileUploadResultDTO> fileUploads;
     
     public VenueDTO() {}
     
@@ -32,6 +38,15 @@ public class VenueDTO {
         this.custodianName = custodianName;
     }
 
+    // JPQL projection for venue listings; amenities and gallery images are filled in afterwards
+    public VenueDTO(Long venueId, String venueName, String venueLocation, int venueCapacity,
+                    String image, String description,
+                    Long custodianId, String custodianFirstName, String custodianLastName) {
+        this(venueId, venueName, venueLocation, venueCapacity, image, description,
+             new ArrayList<>(), new ArrayList<>(), custodianId,
+             custodianId != null ? custodianFirstName + " " + custodianLastName : null);
+    }
+
     public Long getVenueId() {
         return venueId;
     }
@@ -111,4 +126,12 @@ public class VenueDTO {
     public void setCustodianName(String custodianName) {
         this.custodianName = custodianName;
     }
+
+    public List<FileUploadResultDTO> getFileUploads() {
+        return fileUploads;
+    }
+
+    public void setFileUploads(List<FileUploadResultDTO> fileUploads) {
+        this.fileUploads = fileUploads;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.example.collegia.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of venues matching a facet filter, with the counts for every facet
+ * value so the filter form can show how many venues each choice would leave.
+ */
+public class VenueFacetResultDTO {
+    private int page;
+    private int size;
+    private int total;
+    private List<VenueDTO> venues;
+    private Map<String, Integer> amenities;
+    private Map<String, Integer> locations;
+    private Map<String, Integer> capacityBands;
+
+    public VenueFacetResultDTO() {}
+
+    public VenueFacetResultDTO(int page, int size, int total, List<VenueDTO> venues,
+                               Map<String, Integer> amenities, Map<String, Integer> locations,
+                               Map<String, Integer> capacityBands) {
+        this.page = page;
+        this.size = size;
+        this.total = total;
+        this.venues = venues;
+        this.amenities = amenities;
+        this.locations = locations;
+        this.capacityBands = capacityBands;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public List<VenueDTO> getVenues() {
+        return venues;
+    }
+
+    public void setVenues(List<VenueDTO> venues) {
+        this.venues = venues;
+    }
+
+    public Map<String, Integer> getAmenities() {
+        return amenities;
+    }
+
+    public void setAmenities(Map<String, Integer> amenities) {
+        this.amenities = amenities;
+    }
+
+    public Map<String, Integer> getLocations() {
+        return locations;
+    }
+
+    public void setLocations(Map<String, Integer> locations) {
+        this.locations = locations;
+    }
+
+    public Map<String, Integer> getCapacityBands() {
+        return capacityBands;
+    }
+
+    public void setCapacityBands(Map<String, Integer> capacityBands) {
+        this.capacityBands = capacityBands;
+    }
+}
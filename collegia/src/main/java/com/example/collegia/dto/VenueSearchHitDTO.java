@@ -0,0 +1,32 @@
+package com.example.collegia.dto;
+
+/**
+ * One ranked venue search result.
+ */
+public class VenueSearchHitDTO {
+    private VenueDTO venue;
+    private double score;
+
+    public VenueSearchHitDTO() {}
+
+    public VenueSearchHitDTO(VenueDTO venue, double score) {
+        this.venue = venue;
+        this.score = score;
+    }
+
+    public VenueDTO getVenue() {
+        return venue;
+    }
+
+    public void setVenue(VenueDTO venue) {
+        this.venue = venue;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
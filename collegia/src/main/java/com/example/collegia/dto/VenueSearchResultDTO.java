@@ -0,0 +1,64 @@
+package com.example.collegia.dto;
+
+import java.util.List;
+
+/**
+ * One page of ranked venue search hits; {@code total} counts every matching venue.
+ */
+public class VenueSearchResultDTO {
+    private String query;
+    private int page;
+    private int size;
+    private int total;
+    private List<VenueSearchHitDTO> hits;
+
+    public VenueSearchResultDTO() {}
+
+    public VenueSearchResultDTO(String query, int page, int size, int total, List<VenueSearchHitDTO> hits) {
+        this.query = query;
+        this.page = page;
+        this.size = size;
+        this.total = total;
+        this.hits = hits;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public List<VenueSearchHitDTO> getHits() {
+        return hits;
+    }
+
+    public void setHits(List<VenueSearchHitDTO> hits) {
+        this.hits = hits;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.collegia.dto;
+
+/**
+ * Booked slots of one venue over the dashboard window, and the share of
+ * bookable slots (opening hours / slot length, per day) they fill.
+ */
+public class VenueUtilizationDTO {
+    private Long venueId;
+    private String venueName;
+    private long bookings;
+    private double utilization;
+
+    public VenueUtilizationDTO() {}
+
+    public VenueUtilizationDTO(Long venueId, String venueName, long bookings, double utilization) {
+        this.venueId = venueId;
+        this.venueName = venueName;
+        this.bookings = bookings;
+        this.utilization = utilization;
+    }
+
+    public Long getVenueId() {
+        return venueId;
+    }
+
+    public void setVenueId(Long venueId) {
+        this.venueId = venueId;
+    }
+
+    public String getVenueName() {
+        return venueName;
+    }
+
+    public void setVenueName(String venueName) {
+        this.venueName = venueName;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public void setBookings(long bookings) {
+        this.bookings = bookings;
+    }
+
+    public double getUtilization() {
+        return utilization;
+    }
+
+    public void setUtilization(double utilization) {
+        this.utilization = utilization;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.collegia.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * A venue or user pointing at a content-addressed upload, e.g.
+ * ("venue:12", "9f86d0...08.jpg"). Each pair counts once towards
+ * the blob's refCount, however often the URL appears on the owner.
+ */
+@Entity
+@Table(name = "blob_reference", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_blob_reference_owner_file", columnNames = {"owner_key", "file_name"})
+})
+public class BlobReferenceEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long referenceId;
+
+    // "venue:<venueId>" or "user:<userId>"
+    @Column(name = "owner_key", nullable = false, length = 40)
+    private String ownerKey;
+
+    @Column(name = "file_name", nullable = false, length = 80)
+    private String fileName;
+
+    public BlobReferenceEntity() {}
+
+    public BlobReferenceEntity(String ownerKey, String fileName) {
+        this.ownerKey = ownerKey;
+        this.fileName = fileName;
+    }
+
+    public Long getReferenceId() {
+        return referenceId;
+    }
+
+    public void setReferenceId(Long referenceId) {
+        this.referenceId = referenceId;
+    }
+
+    public String getOwnerKey() {
+        return ownerKey;
+    }
+
+    public void setOwnerKey(String ownerKey) {
+        this.ownerKey = ownerKey;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+}
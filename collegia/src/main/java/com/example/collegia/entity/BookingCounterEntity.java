@@ -0,0 +1,79 @@
+package com.example.collegia.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * One shard of the materialized booking count for a (dimension, key) pair,
+ * e.g. ("status", "pending") or ("venue", "12"); the count is the sum of its
+ * shards. Maintained by BookingCounterService.
+ */
+@Entity
+@Table(name = "booking_counter", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_booking_counter_dimension_key", columnNames = {"dimension", "dimension_key", "shard"})
+})
+public class BookingCounterEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long counterId;
+
+    // "status", "venue", "custodian" or "day"
+    @Column(nullable = false, length = 20)
+    private String dimension;
+
+    @Column(name = "dimension_key", nullable = false, length = 64)
+    private String dimensionKey;
+
+    @Column(nullable = false)
+    private int shard;
+
+    @Column(nullable = false)
+    private long total;
+
+    public BookingCounterEntity() {}
+
+    public BookingCounterEntity(String dimension, String dimensionKey, long total) {
+        this.dimension = dimension;
+        this.dimensionKey = dimensionKey;
+        this.total = total;
+    }
+
+    public Long getCounterId() {
+        return counterId;
+    }
+
+    public void setCounterId(Long counterId) {
+        this.counterId = counterId;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getDimensionKey() {
+        return dimensionKey;
+    }
+
+    public void setDimensionKey(String dimensionKey) {
+        this.dimensionKey = dimensionKey;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public void setShard(int shard) {
+        this.shard = shard;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+}
@@ -7,7 +7,16 @@ import java.util.Date;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
-@Table(name = "booking_entity")
+// Composite indexes backing the keyset-paginated booking search: one per filter, ending in (date, booking_id)
+@Table(name = "booking_entity", indexes = {
+    @Index(name = "idx_booking_date_id", columnList = "date, booking_id"),
+    @Index(name = "idx_booking_status_date_id", columnList = "status, date, booking_id"),
+    @Index(name = "idx_booking_venue_date_id", columnList = "venue_id, date, booking_id"),
+    @Index(name = "idx_booking_custodian_date_id", columnList = "custodian_id, date, booking_id"),
+    @Index(name = "idx_booking_user_date_id", columnList = "user_id, date, booking_id"),
+    // a user's bookings in one status tab, optionally narrowed to a date range
+    @Index(name = "idx_booking_user_status_date", columnList = "user_id, status, date")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class BookingEntity {
     @Id
@@ -0,0 +1,87 @@
+package com.example.collegia.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * One content-addressed upload, stored once under the SHA-256 of its bytes
+ * however many times it was uploaded. {@code refCount} is the number of
+ * venues and users whose image URLs point at it; see BlobReferenceService.
+ */
+@Entity
+@Table(name = "stored_blob", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_stored_blob_file_name", columnNames = {"file_name"})
+})
+public class StoredBlobEntity {
+    // lower-case hex SHA-256
+    @Id
+    @Column(length = 64)
+    private String digest;
+
+    // digest plus the extension of the first upload, e.g. "9f86d0...08.jpg"
+    @Column(name = "file_name", nullable = false, length = 80)
+    private String fileName;
+
+    @Column(nullable = false)
+    private long sizeBytes;
+
+    @Column(nullable = false)
+    private long refCount;
+
+    // every upload of these bytes, including the first
+    @Column(nullable = false)
+    private long uploadCount;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public StoredBlobEntity() {}
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public long getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(long refCount) {
+        this.refCount = refCount;
+    }
+
+    public long getUploadCount() {
+        return uploadCount;
+    }
+
+    public void setUploadCount(long uploadCount) {
+        this.uploadCount = uploadCount;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.collegia.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A background user import (see UserImportJobService). The uploaded rows
+ * are kept until the job ends so that an interrupted job can resume;
+ * {@code processedRows} only moves in the transaction that writes those
+ * rows, so it always marks the last committed chunk.
+ */
+@Entity
+@Table(name = "user_import_job", indexes = {
+    @Index(name = "idx_user_import_job_status", columnList = "status")
+})
+public class UserImportJobEntity {
+    @Id
+    @Column(length = 36)
+    private String jobId;
+
+    // queued, running, completed, cancelled or failed
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private int totalRows;
+
+    // rows 1..processedRows are imported or have an error row
+    @Column(nullable = false)
+    private int processedRows;
+
+    @Column(nullable = false)
+    private int imported;
+
+    // processedRows when the current run started; non-zero after a resume
+    @Column(nullable = false)
+    private int resumedFromRow;
+
+    // the uploaded rows as JSON; cleared once the job has ended
+    @Lob
+    @Column(length = 64 * 1024 * 1024)
+    private String rowsJson;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // start of the current run
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    // why the job failed
+    @Column(length = 500)
+    private String message;
+
+    public UserImportJobEntity() {}
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(int totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public int getProcessedRows() {
+        return processedRows;
+    }
+
+    public void setProcessedRows(int processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getResumedFromRow() {
+        return resumedFromRow;
+    }
+
+    public void setResumedFromRow(int resumedFromRow) {
+        this.resumedFromRow = resumedFromRow;
+    }
+
+    public String getRowsJson() {
+        return rowsJson;
+    }
+
+    public void setRowsJson(String rowsJson) {
+        this.rowsJson = rowsJson;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
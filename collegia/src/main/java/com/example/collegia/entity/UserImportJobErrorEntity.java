@@ -0,0 +1,77 @@
+package com.example.collegia.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * A row a user import job skipped, written with the chunk it belongs to.
+ */
+@Entity
+@Table(name = "user_import_job_error", indexes = {
+    @Index(name = "idx_user_import_job_error_job_row", columnList = "job_id, source_row")
+})
+public class UserImportJobErrorEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long errorId;
+
+    @Column(name = "job_id", nullable = false, length = 36)
+    private String jobId;
+
+    // 1-based row of the upload
+    @Column(name = "source_row", nullable = false)
+    private int sourceRow;
+
+    private String email;
+
+    @Column(nullable = false, length = 500)
+    private String reason;
+
+    public UserImportJobErrorEntity() {}
+
+    public UserImportJobErrorEntity(String jobId, int sourceRow, String email, String reason) {
+        this.jobId = jobId;
+        this.sourceRow = sourceRow;
+        this.email = email;
+        this.reason = reason;
+    }
+
+    public Long getErrorId() {
+        return errorId;
+    }
+
+    public void setErrorId(Long errorId) {
+        this.errorId = errorId;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public int getSourceRow() {
+        return sourceRow;
+    }
+
+    public void setSourceRow(int sourceRow) {
+        this.sourceRow = sourceRow;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.collegia.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -8,6 +11,9 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import java.util.List;
 
 @Entity
+// Venues change a few times per term but are read on every page: keep them in the second-level cache
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "venue")
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class VenueEntity {
     @Id
@@ -25,11 +31,16 @@ public class VenueEntity {
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "venue_amenities", joinColumns = @JoinColumn(name = "venue_id"))
     @Column(name = "amenity")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "venue.amenities")
+    // entity reads (findAll and the finders) load collections 50 venues per select instead of one by one
+    @BatchSize(size = 50)
     private List<String> amenities;
     
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "venue_gallery_images", joinColumns = @JoinColumn(name = "venue_id"))
     @Column(name = "image_url")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "venue.galleryImages")
+    @BatchSize(size = 50)
     private List<String> galleryImages;
     
     @ManyToOne(fetch = FetchType.LAZY)
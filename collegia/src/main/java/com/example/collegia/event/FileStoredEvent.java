@@ -0,0 +1,19 @@
+package com.example.collegia.event;
+
+/**
+ * Published once an uploaded file has been written to the upload directory
+ * under its generated name, and again for a stored image found to be
+ * missing its derivatives.
+ */
+public class FileStoredEvent {
+
+    private final String fileName;
+
+    public FileStoredEvent(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+}
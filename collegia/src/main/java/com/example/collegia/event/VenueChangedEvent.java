@@ -0,0 +1,36 @@
+package com.example.collegia.event;
+
+/**
+ * Published after a venue was created, updated or deleted, so read-side
+ * views of the venue list (catalog snapshot, search indexes) can refresh.
+ * A {@code null} venueId means any number of venues may have changed,
+ * e.g. after their custodian was renamed or removed.
+ */
+public class VenueChangedEvent {
+
+    public enum ChangeType { CREATED, UPDATED, DELETED, BULK }
+
+    private final Long venueId;
+    private final ChangeType changeType;
+
+    public VenueChangedEvent(Long venueId, ChangeType changeType) {
+        this.venueId = venueId;
+        this.changeType = changeType;
+    }
+
+    public static VenueChangedEvent bulk() {
+        return new VenueChangedEvent(null, ChangeType.BULK);
+    }
+
+    public Long getVenueId() {
+        return venueId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public boolean isBulk() {
+        return venueId == null;
+    }
+}
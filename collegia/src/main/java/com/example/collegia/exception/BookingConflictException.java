@@ -0,0 +1,11 @@
+package com.example.collegia.exception;
+
+/**
+ * Thrown when a booking would overlap a slot that is already held at the same venue.
+ */
+public class BookingConflictException extends RuntimeException {
+
+    public BookingConflictException(String message) {
+        super(message);
+    }
+}
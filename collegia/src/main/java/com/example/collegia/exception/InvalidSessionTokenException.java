@@ -0,0 +1,11 @@
+package com.example.collegia.exception;
+
+/**
+ * Thrown when a session token is malformed, not signed with this server's key, or expired.
+ */
+public class InvalidSessionTokenException extends RuntimeException {
+
+    public InvalidSessionTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.collegia.exception;
+
+/**
+ * Thrown when uploaded bytes do not hash to the SHA-256 the client announced for them.
+ */
+public class UploadDigestMismatchException extends RuntimeException {
+
+    public UploadDigestMismatchException(String message) {
+        super(message);
+    }
+}
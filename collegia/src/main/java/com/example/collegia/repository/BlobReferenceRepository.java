@@ -0,0 +1,26 @@
+package com.example.collegia.repository;
+
+import com.example.collegia.entity.BlobReferenceEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BlobReferenceRepository extends JpaRepository<BlobReferenceEntity, Long> {
+    // [ownerKey, fileName] of a batch of owners, without loading the rows as entities
+    @Query("SELECT r.ownerKey, r.fileName FROM BlobReferenceEntity r WHERE r.ownerKey IN :ownerKeys")
+    List<Object[]> findFileNamesByOwnerKeys(@Param("ownerKeys") Collection<String> ownerKeys);
+
+    // Owners holding references, in keyset pages, so reconciliation can drop those that no longer exist
+    @Query("SELECT DISTINCT r.ownerKey FROM BlobReferenceEntity r WHERE r.ownerKey > :after ORDER BY r.ownerKey")
+    List<String> findOwnerKeysAfter(@Param("after") String after, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM BlobReferenceEntity r WHERE r.ownerKey = :ownerKey AND r.fileName = :fileName")
+    int deleteReference(@Param("ownerKey") String ownerKey, @Param("fileName") String fileName);
+}
@@ -0,0 +1,51 @@
+package com.example.collegia.repository;
+
+import com.example.collegia.entity.BookingCounterEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface BookingCounterRepository extends JpaRepository<BookingCounterEntity, Long> {
+    // [dimensionKey, total] of one dimension, the shards of each key added up
+    @Query("SELECT c.dimensionKey, SUM(c.total) FROM BookingCounterEntity c " +
+           "WHERE c.dimension = :dimension GROUP BY c.dimensionKey")
+    List<Object[]> sumByDimension(@Param("dimension") String dimension);
+
+    // same, for keys in [fromKey, toKey]; ISO day keys sort in date order
+    @Query("SELECT c.dimensionKey, SUM(c.total) FROM BookingCounterEntity c " +
+           "WHERE c.dimension = :dimension AND c.dimensionKey BETWEEN :fromKey AND :toKey GROUP BY c.dimensionKey")
+    List<Object[]> sumByDimensionBetween(@Param("dimension") String dimension,
+                                         @Param("fromKey") String fromKey, @Param("toKey") String toKey);
+
+    // [dimension, dimensionKey, total, total of shard 0] for every counter
+    @Query("SELECT c.dimension, c.dimensionKey, SUM(c.total), SUM(CASE WHEN c.shard = 0 THEN c.total ELSE 0 END) " +
+           "FROM BookingCounterEntity c GROUP BY c.dimension, c.dimensionKey")
+    List<Object[]> sumAll();
+
+    // Single-statement upserts so concurrent bookings never race on creating a counter row.
+    // The query-space hint limits second-level cache invalidation to this table; without it
+    // Hibernate would flush every cached venue and user on each booking write.
+
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "booking_counter"))
+    @Query(value = "INSERT INTO booking_counter (dimension, dimension_key, shard, total) " +
+                   "VALUES (:dimension, :dimensionKey, :shard, :delta) " +
+                   "ON DUPLICATE KEY UPDATE total = total + :delta", nativeQuery = true)
+    int increment(@Param("dimension") String dimension, @Param("dimensionKey") String dimensionKey,
+                  @Param("shard") int shard, @Param("delta") long delta);
+
+    // adds to shard 0 only while it still holds the total a reconciliation observed; 0 rows when it moved on
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "booking_counter"))
+    @Query(value = "UPDATE booking_counter SET total = total + :delta " +
+                   "WHERE dimension = :dimension AND dimension_key = :dimensionKey AND shard = 0 AND total = :observed",
+           nativeQuery = true)
+    int addIfUnchanged(@Param("dimension") String dimension, @Param("dimensionKey") String dimensionKey,
+                       @Param("observed") long observed, @Param("delta") long delta);
+}
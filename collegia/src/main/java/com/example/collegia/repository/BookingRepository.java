@@ -1,5 +1,7 @@
 package com.example.collegia.repository;
 
+import com.example.collegia.dto.BookingSlotDTO;
+import com.example.collegia.dto.BookingSummaryDTO;
 import com.example.collegia.entity.BookingEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -10,13 +12,21 @@ import java.util.Date;
 import java.util.List;
 
 @Repository
-public interface BookingRepository extends JpaRepository<BookingEntity, Long> {
+public interface BookingRepository extends JpaRepository<BookingEntity, Long>, BookingSearchRepository {
+
+    // Single-statement projection for booking listings (see BookingSummaryDTO)
+    String SUMMARY_SELECT = "SELECT new com.example.collegia.dto.BookingSummaryDTO(" +
+            "b.bookingId, b.eventName, b.date, b.timeSlot, b.status, b.capacity, b.description, b.eventType, " +
+            "b.cancelledBy, b.cancelledAt, u.userId, u.firstName, u.lastName, u.email, u.userType, " +
+            "c.userId, c.firstName, c.lastName, v.venueId, v.venueName, v.venueLocation, v.image) " +
+            "FROM BookingEntity b LEFT JOIN b.user u LEFT JOIN b.custodian c LEFT JOIN b.venue v ";
     
     List<BookingEntity> findByUserUserId(Long userId);
     List<BookingEntity> findByVenueVenueId(Long venueId);
     List<BookingEntity> findByDate(Date date);
     List<BookingEntity> findByStatus(String status);
     List<BookingEntity> findByDateAndVenueVenueId(Date date, Long venueId);
+    List<BookingEntity> findByUserUserIdAndStatus(Long userId, String status);
     
     @Query("SELECT b FROM BookingEntity b WHERE b.venue.custodian.userId = :custodianId")
     List<BookingEntity> findBookingsForCustodian(@Param("custodianId") Long custodianId);
@@ -27,5 +37,59 @@ public interface BookingRepository extends JpaRepository<BookingEntity, Long> {
     @Query("SELECT b FROM BookingEntity b WHERE b.venue.custodian.userId = :custodianId AND b.status = 'pending'")
     List<BookingEntity> findPendingBookingsForCustodian(@Param("custodianId") Long custodianId);
 
+    @Query(SUMMARY_SELECT)
+    List<BookingSummaryDTO> findAllSummaries();
+
+    @Query(SUMMARY_SELECT + "WHERE u.userId = :userId")
+    List<BookingSummaryDTO> findSummariesByUserId(@Param("userId") Long userId);
+
+    @Query(SUMMARY_SELECT + "WHERE u.userId = :userId AND b.status IN :statuses")
+    List<BookingSummaryDTO> findSummariesByUserAndStatusIn(@Param("userId") Long userId, @Param("statuses") List<String> statuses);
+
+    // user + status (+ date range) lookups, served by idx_booking_user_status_date
+    @Query(SUMMARY_SELECT + "WHERE b.user.userId = :userId AND b.status = :status ORDER BY b.date")
+    List<BookingSummaryDTO> findSummariesByUserAndStatus(@Param("userId") Long userId, @Param("status") String status);
+
+    @Query(SUMMARY_SELECT + "WHERE b.user.userId = :userId AND b.status = :status " +
+           "AND b.date >= :from AND b.date < :to ORDER BY b.date")
+    List<BookingSummaryDTO> findSummariesByUserAndStatusBetween(@Param("userId") Long userId, @Param("status") String status,
+                                                               @Param("from") Date from, @Param("to") Date to);
+
+    @Query(SUMMARY_SELECT + "WHERE v.custodian.userId = :custodianId")
+    List<BookingSummaryDTO> findSummariesForCustodian(@Param("custodianId") Long custodianId);
+
+    @Query(SUMMARY_SELECT + "WHERE v.custodian.userId = :custodianId AND b.status = 'pending'")
+    List<BookingSummaryDTO> findPendingSummariesForCustodian(@Param("custodianId") Long custodianId);
+
     long countByStatus(String status);
+
+    // Dashboard aggregates, one GROUP BY each
+
+    @Query("SELECT b.status, COUNT(b) FROM BookingEntity b GROUP BY b.status")
+    List<Object[]> countGroupedByStatus();
+
+    // [venueId, venueName, slot-holding bookings in range], including venues with none
+    @Query("SELECT v.venueId, v.venueName, COUNT(b) FROM VenueEntity v LEFT JOIN v.bookings b " +
+           "ON b.date >= :from AND b.date < :to AND (b.status IS NULL OR b.status <> 'canceled') " +
+           "GROUP BY v.venueId, v.venueName ORDER BY v.venueId")
+    List<Object[]> countBookingsPerVenue(@Param("from") Date from, @Param("to") Date to);
+
+    // Recounts used to reconcile the booking counters; venue, custodian and day count slot-holding bookings only
+
+    @Query("SELECT b.venue.venueId, COUNT(b) FROM BookingEntity b " +
+           "WHERE b.venue IS NOT NULL AND (b.status IS NULL OR b.status <> 'canceled') GROUP BY b.venue.venueId")
+    List<Object[]> countActiveGroupedByVenue();
+
+    @Query("SELECT b.custodian.userId, COUNT(b) FROM BookingEntity b " +
+           "WHERE b.custodian IS NOT NULL AND (b.status IS NULL OR b.status <> 'canceled') GROUP BY b.custodian.userId")
+    List<Object[]> countActiveGroupedByCustodian();
+
+    @Query("SELECT b.date, COUNT(b) FROM BookingEntity b " +
+           "WHERE b.date IS NOT NULL AND (b.status IS NULL OR b.status <> 'canceled') GROUP BY b.date")
+    List<Object[]> countActiveGroupedByDate();
+
+    // Used to rebuild the in-memory availability index without loading full entities
+    @Query("SELECT new com.example.collegia.dto.BookingSlotDTO(b.bookingId, b.venue.venueId, b.date, b.timeSlot, b.status) " +
+           "FROM BookingEntity b WHERE b.venue IS NOT NULL AND (b.status IS NULL OR b.status <> 'canceled')")
+    List<BookingSlotDTO> findActiveBookingSlots();
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.collegia.repository;
+
+import com.example.collegia.dto.BookingSearchCriteria;
+import com.example.collegia.dto.BookingSummaryDTO;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Dynamic, keyset-paginated booking search (implemented in {@link BookingSearchRepositoryImpl}).
+ */
+public interface BookingSearchRepository {
+
+    /**
+     * Up to {@code limit} bookings matching the criteria that come strictly after
+     * (or, when descending, before) the keyset position (afterDate, afterBookingId).
+     * A null position starts from the beginning.
+     */
+    List<BookingSummaryDTO> searchSummaries(BookingSearchCriteria criteria, Date afterDate, Long afterBookingId, int limit);
+}
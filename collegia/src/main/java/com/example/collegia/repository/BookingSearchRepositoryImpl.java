@@ -0,0 +1,70 @@
+package com.example.collegia.repository;
+
+import com.example.collegia.dto.BookingSearchCriteria;
+import com.example.collegia.dto.BookingSummaryDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the search query from only the filters that are set, so each
+ * combination maps onto one of the composite indexes declared on
+ * BookingEntity instead of an "(:x IS NULL OR ...)" predicate that no index can serve.
+ */
+public class BookingSearchRepositoryImpl implements BookingSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingSummaryDTO> searchSummaries(BookingSearchCriteria criteria, Date afterDate,
+                                                   Long afterBookingId, int limit) {
+        StringBuilder jpql = new StringBuilder(BookingRepository.SUMMARY_SELECT).append("WHERE b.date IS NOT NULL");
+        Map<String, Object> params = new HashMap<>();
+
+        if (criteria.getStatus() != null) {
+            jpql.append(" AND b.status = :status");
+            params.put("status", criteria.getStatus());
+        }
+        if (criteria.getVenueId() != null) {
+            jpql.append(" AND b.venue.venueId = :venueId");
+            params.put("venueId", criteria.getVenueId());
+        }
+        if (criteria.getCustodianId() != null) {
+            jpql.append(" AND b.custodian.userId = :custodianId");
+            params.put("custodianId", criteria.getCustodianId());
+        }
+        if (criteria.getUserId() != null) {
+            jpql.append(" AND b.user.userId = :userId");
+            params.put("userId", criteria.getUserId());
+        }
+        if (criteria.getFrom() != null) {
+            jpql.append(" AND b.date >= :from");
+            params.put("from", Timestamp.valueOf(criteria.getFrom().atStartOfDay()));
+        }
+        if (criteria.getTo() != null) {
+            jpql.append(" AND b.date < :to");
+            params.put("to", Timestamp.valueOf(criteria.getTo().plusDays(1).atStartOfDay()));
+        }
+
+        String direction = criteria.isDescending() ? "DESC" : "ASC";
+        if (afterDate != null && afterBookingId != null) {
+            String op = criteria.isDescending() ? "<" : ">";
+            jpql.append(" AND (b.date ").append(op).append(" :afterDate OR (b.date = :afterDate AND b.bookingId ")
+                .append(op).append(" :afterId))");
+            params.put("afterDate", afterDate);
+            params.put("afterId", afterBookingId);
+        }
+        jpql.append(" ORDER BY b.date ").append(direction).append(", b.bookingId ").append(direction);
+
+        TypedQuery<BookingSummaryDTO> query = entityManager.createQuery(jpql.toString(), BookingSummaryDTO.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.collegia.repository;
+
+import com.example.collegia.entity.StoredBlobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlobEntity, String> {
+    // names of the given files this store holds, without loading the rows as entities
+    @Query("SELECT b.fileName FROM StoredBlobEntity b WHERE b.fileName IN :fileNames")
+    List<String> findExistingFileNames(@Param("fileNames") Collection<String> fileNames);
+
+    // Single-statement upsert so two concurrent uploads of the same bytes never race on the row.
+    // Like the booking counters, the query-space hint keeps the second-level cache intact.
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "stored_blob"))
+    @Query(value = "INSERT INTO stored_blob (digest, file_name, size_bytes, ref_count, upload_count, created_at) " +
+                   "VALUES (:digest, :fileName, :sizeBytes, 0, 1, :createdAt) " +
+                   "ON DUPLICATE KEY UPDATE upload_count = upload_count + 1", nativeQuery = true)
+    int registerUpload(@Param("digest") String digest, @Param("fileName") String fileName,
+                       @Param("sizeBytes") long sizeBytes, @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "stored_blob"))
+    @Query(value = "UPDATE stored_blob SET ref_count = ref_count + :delta WHERE file_name = :fileName", nativeQuery = true)
+    int adjustRefCount(@Param("fileName") String fileName, @Param("delta") long delta);
+
+    // Moves a count only while it still holds the value a reconciliation observed; 0 rows when it moved on
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "stored_blob"))
+    @Query(value = "UPDATE stored_blob SET ref_count = ref_count + :delta " +
+                   "WHERE file_name = :fileName AND ref_count = :observed", nativeQuery = true)
+    int adjustRefCountIfUnchanged(@Param("fileName") String fileName, @Param("observed") long observed,
+                                  @Param("delta") long delta);
+
+    // [fileName, refCount, reference rows] of the blobs whose count disagrees with their blob_reference rows
+    @Query("SELECT b.fileName, b.refCount, COUNT(r) FROM StoredBlobEntity b " +
+           "LEFT JOIN BlobReferenceEntity r ON r.fileName = b.fileName " +
+           "GROUP BY b.fileName, b.refCount HAVING b.refCount <> COUNT(r)")
+    List<Object[]> findRefCountDrift();
+
+    // Drops the row of a blob that only the upload being rolled back ever stored
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "stored_blob"))
+    @Query(value = "DELETE FROM stored_blob WHERE file_name = :fileName AND ref_count = 0 AND upload_count = 1",
+           nativeQuery = true)
+    int deleteIfSoleUpload(@Param("fileName") String fileName);
+
+    // Drops the row of a blob the upload sweeper is about to remove; a referenced blob keeps its row
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "stored_blob"))
+    @Query(value = "DELETE FROM stored_blob WHERE file_name = :fileName AND ref_count = 0", nativeQuery = true)
+    int deleteIfUnreferenced(@Param("fileName") String fileName);
+
+    boolean existsByFileName(String fileName);
+
+    // [blobs, bytes on disk, uploads]
+    @Query("SELECT COUNT(b), COALESCE(SUM(b.sizeBytes), 0), COALESCE(SUM(b.uploadCount), 0) FROM StoredBlobEntity b")
+    List<Object[]> summarize();
+}
@@ -0,0 +1,14 @@
+package com.example.collegia.repository;
+
+import com.example.collegia.entity.UserImportJobErrorEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface UserImportJobErrorRepository extends JpaRepository<UserImportJobErrorEntity, Long> {
+    List<UserImportJobErrorEntity> findByJobIdOrderBySourceRow(String jobId, Pageable pageable);
+
+    long countByJobId(String jobId);
+}
@@ -0,0 +1,39 @@
+package com.example.collegia.repository;
+
+import com.example.collegia.entity.UserImportJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+// Status changes are conditional single-statement updates, so a cancel and
+// the worker finishing the same job cannot overwrite each other.
+@Repository
+public interface UserImportJobRepository extends JpaRepository<UserImportJobEntity, String> {
+    List<UserImportJobEntity> findByStatusInOrderByCreatedAt(Collection<String> statuses);
+
+    // Claims a queued job, or an interrupted one, for a new run
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE UserImportJobEntity j SET j.status = 'running', j.startedAt = :now, j.resumedFromRow = j.processedRows " +
+           "WHERE j.jobId = :jobId AND j.status IN ('queued', 'running')")
+    int markRunning(@Param("jobId") String jobId, @Param("now") Instant now);
+
+    // Runs in the transaction that wrote the rows
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE UserImportJobEntity j SET j.processedRows = :throughRow, j.imported = j.imported + :imported " +
+           "WHERE j.jobId = :jobId")
+    int recordProgress(@Param("jobId") String jobId, @Param("throughRow") int throughRow, @Param("imported") int imported);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE UserImportJobEntity j SET j.status = :status, j.finishedAt = :now, j.message = :message, j.rowsJson = NULL " +
+           "WHERE j.jobId = :jobId AND j.status IN ('queued', 'running')")
+    int finish(@Param("jobId") String jobId, @Param("status") String status, @Param("message") String message,
+               @Param("now") Instant now);
+}
@@ -0,0 +1,19 @@
+package com.example.collegia.repository;
+
+import com.example.collegia.entity.UserEntity;
+
+import java.util.List;
+
+/**
+ * JDBC-batched user inserts for bulk imports (implemented in {@link UserImportRepositoryImpl}).
+ */
+public interface UserImportRepository {
+
+    /**
+     * Insert the users, and the student, faculty or coordinator row of each
+     * subtype, in one transaction. Passwords must already be encoded.
+     * Returns the generated ids in the order given; the entities themselves
+     * are not managed afterwards.
+     */
+    List<Long> insertAll(List<? extends UserEntity> users);
+}
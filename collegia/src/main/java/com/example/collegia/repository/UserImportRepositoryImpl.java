@@ -0,0 +1,121 @@
+package com.example.collegia.repository;
+
+import com.example.collegia.entity.CoordinatorEntity;
+import com.example.collegia.entity.FacultyEntity;
+import com.example.collegia.entity.StudentEntity;
+import com.example.collegia.entity.UserEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes imported users with one batched INSERT per table instead of a
+ * persist, identity round trip and subtype insert per user. With
+ * rewriteBatchedStatements on the MySQL URL each batch goes over the wire as
+ * multi-row INSERTs. The tables are the JOINED inheritance tables of
+ * UserEntity; profile fields an import never sets are left NULL.
+ */
+public class UserImportRepositoryImpl implements UserImportRepository {
+
+    private static final String INSERT_USER = "INSERT INTO user_entity "
+        + "(first_name, last_name, email, user_type, password, first_login) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_STUDENT = "INSERT INTO student_entity (user_id, course, organization) VALUES (?, ?, ?)";
+
+    private static final String INSERT_FACULTY = "INSERT INTO faculty_entity (user_id, department) VALUES (?, ?)";
+
+    private static final String INSERT_COORDINATOR = "INSERT INTO coordinator_entity (user_id, affiliation) VALUES (?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public List<Long> insertAll(List<? extends UserEntity> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        // anything pending in the session goes first, so the batch sees a consistent table
+        entityManager.flush();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            List<Long> ids = insertUsers(connection, users);
+            insertSubtypes(connection, users, ids);
+            return ids;
+        });
+    }
+
+    private static List<Long> insertUsers(Connection connection, List<? extends UserEntity> users) throws SQLException {
+        List<Long> ids = new ArrayList<>(users.size());
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
+            for (UserEntity user : users) {
+                insert.setString(1, user.getFirstName());
+                insert.setString(2, user.getLastName());
+                insert.setString(3, user.getEmail());
+                insert.setString(4, user.getUserType());
+                insert.setString(5, user.getPassword());
+                insert.setBoolean(6, user.isFirstLogin());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                while (keys.next()) {
+                    ids.add(keys.getLong(1));
+                }
+            }
+        }
+        if (ids.size() != users.size()) {
+            throw new SQLException("Expected " + users.size() + " generated user ids, got " + ids.size());
+        }
+        return ids;
+    }
+
+    private static void insertSubtypes(Connection connection, List<? extends UserEntity> users, List<Long> ids)
+            throws SQLException {
+        try (PreparedStatement students = connection.prepareStatement(INSERT_STUDENT);
+             PreparedStatement faculty = connection.prepareStatement(INSERT_FACULTY);
+             PreparedStatement coordinators = connection.prepareStatement(INSERT_COORDINATOR)) {
+            int studentCount = 0;
+            int facultyCount = 0;
+            int coordinatorCount = 0;
+            for (int i = 0; i < users.size(); i++) {
+                UserEntity user = users.get(i);
+                long id = ids.get(i);
+                if (user instanceof StudentEntity student) {
+                    students.setLong(1, id);
+                    students.setString(2, student.getCourse());
+                    students.setString(3, student.getOrganization());
+                    students.addBatch();
+                    studentCount++;
+                } else if (user instanceof FacultyEntity member) {
+                    faculty.setLong(1, id);
+                    faculty.setString(2, member.getDepartment());
+                    faculty.addBatch();
+                    facultyCount++;
+                } else if (user instanceof CoordinatorEntity coordinator) {
+                    coordinators.setLong(1, id);
+                    coordinators.setString(2, coordinator.getAffiliation());
+                    coordinators.addBatch();
+                    coordinatorCount++;
+                }
+            }
+            if (studentCount > 0) {
+                students.executeBatch();
+            }
+            if (facultyCount > 0) {
+                faculty.executeBatch();
+            }
+            if (coordinatorCount > 0) {
+                coordinators.executeBatch();
+            }
+        }
+    }
+}
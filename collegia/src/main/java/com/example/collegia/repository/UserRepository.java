@@ -1,18 +1,33 @@
 package com.example.collegia.repository;
 
 import com.example.collegia.entity.UserEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<UserEntity, Long> {
+public interface UserRepository extends JpaRepository<UserEntity, Long>, UserImportRepository {
     Optional<UserEntity> findByEmail(String email);
     boolean existsByEmail(String email);
 
+    // which of the given lower-cased emails are already registered, in one query
+    @Query("SELECT LOWER(u.email) FROM UserEntity u WHERE LOWER(u.email) IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     long countByUserType(String status);
 
+    // [userType, count] for every user type in one pass
+    @Query("SELECT u.userType, COUNT(u) FROM UserEntity u GROUP BY u.userType")
+    List<Object[]> countGroupedByUserType();
+
     @Query("SELECT COUNT(u) FROM UserEntity u WHERE u.userType = 'Admin'")
     long countAdmins();
 
@@ -28,4 +43,20 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     @Query("SELECT COUNT(u) FROM UserEntity u WHERE u.userType = 'Coordinator'")
     long countCoordinators();
 
+    // [userId, profile photo url]
+    @Query("SELECT u.userId, u.profilePhoto FROM UserEntity u WHERE u.profilePhoto IS NOT NULL AND u.userId = :userId")
+    List<Object[]> findProfilePhotoByUserId(@Param("userId") Long userId);
+
+    // [userId, profile photo url or null] in keyset pages, for upload reference reconciliation
+    @Query("SELECT u.userId, u.profilePhoto FROM UserEntity u WHERE u.userId > :after ORDER BY u.userId")
+    List<Object[]> findProfilePhotosAfter(@Param("after") long after, Pageable pageable);
+
+    @Query("SELECT u.userId FROM UserEntity u WHERE u.userId IN :userIds")
+    List<Long> findExistingIds(@Param("userIds") Collection<Long> userIds);
+
+    // Streamed in batches for the upload sweeper; must be consumed in a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT u.profilePhoto FROM UserEntity u WHERE u.profilePhoto IS NOT NULL")
+    Stream<String> streamAllProfilePhotoUrls();
+
 }
\ No newline at end of file
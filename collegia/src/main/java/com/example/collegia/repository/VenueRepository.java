@@ -1,15 +1,97 @@
 package com.example.collegia.repository;
 
+import com.example.collegia.dto.VenueAvailabilityDTO;
+import com.example.collegia.dto.VenueDTO;
 import com.example.collegia.entity.VenueEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface VenueRepository extends JpaRepository<VenueEntity, Long> {
+    // The venue list is read on every page; its ids come from the query cache, the rows from the entity cache
+    @Override
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = "venue-queries")
+    })
+    List<VenueEntity> findAll();
+
     List<VenueEntity> findByCustodianUserId(Long userId);
     List<VenueEntity> findByVenueLocationContaining(String location);
     List<VenueEntity> findByVenueCapacityGreaterThanEqual(int capacity);
     List<VenueEntity> findByVenueNameContaining(String name);
     List<VenueEntity> findByVenueLocationIgnoreCase(String location);
+
+    // Venue listings as DTOs: one query for the rows (custodian name joined in), then one
+    // IN query per collection, however many venues match
+
+    String LISTING_SELECT = "SELECT new com.example.collegia.dto.VenueDTO(v.venueId, v.venueName, v.venueLocation, " +
+        "v.venueCapacity, v.image, v.description, c.userId, c.firstName, c.lastName) " +
+        "FROM VenueEntity v LEFT JOIN v.custodian c ";
+
+    @Query(LISTING_SELECT + "ORDER BY v.venueId")
+    List<VenueDTO> findAllListings();
+
+    @Query(LISTING_SELECT + "WHERE c.userId = :custodianId ORDER BY v.venueId")
+    List<VenueDTO> findListingsByCustodian(@Param("custodianId") Long custodianId);
+
+    // the venues a custodian manages, carried in their session token
+    @Query("SELECT v.venueId FROM VenueEntity v WHERE v.custodian.userId = :custodianId ORDER BY v.venueId")
+    List<Long> findVenueIdsByCustodian(@Param("custodianId") Long custodianId);
+
+    @Query(LISTING_SELECT + "WHERE LOWER(v.venueLocation) = LOWER(:location) ORDER BY v.venueId")
+    List<VenueDTO> findListingsByLocation(@Param("location") String location);
+
+    @Query(LISTING_SELECT + "WHERE v.venueCapacity >= :minCapacity ORDER BY v.venueId")
+    List<VenueDTO> findListingsByMinCapacity(@Param("minCapacity") int minCapacity);
+
+    @Query(LISTING_SELECT + "WHERE v.venueId IN :venueIds")
+    List<VenueDTO> findListingsByIds(@Param("venueIds") Collection<Long> venueIds);
+
+    // [venueId, amenity]
+    @Query("SELECT v.venueId, a FROM VenueEntity v JOIN v.amenities a WHERE v.venueId IN :venueIds")
+    List<Object[]> findAmenitiesByVenueIds(@Param("venueIds") Collection<Long> venueIds);
+
+    // [venueId, image url]
+    @Query("SELECT v.venueId, g FROM VenueEntity v JOIN v.galleryImages g WHERE v.venueId IN :venueIds")
+    List<Object[]> findGalleryImagesByVenueIds(@Param("venueIds") Collection<Long> venueIds);
+
+    // [venueId, main image url]; an empty venueIds list is never passed
+    @Query("SELECT v.venueId, v.image FROM VenueEntity v WHERE v.image IS NOT NULL AND v.venueId IN :venueIds")
+    List<Object[]> findImagesByVenueIds(@Param("venueIds") Collection<Long> venueIds);
+
+    // Venue ids in keyset pages, for upload reference reconciliation
+    @Query("SELECT v.venueId FROM VenueEntity v WHERE v.venueId > :after ORDER BY v.venueId")
+    List<Long> findVenueIdsAfter(@Param("after") long after, Pageable pageable);
+
+    @Query("SELECT v.venueId FROM VenueEntity v WHERE v.venueId IN :venueIds")
+    List<Long> findExistingIds(@Param("venueIds") Collection<Long> venueIds);
+
+    // Streamed in batches for the upload sweeper, which only needs the URLs; must be consumed in a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT v.image FROM VenueEntity v WHERE v.image IS NOT NULL")
+    Stream<String> streamAllImageUrls();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT g FROM VenueEntity v JOIN v.galleryImages g")
+    Stream<String> streamAllGalleryImageUrls();
+
+    // Availability grid: id + name only, so the eager collections are not loaded
+    @Query("SELECT new com.example.collegia.dto.VenueAvailabilityDTO(v.venueId, v.venueName) " +
+           "FROM VenueEntity v WHERE v.venueId IN :venueIds ORDER BY v.venueId")
+    List<VenueAvailabilityDTO> findAvailabilityHeadersByIds(@Param("venueIds") Collection<Long> venueIds);
+
+    @Query("SELECT new com.example.collegia.dto.VenueAvailabilityDTO(v.venueId, v.venueName) " +
+           "FROM VenueEntity v WHERE (:location IS NULL OR LOWER(v.venueLocation) = LOWER(:location)) " +
+           "AND v.venueCapacity >= :minCapacity ORDER BY v.venueId")
+    List<VenueAvailabilityDTO> findAvailabilityHeaders(@Param("location") String location,
+                                                       @Param("minCapacity") int minCapacity);
 }
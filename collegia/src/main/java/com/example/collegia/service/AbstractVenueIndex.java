@@ -0,0 +1,53 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.VenueDTO;
+import com.example.collegia.event.VenueChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Keeps an in-memory venue index in step with the venue table.
+ *
+ * Every venue is loaded once the application is ready and again on a bulk
+ * {@link VenueChangedEvent}; a change to a single venue re-reads just that
+ * venue once its transaction has committed, so the index never sees a write
+ * that is later rolled back. Subclasses only say how to replace their whole
+ * content and how to replace one venue.
+ */
+abstract class AbstractVenueIndex {
+
+    @Autowired
+    private VenueService venueService;
+
+    // synchronized with onVenueChanged, so a per-venue update never interleaves with a full rebuild
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        replaceAll(venueService.getAllVenuesAsDTO());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVenueChanged(VenueChangedEvent event) {
+        if (event.isBulk()) {
+            rebuild();
+            return;
+        }
+        List<VenueDTO> venues = event.getChangeType() == VenueChangedEvent.ChangeType.DELETED
+            ? List.of()
+            : venueService.getVenuesByIdsAsDTO(List.of(event.getVenueId()));
+        replace(event.getVenueId(), venues.isEmpty() ? null : venues.get(0));
+    }
+
+    /**
+     * Drop everything indexed so far and index {@code venues} instead.
+     */
+    protected abstract void replaceAll(List<VenueDTO> venues);
+
+    /**
+     * Re-index one venue; {@code venue} is null when it was deleted.
+     */
+    protected abstract void replace(Long venueId, VenueDTO venue);
+}
@@ -3,7 +3,6 @@ package com.example.collegia.service;
 import com.example.collegia.controller.AuthController;
 import com.example.collegia.entity.*;
 import com.example.collegia.repository.*;
-import com.example.collegia.util.PasswordEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -25,8 +24,9 @@ public class AuthService {
     @Autowired
     private CoordinatorRepository coordinatorRepository;
 
+    // BCrypt runs on the bounded auth hash pool, never on the request thread
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     // SIGN UP
     public UserEntity registerUser(AuthController.SignUpRequest request) {
@@ -41,7 +41,7 @@ public class AuthService {
         user.setUserType(request.getUserType());
         
         // ENCRYPT PASSWORD BEFORE SAVING
-        String encryptedPassword = passwordEncoder.encode(request.getPassword());
+        String encryptedPassword = passwordHashingService.encode(request.getPassword());
         user.setPassword(encryptedPassword);
         
         user.setFirstLogin(false);
@@ -91,7 +91,7 @@ public class AuthService {
 
         if (isEncrypted) {
             // Password is encrypted, use BCrypt to verify
-            if (!passwordEncoder.matches(rawPassword, storedPassword)) {
+            if (!passwordHashingService.matches(rawPassword, storedPassword)) {
                 throw new RuntimeException("Invalid email or password");
             }
         } else {
@@ -106,7 +106,7 @@ public class AuthService {
     }
     
     private void upgradePasswordToEncrypted(UserEntity user, String rawPassword) {
-        String encryptedPassword = passwordEncoder.encode(rawPassword);
+        String encryptedPassword = passwordHashingService.encode(rawPassword);
         user.setPassword(encryptedPassword);
         userRepository.save(user);
     }
@@ -133,7 +133,7 @@ public class AuthService {
         UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        String encryptedPassword = passwordEncoder.encode(newPassword);
+        String encryptedPassword = passwordHashingService.encode(newPassword);
         user.setPassword(encryptedPassword);
         userRepository.save(user);
     }
@@ -0,0 +1,321 @@
+package com.example.collegia.service;
+
+import com.example.collegia.entity.BlobReferenceEntity;
+import com.example.collegia.repository.BlobReferenceRepository;
+import com.example.collegia.repository.StoredBlobRepository;
+import com.example.collegia.repository.UserRepository;
+import com.example.collegia.repository.VenueRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Reference counts of content-addressed uploads.
+ *
+ * Each venue (main and gallery images) and user (profile photo) is an owner.
+ * After an owner is saved its current image URLs are read back and diffed
+ * against its blob_reference rows, and the stored_blob ref counts move by
+ * the difference in the same transaction. URLs that do not name a
+ * content-addressed blob (external links, pre-existing UUID uploads) are not
+ * tracked. A reconciliation pass at startup, or on demand, brings the rows
+ * back in line with the venue and user tables, catching writes made outside
+ * these services.
+ */
+@Service
+public class BlobReferenceService {
+
+    private static final int RECONCILE_PAGE_SIZE = 500;
+
+    @Autowired
+    private BlobReferenceRepository referenceRepository;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private VenueRepository venueRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public static String venueOwner(Long venueId) {
+        return "venue:" + venueId;
+    }
+
+    public static String userOwner(Long userId) {
+        return "user:" + userId;
+    }
+
+    @Transactional
+    public void syncVenue(Long venueId) {
+        List<Object[]> images = new ArrayList<>(venueRepository.findImagesByVenueIds(List.of(venueId)));
+        images.addAll(venueRepository.findGalleryImagesByVenueIds(List.of(venueId)));
+        sync(venueOwner(venueId), urls(images));
+    }
+
+    @Transactional
+    public void syncUser(Long userId) {
+        sync(userOwner(userId), urls(userRepository.findProfilePhotoByUserId(userId)));
+    }
+
+    /**
+     * Drop every reference an owner holds, e.g. once it has been deleted.
+     */
+    @Transactional
+    public void release(String ownerKey) {
+        sync(ownerKey, List.of());
+    }
+
+    /**
+     * Make {@code ownerKey} reference exactly the blobs named by {@code urls}.
+     */
+    @Transactional
+    public void sync(String ownerKey, Collection<String> urls) {
+        syncOwners(Map.of(ownerKey, urls));
+    }
+
+    /**
+     * Bring blob_reference in line with the venue and user tables a page of
+     * owners at a time, then correct ref counts that disagree with their rows.
+     * Rows and counts only move by deltas, and a count is corrected only while
+     * it still holds the value that was compared, so owner saves running
+     * meanwhile are never overwritten. Returns the number of references and
+     * counts corrected.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public int reconcile() {
+        Pageable page = PageRequest.of(0, RECONCILE_PAGE_SIZE);
+        int corrected = 0;
+        int owners = 0;
+
+        List<Long> venueIds = venueRepository.findVenueIdsAfter(0, page);
+        while (!venueIds.isEmpty()) {
+            Map<String, List<String>> urls = new HashMap<>();
+            venueIds.forEach(venueId -> urls.put(venueOwner(venueId), new ArrayList<>()));
+            List<Object[]> images = new ArrayList<>(venueRepository.findImagesByVenueIds(venueIds));
+            images.addAll(venueRepository.findGalleryImagesByVenueIds(venueIds));
+            for (Object[] row : images) {
+                urls.get(venueOwner((Long) row[0])).add((String) row[1]);
+            }
+            corrected += syncOwners(urls);
+            owners += venueIds.size();
+            venueIds = venueRepository.findVenueIdsAfter(venueIds.get(venueIds.size() - 1), page);
+        }
+
+        List<Object[]> photos = userRepository.findProfilePhotosAfter(0, page);
+        while (!photos.isEmpty()) {
+            Map<String, List<String>> urls = new HashMap<>();
+            for (Object[] row : photos) {
+                urls.put(userOwner((Long) row[0]), row[1] != null ? List.of((String) row[1]) : List.of());
+            }
+            corrected += syncOwners(urls);
+            owners += photos.size();
+            photos = userRepository.findProfilePhotosAfter((Long) photos.get(photos.size() - 1)[0], page);
+        }
+
+        // owners deleted behind the services' back still hold rows
+        List<String> ownerKeys = referenceRepository.findOwnerKeysAfter("", page);
+        while (!ownerKeys.isEmpty()) {
+            corrected += releaseMissingOwners(ownerKeys);
+            ownerKeys = referenceRepository.findOwnerKeysAfter(ownerKeys.get(ownerKeys.size() - 1), page);
+        }
+
+        int skipped = 0;
+        for (Object[] row : storedBlobRepository.findRefCountDrift()) {
+            long observed = (Long) row[1];
+            long expected = (Long) row[2];
+            if (storedBlobRepository.adjustRefCountIfUnchanged((String) row[0], observed, expected - observed) > 0) {
+                corrected++;
+            } else {
+                skipped++;
+            }
+        }
+
+        if (corrected > 0 || skipped > 0) {
+            System.out.println("⚠️ Upload references reconciled: " + corrected + " corrections"
+                + (skipped > 0 ? ", " + skipped + " counts changed meanwhile and were left alone" : ""));
+        } else {
+            System.out.println("✅ Upload references consistent across " + owners + " owners");
+        }
+        return corrected;
+    }
+
+    /**
+     * Names of every upload a venue image, gallery entry or profile photo
+     * points at, with their image variants. The URLs are streamed, so the
+     * rows are never all in memory at once.
+     */
+    @Transactional(readOnly = true)
+    public Set<String> liveFileNames() {
+        Set<String> live = new HashSet<>();
+        try (Stream<String> urls = venueRepository.streamAllImageUrls()) {
+            urls.forEach(url -> addLive(live, url));
+        }
+        try (Stream<String> urls = venueRepository.streamAllGalleryImageUrls()) {
+            urls.forEach(url -> addLive(live, url));
+        }
+        try (Stream<String> urls = userRepository.streamAllProfilePhotoUrls()) {
+            urls.forEach(url -> addLive(live, url));
+        }
+        return live;
+    }
+
+    /**
+     * Blob count, bytes on disk and how many uploads were absorbed as duplicates.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> getStoreStats() {
+        Object[] summary = storedBlobRepository.summarize().get(0);
+        long blobs = ((Number) summary[0]).longValue();
+        long uploads = ((Number) summary[2]).longValue();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("blobs", blobs);
+        stats.put("bytes", ((Number) summary[1]).longValue());
+        stats.put("uploads", uploads);
+        stats.put("duplicateUploads", uploads - blobs);
+        stats.put("references", referenceRepository.count());
+        return stats;
+    }
+
+    /**
+     * The stored name in an upload URL ({@code .../api/files/uploads/<name>?size=card}),
+     * or null if the URL does not point at a content-addressed upload.
+     */
+    static String storedNameOf(String url) {
+        String name = uploadNameOf(url);
+        return FileStorageService.isContentAddressed(name) ? name : null;
+    }
+
+    // last path segment of an upload URL, without the query
+    static String uploadNameOf(String url) {
+        if (url == null) {
+            return null;
+        }
+        String name = url;
+        int query = name.indexOf('?');
+        if (query >= 0) {
+            name = name.substring(0, query);
+        }
+        return name.substring(name.lastIndexOf('/') + 1);
+    }
+
+    private static void addLive(Set<String> live, String url) {
+        String name = uploadNameOf(url);
+        if (name == null || name.isEmpty()) {
+            return;
+        }
+        live.add(name);
+        if (ImageDerivativeService.isImage(name)) {
+            for (ImageDerivativeService.Variant variant : ImageDerivativeService.Variant.values()) {
+                live.add(ImageDerivativeService.variantName(name, variant));
+            }
+        }
+    }
+
+    private static List<String> urls(List<Object[]> rows) {
+        List<String> urls = new ArrayList<>();
+        for (Object[] row : rows) {
+            urls.add((String) row[1]);
+        }
+        return urls;
+    }
+
+    // Makes each owner reference exactly the blobs its URLs name; returns the references added and dropped
+    private int syncOwners(Map<String, ? extends Collection<String>> urlsByOwner) {
+        Map<String, Set<String>> wanted = new HashMap<>();
+        Set<String> named = new HashSet<>();
+        for (Map.Entry<String, ? extends Collection<String>> owner : urlsByOwner.entrySet()) {
+            Set<String> fileNames = new HashSet<>();
+            for (String url : owner.getValue()) {
+                String fileName = storedNameOf(url);
+                if (fileName != null) {
+                    fileNames.add(fileName);
+                }
+            }
+            wanted.put(owner.getKey(), fileNames);
+            named.addAll(fileNames);
+        }
+        if (!named.isEmpty()) {
+            // only blobs this store knows about are counted
+            Set<String> known = new HashSet<>(storedBlobRepository.findExistingFileNames(named));
+            wanted.values().forEach(fileNames -> fileNames.retainAll(known));
+        }
+
+        // sorted, so concurrent transactions lock blob rows in the same order
+        Map<String, Long> deltas = new TreeMap<>();
+        for (Object[] row : referenceRepository.findFileNamesByOwnerKeys(wanted.keySet())) {
+            String ownerKey = (String) row[0];
+            String fileName = (String) row[1];
+            if (!wanted.get(ownerKey).remove(fileName)) {
+                referenceRepository.deleteReference(ownerKey, fileName);
+                deltas.merge(fileName, -1L, Long::sum);
+            }
+        }
+        // wanted now only holds new references
+        for (Map.Entry<String, Set<String>> owner : wanted.entrySet()) {
+            for (String fileName : owner.getValue()) {
+                referenceRepository.save(new BlobReferenceEntity(owner.getKey(), fileName));
+                deltas.merge(fileName, 1L, Long::sum);
+            }
+        }
+        int changed = 0;
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            storedBlobRepository.adjustRefCount(delta.getKey(), delta.getValue());
+            changed += Math.abs(delta.getValue());
+        }
+        return changed;
+    }
+
+    // Drops the references of owners that no longer exist
+    private int releaseMissingOwners(List<String> ownerKeys) {
+        Set<Long> venueIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (String ownerKey : ownerKeys) {
+            Long id = ownerIdOf(ownerKey);
+            if (id != null && ownerKey.startsWith("venue:")) {
+                venueIds.add(id);
+            } else if (id != null && ownerKey.startsWith("user:")) {
+                userIds.add(id);
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        if (!venueIds.isEmpty()) {
+            venueRepository.findExistingIds(venueIds).forEach(venueId -> existing.add(venueOwner(venueId)));
+        }
+        if (!userIds.isEmpty()) {
+            userRepository.findExistingIds(userIds).forEach(userId -> existing.add(userOwner(userId)));
+        }
+
+        Map<String, List<String>> missing = new HashMap<>();
+        for (String ownerKey : ownerKeys) {
+            if (!existing.contains(ownerKey)) {
+                missing.put(ownerKey, List.of());
+            }
+        }
+        return missing.isEmpty() ? 0 : syncOwners(missing);
+    }
+
+    private static Long ownerIdOf(String ownerKey) {
+        try {
+            return Long.valueOf(ownerKey.substring(ownerKey.indexOf(':') + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.CounterDriftDTO;
+import com.example.collegia.dto.CounterReconciliationDTO;
+import com.example.collegia.entity.BookingEntity;
+import com.example.collegia.repository.BookingCounterRepository;
+import com.example.collegia.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Materialized booking counts per status, venue, custodian and day.
+ *
+ * BookingService reports every create, update, status change and delete here,
+ * inside the same transaction as the booking write, so the counters commit or
+ * roll back together with it. Status counters cover every booking; venue,
+ * custodian and day counters only count bookings that still hold their slot
+ * (anything but "canceled").
+ *
+ * Each counter is spread over {@code booking.counters.shards} rows and every
+ * update picks one at random, so concurrent bookings do not queue on one row
+ * lock (every new booking counts towards "status:pending"); reads add the
+ * shards up. A reconciliation pass recomputes all counters from booking_entity
+ * at startup, on a schedule and on demand, and reports drift. Recount and
+ * counters are read from one REPEATABLE READ snapshot, and a repair adds the
+ * drift to a counter only if it has not changed since, so a booking written
+ * meanwhile is never overwritten.
+ */
+@Service
+public class BookingCounterService {
+
+    public static final String STATUS = "status";
+    public static final String VENUE = "venue";
+    public static final String CUSTODIAN = "custodian";
+    public static final String DAY = "day";
+
+    @Autowired
+    private BookingCounterRepository counterRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Value("${booking.counters.shards:8}")
+    private int shards;
+
+    private volatile CounterReconciliationDTO lastReconciliation;
+
+    /**
+     * Counter keys ("dimension:key") a booking currently contributes to. Take
+     * this before mutating a booking and pass it to {@link #recordChange}.
+     */
+    public Set<String> keysOf(BookingEntity booking) {
+        Set<String> keys = new HashSet<>();
+        if (booking == null) {
+            return keys;
+        }
+        if (booking.getStatus() != null) {
+            keys.add(STATUS + ":" + booking.getStatus());
+        }
+        if (VenueAvailabilityIndex.holdsSlot(booking.getStatus())) {
+            if (booking.getVenue() != null && booking.getVenue().getVenueId() != null) {
+                keys.add(VENUE + ":" + booking.getVenue().getVenueId());
+            }
+            if (booking.getCustodian() != null && booking.getCustodian().getUserId() != null) {
+                keys.add(CUSTODIAN + ":" + booking.getCustodian().getUserId());
+            }
+            if (booking.getDate() != null) {
+                keys.add(DAY + ":" + VenueAvailabilityIndex.toLocalDate(booking.getDate()));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Move a booking from the counters it was in ({@code before}) to the ones
+     * it is in now; {@code after} is null when the booking was deleted.
+     */
+    @Transactional
+    public void recordChange(Set<String> before, BookingEntity after) {
+        Set<String> current = keysOf(after);
+        // sorted, so concurrent transactions lock counter rows in the same order
+        Map<String, Long> deltas = new TreeMap<>();
+        for (String key : before) {
+            if (!current.contains(key)) {
+                deltas.merge(key, -1L, Long::sum);
+            }
+        }
+        for (String key : current) {
+            if (!before.contains(key)) {
+                deltas.merge(key, 1L, Long::sum);
+            }
+        }
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Take a batch of bookings out of the counters, e.g. before their venue is deleted.
+     */
+    @Transactional
+    public void recordRemoved(Collection<BookingEntity> bookings) {
+        Map<String, Long> deltas = new TreeMap<>();
+        for (BookingEntity booking : bookings) {
+            for (String key : keysOf(booking)) {
+                deltas.merge(key, -1L, Long::sum);
+            }
+        }
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Current counts of one dimension, keyed by status, venue id, custodian id or ISO day.
+     */
+    public Map<String, Long> getCounts(String dimension) {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Object[] row : counterRepository.sumByDimension(dimension)) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * Current counts of one dimension for keys in [fromKey, toKey], e.g. the ISO days of a date range.
+     */
+    public Map<String, Long> getCounts(String dimension, String fromKey, String toKey) {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Object[] row : counterRepository.sumByDimensionBetween(dimension, fromKey, toKey)) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * Recount every dimension from booking_entity and compare with the stored
+     * counters. With {@code repair}, the drift is added to each drifted counter
+     * that no booking has moved since; the others are left for the next pass.
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public CounterReconciliationDTO reconcile(boolean repair) {
+        Map<String, Long> expected = new HashMap<>();
+        for (Object[] row : bookingRepository.countGroupedByStatus()) {
+            if (row[0] != null) {
+                expected.put(STATUS + ":" + row[0], (Long) row[1]);
+            }
+        }
+        for (Object[] row : bookingRepository.countActiveGroupedByVenue()) {
+            expected.put(VENUE + ":" + row[0], (Long) row[1]);
+        }
+        for (Object[] row : bookingRepository.countActiveGroupedByCustodian()) {
+            expected.put(CUSTODIAN + ":" + row[0], (Long) row[1]);
+        }
+        for (Object[] row : bookingRepository.countActiveGroupedByDate()) {
+            // DATETIME values of one calendar day fold into the same counter
+            expected.merge(DAY + ":" + VenueAvailabilityIndex.toLocalDate((Date) row[0]), (Long) row[1], Long::sum);
+        }
+
+        Map<String, Long> actual = new LinkedHashMap<>();
+        Map<String, Long> firstShard = new HashMap<>();
+        for (Object[] row : counterRepository.sumAll()) {
+            String key = row[0] + ":" + row[1];
+            actual.put(key, ((Number) row[2]).longValue());
+            firstShard.put(key, ((Number) row[3]).longValue());
+        }
+
+        Set<String> keys = new TreeSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+
+        CounterReconciliationDTO report = new CounterReconciliationDTO();
+        int skipped = 0;
+        for (String key : keys) {
+            long expectedTotal = expected.getOrDefault(key, 0L);
+            long actualTotal = actual.getOrDefault(key, 0L);
+            if (expectedTotal != actualTotal) {
+                String[] parts = key.split(":", 2);
+                report.getDrifts().add(new CounterDriftDTO(parts[0], parts[1], expectedTotal, actualTotal));
+                if (repair) {
+                    // make sure shard 0 exists, then move it by the drift unless a booking changed it meanwhile
+                    counterRepository.increment(parts[0], parts[1], 0, 0);
+                    if (counterRepository.addIfUnchanged(parts[0], parts[1], firstShard.getOrDefault(key, 0L),
+                            expectedTotal - actualTotal) == 0) {
+                        skipped++;
+                    }
+                }
+            }
+        }
+        report.setCountersChecked(keys.size());
+        report.setRepaired(repair);
+        report.setCheckedAt(Instant.now());
+
+        lastReconciliation = report;
+        if (report.getDrifts().isEmpty()) {
+            System.out.println("✅ Booking counters in sync (" + keys.size() + " checked)");
+        } else {
+            System.out.println("⚠️ Booking counters drifted: " + report.getDrifts().size() + " of " + keys.size()
+                + (repair ? " repaired" : " reported")
+                + (skipped > 0 ? ", " + skipped + " changed meanwhile and left for the next pass" : ""));
+        }
+        return report;
+    }
+
+    // Seeds the counters on first start and repairs anything written while they were not maintained
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public void reconcileOnStartup() {
+        reconcile(true);
+    }
+
+    @Scheduled(cron = "${booking.counters.reconcile-cron:0 0 3 * * *}")
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public void scheduledReconcile() {
+        reconcile(true);
+    }
+
+    public CounterReconciliationDTO getLastReconciliation() {
+        return lastReconciliation;
+    }
+
+    private void applyDeltas(Map<String, Long> deltas) {
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            if (delta.getValue() != 0) {
+                String[] parts = delta.getKey().split(":", 2);
+                counterRepository.increment(parts[0], parts[1], ThreadLocalRandom.current().nextInt(shards),
+                    delta.getValue());
+            }
+        }
+    }
+}
@@ -1,19 +1,36 @@
 package com.example.collegia.service;
 
+import com.example.collegia.dto.BookingPageDTO;
+import com.example.collegia.dto.BookingSearchCriteria;
+import com.example.collegia.dto.BookingSummaryDTO;
+import com.example.collegia.dto.TimeWindowDTO;
+import com.example.collegia.dto.VenueAvailabilityDTO;
 import com.example.collegia.entity.BookingEntity;
 import com.example.collegia.entity.UserEntity;
 import com.example.collegia.entity.VenueEntity;
+import com.example.collegia.exception.BookingConflictException;
 import com.example.collegia.repository.BookingRepository;
 import com.example.collegia.repository.UserRepository;
 import com.example.collegia.repository.VenueRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class BookingService {
@@ -27,6 +44,28 @@ public class BookingService {
     @Autowired
     private VenueRepository venueRepository;
 
+    @Autowired
+    private VenueAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private BookingSlotLocks slotLocks;
+
+    @Autowired
+    private BookingCounterService counterService;
+
+    @Value("${booking.day-start:07:00}")
+    private String dayStart;
+
+    @Value("${booking.day-end:23:00}")
+    private String dayEnd;
+
+    @Value("${booking.availability.max-days:62}")
+    private int maxAvailabilityDays;
+
+    @Value("${booking.search.max-page-size:200}")
+    private int maxSearchPageSize;
+
+    @Transactional
     public BookingEntity createBooking(BookingEntity booking, Long userId) {
         // Fetch and set user
         UserEntity user = userRepository.findById(userId)
@@ -46,7 +85,7 @@ public class BookingService {
         // Set default status to pending
         booking.setStatus("pending");
         
-        return bookingRepository.save(booking);
+        return saveCheckingSlot(booking, true, Set.of());
     }
     
     public List<BookingEntity> getBookingsByUser(Long userId) {
@@ -61,9 +100,18 @@ public class BookingService {
     }
     
     public List<BookingEntity> getBookingsByUserAndStatus(Long userId, String status) {
-        return bookingRepository.findByUserUserId(userId).stream()
-            .filter(booking -> status.equals(booking.getStatus()))
-            .toList();
+        return bookingRepository.findByUserUserIdAndStatus(userId, status);
+    }
+
+    // from/to are optional; when given, the range is [from, to] in whole days
+    public List<BookingSummaryDTO> getBookingSummariesByUserAndStatus(Long userId, String status,
+                                                                      LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return bookingRepository.findSummariesByUserAndStatus(userId, status);
+        }
+        Date start = Timestamp.valueOf((from != null ? from : LocalDate.of(1970, 1, 1)).atStartOfDay());
+        Date end = Timestamp.valueOf((to != null ? to.plusDays(1) : LocalDate.of(9999, 1, 1)).atStartOfDay());
+        return bookingRepository.findSummariesByUserAndStatusBetween(userId, status, start, end);
     }
     
     public List<BookingEntity> getBookingsForCustodian(Long custodianId) {
@@ -77,6 +125,28 @@ public class BookingService {
     public List<BookingEntity> getAllBookings() {
         return bookingRepository.findAll();
     }
+
+    // Listing read models: one SELECT each, no per-row association loads
+
+    public List<BookingSummaryDTO> getAllBookingSummaries() {
+        return bookingRepository.findAllSummaries();
+    }
+
+    public List<BookingSummaryDTO> getBookingSummariesByUser(Long userId) {
+        return bookingRepository.findSummariesByUserId(userId);
+    }
+
+    public List<BookingSummaryDTO> getUpcomingBookingSummariesByUser(Long userId) {
+        return bookingRepository.findSummariesByUserAndStatusIn(userId, Arrays.asList("pending", "approved"));
+    }
+
+    public List<BookingSummaryDTO> getBookingSummariesForCustodian(Long custodianId) {
+        return bookingRepository.findSummariesForCustodian(custodianId);
+    }
+
+    public List<BookingSummaryDTO> getPendingBookingSummariesForCustodian(Long custodianId) {
+        return bookingRepository.findPendingSummariesForCustodian(custodianId);
+    }
     
     public Optional<BookingEntity> getBookingById(Long id) {
         return bookingRepository.findById(id);
@@ -86,6 +156,10 @@ public class BookingService {
     public BookingEntity updateBooking(Long id, BookingEntity bookingDetails) {
         BookingEntity booking = bookingRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Booking not found with id: " + id));
+        boolean heldSlot = VenueAvailabilityIndex.holdsSlot(booking.getStatus());
+        Set<String> countedAs = counterService.keysOf(booking);
+        boolean slotMoved = !Objects.equals(booking.getDate(), bookingDetails.getDate())
+            || !Objects.equals(booking.getTimeSlot(), bookingDetails.getTimeSlot());
         
         // Update basic details
         booking.setEventName(bookingDetails.getEventName());
@@ -106,13 +180,15 @@ public class BookingService {
             booking.setCancelledAt(new Date());
         }
         
-        return bookingRepository.save(booking);
+        return saveCheckingSlot(booking, slotMoved || !heldSlot, countedAs);
     }
     
     @Transactional
     public BookingEntity updateBookingStatus(Long bookingId, String status, String cancelledBy) {
         BookingEntity booking = bookingRepository.findById(bookingId)
             .orElseThrow(() -> new RuntimeException("Booking not found with id: " + bookingId));
+        boolean heldSlot = VenueAvailabilityIndex.holdsSlot(booking.getStatus());
+        Set<String> countedAs = counterService.keysOf(booking);
         
         booking.setStatus(status);
         
@@ -121,13 +197,49 @@ public class BookingService {
             booking.setCancelledAt(new Date());
         }
         
-        return bookingRepository.save(booking);
+        // Re-activating a canceled booking has to win its slot back
+        return saveCheckingSlot(booking, !heldSlot, countedAs);
+    }
+
+    /**
+     * Save a booking while holding the lock stripe of its (venue, day), so the
+     * conflict check and the insert are atomic with respect to any other booking
+     * for the same venue and day. Other venues and days are not blocked.
+     * {@code countedAs} are the counter keys the booking had before this change.
+     */
+    private BookingEntity saveCheckingSlot(BookingEntity booking, boolean checkConflict, Set<String> countedAs) {
+        if (booking.getVenue() == null || booking.getDate() == null) {
+            BookingEntity savedBooking = bookingRepository.save(booking);
+            availabilityIndex.put(savedBooking);
+            counterService.recordChange(countedAs, savedBooking);
+            return savedBooking;
+        }
+
+        Long venueId = booking.getVenue().getVenueId();
+        LocalDate day = VenueAvailabilityIndex.toLocalDate(booking.getDate());
+        availabilityIndex.ensureReady();
+
+        return slotLocks.withLock(venueId, day, () -> {
+            if (checkConflict && VenueAvailabilityIndex.holdsSlot(booking.getStatus())
+                    && !availabilityIndex.isSlotFree(venueId, day, booking.getTimeSlot(), booking.getBookingId())) {
+                throw new BookingConflictException("Venue is already booked on " + day
+                    + (booking.getTimeSlot() != null ? " at " + booking.getTimeSlot() : ""));
+            }
+            BookingEntity savedBooking = bookingRepository.save(booking);
+            availabilityIndex.put(savedBooking);
+            counterService.recordChange(countedAs, savedBooking);
+            return savedBooking;
+        });
     }
     
+    @Transactional
     public void deleteBooking(Long id) {
         BookingEntity booking = bookingRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Booking not found with id: " + id));
+        Set<String> countedAs = counterService.keysOf(booking);
         bookingRepository.delete(booking);
+        availabilityIndex.remove(id);
+        counterService.recordChange(countedAs, null);
     }
     
     public List<BookingEntity> getBookingsByVenue(Long venueId) {
@@ -143,13 +255,105 @@ public class BookingService {
     }
     
     public boolean isVenueAvailable(Long venueId, Date date) {
+        if (availabilityIndex.isReady()) {
+            return availabilityIndex.isDayFree(venueId, VenueAvailabilityIndex.toLocalDate(date));
+        }
+
+        // Index not built yet (still starting up): fall back to the database
         List<BookingEntity> bookings = bookingRepository.findByDateAndVenueVenueId(date, venueId);
         return bookings.stream()
             .noneMatch(booking -> !"canceled".equals(booking.getStatus()));
     }
 
-    // used by Admin Dashboard for Booking Status Summary
+    // Conflict check for a single slot; excludeBookingId lets an update ignore itself
+    public boolean isSlotAvailable(Long venueId, Date date, Time timeSlot, Long excludeBookingId) {
+        if (availabilityIndex.isReady()) {
+            return availabilityIndex.isSlotFree(venueId, VenueAvailabilityIndex.toLocalDate(date), timeSlot, excludeBookingId);
+        }
+
+        List<BookingEntity> bookings = bookingRepository.findByDateAndVenueVenueId(date, venueId);
+        return bookings.stream()
+            .filter(booking -> !booking.getBookingId().equals(excludeBookingId))
+            .noneMatch(booking -> VenueAvailabilityIndex.holdsSlot(booking.getStatus())
+                && availabilityIndex.slotsOverlap(timeSlot, booking.getTimeSlot()));
+    }
+
+    /**
+     * Free time windows for many venues over a date range, answered from the
+     * availability index. Venues are picked by id, or by location/capacity
+     * when no ids are given, with a single query.
+     */
+    public List<VenueAvailabilityDTO> getAvailability(List<Long> venueIds, String location, Integer minCapacity,
+                                                      LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxAvailabilityDays) {
+            throw new IllegalArgumentException("Date range cannot exceed " + maxAvailabilityDays + " days");
+        }
+
+        List<VenueAvailabilityDTO> venues = (venueIds != null && !venueIds.isEmpty())
+            ? venueRepository.findAvailabilityHeadersByIds(venueIds)
+            : venueRepository.findAvailabilityHeaders(location, minCapacity != null ? minCapacity : 0);
+
+        availabilityIndex.ensureReady();
+        LocalTime open = LocalTime.parse(dayStart);
+        LocalTime close = LocalTime.parse(dayEnd);
+        int openMinute = open.getHour() * 60 + open.getMinute();
+        int closeMinute = close.getHour() * 60 + close.getMinute();
+
+        for (VenueAvailabilityDTO venue : venues) {
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                List<TimeWindowDTO> windows = new ArrayList<>();
+                for (int[] window : availabilityIndex.freeWindows(venue.getVenueId(), day, openMinute, closeMinute)) {
+                    windows.add(new TimeWindowDTO(formatMinute(window[0]), formatMinute(window[1])));
+                }
+                venue.getFreeWindows().put(day, windows);
+            }
+        }
+        return venues;
+    }
+
+    private static String formatMinute(int minute) {
+        return String.format("%02d:%02d", minute / 60, minute % 60);
+    }
+
+    /**
+     * Keyset-paginated booking search. The cursor is the (date, bookingId) of the
+     * last row of the previous page, so every page is an index range scan of
+     * {@code size + 1} rows no matter how deep the client pages.
+     */
+    public BookingPageDTO searchBookings(BookingSearchCriteria criteria) {
+        int size = Math.max(1, Math.min(criteria.getSize(), maxSearchPageSize));
+
+        Date afterDate = null;
+        Long afterId = null;
+        if (criteria.getCursor() != null && !criteria.getCursor().isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(criteria.getCursor()), StandardCharsets.UTF_8).split(":");
+                afterDate = new Date(Long.parseLong(parts[0]));
+                afterId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        // one extra row tells us whether another page exists
+        List<BookingSummaryDTO> rows = bookingRepository.searchSummaries(criteria, afterDate, afterId, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<BookingSummaryDTO> items = hasMore ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            BookingSummaryDTO last = items.get(items.size() - 1);
+            String position = last.getDate().getTime() + ":" + last.getBookingId();
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+        return new BookingPageDTO(new ArrayList<>(items), nextCursor, hasMore);
+    }
+
+    // used by Admin Dashboard for Booking Status Summary; served from the materialized counters
     public long countByStatus(String status) {
-        return bookingRepository.countByStatus(status);
+        return counterService.getCounts(BookingCounterService.STATUS).getOrDefault(status, 0L);
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.example.collegia.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks keyed by (venue, day). Bookings for the same venue and day
+ * are serialized so the check-then-insert of a slot is atomic, while bookings
+ * for other venues or days almost always land on different stripes and run
+ * in parallel.
+ */
+@Component
+public class BookingSlotLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public BookingSlotLocks(@Value("${booking.lock-stripes:64}") int stripeCount) {
+        // round up to a power of two so the stripe can be picked with a mask
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Run {@code action} while holding the stripe of the given (venue, day).
+     */
+    public <T> T withLock(Long venueId, LocalDate day, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripeIndex(venueId, day)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int stripeIndex(Long venueId, LocalDate day) {
+        int h = Objects.hash(venueId, day);
+        // spread the high bits, as HashMap does
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
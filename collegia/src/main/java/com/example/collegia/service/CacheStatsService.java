@@ -0,0 +1,87 @@
+package com.example.collegia.service;
+
+import com.example.collegia.config.SecondLevelCacheConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hit/miss metrics of the Hibernate second-level and query caches, overall
+ * and per region, read from Hibernate's statistics.
+ */
+@Service
+public class CacheStatsService {
+
+    private static final List<String> ENTITY_REGIONS = List.of(SecondLevelCacheConfig.VENUE_REGION,
+        SecondLevelCacheConfig.VENUE_AMENITIES_REGION, SecondLevelCacheConfig.VENUE_GALLERY_REGION,
+        SecondLevelCacheConfig.USER_REGION);
+
+    private static final List<String> QUERY_REGIONS = List.of(SecondLevelCacheConfig.VENUE_QUERY_REGION,
+        SecondLevelCacheConfig.DEFAULT_QUERY_REGION);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public Map<String, Object> getCacheStats() {
+        Statistics statistics = statistics();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        stats.put("since", statistics.getStart());
+        stats.put("secondLevelCache", counts(statistics.getSecondLevelCacheHitCount(),
+            statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        stats.put("queryCache", counts(statistics.getQueryCacheHitCount(),
+            statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : ENTITY_REGIONS) {
+            regions.put(region, regionCounts(statistics.getDomainDataRegionStatistics(region)));
+        }
+        for (String region : QUERY_REGIONS) {
+            regions.put(region, regionCounts(statistics.getQueryRegionStatistics(region)));
+        }
+        stats.put("regions", regions);
+        return stats;
+    }
+
+    public void resetStats() {
+        statistics().clear();
+    }
+
+    /**
+     * Drop every cached venue, user and query result, e.g. after editing the database by hand.
+     */
+    public void evictAll() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        System.out.println("🧹 Second-level cache cleared");
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static Map<String, Object> regionCounts(CacheRegionStatistics region) {
+        if (region == null) {
+            return counts(0, 0, 0);
+        }
+        Map<String, Object> counts = counts(region.getHitCount(), region.getMissCount(), region.getPutCount());
+        counts.put("entriesInMemory", region.getElementCountInMemory());
+        return counts;
+    }
+
+    private static Map<String, Object> counts(long hits, long misses, long puts) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("puts", puts);
+        counts.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return counts;
+    }
+}
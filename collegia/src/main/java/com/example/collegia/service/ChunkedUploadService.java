@@ -0,0 +1,347 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.ChunkedUploadDTO;
+import com.example.collegia.dto.StoredFileDTO;
+import com.example.collegia.exception.UploadDigestMismatchException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Resumable uploads in fixed-size chunks, for files too large for one
+ * multipart request or for connections that drop.
+ *
+ * A client announces the file's name, size and SHA-256, then sends chunks
+ * in any order and in parallel, each with its offset. Every chunk is
+ * written at that offset into a file preallocated to the full size, so a
+ * retried chunk overwrites its own bytes and nothing else. Once all chunks
+ * are in, the file is hashed, checked against the announced digest and
+ * moved into the store like any other upload. Sessions live in memory and
+ * expire, with their bytes, after a period without chunks; their files are
+ * kept in their own directory, which the upload sweeper does not touch, so
+ * this expiry is the only thing that removes them.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${file.chunked.chunk-size:1MB}")
+    private DataSize chunkSize = DataSize.ofMegabytes(1);
+
+    @Value("${file.chunked.max-file-size:100MB}")
+    private DataSize maxFileSize = DataSize.ofMegabytes(100);
+
+    // each open session holds its full size on disk
+    @Value("${file.chunked.max-sessions:100}")
+    private int maxSessions = 100;
+
+    @Value("${file.chunked.session-ttl:24h}")
+    private Duration sessionTtl = Duration.ofHours(24);
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Open a session for a file of {@code size} bytes hashing to {@code sha256}.
+     */
+    public ChunkedUploadDTO start(String fileName, long size, String sha256) throws IOException {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("fileName is required");
+        }
+        if (size <= 0 || size > maxFileSize.toBytes()) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxFileSize.toBytes() + " bytes");
+        }
+        String digest = sha256 == null ? "" : sha256.toLowerCase(Locale.ROOT);
+        if (!SHA256_HEX.matcher(digest).matches()) {
+            throw new IllegalArgumentException("sha256 must be 64 hex digits");
+        }
+        if (sessions.size() >= maxSessions) {
+            throw new IllegalStateException("Too many uploads in progress, try again later");
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        Path path = fileStorageService.getChunkedLocation().resolve(uploadId + ".part");
+        // reserve the full length up front; chunks then only ever overwrite
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(size);
+        }
+        UploadSession session = new UploadSession(uploadId, fileName, size, digest, (int) chunkSize.toBytes(), path);
+        sessions.put(uploadId, session);
+        System.out.println("✅ Chunked upload started: " + uploadId + " (" + fileName + ", " + size + " bytes)");
+        return status(session);
+    }
+
+    /**
+     * Write the chunk starting at {@code offset}. Sending a chunk again
+     * replaces it. If {@code chunkSha256} is given, the chunk only counts as
+     * received when it matches. Returns null for an unknown upload.
+     */
+    public ChunkedUploadDTO writeChunk(String uploadId, long offset, InputStream body, String chunkSha256)
+            throws IOException {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            return null;
+        }
+        if (offset < 0 || offset >= session.size || offset % session.chunkSize != 0) {
+            throw new IllegalArgumentException("offset must be a multiple of " + session.chunkSize + " below " + session.size);
+        }
+        int index = (int) (offset / session.chunkSize);
+        long expected = Math.min(session.chunkSize, session.size - offset);
+
+        synchronized (session) {
+            if (session.closing) {
+                throw new IllegalStateException("Upload is being completed or discarded");
+            }
+            session.writers++;
+            // a chunk being rewritten is not received again until all its bytes are
+            session.received.clear(index);
+        }
+        try {
+            MessageDigest digest = chunkSha256 != null ? FileStorageService.sha256() : null;
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(session.path, StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[(int) Math.min(expected, 64 * 1024)];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    if (written + read > expected) {
+                        throw new IllegalArgumentException("Chunk at offset " + offset + " is longer than " + expected + " bytes");
+                    }
+                    if (digest != null) {
+                        digest.update(buffer, 0, read);
+                    }
+                    ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                    while (bytes.hasRemaining()) {
+                        written += channel.write(bytes, offset + written);
+                    }
+                }
+            }
+            if (written != expected) {
+                throw new IllegalArgumentException("Chunk at offset " + offset + " has " + written
+                    + " bytes, expected " + expected);
+            }
+            if (digest != null && !HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(chunkSha256)) {
+                throw new UploadDigestMismatchException("Chunk at offset " + offset + " does not match its SHA-256");
+            }
+            synchronized (session) {
+                session.received.set(index);
+                session.lastActivity = Instant.now();
+                return status(session);
+            }
+        } finally {
+            synchronized (session) {
+                session.writers--;
+            }
+        }
+    }
+
+    /**
+     * Which chunks have arrived, or null for an unknown upload.
+     */
+    public ChunkedUploadDTO getStatus(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            return null;
+        }
+        synchronized (session) {
+            return status(session);
+        }
+    }
+
+    /**
+     * Verify the assembled file against the announced SHA-256 and store it.
+     * On a mismatch the session is dropped and the upload has to start over.
+     * Returns null for an unknown upload.
+     */
+    public StoredFileDTO complete(String uploadId) throws IOException {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            return null;
+        }
+        synchronized (session) {
+            if (session.closing) {
+                throw new IllegalStateException("Upload is already being completed or discarded");
+            }
+            int missing = session.chunkCount() - session.received.cardinality();
+            if (missing > 0 || session.writers > 0) {
+                throw new IllegalStateException(missing > 0
+                    ? missing + " chunks are still missing"
+                    : "Chunks are still being written");
+            }
+            session.closing = true;
+        }
+
+        try {
+            MessageDigest digest = FileStorageService.sha256();
+            byte[] head = new byte[FileStorageService.SNIFF_LENGTH];
+            int headLength = 0;
+            try (InputStream in = Files.newInputStream(session.path)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    if (headLength < head.length) {
+                        int copied = Math.min(read, head.length - headLength);
+                        System.arraycopy(buffer, 0, head, headLength, copied);
+                        headLength += copied;
+                    }
+                    digest.update(buffer, 0, read);
+                }
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            if (!sha256.equals(session.sha256)) {
+                discard(session);
+                throw new UploadDigestMismatchException("Assembled file hashes to " + sha256
+                    + ", expected " + session.sha256);
+            }
+
+            StoredFileDTO stored = fileStorageService.storeWritten(session.path, session.fileName, session.size,
+                sha256, FileStorageService.sniffContentType(head, headLength));
+            sessions.remove(uploadId);
+            System.out.println("✅ Chunked upload completed: " + uploadId + " -> " + stored.getFileName());
+            return stored;
+        } catch (IOException | RuntimeException e) {
+            synchronized (session) {
+                session.closing = false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drop an upload and its bytes. Returns false for an unknown upload;
+     * an upload with chunks still being written, or being completed, is
+     * left alone.
+     */
+    public boolean abort(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            return false;
+        }
+        synchronized (session) {
+            if (session.closing || session.writers > 0) {
+                throw new IllegalStateException(session.closing
+                    ? "Upload is being completed or discarded"
+                    : "Chunks are still being written");
+            }
+            session.closing = true;
+        }
+        discard(session);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${file.chunked.expiry-check:PT10M}")
+    public void expireIdleSessions() {
+        Instant cutoff = Instant.now().minus(sessionTtl);
+        for (UploadSession session : sessions.values()) {
+            synchronized (session) {
+                if (session.closing || session.writers > 0 || session.lastActivity.isAfter(cutoff)) {
+                    continue;
+                }
+                session.closing = true;
+            }
+            System.out.println("♻️ Chunked upload expired: " + session.uploadId);
+            discard(session);
+        }
+        removeLeftovers(cutoff);
+    }
+
+    // files whose session is gone, e.g. lost in a restart, once they too have been idle for the TTL
+    private void removeLeftovers(Instant cutoff) {
+        try (Stream<Path> files = Files.list(fileStorageService.getChunkedLocation())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                String uploadId = name.endsWith(".part") ? name.substring(0, name.length() - 5) : name;
+                if (!sessions.containsKey(uploadId) && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    System.out.println("♻️ Removing leftover chunked upload " + name);
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("⚠️ Could not clean up chunked uploads: " + e.getMessage());
+        }
+    }
+
+    private void discard(UploadSession session) {
+        sessions.remove(session.uploadId);
+        try {
+            Files.deleteIfExists(session.path);
+        } catch (IOException e) {
+            // removed as a leftover by a later expiry check
+            System.out.println("⚠️ Could not delete " + session.path + ": " + e.getMessage());
+        }
+    }
+
+    // callers hold the session's lock
+    private ChunkedUploadDTO status(UploadSession session) {
+        ChunkedUploadDTO status = new ChunkedUploadDTO();
+        status.setUploadId(session.uploadId);
+        status.setFileName(session.fileName);
+        status.setSize(session.size);
+        status.setChunkSize(session.chunkSize);
+        status.setChunkCount(session.chunkCount());
+        status.setReceivedChunks(session.received.cardinality());
+        long receivedBytes = 0;
+        for (int i = 0; i < session.chunkCount(); i++) {
+            if (session.received.get(i)) {
+                receivedBytes += Math.min(session.chunkSize, session.size - (long) i * session.chunkSize);
+            } else {
+                status.getMissingChunks().add(i);
+            }
+        }
+        status.setReceivedBytes(receivedBytes);
+        status.setExpiresAt(session.lastActivity.plus(sessionTtl));
+        return status;
+    }
+
+    private static class UploadSession {
+        private final String uploadId;
+        private final String fileName;
+        private final long size;
+        private final String sha256;
+        private final int chunkSize;
+        private final Path path;
+        private final BitSet received = new BitSet();
+        private Instant lastActivity = Instant.now();
+        // chunk writes in progress; completion and abort wait until there are none
+        private int writers;
+        // being completed, aborted or expired; no chunk write starts once this is set
+        private boolean closing;
+
+        UploadSession(String uploadId, String fileName, long size, String sha256, int chunkSize, Path path) {
+            this.uploadId = uploadId;
+            this.fileName = fileName;
+            this.size = size;
+            this.sha256 = sha256;
+            this.chunkSize = chunkSize;
+            this.path = path;
+        }
+
+        int chunkCount() {
+            return (int) ((size + chunkSize - 1) / chunkSize);
+        }
+    }
+}
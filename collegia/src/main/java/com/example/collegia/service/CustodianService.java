@@ -1,8 +1,10 @@
 package com.example.collegia.service;
 
 import com.example.collegia.entity.CustodianEntity;
+import com.example.collegia.event.VenueChangedEvent;
 import com.example.collegia.repository.CustodianRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Optional;
@@ -12,6 +14,9 @@ public class CustodianService {
     
     @Autowired
     private CustodianRepository custodianRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     public List<CustodianEntity> getAllCustodians() {
         return custodianRepository.findAll();
@@ -34,13 +39,18 @@ public class CustodianService {
         custodian.setDepartment(custodianDetails.getDepartment());
         custodian.setEmail(custodianDetails.getEmail());
         
-        return custodianRepository.save(custodian);
+        CustodianEntity savedCustodian = custodianRepository.save(custodian);
+        // venue listings show the custodian's name
+        eventPublisher.publishEvent(VenueChangedEvent.bulk());
+        return savedCustodian;
     }
     
     public void deleteCustodian(Long id) {
         CustodianEntity custodian = custodianRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Custodian not found with id: " + id));
         custodianRepository.delete(custodian);
+        // the custodian's venues are deleted with them
+        eventPublisher.publishEvent(VenueChangedEvent.bulk());
     }
     
     public List<CustodianEntity> getCustodiansByDepartment(String department) {
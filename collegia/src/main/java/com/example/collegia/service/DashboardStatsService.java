@@ -0,0 +1,193 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.DashboardStatsDTO;
+import com.example.collegia.dto.VenueUtilizationDTO;
+import com.example.collegia.repository.BookingRepository;
+import com.example.collegia.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Admin dashboard statistics: user-type and booking-status counts, per-venue
+ * utilization and a bookings-per-day histogram, each computed with a single
+ * query (booking-status counts and the histogram come from the materialized
+ * booking counters) and served from a short-lived cache.
+ */
+@Service
+public class DashboardStatsService {
+
+    private static final Map<String, String> USER_TYPE_KEYS = new LinkedHashMap<>();
+    static {
+        USER_TYPE_KEYS.put("Student", "students");
+        USER_TYPE_KEYS.put("Faculty", "faculty");
+        USER_TYPE_KEYS.put("Coordinator", "coordinators");
+        USER_TYPE_KEYS.put("Custodian", "custodians");
+        USER_TYPE_KEYS.put("Admin", "admins");
+    }
+
+    private static final List<String> BOOKING_STATUSES = List.of("pending", "approved", "rejected", "canceled");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingCounterService counterService;
+
+    @Value("${admin.stats.cache-ttl-seconds:30}")
+    private long cacheTtlSeconds;
+
+    @Value("${admin.stats.window-days:30}")
+    private int windowDays;
+
+    @Value("${admin.stats.max-days:366}")
+    private int maxDays;
+
+    @Value("${booking.day-start:07:00}")
+    private String dayStart;
+
+    @Value("${booking.day-end:23:00}")
+    private String dayEnd;
+
+    @Value("${booking.slot-minutes:60}")
+    private int slotMinutes;
+
+    private final Map<String, Cached<?>> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Full dashboard for [from, to]; defaults to {@code admin.stats.window-days}
+     * either side of today. Ranges longer than {@code admin.stats.max-days} are
+     * rejected, since the histogram holds an entry for every day.
+     */
+    public DashboardStatsDTO getDashboardStats(LocalDate from, LocalDate to, boolean refresh) {
+        LocalDate today = LocalDate.now();
+        LocalDate start = from != null ? from : today.minusDays(windowDays);
+        LocalDate end = to != null ? to : today.plusDays(windowDays);
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= maxDays) {
+            throw new IllegalArgumentException("Date range cannot exceed " + maxDays + " days");
+        }
+
+        return cached("dashboard:" + start + ":" + end, refresh, () -> {
+            DashboardStatsDTO stats = new DashboardStatsDTO();
+            stats.setUserCounts(computeUserCounts());
+            stats.setBookingStatus(computeBookingStatusCounts());
+            stats.setVenueUtilization(computeVenueUtilization(start, end));
+            stats.setBookingsPerDay(computeBookingsPerDay(start, end));
+            stats.setFrom(start);
+            stats.setTo(end);
+            stats.setGeneratedAt(Instant.now());
+            return stats;
+        });
+    }
+
+    // Same keys as the original /api/admin/user-counts response
+    public Map<String, Long> getUserCounts() {
+        return cached("userCounts", false, this::computeUserCounts);
+    }
+
+    public Map<String, Long> getBookingStatusCounts() {
+        return cached("bookingStatus", false, this::computeBookingStatusCounts);
+    }
+
+    private Map<String, Long> computeUserCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        USER_TYPE_KEYS.values().forEach(key -> counts.put(key, 0L));
+
+        for (Object[] row : userRepository.countGroupedByUserType()) {
+            String key = USER_TYPE_KEYS.get((String) row[0]);
+            if (key != null) {
+                counts.put(key, (Long) row[1]);
+            }
+        }
+
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        counts.put("totalUsers", total);
+        return counts;
+    }
+
+    private Map<String, Long> computeBookingStatusCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        BOOKING_STATUSES.forEach(status -> counts.put(status, 0L));
+
+        // materialized counters: a handful of rows instead of a booking_entity scan
+        counterService.getCounts(BookingCounterService.STATUS).forEach((status, total) -> {
+            if (counts.containsKey(status)) {
+                counts.put(status, total);
+            }
+        });
+        return counts;
+    }
+
+    private List<VenueUtilizationDTO> computeVenueUtilization(LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        long openMinutes = Duration.between(LocalTime.parse(dayStart), LocalTime.parse(dayEnd)).toMinutes();
+        long bookableSlots = Math.max(1, days * (openMinutes / slotMinutes));
+
+        List<VenueUtilizationDTO> utilization = new ArrayList<>();
+        for (Object[] row : bookingRepository.countBookingsPerVenue(startOf(from), startOf(to.plusDays(1)))) {
+            long bookings = (Long) row[2];
+            utilization.add(new VenueUtilizationDTO((Long) row[0], (String) row[1], bookings,
+                Math.min(1.0, (double) bookings / bookableSlots)));
+        }
+        return utilization;
+    }
+
+    private Map<LocalDate, Long> computeBookingsPerDay(LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> histogram = new TreeMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            histogram.put(day, 0L);
+        }
+        // the day counters already count slot-holding bookings per calendar day; days without one have no row
+        counterService.getCounts(BookingCounterService.DAY, from.toString(), to.toString())
+            .forEach((day, total) -> histogram.put(LocalDate.parse(day), total));
+        return histogram;
+    }
+
+    private static Date startOf(LocalDate day) {
+        return Timestamp.valueOf(day.atStartOfDay());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String key, boolean refresh, Supplier<T> loader) {
+        Cached<?> entry = cache.get(key);
+        if (!refresh && entry != null && entry.expiresAt.isAfter(Instant.now())) {
+            return (T) entry.value;
+        }
+        T value = loader.get();
+        // dashboard windows are caller-chosen, so drop stale entries instead of letting them pile up
+        cache.values().removeIf(cached -> cached.expiresAt.isBefore(Instant.now()));
+        cache.put(key, new Cached<>(value, Instant.now().plusSeconds(cacheTtlSeconds)));
+        return value;
+    }
+
+    private static class Cached<T> {
+        private final T value;
+        private final Instant expiresAt;
+
+        Cached(T value, Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,27 +1,78 @@
 package com.example.collegia.service;
 
+import com.example.collegia.dto.StoredFileDTO;
+import com.example.collegia.entity.StoredBlobEntity;
+import com.example.collegia.event.FileStoredEvent;
+import com.example.collegia.repository.StoredBlobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 @Service
 public class FileStorageService {
     
+    // uploads being written; whatever is left here after a crash is swept by UploadGarbageCollector
+    static final String INCOMING_DIR = "incoming";
+    
+    // resumable uploads being assembled; their sessions may sit idle for longer than the sweeper's
+    // grace period, so the sweeper leaves this directory to ChunkedUploadService
+    static final String CHUNKED_DIR = "chunked";
+    
+    // enough leading bytes for every signature sniffContentType knows
+    static final int SNIFF_LENGTH = 16;
+    
+    // extension for uploads whose original name has none
+    private static final Map<String, String> EXTENSIONS = Map.of(
+        "image/jpeg", ".jpg", "image/png", ".png", "image/gif", ".gif",
+        "image/webp", ".webp", "image/bmp", ".bmp", "application/pdf", ".pdf");
+    
+    // SHA-256 hex of the content, optionally with a variant suffix and an extension
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("[0-9a-f]{64}(_[a-z]+)?(\\.[A-Za-z0-9]+)?");
+    
     @Value("${file.upload-dir:uploads}")
     private String uploadDir;
     
+    // store uploads once per distinct content under their digest instead of under a fresh UUID
+    @Value("${file.content-addressed:false}")
+    private boolean contentAddressed;
+    
     private Path fileStorageLocation;
     
+    // content-addressed blobs live under blobs/ab/cd/abcd..., so no directory grows too large
+    private Path blobLocation;
+    
+    // read and write buffer of the single-pass copy in storeStream
+    @Value("${file.copy-buffer-size:64KB}")
+    private DataSize copyBufferSize = DataSize.ofKilobytes(64);
+    
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     @PostConstruct
     public void init() {
         try {
@@ -34,6 +85,7 @@ public class FileStorageService {
                 Files.createDirectories(this.fileStorageLocation);
                 System.out.println("✅ Created upload directory: " + this.fileStorageLocation.toString());
             }
+            this.blobLocation = this.fileStorageLocation.resolve("blobs");
         } catch (IOException ex) {
             throw new RuntimeException("Could not create upload directory", ex);
         }
@@ -49,30 +101,14 @@ public class FileStorageService {
                 throw new RuntimeException("File is empty");
             }
             
-            // Clean filename and generate unique name
-            String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
-            String fileExtension = "";
-            
-            // Extract file extension
-            if (originalFileName.contains(".")) {
-                fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
-            }
-            
-            // Generate unique filename
-            String fileName = UUID.randomUUID().toString() + fileExtension;
-            
-            // Resolve path and copy file
-            Path targetLocation = this.fileStorageLocation.resolve(fileName);
-            
             try (InputStream inputStream = file.getInputStream()) {
-                Files.copy(inputStream, targetLocation, StandardCopyOption.REPLACE_EXISTING);
+                StoredFileDTO stored = storeStream(inputStream, file.getOriginalFilename());
+                if (stored == null) {
+                    throw new RuntimeException("File is empty");
+                }
+                return stored.getFileName();
             }
             
-            System.out.println("✅ File stored: " + fileName + " at " + targetLocation);
-            
-            // Return the filename (frontend will access via /uploads/filename)
-            return fileName;
-            
         } catch (IOException ex) {
             System.err.println("❌ Error storing file: " + ex.getMessage());
             ex.printStackTrace();
@@ -80,12 +116,219 @@ public class FileStorageService {
         }
     }
     
+    /**
+     * Store everything {@code inputStream} yields in one pass: each buffer is
+     * hashed, checked for a known file signature and written once, to a
+     * temporary file in the upload directory that is then renamed into place.
+     * The stream is read to its end but not closed. Returns null, storing
+     * nothing, if it was empty.
+     *
+     * In content-addressed mode the temporary file is discarded when a blob
+     * with the same digest already exists, and the earlier name is returned.
+     */
+    public StoredFileDTO storeStream(InputStream inputStream, String originalFileName) throws IOException {
+        Path temp = Files.createTempFile(getIncomingLocation(), "upload-", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            byte[] buffer = new byte[(int) copyBufferSize.toBytes()];
+            byte[] head = new byte[SNIFF_LENGTH];
+            int headLength = 0;
+            long size = 0;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    if (headLength < SNIFF_LENGTH) {
+                        int copied = Math.min(read, SNIFF_LENGTH - headLength);
+                        System.arraycopy(buffer, 0, head, headLength, copied);
+                        headLength += copied;
+                    }
+                    sha256.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+            if (size == 0) {
+                return null;
+            }
+            return storeWritten(temp, originalFileName, size, HexFormat.of().formatHex(sha256.digest()),
+                sniffContentType(head, headLength));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * Move a file that has been written completely into the incoming or
+     * chunked directory to its place in the store, given its size, SHA-256 and
+     * sniffed content type. In content-addressed mode the file is deleted
+     * instead if the same bytes are stored already.
+     */
+    public StoredFileDTO storeWritten(Path temp, String originalFileName, long size, String digest,
+                                      String contentType) throws IOException {
+        String fileExtension = extensionOf(originalFileName);
+        if (fileExtension.isEmpty()) {
+            fileExtension = EXTENSIONS.getOrDefault(contentType, "");
+        }
+        
+        String fileName;
+        boolean duplicate = false;
+        if (contentAddressed) {
+            fileName = storedBlobRepository.findById(digest)
+                .map(StoredBlobEntity::getFileName)
+                .orElse(digest + fileExtension);
+            duplicate = Files.exists(resolvePath(fileName));
+        } else {
+            fileName = UUID.randomUUID().toString() + fileExtension;
+        }
+        
+        Path targetLocation = resolvePath(fileName);
+        if (!duplicate) {
+            Files.createDirectories(targetLocation.getParent());
+            Files.move(temp, targetLocation, StandardCopyOption.ATOMIC_MOVE);
+        } else {
+            Files.deleteIfExists(temp);
+            // an old unreferenced blob handed out again gets a fresh grace period from the upload sweeper
+            Files.setLastModifiedTime(targetLocation, FileTime.from(Instant.now()));
+        }
+        if (contentAddressed) {
+            storedBlobRepository.registerUpload(digest, fileName, size, Instant.now());
+        }
+        
+        if (duplicate) {
+            System.out.println("♻️ Duplicate upload, reusing " + fileName);
+        } else {
+            System.out.println("✅ File stored: " + fileName + " at " + targetLocation);
+            // thumbnail, card and full variants are generated in the background
+            eventPublisher.publishEvent(new FileStoredEvent(fileName));
+        }
+        return new StoredFileDTO(fileName, size, digest, contentType, duplicate);
+    }
+    
+    /**
+     * Where uploads are written before they are moved into place; on the
+     * same file system as the store, so the move is a rename.
+     */
+    public Path getIncomingLocation() throws IOException {
+        return Files.createDirectories(fileStorageLocation.resolve(INCOMING_DIR));
+    }
+    
+    /**
+     * Where chunked uploads are assembled, next to the incoming directory
+     * but out of the upload sweeper's reach.
+     */
+    public Path getChunkedLocation() throws IOException {
+        return Files.createDirectories(fileStorageLocation.resolve(CHUNKED_DIR));
+    }
+    
+    /**
+     * Undo a store whose file ended up unused, e.g. because the request that
+     * uploaded it failed. Files that were already there before (duplicates),
+     * or that another upload has stored too, are left alone.
+     */
+    public void discard(StoredFileDTO stored) {
+        if (stored == null || stored.isDuplicate()) {
+            return;
+        }
+        String fileName = stored.getFileName();
+        if (contentAddressed && storedBlobRepository.deleteIfSoleUpload(fileName) == 0) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(resolvePath(fileName));
+            if (ImageDerivativeService.isImage(fileName)) {
+                // variants generated in the meantime
+                for (ImageDerivativeService.Variant variant : ImageDerivativeService.Variant.values()) {
+                    Files.deleteIfExists(resolvePath(ImageDerivativeService.variantName(fileName, variant)));
+                }
+            }
+            System.out.println("♻️ Discarded unused upload " + fileName);
+        } catch (IOException e) {
+            System.out.println("⚠️ Could not discard " + fileName + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Content type from the leading bytes of a file; clients label uploads
+     * by extension, which is not to be trusted.
+     */
+    static String sniffContentType(byte[] head, int length) {
+        if (startsWith(head, length, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(head, length, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(head, length, 'R', 'I', 'F', 'F') && length >= 12
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        if (startsWith(head, length, 'B', 'M')) {
+            return "image/bmp";
+        }
+        if (startsWith(head, length, '%', 'P', 'D', 'F', '-')) {
+            return "application/pdf";
+        }
+        return "application/octet-stream";
+    }
+    
+    private static boolean startsWith(byte[] head, int length, int... signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static String extensionOf(String originalFileName) {
+        if (originalFileName == null) {
+            return "";
+        }
+        // Clean filename and extract the extension
+        String cleaned = StringUtils.cleanPath(originalFileName);
+        String name = cleaned.substring(cleaned.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot).toLowerCase(Locale.ROOT) : "";
+    }
+    
+    /**
+     * Where a stored file lives: content-addressed names in their shard
+     * directory, anything else directly in the upload directory.
+     */
+    public Path resolvePath(String fileName) {
+        if (isContentAddressed(fileName)) {
+            return blobLocation.resolve(fileName.substring(0, 2))
+                    .resolve(fileName.substring(2, 4))
+                    .resolve(fileName)
+                    .normalize();
+        }
+        return fileStorageLocation.resolve(fileName).normalize();
+    }
+    
+    public static boolean isContentAddressed(String fileName) {
+        return fileName != null && CONTENT_ADDRESSED_NAME.matcher(fileName).matches();
+    }
+    
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
     /**
      * Check if file exists
      */
     public boolean fileExists(String fileName) {
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
+            Path filePath = resolvePath(fileName);
             return Files.exists(filePath);
         } catch (Exception ex) {
             return false;
@@ -0,0 +1,402 @@
+package com.example.collegia.service;
+
+import com.example.collegia.config.AsyncConfig;
+import com.example.collegia.event.FileStoredEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded-size variants of uploaded images.
+ *
+ * Every uploaded photo gets a thumbnail, a card and a full-size variant,
+ * stored next to the original as {@code <name>_<variant>.<ext>}, so their
+ * URLs follow from the stored name alone. Variants are oriented according
+ * to the EXIF Orientation tag and re-encoded, which also drops the original
+ * metadata (camera details, GPS position). PNG and GIF uploads become PNG
+ * variants to keep transparency; everything else becomes JPEG.
+ *
+ * Generation runs on the image derivative executor after the upload has
+ * been answered. Until a variant exists the original is served instead.
+ */
+@Service
+public class ImageDerivativeService {
+
+    public enum Variant {
+        THUMB(200), CARD(640), FULL(1920);
+
+        private final int maxEdge;
+
+        Variant(int maxEdge) {
+            this.maxEdge = maxEdge;
+        }
+
+        public int getMaxEdge() {
+            return maxEdge;
+        }
+
+        public String suffix() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * The variant named by a {@code size} parameter, or null for the original.
+         */
+        public static Variant fromParameter(String size) {
+            if (size == null || size.isBlank() || size.equalsIgnoreCase("original")) {
+                return null;
+            }
+            return Variant.valueOf(size.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "bmp");
+    private static final Set<String> LOSSLESS_EXTENSIONS = Set.of("png", "gif");
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    // refuse to decode anything larger, a 10 MB upload can still be a decompression bomb
+    private static final long MAX_PIXELS = 60_000_000L;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    @Qualifier(AsyncConfig.IMAGE_DERIVATIVE_EXECUTOR)
+    private ThreadPoolTaskExecutor executor;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    // originals with derivatives being generated, so a burst of requests queues one job
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    // originals that could not be decoded, so serving them does not retry on every request
+    private final Set<String> unreadable = ConcurrentHashMap.newKeySet();
+
+    @EventListener
+    public void onFileStored(FileStoredEvent event) {
+        try {
+            executor.execute(() -> generateDerivatives(event.getFileName()));
+        } catch (TaskRejectedException e) {
+            // counted in getStats() rather than logged: resolve() queues again on every
+            // request for a missing variant, so a full queue would log once per request
+            rejected.incrementAndGet();
+        }
+    }
+
+    /**
+     * Queue depth of the derivative executor and generation jobs turned away since startup.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaxPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueueSize());
+        stats.put("queueCapacity", executor.getQueueCapacity());
+        stats.put("rejected", rejected.get());
+        stats.put("inFlight", inFlight.size());
+        stats.put("unreadable", unreadable.size());
+        return stats;
+    }
+
+    /**
+     * Write every variant of {@code fileName}. Files that are not images, or
+     * are themselves variants, are left alone.
+     */
+    public void generateDerivatives(String fileName) {
+        if (!isImage(fileName) || isVariant(fileName) || !inFlight.add(fileName)) {
+            return;
+        }
+        Path original = fileStorageService.resolvePath(fileName);
+        try {
+            // content-addressed uploads of bytes seen before already have their variants
+            boolean generated = true;
+            for (Variant variant : Variant.values()) {
+                generated &= fileStorageService.fileExists(variantName(fileName, variant));
+            }
+            if (generated) {
+                return;
+            }
+
+            long start = System.currentTimeMillis();
+            BufferedImage image = read(original);
+            if (image == null) {
+                unreadable.add(fileName);
+                System.out.println("⚠️ Not a readable image, no derivatives: " + fileName);
+                return;
+            }
+            int orientation = readExifOrientation(original);
+            for (Variant variant : Variant.values()) {
+                BufferedImage scaled = orient(scaleToFit(image, variant.getMaxEdge()), orientation);
+                write(scaled, fileStorageService.resolvePath(variantName(fileName, variant)));
+            }
+            System.out.println("✅ Image derivatives generated for " + fileName + " in "
+                + (System.currentTimeMillis() - start) + " ms");
+        } catch (IOException | RuntimeException e) {
+            unreadable.add(fileName);
+            System.err.println("❌ Could not generate derivatives for " + fileName + ": " + e.getMessage());
+        } finally {
+            inFlight.remove(fileName);
+        }
+    }
+
+    /**
+     * The file to serve for {@code fileName} at {@code variant}: the variant
+     * when it has been generated, otherwise the original (and generation is
+     * queued if it never ran).
+     */
+    public String resolve(String fileName, Variant variant) {
+        if (variant == null || !isImage(fileName) || isVariant(fileName)) {
+            return fileName;
+        }
+        String derived = variantName(fileName, variant);
+        if (fileStorageService.fileExists(derived)) {
+            return derived;
+        }
+        // uploaded before variants existed, or the queue was full: go through the
+        // event so generation runs on the executor rather than this request
+        if (!inFlight.contains(fileName) && !unreadable.contains(fileName) && fileStorageService.fileExists(fileName)) {
+            eventPublisher.publishEvent(new FileStoredEvent(fileName));
+        }
+        return fileName;
+    }
+
+    /**
+     * {@code abc.jpg} becomes {@code abc_card.jpg}; PNG and GIF originals get PNG variants.
+     */
+    public static String variantName(String fileName, Variant variant) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot >= 0 ? fileName.substring(0, dot) : fileName;
+        return base + "_" + variant.suffix() + "." + variantExtension(fileName);
+    }
+
+    public static boolean isImage(String fileName) {
+        return IMAGE_EXTENSIONS.contains(extension(fileName));
+    }
+
+    static boolean isVariant(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot >= 0 ? fileName.substring(0, dot) : fileName;
+        for (Variant variant : Variant.values()) {
+            if (base.endsWith("_" + variant.suffix())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String variantExtension(String fileName) {
+        return LOSSLESS_EXTENSIONS.contains(extension(fileName)) ? "png" : "jpg";
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static BufferedImage read(Path path) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // check the header before allocating the raster
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    throw new IOException("image is larger than " + MAX_PIXELS + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void write(BufferedImage image, Path target) throws IOException {
+        boolean png = target.getFileName().toString().endsWith(".png");
+        // write beside the target and move, so a half-written variant is never served
+        Path temp = Files.createTempFile(target.getParent(), ".derivative-", ".tmp");
+        try {
+            if (png) {
+                ImageIO.write(image, "png", temp.toFile());
+            } else {
+                writeJpeg(image, temp);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        // JPEG has no alpha channel: flatten onto white
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Downscale so the longer edge is at most {@code maxEdge}, halving in
+     * steps so bilinear filtering still averages every source pixel. Images
+     * already small enough are returned as they are.
+     */
+    static BufferedImage scaleToFit(BufferedImage image, int maxEdge) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        while (current.getWidth() != targetWidth || current.getHeight() != targetHeight) {
+            int stepWidth = Math.max(targetWidth, current.getWidth() / 2);
+            int stepHeight = Math.max(targetHeight, current.getHeight() / 2);
+            current = draw(current, stepWidth, stepHeight, new AffineTransform(
+                (double) stepWidth / current.getWidth(), 0, 0, (double) stepHeight / current.getHeight(), 0, 0));
+        }
+        return current;
+    }
+
+    /**
+     * Apply an EXIF orientation (1-8) so the image displays upright.
+     */
+    static BufferedImage orient(BufferedImage image, int orientation) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { transform.translate(width, 0); transform.scale(-1, 1); }
+            case 3 -> { transform.translate(width, height); transform.quadrantRotate(2); }
+            case 4 -> { transform.translate(0, height); transform.scale(1, -1); }
+            case 5 -> { transform.quadrantRotate(1); transform.scale(1, -1); }
+            case 6 -> { transform.translate(height, 0); transform.quadrantRotate(1); }
+            case 7 -> { transform.translate(height, width); transform.scale(1, -1); transform.quadrantRotate(1); }
+            case 8 -> { transform.translate(0, width); transform.quadrantRotate(-1); }
+            default -> { return image; }
+        }
+        boolean swapped = orientation >= 5;
+        return draw(image, swapped ? height : width, swapped ? width : height, transform);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, AffineTransform transform) {
+        BufferedImage target = new BufferedImage(width, height,
+            source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(source, transform, null);
+        graphics.dispose();
+        return target;
+    }
+
+    /**
+     * The EXIF Orientation tag of a JPEG, or 1 (upright) when there is none.
+     * Walks the markers up to the image data looking for the APP1 "Exif"
+     * segment and reads the tag from its first IFD.
+     */
+    static int readExifOrientation(Path path) {
+        try (InputStream stream = Files.newInputStream(path)) {
+            DataInputStream input = new DataInputStream(stream);
+            if (input.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = input.readUnsignedShort();
+                // start of scan: no metadata beyond this point
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA) {
+                    return 1;
+                }
+                int length = input.readUnsignedShort() - 2;
+                byte[] segment = new byte[length];
+                input.readFully(segment);
+                if (marker == 0xFFE1 && length > 14 && new String(segment, 0, 4, "ISO-8859-1").equals("Exif")) {
+                    return orientationFromTiff(segment, 6);
+                }
+            }
+        } catch (EOFException e) {
+            return 1;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("⚠️ Could not read EXIF orientation of " + path.getFileName() + ": " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static int orientationFromTiff(byte[] data, int tiff) {
+        boolean littleEndian = data[tiff] == 'I' && data[tiff + 1] == 'I';
+        int ifd = tiff + readInt(data, tiff + 4, littleEndian);
+        int entries = readShort(data, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (readShort(data, entry, littleEndian) == 0x0112) {
+                int orientation = readShort(data, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int first = data[offset] & 0xFF;
+        int second = data[offset + 1] & 0xFF;
+        return littleEndian ? (second << 8) | first : (first << 8) | second;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean littleEndian) {
+        int high = readShort(data, littleEndian ? offset + 2 : offset, littleEndian);
+        int low = readShort(data, littleEndian ? offset : offset + 2, littleEndian);
+        return (high << 16) | low;
+    }
+}
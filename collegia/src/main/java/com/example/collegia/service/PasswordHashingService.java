@@ -0,0 +1,125 @@
+package com.example.collegia.service;
+
+import com.example.collegia.config.AsyncConfig;
+import com.example.collegia.exception.PasswordHashingBusyException;
+import com.example.collegia.util.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * BCrypt hashing and verification for request handlers, run on the bounded
+ * auth hash executor. At most one hash per core runs at once, so a login
+ * storm cannot take every CPU and request thread from unrelated requests;
+ * once the queue is full callers get PasswordHashingBusyException at once,
+ * with a retry delay estimated from the backlog, instead of waiting in line.
+ */
+@Service
+public class PasswordHashingService {
+
+    // estimate used for Retry-After until the first hash has been timed
+    private static final long ASSUMED_HASH_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    @Qualifier(AsyncConfig.AUTH_HASH_EXECUTOR)
+    private ThreadPoolTaskExecutor executor;
+
+    private final AtomicLong hashes = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalHashNanos = new AtomicLong();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final AtomicLong totalQueueNanos = new AtomicLong();
+
+    public String encode(String rawPassword) {
+        return hash(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return hash(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Queue depth, pool usage and hash timings since startup.
+     */
+    public Map<String, Object> getStats() {
+        long hashed = hashes.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workFactor", passwordEncoder.getStrength());
+        stats.put("threads", executor.getMaxPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueueSize());
+        stats.put("queueCapacity", executor.getQueueCapacity());
+        stats.put("hashes", hashed);
+        stats.put("rejected", rejected.get());
+        stats.put("meanHashMillis", hashed > 0 ? millis(totalHashNanos.get() / hashed) : 0.0);
+        stats.put("maxHashMillis", millis(maxHashNanos.get()));
+        stats.put("meanQueueMillis", hashed > 0 ? millis(totalQueueNanos.get() / hashed) : 0.0);
+        return stats;
+    }
+
+    private <T> T hash(Supplier<T> work) {
+        long submitted = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long started = System.nanoTime();
+                try {
+                    return work.get();
+                } finally {
+                    record(started - submitted, System.nanoTime() - started);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            rejected.incrementAndGet();
+            // counted in getStats() rather than logged, as rejections come in bursts
+            throw new PasswordHashingBusyException("Too many sign-ins in progress, try again shortly",
+                retryAfterSeconds());
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void record(long queueNanos, long hashNanos) {
+        hashes.incrementAndGet();
+        totalQueueNanos.addAndGet(queueNanos);
+        totalHashNanos.addAndGet(hashNanos);
+        maxHashNanos.accumulateAndGet(hashNanos, Math::max);
+    }
+
+    // time for the pool to work through what is queued and running now
+    long retryAfterSeconds() {
+        long hashed = hashes.get();
+        long meanNanos = hashed > 0 ? totalHashNanos.get() / hashed : ASSUMED_HASH_NANOS;
+        long backlog = executor.getQueueSize() + executor.getActiveCount();
+        long nanos = backlog * meanNanos / Math.max(1, executor.getMaxPoolSize());
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
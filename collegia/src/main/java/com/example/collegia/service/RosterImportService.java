@@ -0,0 +1,82 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.UserImportReportDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Imports a roster uploaded as a CSV or .xlsx file, optionally gzipped,
+ * either as the file part of a multipart form or as the raw request body.
+ * Rows go from the parser straight into UserImportService, so the roster
+ * is never held as a whole, neither as bytes nor as parsed rows.
+ *
+ * Endpoints using this must not declare MultipartFile or @RequestParam
+ * parameters, which make Spring parse the body first.
+ */
+@Service
+public class RosterImportService {
+
+    // a multipart form around the file: boundaries, part headers and stray fields
+    private static final long FORM_OVERHEAD = 64 * 1024;
+
+    @Value("${users.import.max-file-size:20MB}")
+    private DataSize maxFileSize = DataSize.ofMegabytes(20);
+
+    // after gzip, and for each part of an .xlsx, which is itself compressed
+    @Value("${users.import.max-uncompressed-size:200MB}")
+    private DataSize maxUncompressedSize = DataSize.ofMegabytes(200);
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    /**
+     * Import the roster in the request. A file larger than the configured
+     * limits throws FileUploadSizeException, content that is not a readable
+     * CSV or .xlsx file IllegalArgumentException.
+     */
+    public UserImportReportDTO importRoster(HttpServletRequest request) throws IOException {
+        if (!JakartaServletFileUpload.isMultipartContent(request)) {
+            long length = request.getContentLengthLong();
+            if (length > maxFileSize.toBytes()) {
+                throw new FileUploadSizeException("Roster exceeds " + maxFileSize, maxFileSize.toBytes(), length);
+            }
+            return importRoster(RosterReader.limit(request.getInputStream(), maxFileSize.toBytes()));
+        }
+
+        JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> upload = new JakartaServletFileUpload<>();
+        upload.setFileSizeMax(maxFileSize.toBytes());
+        upload.setSizeMax(maxFileSize.toBytes() + FORM_OVERHEAD);
+        FileItemInputIterator parts = upload.getItemIterator(request);
+        while (parts.hasNext()) {
+            FileItemInput part = parts.next();
+            if (!part.isFormField() && part.getName() != null && !part.getName().isEmpty()) {
+                try (InputStream in = part.getInputStream()) {
+                    return importRoster(in);
+                }
+            }
+        }
+        throw new IllegalArgumentException("No roster file in the request");
+    }
+
+    private UserImportReportDTO importRoster(InputStream in) throws IOException {
+        try (RosterReader rows = RosterReader.open(in, fileStorageService.getIncomingLocation(),
+                maxUncompressedSize.toBytes())) {
+            return userImportService.importUsers(rows);
+        }
+    }
+}
@@ -0,0 +1,585 @@
+package com.example.collegia.service;
+
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads a roster spreadsheet one row at a time, keyed by the header row.
+ *
+ * The format is sniffed from the first bytes: gzip is unwrapped first, a
+ * zip is read as .xlsx and anything else as CSV. CSV is parsed straight off
+ * the stream. An .xlsx has to be spooled to a file, since Excel writes the
+ * shared string table after the sheets; the first sheet is then read with
+ * StAX, never as a DOM. Only the current row and, for .xlsx, the shared
+ * strings are held in memory.
+ *
+ * Headers are matched to the import columns ignoring case, spaces and
+ * punctuation, so "First Name" reads as firstName. Blank rows are skipped.
+ * Content that cannot be read as a spreadsheet throws IllegalArgumentException;
+ * more than {@code maxBytes} after decompression throws FileUploadSizeException.
+ */
+public abstract class RosterReader implements UserImportService.RowSource, Closeable {
+
+    private static final String[] COLUMNS = {
+        "firstName", "lastName", "email", "userType", "password",
+        "course", "organization", "affiliation", "department", "about", "location"
+    };
+
+    private static final Map<String, String> COLUMN_KEYS = new HashMap<>();
+
+    static {
+        for (String column : COLUMNS) {
+            COLUMN_KEYS.put(columnKey(column), column);
+        }
+    }
+
+    // a roster cell is a name or a short label
+    private static final int MAX_FIELD_CHARS = 64 * 1024;
+
+    private List<String> columns;
+
+    /**
+     * Next row as column name to cell text, or null after the last row.
+     */
+    @Override
+    public Map<String, Object> next() throws IOException {
+        List<String> record;
+        if (columns == null) {
+            record = nextNonBlank();
+            if (record == null) {
+                return null;
+            }
+            columns = new ArrayList<>(record.size());
+            for (String header : record) {
+                columns.add(columnName(header));
+            }
+        }
+        record = nextNonBlank();
+        if (record == null) {
+            return null;
+        }
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size() && i < record.size(); i++) {
+            if (!columns.get(i).isEmpty()) {
+                row.put(columns.get(i), record.get(i));
+            }
+        }
+        return row;
+    }
+
+    // the cells of the next row, or null at the end
+    abstract List<String> readRecord() throws IOException;
+
+    private List<String> nextNonBlank() throws IOException {
+        List<String> record;
+        while ((record = readRecord()) != null) {
+            for (String cell : record) {
+                if (!cell.isBlank()) {
+                    return record;
+                }
+            }
+        }
+        return null;
+    }
+
+    static String columnName(String header) {
+        String name = header.trim();
+        return COLUMN_KEYS.getOrDefault(columnKey(name), name);
+    }
+
+    private static String columnKey(String name) {
+        return name.replaceAll("[^A-Za-z0-9]", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Open a roster, gzip-compressed or not. An .xlsx is spooled to a
+     * temporary file in {@code spoolDir}, deleted again on close.
+     */
+    public static RosterReader open(InputStream in, Path spoolDir, long maxBytes) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        byte[] magic = peek(buffered, 4);
+        if (magic[0] == 0x1f && magic[1] == (byte) 0x8b) {
+            buffered = new BufferedInputStream(new GZIPInputStream(buffered));
+            magic = peek(buffered, 4);
+        }
+        InputStream content = limit(buffered, maxBytes);
+        if (magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4) {
+            return XlsxReader.spool(content, spoolDir, maxBytes);
+        }
+        if (magic[0] == (byte) 0xD0 && magic[1] == (byte) 0xCF && magic[2] == 0x11 && magic[3] == (byte) 0xE0) {
+            throw new IllegalArgumentException("Legacy .xls files are not supported, save the roster as .xlsx or .csv");
+        }
+        return new CsvReader(content);
+    }
+
+    /**
+     * {@code in}, failing with FileUploadSizeException once more than
+     * {@code maxBytes} have been read from it.
+     */
+    public static InputStream limit(InputStream in, long maxBytes) {
+        return new LimitedInputStream(in, maxBytes);
+    }
+
+    private static byte[] peek(BufferedInputStream in, int length) throws IOException {
+        in.mark(length);
+        byte[] head = new byte[length];
+        int read = in.readNBytes(head, 0, length);
+        in.reset();
+        if (read < length) {
+            // too short for any magic number; read as CSV
+            return new byte[length];
+        }
+        return head;
+    }
+
+    private static void append(StringBuilder field, int c, long line) {
+        if (field.length() >= MAX_FIELD_CHARS) {
+            throw new IllegalArgumentException("Cell longer than " + MAX_FIELD_CHARS + " characters near line " + line);
+        }
+        field.append((char) c);
+    }
+
+    /**
+     * RFC 4180 CSV: quoted fields may hold delimiters, doubled quotes and line
+     * breaks. The delimiter is whichever of comma, semicolon or tab occurs
+     * most in the header line, as spreadsheets in some locales save with ';'.
+     */
+    private static final class CsvReader extends RosterReader {
+
+        private final BufferedReader in;
+        private final char delimiter;
+        private int lookahead = -2;
+        private long line = 1;
+
+        CsvReader(InputStream content) throws IOException {
+            in = new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)));
+            in.mark(1);
+            if (in.read() != '\uFEFF') {
+                in.reset();
+            }
+            delimiter = detectDelimiter();
+        }
+
+        private char detectDelimiter() throws IOException {
+            in.mark(MAX_FIELD_CHARS);
+            int commas = 0;
+            int semicolons = 0;
+            int tabs = 0;
+            boolean quoted = false;
+            for (int i = 0; i < MAX_FIELD_CHARS; i++) {
+                int c = in.read();
+                if (c == -1 || (!quoted && (c == '\n' || c == '\r'))) {
+                    break;
+                }
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (!quoted && c == ',') {
+                    commas++;
+                } else if (!quoted && c == ';') {
+                    semicolons++;
+                } else if (!quoted && c == '\t') {
+                    tabs++;
+                }
+            }
+            in.reset();
+            if (semicolons > commas && semicolons >= tabs) {
+                return ';';
+            }
+            return tabs > commas ? '\t' : ',';
+        }
+
+        private int read() throws IOException {
+            if (lookahead != -2) {
+                int c = lookahead;
+                lookahead = -2;
+                return c;
+            }
+            return in.read();
+        }
+
+        @Override
+        List<String> readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean inQuotes = false;
+            while (true) {
+                if (inQuotes) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Unterminated quoted cell near line " + line);
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c == '"') {
+                            append(field, '"', line);
+                            c = read();
+                        } else {
+                            inQuotes = false;
+                        }
+                        continue;
+                    }
+                    if (c == '\n') {
+                        line++;
+                    }
+                    append(field, c, line);
+                } else if (c == -1 || c == '\n' || c == '\r') {
+                    fields.add(field.toString());
+                    if (c == '\r') {
+                        int next = read();
+                        if (next != '\n') {
+                            lookahead = next;
+                        }
+                    }
+                    line++;
+                    return fields;
+                } else if (c == delimiter) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.length() == 0) {
+                    inQuotes = true;
+                } else {
+                    append(field, c, line);
+                }
+                c = read();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * The first worksheet of an .xlsx workbook (Office Open XML). Cells are
+     * placed by their reference, so skipped empty cells keep later columns
+     * in place; numbers are written without a trailing ".0".
+     */
+    private static final class XlsxReader extends RosterReader {
+
+        private static final String RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+        private static final XMLInputFactory XML = XMLInputFactory.newFactory();
+
+        static {
+            XML.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            XML.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        }
+
+        private final Path file;
+        private final ZipFile zip;
+        private final long maxBytes;
+        private final List<String> sharedStrings = new ArrayList<>();
+        private InputStream sheetStream;
+        private XMLStreamReader sheet;
+
+        static XlsxReader spool(InputStream content, Path spoolDir, long maxBytes) throws IOException {
+            Path file = Files.createTempFile(spoolDir, "roster-", ".xlsx");
+            try {
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    content.transferTo(out);
+                }
+                return new XlsxReader(file, maxBytes);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+        }
+
+        private XlsxReader(Path file, long maxBytes) throws IOException {
+            this.file = file;
+            this.maxBytes = maxBytes;
+            try {
+                zip = new ZipFile(file.toFile());
+            } catch (ZipException e) {
+                throw new IllegalArgumentException("Not a readable .xlsx file: " + e.getMessage());
+            }
+            try {
+                readSharedStrings();
+                String sheetPath = firstSheetPath();
+                ZipEntry entry = zip.getEntry(sheetPath);
+                if (entry == null) {
+                    throw new IllegalArgumentException("Workbook has no worksheet " + sheetPath);
+                }
+                sheetStream = limit(zip.getInputStream(entry), maxBytes);
+                sheet = XML.createXMLStreamReader(sheetStream);
+            } catch (XMLStreamException e) {
+                close();
+                throw malformed(e);
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        List<String> readRecord() throws IOException {
+            try {
+                while (sheet.hasNext()) {
+                    if (sheet.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheet.getLocalName())) {
+                        return readRow();
+                    }
+                }
+                return null;
+            } catch (XMLStreamException e) {
+                throw malformed(e);
+            }
+        }
+
+        private List<String> readRow() throws XMLStreamException {
+            List<String> cells = new ArrayList<>();
+            while (sheet.hasNext()) {
+                int event = sheet.next();
+                if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheet.getLocalName())) {
+                    return cells;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT || !"c".equals(sheet.getLocalName())) {
+                    continue;
+                }
+                int column = columnIndex(sheet.getAttributeValue(null, "r"), cells.size());
+                String value = readCell(sheet.getAttributeValue(null, "t"));
+                while (cells.size() < column) {
+                    cells.add("");
+                }
+                if (column == cells.size()) {
+                    cells.add(value);
+                } else {
+                    cells.set(column, value);
+                }
+            }
+            return cells;
+        }
+
+        private String readCell(String type) throws XMLStreamException {
+            String value = null;
+            while (sheet.hasNext()) {
+                int event = sheet.next();
+                if (event == XMLStreamConstants.END_ELEMENT && "c".equals(sheet.getLocalName())) {
+                    break;
+                }
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if ("v".equals(sheet.getLocalName())) {
+                        value = sheet.getElementText();
+                    } else if ("is".equals(sheet.getLocalName())) {
+                        value = readText(sheet, "is");
+                    }
+                }
+            }
+            if (value == null) {
+                return "";
+            }
+            if (type == null || "n".equals(type)) {
+                try {
+                    return new BigDecimal(value).stripTrailingZeros().toPlainString();
+                } catch (NumberFormatException e) {
+                    return value;
+                }
+            }
+            switch (type) {
+                case "s":
+                    try {
+                        return sharedStrings.get(Integer.parseInt(value.trim()));
+                    } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                        throw new IllegalArgumentException("Cell refers to a missing shared string " + value);
+                    }
+                case "b":
+                    return "1".equals(value) ? "TRUE" : "FALSE";
+                default:
+                    return value;
+            }
+        }
+
+        private void readSharedStrings() throws IOException, XMLStreamException {
+            ZipEntry entry = zip.getEntry("xl/sharedStrings.xml");
+            if (entry == null) {
+                return;
+            }
+            try (InputStream in = limit(zip.getInputStream(entry), maxBytes)) {
+                XMLStreamReader reader = XML.createXMLStreamReader(in);
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && "si".equals(reader.getLocalName())) {
+                        sharedStrings.add(readText(reader, "si"));
+                    }
+                }
+                reader.close();
+            }
+        }
+
+        // xl/workbook.xml names the first sheet's relationship id, xl/_rels/workbook.xml.rels its part
+        private String firstSheetPath() throws IOException, XMLStreamException {
+            String relationshipId = null;
+            ZipEntry workbook = zip.getEntry("xl/workbook.xml");
+            if (workbook != null) {
+                relationshipId = firstAttribute(workbook, "sheet", RELATIONSHIPS_NS, "id", null);
+            }
+            ZipEntry relationships = zip.getEntry("xl/_rels/workbook.xml.rels");
+            if (relationshipId != null && relationships != null) {
+                String target = firstAttribute(relationships, "Relationship", null, "Target", relationshipId);
+                if (target != null) {
+                    return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+                }
+            }
+            return "xl/worksheets/sheet1.xml";
+        }
+
+        // attribute of the first matching element, or of the one whose Id is withId
+        private String firstAttribute(ZipEntry entry, String element, String namespace, String attribute, String withId)
+                throws IOException, XMLStreamException {
+            try (InputStream in = limit(zip.getInputStream(entry), maxBytes)) {
+                XMLStreamReader reader = XML.createXMLStreamReader(in);
+                try {
+                    while (reader.hasNext()) {
+                        if (reader.next() == XMLStreamConstants.START_ELEMENT && element.equals(reader.getLocalName())
+                                && (withId == null || withId.equals(reader.getAttributeValue(null, "Id")))) {
+                            return reader.getAttributeValue(namespace, attribute);
+                        }
+                    }
+                    return null;
+                } finally {
+                    reader.close();
+                }
+            }
+        }
+
+        // the <t> runs inside the current element, without phonetic (rPh) runs
+        private static String readText(XMLStreamReader reader, String element) throws XMLStreamException {
+            StringBuilder text = new StringBuilder();
+            int phonetic = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if ("rPh".equals(reader.getLocalName())) {
+                        phonetic++;
+                    } else if ("t".equals(reader.getLocalName()) && phonetic == 0) {
+                        text.append(reader.getElementText());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if ("rPh".equals(reader.getLocalName())) {
+                        phonetic--;
+                    } else if (element.equals(reader.getLocalName())) {
+                        break;
+                    }
+                }
+            }
+            return text.toString();
+        }
+
+        // "C12" -> 2; cells without a reference follow the previous one
+        private static int columnIndex(String reference, int next) {
+            if (reference == null) {
+                return next;
+            }
+            int column = 0;
+            int i = 0;
+            while (i < reference.length() && Character.isLetter(reference.charAt(i))) {
+                column = column * 26 + (Character.toUpperCase(reference.charAt(i)) - 'A' + 1);
+                i++;
+            }
+            // a sheet has 16384 columns
+            return i == 0 || column > 16384 ? next : column - 1;
+        }
+
+        private static IllegalArgumentException malformed(XMLStreamException e) {
+            return new IllegalArgumentException("Not a readable .xlsx file: " + e.getMessage());
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (sheet != null) {
+                    sheet.close();
+                }
+            } catch (XMLStreamException e) {
+                // closing only releases the parser
+            } finally {
+                if (sheetStream != null) {
+                    sheetStream.close();
+                }
+                if (zip != null) {
+                    zip.close();
+                }
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long count;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void count(long bytes) throws FileUploadSizeException {
+            count += bytes;
+            if (count > maxBytes) {
+                throw new FileUploadSizeException("Roster exceeds " + maxBytes + " bytes", maxBytes, count);
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.SessionPrincipalDTO;
+import com.example.collegia.entity.UserEntity;
+import com.example.collegia.exception.InvalidSessionTokenException;
+import com.example.collegia.repository.UserRepository;
+import com.example.collegia.repository.VenueRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Signed, expiring session tokens. A token is a JWT signed with HMAC-SHA256
+ * under a key only this server holds, and carries the user's id, email, name,
+ * type and, for custodians, the ids of the venues they manage. Checking one
+ * is a signature and an expiry comparison, with no database query.
+ *
+ * Refreshing is the only step that reads the user again, so a deleted user
+ * cannot keep refreshing and a changed type or venue list is picked up.
+ * Every token also carries the time of the sign-in it descends from
+ * ("auth_time"), and no token outlives {@code auth.token.max-session-age}
+ * from it, so a stolen token cannot be refreshed forever.
+ */
+@Service
+public class SessionTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final int MIN_KEY_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private static final String HEADER = ENCODER.encodeToString(
+        "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    // base64 of at least 32 random bytes; when empty a key is generated and tokens end with the process
+    @Value("${auth.token.secret:}")
+    private String secret;
+
+    @Value("${auth.token.ttl:1h}")
+    private Duration ttl = Duration.ofHours(1);
+
+    // how long after expiry a token can still be exchanged for a new one
+    @Value("${auth.token.refresh-window:24h}")
+    private Duration refreshWindow = Duration.ofHours(24);
+
+    // how long after sign-in tokens stop being refreshed, however often they were
+    @Value("${auth.token.max-session-age:30d}")
+    private Duration maxSessionAge = Duration.ofDays(30);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VenueRepository venueRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Clock clock = Clock.systemUTC();
+
+    // a Mac is not thread-safe, so each thread keys its own once
+    private ThreadLocal<Mac> macs;
+
+    @PostConstruct
+    public void init() {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            key = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(key);
+            System.out.println("⚠️ auth.token.secret is not set, session tokens will not survive a restart");
+        } else {
+            key = Base64.getDecoder().decode(secret.trim());
+            if (key.length < MIN_KEY_BYTES) {
+                throw new IllegalStateException("auth.token.secret must be the base64 of at least "
+                    + MIN_KEY_BYTES + " bytes");
+            }
+        }
+        SecretKeySpec keySpec = new SecretKeySpec(key, ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(keySpec);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+
+    /**
+     * A token for a user who has just signed in.
+     */
+    public String issue(UserEntity user) {
+        return issue(user, clock.instant().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    private String issue(UserEntity user, Instant authenticatedAt) {
+        List<Long> venueIds = "Custodian".equals(user.getUserType())
+            ? venueRepository.findVenueIdsByCustodian(user.getUserId())
+            : List.of();
+        Instant now = clock.instant().truncatedTo(ChronoUnit.SECONDS);
+        Instant sessionEnd = authenticatedAt.plus(maxSessionAge);
+        Instant expiresAt = now.plus(ttl).isAfter(sessionEnd) ? sessionEnd : now.plus(ttl);
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", String.valueOf(user.getUserId()));
+        claims.put("email", user.getEmail());
+        claims.put("name", user.getName());
+        claims.put("userType", user.getUserType());
+        if (!venueIds.isEmpty()) {
+            claims.put("venueIds", venueIds);
+        }
+        claims.put("auth_time", authenticatedAt.getEpochSecond());
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", expiresAt.getEpochSecond());
+
+        String signed;
+        try {
+            signed = HEADER + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write session token claims", e);
+        }
+        return signed + "." + ENCODER.encodeToString(sign(signed));
+    }
+
+    /**
+     * The principal of a valid, unexpired token; throws InvalidSessionTokenException otherwise.
+     */
+    public SessionPrincipalDTO verify(String token) {
+        return parse(token, Duration.ZERO);
+    }
+
+    /**
+     * A new token for the holder of a valid one, including one that expired
+     * less than the refresh window ago, as long as the sign-in it descends
+     * from is younger than the maximum session age.
+     */
+    public String refresh(String token) {
+        SessionPrincipalDTO principal = parse(token, refreshWindow);
+        if (!clock.instant().isBefore(principal.getAuthenticatedAt().plus(maxSessionAge))) {
+            throw new InvalidSessionTokenException("Session expired, sign in again");
+        }
+        UserEntity user = userRepository.findById(principal.getUserId())
+            .orElseThrow(() -> new InvalidSessionTokenException("User no longer exists"));
+        return issue(user, principal.getAuthenticatedAt());
+    }
+
+    private SessionPrincipalDTO parse(String token, Duration grace) {
+        if (token == null || token.isEmpty()) {
+            throw new InvalidSessionTokenException("Missing token");
+        }
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = token.lastIndexOf('.');
+        if (headerEnd < 0 || headerEnd == payloadEnd) {
+            throw new InvalidSessionTokenException("Malformed token");
+        }
+
+        // the signature is checked before anything in the token is decoded
+        String signed = token.substring(0, payloadEnd);
+        byte[] signature;
+        try {
+            signature = DECODER.decode(token.substring(payloadEnd + 1));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSessionTokenException("Malformed token");
+        }
+        if (!MessageDigest.isEqual(sign(signed), signature) || !HEADER.equals(token.substring(0, headerEnd))) {
+            throw new InvalidSessionTokenException("Invalid token signature");
+        }
+
+        JsonNode claims;
+        try {
+            claims = objectMapper.readTree(DECODER.decode(token.substring(headerEnd + 1, payloadEnd)));
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidSessionTokenException("Malformed token");
+        }
+        Instant expiresAt = Instant.ofEpochSecond(claims.path("exp").asLong());
+        if (!clock.instant().isBefore(expiresAt.plus(grace))) {
+            throw new InvalidSessionTokenException("Token expired");
+        }
+
+        SessionPrincipalDTO principal = new SessionPrincipalDTO();
+        principal.setUserId(claims.path("sub").asLong());
+        principal.setEmail(claims.path("email").asText(null));
+        principal.setName(claims.path("name").asText(null));
+        principal.setUserType(claims.path("userType").asText(null));
+        List<Long> venueIds = new ArrayList<>();
+        claims.path("venueIds").forEach(venueId -> venueIds.add(venueId.asLong()));
+        principal.setVenueIds(venueIds);
+        long issuedAt = claims.path("iat").asLong();
+        principal.setIssuedAt(Instant.ofEpochSecond(issuedAt));
+        // tokens from before auth_time was added date their session from when they were issued
+        principal.setAuthenticatedAt(Instant.ofEpochSecond(claims.path("auth_time").asLong(issuedAt)));
+        principal.setExpiresAt(expiresAt);
+        return principal;
+    }
+
+    private byte[] sign(String content) {
+        return macs.get().doFinal(content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
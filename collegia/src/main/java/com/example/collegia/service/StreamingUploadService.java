@@ -0,0 +1,225 @@
+package com.example.collegia.service;
+
+import com.example.collegia.config.AsyncConfig;
+import com.example.collegia.dto.FileUploadResultDTO;
+import com.example.collegia.dto.StoredFileDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads multipart requests as a stream of parts.
+ *
+ * The container's multipart support spools every file part to a temporary
+ * file before the controller runs, and storing it copies it a second time.
+ * Here each file part is handed to FileStorageService.storeStream as it
+ * arrives on the socket, so its bytes are written to disk once. Parts are
+ * read in request order; form fields are buffered, up to a small limit.
+ * The size limits are the ones configured for the container's parser.
+ *
+ * Endpoints using this must not declare MultipartFile or @RequestParam
+ * parameters, which make Spring parse the body first.
+ */
+@Service
+public class StreamingUploadService {
+
+    // form fields carry names, descriptions and JSON lists, never file contents
+    private static final int MAX_FIELD_BYTES = 64 * 1024;
+
+    @Value("${spring.servlet.multipart.max-file-size:10MB}")
+    private DataSize maxFileSize = DataSize.ofMegabytes(10);
+
+    @Value("${spring.servlet.multipart.max-request-size:15MB}")
+    private DataSize maxRequestSize = DataSize.ofMegabytes(15);
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    @Qualifier(AsyncConfig.UPLOAD_EXECUTOR)
+    private Executor uploadExecutor;
+
+    /**
+     * Read the whole request, storing file parts as they come. Empty file
+     * parts (a form's unused file input) are skipped. Exceeding a size limit
+     * throws a FileUploadSizeException; files stored before that point are
+     * discarded again.
+     */
+    public StreamedUpload read(HttpServletRequest request) throws IOException {
+        return read(request, null);
+    }
+
+    /**
+     * Like {@link #read}, but each file part is buffered in memory and
+     * written, hashed and renamed into place on the upload executor while
+     * the request thread receives the next part. Returns once every part has
+     * been written. A part that fails to store is reported in
+     * {@link StreamedUpload#getResults()} instead of failing the request.
+     */
+    public StreamedUpload readConcurrently(HttpServletRequest request) throws IOException {
+        return read(request, uploadExecutor);
+    }
+
+    /**
+     * Discard every file stored while reading {@code upload}, for a request
+     * that failed after its body was read.
+     */
+    public void discard(StreamedUpload upload) {
+        upload.files.values().forEach(files -> files.forEach(fileStorageService::discard));
+    }
+
+    private StreamedUpload read(HttpServletRequest request, Executor executor) throws IOException {
+        JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> upload = new JakartaServletFileUpload<>();
+        upload.setFileSizeMax(maxFileSize.toBytes());
+        upload.setSizeMax(maxRequestSize.toBytes());
+        Charset charset = request.getCharacterEncoding() != null
+            ? Charset.forName(request.getCharacterEncoding())
+            : StandardCharsets.UTF_8;
+
+        StreamedUpload result = new StreamedUpload();
+        List<PendingFile> pending = new ArrayList<>();
+        try {
+            FileItemInputIterator parts = upload.getItemIterator(request);
+            while (parts.hasNext()) {
+                FileItemInput part = parts.next();
+                try (InputStream in = part.getInputStream()) {
+                    if (part.isFormField()) {
+                        result.fields.put(part.getFieldName(), readField(in, part.getFieldName(), charset));
+                    } else if (part.getName() != null && !part.getName().isEmpty()) {
+                        if (executor == null) {
+                            StoredFileDTO stored = fileStorageService.storeStream(in, part.getName());
+                            if (stored != null) {
+                                result.add(part.getFieldName(), part.getName(), stored);
+                            }
+                        } else {
+                            // bounded by the file size limit
+                            byte[] content = in.readAllBytes();
+                            String originalFileName = part.getName();
+                            pending.add(new PendingFile(part.getFieldName(), originalFileName,
+                                CompletableFuture.supplyAsync(() -> store(content, originalFileName), executor)));
+                        }
+                    }
+                }
+            }
+            collect(pending, result);
+        } catch (IOException | RuntimeException e) {
+            collect(pending, result);
+            discard(result);
+            throw e;
+        }
+        return result;
+    }
+
+    private StoredFileDTO store(byte[] content, String originalFileName) {
+        try {
+            return fileStorageService.storeStream(new ByteArrayInputStream(content), originalFileName);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    // waits for every pending write, in request order
+    private static void collect(List<PendingFile> pending, StreamedUpload result) {
+        for (PendingFile file : pending) {
+            try {
+                StoredFileDTO stored = file.write.join();
+                if (stored != null) {
+                    result.add(file.field, file.originalFileName, stored);
+                }
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                System.out.println("⚠️ Failed to store " + file.originalFileName + ": " + cause.getMessage());
+                result.results.add(FileUploadResultDTO.failed(file.field, file.originalFileName, cause.getMessage()));
+            }
+        }
+        pending.clear();
+    }
+
+    private static String readField(InputStream in, String name, Charset charset) throws IOException {
+        ByteArrayOutputStream value = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (value.size() + read > MAX_FIELD_BYTES) {
+                throw new RuntimeException("Form field too large: " + name);
+            }
+            value.write(buffer, 0, read);
+        }
+        return value.toString(charset);
+    }
+
+    private static class PendingFile {
+        private final String field;
+        private final String originalFileName;
+        private final CompletableFuture<StoredFileDTO> write;
+
+        PendingFile(String field, String originalFileName, CompletableFuture<StoredFileDTO> write) {
+            this.field = field;
+            this.originalFileName = originalFileName;
+            this.write = write;
+        }
+    }
+
+    /**
+     * Form fields and stored files of one request, by part name.
+     */
+    public static class StreamedUpload {
+        private final Map<String, String> fields = new LinkedHashMap<>();
+        private final Map<String, List<StoredFileDTO>> files = new LinkedHashMap<>();
+        private final List<FileUploadResultDTO> results = new ArrayList<>();
+
+        public String getField(String name) {
+            return fields.get(name);
+        }
+
+        public Map<String, String> getFields() {
+            return fields;
+        }
+
+        /**
+         * The first file stored under {@code name}, or null.
+         */
+        public StoredFileDTO getFile(String name) {
+            List<StoredFileDTO> stored = files.get(name);
+            return stored == null ? null : stored.get(0);
+        }
+
+        public List<StoredFileDTO> getFiles(String name) {
+            return files.getOrDefault(name, List.of());
+        }
+
+        /**
+         * One entry per non-empty file part, stored or not, in request order.
+         */
+        public List<FileUploadResultDTO> getResults() {
+            return results;
+        }
+
+        private void add(String field, String originalFileName, StoredFileDTO stored) {
+            files.computeIfAbsent(field, name -> new ArrayList<>()).add(stored);
+            results.add(FileUploadResultDTO.stored(field, originalFileName, stored.getFileName()));
+        }
+    }
+}
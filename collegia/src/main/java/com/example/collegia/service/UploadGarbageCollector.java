@@ -0,0 +1,322 @@
+package com.example.collegia.service;
+
+import com.example.collegia.config.AsyncConfig;
+import com.example.collegia.dto.UploadSweepReportDTO;
+import com.example.collegia.repository.StoredBlobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Removes uploads nothing points at any more: replaced venue images,
+ * dropped gallery entries, old profile photos and temporary files left by
+ * interrupted uploads.
+ *
+ * A sweep streams the live set from the venue, gallery and user tables
+ * (see BlobReferenceService.liveFileNames), then walks the upload
+ * directory. Unreferenced files older than the grace period are moved to
+ * uploads/quarantine, or deleted if quarantine is off; quarantined files
+ * are deleted once the retention period has passed. Chunked uploads in
+ * progress are left to ChunkedUploadService. Removals are paced to
+ * a maximum rate so the sweep does not compete with requests for the disk.
+ * Sweeps run nightly and on demand, always on their own low-priority
+ * thread, one at a time.
+ */
+@Service
+public class UploadGarbageCollector {
+
+    static final String QUARANTINE_DIR = "quarantine";
+
+    // orphan names listed in a report
+    private static final int SAMPLE_SIZE = 100;
+
+    // uploads are saved onto their venue or user within seconds; the margin covers slow clients and clock skew
+    @Value("${file.gc.grace-period:24h}")
+    private Duration gracePeriod = Duration.ofHours(24);
+
+    @Value("${file.gc.quarantine:true}")
+    private boolean quarantine = true;
+
+    @Value("${file.gc.quarantine-retention:7d}")
+    private Duration quarantineRetention = Duration.ofDays(7);
+
+    @Value("${file.gc.max-files-per-second:50}")
+    private int maxFilesPerSecond = 50;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    @Qualifier(AsyncConfig.UPLOAD_SWEEP_EXECUTOR)
+    private Executor sweepExecutor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile UploadSweepReportDTO lastReport;
+
+    private final AtomicLong sweeps = new AtomicLong();
+    private final AtomicLong totalFilesRemoved = new AtomicLong();
+    private final AtomicLong totalBytesReclaimed = new AtomicLong();
+    private final AtomicLong totalQuarantinePurged = new AtomicLong();
+    private final AtomicLong totalErrors = new AtomicLong();
+
+    @Scheduled(cron = "${file.gc.cron:0 30 3 * * *}")
+    public void scheduledSweep() {
+        if (!startSweep(false)) {
+            System.out.println("⚠️ Upload sweep still running, skipping scheduled run");
+        }
+    }
+
+    /**
+     * Start a sweep in the background. Returns false if one is running.
+     */
+    public boolean startSweep(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            sweepExecutor.execute(() -> {
+                try {
+                    runSweep(dryRun);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Sweep on the calling thread. Returns null if a sweep is running.
+     * A dry run reports what would be removed without touching anything.
+     */
+    public UploadSweepReportDTO sweep(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            return runSweep(dryRun);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public UploadSweepReportDTO getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Totals over every sweep since startup, with the last report.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running.get());
+        stats.put("sweeps", sweeps.get());
+        stats.put("filesRemoved", totalFilesRemoved.get());
+        stats.put("bytesReclaimed", totalBytesReclaimed.get());
+        stats.put("quarantinePurged", totalQuarantinePurged.get());
+        stats.put("errors", totalErrors.get());
+        stats.put("lastSweep", lastReport);
+        return stats;
+    }
+
+    private UploadSweepReportDTO runSweep(boolean dryRun) {
+        Instant startedAt = Instant.now();
+        UploadSweepReportDTO report = new UploadSweepReportDTO();
+        report.setStartedAt(startedAt);
+        report.setDryRun(dryRun);
+        report.setQuarantine(quarantine);
+
+        Set<String> live = blobReferenceService.liveFileNames();
+        report.setLiveUploads(live.size());
+
+        Path root = fileStorageService.getFileStorageLocation();
+        Path quarantineDir = root.resolve(QUARANTINE_DIR);
+        Path incoming = root.resolve(FileStorageService.INCOMING_DIR);
+        Path chunked = root.resolve(FileStorageService.CHUNKED_DIR);
+        Instant cutoff = startedAt.minus(gracePeriod);
+        Pacer pacer = new Pacer(maxFilesPerSecond);
+
+        try (Stream<Path> files = Files.walk(root)) {
+            Iterator<Path> paths = files
+                .filter(path -> !path.startsWith(quarantineDir) && !path.startsWith(chunked))
+                .iterator();
+            while (paths.hasNext()) {
+                Path file = paths.next();
+                BasicFileAttributes attributes = attributesOf(file);
+                if (attributes == null || !attributes.isRegularFile()) {
+                    continue;
+                }
+                report.setFilesScanned(report.getFilesScanned() + 1);
+                // anything still in incoming is a temporary file, never a stored upload
+                boolean temporary = file.startsWith(incoming);
+                if (!temporary && live.contains(file.getFileName().toString())) {
+                    continue;
+                }
+                if (attributes.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                    report.setRecentFilesSkipped(report.getRecentFilesSkipped() + 1);
+                    continue;
+                }
+                report.setOrphansFound(report.getOrphansFound() + 1);
+                report.setOrphanBytes(report.getOrphanBytes() + attributes.size());
+                if (report.getOrphanSample().size() < SAMPLE_SIZE) {
+                    report.getOrphanSample().add(root.relativize(file).toString());
+                }
+                if (dryRun) {
+                    continue;
+                }
+                pacer.await();
+                if (remove(root, quarantineDir, file, temporary, cutoff, report)) {
+                    report.setFilesRemoved(report.getFilesRemoved() + 1);
+                    report.setBytesReclaimed(report.getBytesReclaimed() + attributes.size());
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("❌ Upload sweep aborted: " + e.getMessage());
+            report.setErrors(report.getErrors() + 1);
+        }
+
+        if (!dryRun && quarantine) {
+            purgeQuarantine(quarantineDir, startedAt.minus(quarantineRetention), pacer, report);
+        }
+
+        report.setDurationMillis(Duration.between(startedAt, Instant.now()).toMillis());
+        sweeps.incrementAndGet();
+        totalFilesRemoved.addAndGet(report.getFilesRemoved());
+        totalBytesReclaimed.addAndGet(report.getBytesReclaimed());
+        totalQuarantinePurged.addAndGet(report.getQuarantinePurged());
+        totalErrors.addAndGet(report.getErrors());
+        lastReport = report;
+
+        System.out.println((dryRun ? "✅ Upload sweep (dry run): " : "♻️ Upload sweep: ")
+            + report.getOrphansFound() + " orphans (" + report.getOrphanBytes() + " bytes) of "
+            + report.getFilesScanned() + " files, " + report.getFilesRemoved() + " removed, "
+            + report.getQuarantinePurged() + " purged from quarantine in " + report.getDurationMillis() + " ms");
+        return report;
+    }
+
+    private boolean remove(Path root, Path quarantineDir, Path file, boolean temporary, Instant cutoff,
+                           UploadSweepReportDTO report) {
+        String fileName = file.getFileName().toString();
+        try {
+            // a duplicate upload may have handed this blob out again since the walk read its timestamp
+            if (Files.getLastModifiedTime(file).toInstant().isAfter(cutoff)) {
+                return false;
+            }
+            if (!temporary && FileStorageService.isContentAddressed(fileName) && !ImageDerivativeService.isVariant(fileName)
+                    && storedBlobRepository.deleteIfUnreferenced(fileName) == 0
+                    && storedBlobRepository.existsByFileName(fileName)) {
+                report.setReferencedBlobsSkipped(report.getReferencedBlobsSkipped() + 1);
+                return false;
+            }
+            if (quarantine && !temporary) {
+                Path target = quarantineDir.resolve(root.relativize(file));
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+                // retention counts from the move
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            } else {
+                Files.deleteIfExists(file);
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("⚠️ Could not remove orphaned upload " + fileName + ": " + e.getMessage());
+            report.setErrors(report.getErrors() + 1);
+            return false;
+        }
+    }
+
+    private void purgeQuarantine(Path quarantineDir, Instant cutoff, Pacer pacer, UploadSweepReportDTO report) {
+        if (!Files.isDirectory(quarantineDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(quarantineDir)) {
+            Iterator<Path> paths = files.iterator();
+            while (paths.hasNext()) {
+                Path file = paths.next();
+                BasicFileAttributes attributes = attributesOf(file);
+                if (attributes == null || !attributes.isRegularFile()
+                        || attributes.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                    continue;
+                }
+                pacer.await();
+                try {
+                    Files.deleteIfExists(file);
+                    report.setQuarantinePurged(report.getQuarantinePurged() + 1);
+                } catch (IOException e) {
+                    report.setErrors(report.getErrors() + 1);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("⚠️ Could not purge upload quarantine: " + e.getMessage());
+            report.setErrors(report.getErrors() + 1);
+        }
+    }
+
+    private static BasicFileAttributes attributesOf(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // removed while the walk was running
+            return null;
+        }
+    }
+
+    /**
+     * Spaces file removals evenly at no more than the configured rate.
+     */
+    private static class Pacer {
+        private final long intervalNanos;
+        private long next = System.nanoTime();
+
+        Pacer(int perSecond) {
+            this.intervalNanos = perSecond > 0 ? 1_000_000_000L / perSecond : 0;
+        }
+
+        void await() {
+            long now = System.nanoTime();
+            if (next > now) {
+                LockSupport.parkNanos(next - now);
+            }
+            next = Math.max(next, now) + intervalNanos;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.collegia.service;
+
+import com.example.collegia.config.AsyncConfig;
+import com.example.collegia.dto.UserImportErrorDTO;
+import com.example.collegia.dto.UserImportJobDTO;
+import com.example.collegia.entity.UserEntity;
+import com.example.collegia.entity.UserImportJobEntity;
+import com.example.collegia.entity.UserImportJobErrorEntity;
+import com.example.collegia.repository.UserImportJobErrorRepository;
+import com.example.collegia.repository.UserImportJobRepository;
+import com.example.collegia.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * User imports that run in the background.
+ *
+ * Submitting stores the rows with a new job and queues it on the user import
+ * executor; the caller gets the job id back at once. The job runs through
+ * UserImportService with a sink that writes each chunk's users, its error
+ * rows and the job's progress in one transaction, so after a restart an
+ * interrupted job resumes right after its last committed chunk. Progress,
+ * throughput and row errors are pushed to Server-Sent Events subscribers
+ * after every commit. A cancelled job stops before its next chunk; the rows
+ * already imported stay.
+ */
+@Service
+public class UserImportJobService {
+
+    public static final String QUEUED = "queued";
+    public static final String RUNNING = "running";
+    public static final String COMPLETED = "completed";
+    public static final String CANCELLED = "cancelled";
+    public static final String FAILED = "failed";
+
+    private static final TypeReference<List<Map<String, Object>>> ROWS = new TypeReference<>() {};
+
+    @Value("${users.import.jobs.event-timeout:30m}")
+    private Duration eventTimeout;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserImportJobRepository jobRepository;
+
+    @Autowired
+    private UserImportJobErrorRepository errorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier(AsyncConfig.USER_IMPORT_EXECUTOR)
+    private Executor importExecutor;
+
+    private final Set<String> cancelRequested = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Store the rows as a new job and queue it. Throws TaskRejectedException,
+     * without keeping the job, when the queue is full.
+     */
+    public UserImportJobDTO submit(List<Map<String, Object>> rows) {
+        UserImportJobEntity job = new UserImportJobEntity();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setStatus(QUEUED);
+        job.setTotalRows(rows.size());
+        job.setCreatedAt(Instant.now());
+        try {
+            job.setRowsJson(objectMapper.writeValueAsString(rows));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Rows cannot be stored: " + e.getOriginalMessage(), e);
+        }
+        jobRepository.save(job);
+
+        String jobId = job.getJobId();
+        try {
+            importExecutor.execute(() -> run(jobId));
+        } catch (TaskRejectedException e) {
+            jobRepository.deleteById(jobId);
+            throw e;
+        }
+        System.out.println("✅ User import job " + jobId + " queued with " + rows.size() + " rows");
+        return toDTO(job);
+    }
+
+    public UserImportJobDTO getJob(String jobId) {
+        return jobRepository.findById(jobId).map(this::toDTO).orElse(null);
+    }
+
+    public List<UserImportErrorDTO> getErrors(String jobId, int page, int size) {
+        List<UserImportErrorDTO> errors = new ArrayList<>();
+        for (UserImportJobErrorEntity error : errorRepository.findByJobIdOrderBySourceRow(jobId, PageRequest.of(page, size))) {
+            errors.add(new UserImportErrorDTO(error.getSourceRow(), error.getEmail(), error.getReason()));
+        }
+        return errors;
+    }
+
+    /**
+     * Cancel a queued or running job. Returns the job as it stands, or null if
+     * there is no such job; check its status to see whether it had already ended.
+     */
+    public UserImportJobDTO cancel(String jobId) {
+        UserImportJobEntity job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return null;
+        }
+        if (isFinished(job.getStatus())) {
+            return toDTO(job);
+        }
+        // a running job sees the flag before its next chunk and reports the end itself
+        cancelRequested.add(jobId);
+        if (jobRepository.finish(jobId, CANCELLED, null, Instant.now()) > 0) {
+            System.out.println("⚠️ User import job " + jobId + " cancelled");
+        }
+        UserImportJobDTO cancelled = getJob(jobId);
+        if (QUEUED.equals(job.getStatus())) {
+            // it will not run; the flag is dropped when the worker fails to claim it
+            publishEnd(cancelled);
+        }
+        return cancelled;
+    }
+
+    /**
+     * Stream the job's progress: its current state as a "progress" event
+     * straight away, then "progress" with any "row-errors" after every
+     * committed chunk, and "done" when it ends. Returns null if there is no
+     * such job.
+     */
+    public SseEmitter subscribe(String jobId) {
+        UserImportJobDTO job = getJob(jobId);
+        if (job == null) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(eventTimeout.toMillis());
+        if (isFinished(job.getStatus())) {
+            send(emitter, "done", job);
+            emitter.complete();
+            return emitter;
+        }
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        send(emitter, "progress", job);
+
+        // the job may have ended between the read above and the registration
+        UserImportJobDTO current = getJob(jobId);
+        if (current != null && isFinished(current.getStatus()) && emitters.remove(emitter)) {
+            send(emitter, "done", current);
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    /**
+     * Queue the jobs a shutdown interrupted, oldest first. Each resumes after
+     * its last committed chunk.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int resumeInterrupted() {
+        int resumed = 0;
+        for (UserImportJobEntity job : jobRepository.findByStatusInOrderByCreatedAt(List.of(QUEUED, RUNNING))) {
+            String jobId = job.getJobId();
+            try {
+                importExecutor.execute(() -> run(jobId));
+                resumed++;
+            } catch (TaskRejectedException e) {
+                System.out.println("⚠️ User import queue full, job " + jobId + " waits for the next restart");
+            }
+        }
+        if (resumed > 0) {
+            System.out.println("♻️ Resuming " + resumed + " interrupted user import jobs");
+        }
+        return resumed;
+    }
+
+    void run(String jobId) {
+        if (jobRepository.markRunning(jobId, Instant.now()) == 0) {
+            // cancelled while queued
+            cancelRequested.remove(jobId);
+            return;
+        }
+        UserImportJobEntity job = jobRepository.findById(jobId).orElseThrow();
+        String status = COMPLETED;
+        String message = null;
+        try {
+            List<Map<String, Object>> rows = objectMapper.readValue(job.getRowsJson(), ROWS);
+            publish(jobId, "progress", toDTO(job));
+            if (!userImportService.importRows(UserImportService.rowsOf(rows), job.getProcessedRows(), new JobSink(jobId))) {
+                status = CANCELLED;
+            }
+        } catch (IOException | RuntimeException e) {
+            status = FAILED;
+            message = e instanceof RuntimeException runtime ? UserImportService.reasonOf(runtime) : e.getMessage();
+            System.out.println("❌ User import job " + jobId + " failed: " + message);
+        } finally {
+            cancelRequested.remove(jobId);
+        }
+
+        jobRepository.finish(jobId, status, truncate(message), Instant.now());
+        UserImportJobDTO finished = getJob(jobId);
+        if (COMPLETED.equals(finished.getStatus())) {
+            System.out.println("✅ User import job " + jobId + ": imported " + finished.getImported()
+                + " | skipped " + finished.getSkipped());
+        }
+        publishEnd(finished);
+    }
+
+    private class JobSink implements UserImportService.ChunkSink {
+
+        private final String jobId;
+
+        JobSink(String jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        public void commit(List<UserEntity> users, int throughRow, List<UserImportErrorDTO> errors) {
+            transactionTemplate.executeWithoutResult(transaction -> {
+                userRepository.insertAll(users);
+                List<UserImportJobErrorEntity> rows = new ArrayList<>(errors.size());
+                for (UserImportErrorDTO error : errors) {
+                    rows.add(new UserImportJobErrorEntity(jobId, error.getRow(), error.getEmail(), truncate(error.getReason())));
+                }
+                errorRepository.saveAll(rows);
+                jobRepository.recordProgress(jobId, throughRow, users.size());
+            });
+            publish(jobId, "progress", getJob(jobId));
+            if (!errors.isEmpty()) {
+                publish(jobId, "row-errors", errors);
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelRequested.contains(jobId);
+        }
+    }
+
+    private void publishEnd(UserImportJobDTO job) {
+        List<SseEmitter> emitters = subscribers.remove(job.getJobId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(emitter, "done", job);
+            emitter.complete();
+        }
+    }
+
+    private void publish(String jobId, String event, Object data) {
+        List<SseEmitter> emitters = subscribers.get(jobId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            if (!send(emitter, event, data)) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    // false once the client has gone away
+    private static boolean send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private UserImportJobDTO toDTO(UserImportJobEntity job) {
+        UserImportJobDTO dto = new UserImportJobDTO();
+        dto.setJobId(job.getJobId());
+        dto.setStatus(job.getStatus());
+        dto.setTotalRows(job.getTotalRows());
+        dto.setProcessedRows(job.getProcessedRows());
+        dto.setImported(job.getImported());
+        dto.setSkipped(job.getProcessedRows() - job.getImported());
+        dto.setResumedFromRow(job.getResumedFromRow());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        dto.setMessage(job.getMessage());
+        if (job.getStartedAt() != null) {
+            Instant end = job.getFinishedAt() != null ? job.getFinishedAt() : Instant.now();
+            long millis = Math.max(1, Duration.between(job.getStartedAt(), end).toMillis());
+            dto.setRowsPerSecond((job.getProcessedRows() - job.getResumedFromRow()) * 1000.0 / millis);
+        }
+        return dto;
+    }
+
+    static boolean isFinished(String status) {
+        return !QUEUED.equals(status) && !RUNNING.equals(status);
+    }
+
+    private static String truncate(String text) {
+        return text == null || text.length() <= 500 ? text : text.substring(0, 500);
+    }
+}
@@ -0,0 +1,448 @@
+package com.example.collegia.service;
+
+import com.example.collegia.config.AsyncConfig;
+import com.example.collegia.dto.UserImportErrorDTO;
+import com.example.collegia.dto.UserImportReportDTO;
+import com.example.collegia.entity.CoordinatorEntity;
+import com.example.collegia.entity.FacultyEntity;
+import com.example.collegia.entity.StudentEntity;
+import com.example.collegia.entity.UserEntity;
+import com.example.collegia.repository.UserRepository;
+import com.example.collegia.util.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Bulk user import from spreadsheet rows.
+ *
+ * Rows are read a chunk at a time, from a JSON list or straight off an
+ * uploaded file (RosterReader). Each chunk is validated, de-duplicated
+ * against the rows before it and checked against the registered emails
+ * with one IN query instead of one existence query per row. Passwords are
+ * BCrypt-hashed on the password hash executor while earlier chunks are
+ * inserted, and each chunk of users.import.batch-size rows is written with
+ * JDBC batches in its own transaction. A chunk that fails is retried row
+ * by row, so one bad row costs only itself. Every skipped row is reported
+ * with its reason. UserImportJobService runs the same import in the
+ * background through a ChunkSink that also records the job's progress.
+ *
+ * Imported users get the default password unless the row has a password
+ * column, and must change it on first login. The default is the same public
+ * value for every row, so it is hashed once per import rather than once per
+ * row; only rows with their own password pay for a hash each.
+ */
+@Service
+public class UserImportService {
+
+    static final String DEFAULT_PASSWORD = "12345678";
+
+    // emails per pre-check query, well inside the bind parameter limits
+    private static final int EMAIL_CHECK_CHUNK = 1000;
+
+    @Value("${users.import.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    @Qualifier(AsyncConfig.PASSWORD_HASH_EXECUTOR)
+    private Executor hashExecutor;
+
+    public UserImportReportDTO importUsers(List<Map<String, Object>> rows) {
+        try {
+            return importUsers(rowsOf(rows));
+        } catch (IOException e) {
+            // reading a list cannot fail
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Import rows as they are read, e.g. from an uploaded file. Only the
+     * chunk being written, the next one and the emails seen so far are held.
+     */
+    public UserImportReportDTO importUsers(RowSource rows) throws IOException {
+        long started = System.nanoTime();
+        UserImportReportDTO report = new UserImportReportDTO();
+        importRows(rows, 0, (users, throughRow, errors) -> {
+            userRepository.insertAll(users);
+            report.setReceived(throughRow);
+            report.setImported(report.getImported() + users.size());
+            report.getErrors().addAll(errors);
+        });
+
+        report.getErrors().sort(Comparator.comparingInt(UserImportErrorDTO::getRow));
+        report.setSkipped(report.getReceived() - report.getImported());
+        report.setDurationMillis((System.nanoTime() - started) / 1_000_000);
+        System.out.println("✅ User import: " + report.getMessage() + " in " + report.getDurationMillis() + " ms");
+        return report;
+    }
+
+    /**
+     * Import the rows after row number {@code resumeAfter} (1-based, 0 for all)
+     * through {@code sink}. Rows up to resumeAfter count as done: they are
+     * still validated, so later duplicates of them are reported as such, but
+     * are neither checked against registered emails nor written again.
+     * Rows are read a chunk ahead of the one being written, so the next
+     * chunk is validated, checked and hashed meanwhile.
+     * Returns false if the sink asked to stop before the last chunk.
+     */
+    boolean importRows(RowSource rows, int resumeAfter, ChunkSink sink) throws IOException {
+        Reading reading = new Reading(rows, resumeAfter);
+        PriorityQueue<UserImportErrorDTO> pending = new PriorityQueue<>(Comparator.comparingInt(UserImportErrorDTO::getRow));
+        Window current = prepare(readWindow(reading), reading, pending);
+        while (current.lastRow > 0) {
+            Window next = prepare(readWindow(reading), reading, pending);
+            if (sink.isCancelled()) {
+                // hashes still queued are dropped rather than computed
+                current.candidates.forEach(candidate -> candidate.password.cancel(false));
+                next.candidates.forEach(candidate -> candidate.password.cancel(false));
+                return false;
+            }
+            if (!current.candidates.isEmpty()) {
+                insert(current.candidates, pending, sink);
+            }
+            if (current.candidates.isEmpty() || next.lastRow == 0) {
+                // record the rows after the last imported one, with their errors
+                RuntimeException failure = commit(sink, List.of(), current.lastRow, pending);
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+            current = next;
+        }
+        if (reading.rowNumber <= resumeAfter) {
+            // nothing left after the resume point, or an empty upload
+            RuntimeException failure = commit(sink, List.of(), reading.rowNumber, pending);
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        return true;
+    }
+
+    // up to batchSize rows after the resume point; lastRow is 0 once the rows are exhausted
+    private Window readWindow(Reading reading) throws IOException {
+        Window window = new Window();
+        int read = 0;
+        while (read < batchSize && !reading.done) {
+            Map<String, Object> row = reading.rows.next();
+            if (row == null) {
+                reading.done = true;
+                break;
+            }
+            int rowNumber = ++reading.rowNumber;
+            if (rowNumber <= reading.resumeAfter) {
+                // only to remember its email
+                validate(rowNumber, row, reading.firstRowByEmail, new ArrayList<>(1));
+                continue;
+            }
+            read++;
+            window.lastRow = rowNumber;
+            Candidate candidate = validate(rowNumber, row, reading.firstRowByEmail, window.errors);
+            if (candidate != null) {
+                window.candidates.add(candidate);
+            }
+        }
+        return window;
+    }
+
+    private Window prepare(Window window, Reading reading, PriorityQueue<UserImportErrorDTO> pending) {
+        pending.addAll(window.errors);
+        window.errors.clear();
+        window.candidates = dropRegistered(window.candidates, pending);
+        hashPasswords(window.candidates, reading);
+        return window;
+    }
+
+    // a candidate for import, or null after adding the row's error
+    private static Candidate validate(int rowNumber, Map<String, Object> row, Map<String, Integer> firstRowByEmail,
+                                      Collection<UserImportErrorDTO> errors) {
+        String firstName = text(row, "firstName");
+        String lastName = text(row, "lastName");
+        String email = text(row, "email");
+        String userType = text(row, "userType");
+
+        StringJoiner missing = new StringJoiner(", ");
+        if (firstName == null) {
+            missing.add("firstName");
+        }
+        if (lastName == null) {
+            missing.add("lastName");
+        }
+        if (email == null) {
+            missing.add("email");
+        }
+        if (userType == null) {
+            missing.add("userType");
+        }
+        if (missing.length() > 0) {
+            errors.add(new UserImportErrorDTO(rowNumber, email, "Missing " + missing));
+            return null;
+        }
+        if (email.indexOf('@') < 1 || email.indexOf('@') == email.length() - 1 || email.contains(" ")) {
+            errors.add(new UserImportErrorDTO(rowNumber, email, "Invalid email"));
+            return null;
+        }
+        String password = text(row, "password");
+        if (password != null && password.length() < 6) {
+            errors.add(new UserImportErrorDTO(rowNumber, email, "Password must be at least 6 characters long"));
+            return null;
+        }
+
+        String key = email.toLowerCase(Locale.ROOT);
+        Integer firstRow = firstRowByEmail.putIfAbsent(key, rowNumber);
+        if (firstRow != null) {
+            errors.add(new UserImportErrorDTO(rowNumber, email, "Duplicate of row " + firstRow));
+            return null;
+        }
+
+        UserEntity user = newUser(userType, row);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        user.setFirstLogin(true);
+        return new Candidate(rowNumber, key, user, password);
+    }
+
+    private List<Candidate> dropRegistered(List<Candidate> candidates, Collection<UserImportErrorDTO> errors) {
+        Set<String> registered = new HashSet<>();
+        for (int from = 0; from < candidates.size(); from += EMAIL_CHECK_CHUNK) {
+            List<String> emails = new ArrayList<>();
+            for (Candidate candidate : candidates.subList(from, Math.min(from + EMAIL_CHECK_CHUNK, candidates.size()))) {
+                emails.add(candidate.key);
+            }
+            registered.addAll(userRepository.findExistingEmails(emails));
+        }
+        if (registered.isEmpty()) {
+            return candidates;
+        }
+        List<Candidate> fresh = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            if (registered.contains(candidate.key)) {
+                errors.add(new UserImportErrorDTO(candidate.row, candidate.user.getEmail(), "Email already registered"));
+            } else {
+                fresh.add(candidate);
+            }
+        }
+        return fresh;
+    }
+
+    // queues the window's hashes; insert() waits for them only when the window is written
+    private void hashPasswords(List<Candidate> candidates, Reading reading) {
+        for (Candidate candidate : candidates) {
+            if (candidate.rawPassword != null) {
+                String raw = candidate.rawPassword;
+                candidate.password = CompletableFuture.supplyAsync(() -> passwordEncoder.encode(raw), hashExecutor);
+            } else {
+                if (reading.defaultHash == null) {
+                    reading.defaultHash = CompletableFuture.supplyAsync(
+                        () -> passwordEncoder.encode(DEFAULT_PASSWORD), hashExecutor);
+                }
+                candidate.password = reading.defaultHash;
+            }
+        }
+    }
+
+    private void insert(List<Candidate> chunk, PriorityQueue<UserImportErrorDTO> pending, ChunkSink sink) {
+        List<Candidate> ready = new ArrayList<>(chunk.size());
+        List<UserEntity> users = new ArrayList<>(chunk.size());
+        for (Candidate candidate : chunk) {
+            try {
+                candidate.user.setPassword(candidate.password.join());
+                ready.add(candidate);
+                users.add(candidate.user);
+            } catch (RuntimeException e) {
+                pending.add(new UserImportErrorDTO(candidate.row, candidate.user.getEmail(), "Password could not be hashed"));
+            }
+        }
+        int throughRow = chunk.get(chunk.size() - 1).row;
+        RuntimeException failure = commit(sink, users, throughRow, pending);
+        if (failure == null) {
+            return;
+        }
+        System.out.println("⚠️ User import batch of " + users.size() + " failed, retrying row by row: " + reasonOf(failure));
+
+        // the batch rolled back as a whole; find the rows that cannot be saved
+        for (Candidate candidate : ready) {
+            RuntimeException rowFailure = commit(sink, List.of(candidate.user), candidate.row, pending);
+            if (rowFailure != null) {
+                pending.add(new UserImportErrorDTO(candidate.row, candidate.user.getEmail(),
+                    "Could not be saved: " + reasonOf(rowFailure)));
+            }
+        }
+        failure = commit(sink, List.of(), throughRow, pending);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // hands the sink the users and the pending errors up to throughRow; on failure the errors stay pending
+    private static RuntimeException commit(ChunkSink sink, List<UserEntity> users, int throughRow,
+                                           PriorityQueue<UserImportErrorDTO> pending) {
+        List<UserImportErrorDTO> errors = new ArrayList<>();
+        while (!pending.isEmpty() && pending.peek().getRow() <= throughRow) {
+            errors.add(pending.poll());
+        }
+        try {
+            sink.commit(users, throughRow, errors);
+            return null;
+        } catch (RuntimeException e) {
+            pending.addAll(errors);
+            return e;
+        }
+    }
+
+    private static UserEntity newUser(String userType, Map<String, Object> row) {
+        switch (userType) {
+            case "Student": {
+                StudentEntity student = new StudentEntity();
+                student.setUserType("Student");
+                student.setCourse(textOrEmpty(row, "course"));
+                student.setOrganization(textOrEmpty(row, "organization"));
+                return student;
+            }
+            case "Faculty": {
+                FacultyEntity faculty = new FacultyEntity();
+                faculty.setUserType("Faculty");
+                faculty.setDepartment(textOrEmpty(row, "department"));
+                return faculty;
+            }
+            case "Coordinator": {
+                CoordinatorEntity coordinator = new CoordinatorEntity();
+                coordinator.setUserType("Coordinator");
+                coordinator.setAffiliation(textOrEmpty(row, "affiliation"));
+                return coordinator;
+            }
+            default: {
+                // Admin, Custodian, etc.
+                UserEntity user = new UserEntity();
+                user.setUserType(userType);
+                return user;
+            }
+        }
+    }
+
+    // trimmed cell text, or null when the cell is absent or blank
+    private static String text(Map<String, Object> row, String column) {
+        Object value = row.get(column);
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static String textOrEmpty(Map<String, Object> row, String column) {
+        String text = text(row, column);
+        return text == null ? "" : text;
+    }
+
+    static String reasonOf(RuntimeException e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        if (message == null) {
+            return e.getClass().getSimpleName();
+        }
+        int lineEnd = message.indexOf('\n');
+        return lineEnd >= 0 ? message.substring(0, lineEnd).trim() : message;
+    }
+
+    /**
+     * Rows to import, read one at a time.
+     */
+    interface RowSource {
+
+        // the next row, or null after the last
+        Map<String, Object> next() throws IOException;
+    }
+
+    static RowSource rowsOf(List<Map<String, Object>> rows) {
+        Iterator<Map<String, Object>> iterator = rows.iterator();
+        return () -> {
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            Map<String, Object> row = iterator.next();
+            return row != null ? row : Map.of();
+        };
+    }
+
+    /**
+     * Where an import's chunks are written. {@code commit} inserts the users
+     * and records every row up to {@code throughRow}, with the errors of
+     * those rows, as one unit: if it throws, none of it happened.
+     */
+    interface ChunkSink {
+
+        void commit(List<UserEntity> users, int throughRow, List<UserImportErrorDTO> errors);
+
+        // checked before each chunk
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+
+    private static class Reading {
+        final RowSource rows;
+        final int resumeAfter;
+        // lower-cased email -> first row it appeared on
+        final Map<String, Integer> firstRowByEmail = new HashMap<>();
+        int rowNumber;
+        boolean done;
+        // shared by every window's rows without a password column, so it is computed once
+        CompletableFuture<String> defaultHash;
+
+        Reading(RowSource rows, int resumeAfter) {
+            this.rows = rows;
+            this.resumeAfter = resumeAfter;
+        }
+    }
+
+    private static class Window {
+        List<Candidate> candidates = new ArrayList<>();
+        final List<UserImportErrorDTO> errors = new ArrayList<>();
+        // the window's last row, 0 if it has none
+        int lastRow;
+    }
+
+    private static class Candidate {
+        final int row;
+        // lower-cased email
+        final String key;
+        final UserEntity user;
+        // from the row's password column, null for the default
+        final String rawPassword;
+        CompletableFuture<String> password;
+
+        Candidate(int row, String key, UserEntity user, String rawPassword) {
+            this.row = row;
+            this.key = key;
+            this.user = user;
+            this.rawPassword = rawPassword;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.collegia.service;
 
+import com.example.collegia.entity.CustodianEntity;
 import com.example.collegia.entity.UserEntity;
+import com.example.collegia.event.VenueChangedEvent;
 import com.example.collegia.repository.UserRepository;
-import com.example.collegia.util.PasswordEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,7 +18,13 @@ public class UserService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
 
     public List<UserEntity> getAllUsers() {
         return userRepository.findAll();
@@ -33,7 +41,7 @@ public class UserService {
     public UserEntity createUser(UserEntity user) {
         // Always use default password "12345678"
         String defaultPassword = "12345678";
-        String encryptedPassword = passwordEncoder.encode(defaultPassword);
+        String encryptedPassword = passwordHashingService.encode(defaultPassword);
         user.setPassword(encryptedPassword);
         user.setFirstLogin(true);
 
@@ -56,7 +64,12 @@ public class UserService {
             user.setProfilePhoto(userDetails.getProfilePhoto());
         }
 
-        return userRepository.save(user);
+        UserEntity savedUser = saveUser(user);
+        if (savedUser instanceof CustodianEntity) {
+            // venue listings show the custodian's name
+            eventPublisher.publishEvent(VenueChangedEvent.bulk());
+        }
+        return savedUser;
     }
 
     public UserEntity updateProfilePhoto(Long id, String photoUrl) {
@@ -64,13 +77,26 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
         
         user.setProfilePhoto(photoUrl);
-        return userRepository.save(user);
+        return saveUser(user);
+    }
+
+    /**
+     * Persist a user and move the upload references of its profile photo.
+     */
+    public UserEntity saveUser(UserEntity user) {
+        UserEntity savedUser = userRepository.save(user);
+        blobReferenceService.syncUser(savedUser.getUserId());
+        return savedUser;
     }
 
     public void deleteUser(Long id) {
         UserEntity user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
         userRepository.delete(user);
+        blobReferenceService.release(BlobReferenceService.userOwner(id));
+        if (user instanceof CustodianEntity) {
+            eventPublisher.publishEvent(VenueChangedEvent.bulk());
+        }
     }
 
     public boolean emailExists(String email) {
@@ -82,7 +108,7 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
 
         // Always encrypt new passwords
-        String encryptedPassword = passwordEncoder.encode(newPassword);
+        String encryptedPassword = passwordHashingService.encode(newPassword);
         user.setPassword(encryptedPassword);
         user.setFirstLogin(false);
 
@@ -95,7 +121,7 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
         
         if (encrypt) {
-            String encryptedPassword = passwordEncoder.encode(newPassword);
+            String encryptedPassword = passwordHashingService.encode(newPassword);
             user.setPassword(encryptedPassword);
         } else {
             user.setPassword(newPassword); // For DEMO PURPOSES
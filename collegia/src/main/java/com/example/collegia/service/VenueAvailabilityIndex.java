@@ -0,0 +1,382 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.BookingSlotDTO;
+import com.example.collegia.entity.BookingEntity;
+import com.example.collegia.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of reserved time intervals per venue and per day.
+ *
+ * Every booking that still holds its slot (anything but "canceled") is kept
+ * as a [start, start + slot length) interval, so availability and conflict
+ * checks never touch the database. The index is loaded from
+ * {@link BookingRepository} once the application is ready and then kept
+ * current by {@link BookingService} on create, update, status change and delete.
+ * Changes made inside a transaction are applied at once and undone on
+ * rollback; until the transaction ends they are also re-applied over any
+ * rebuild, which only sees committed rows.
+ */
+@Component
+public class VenueAvailabilityIndex {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final int slotMinutes;
+
+    // venueId -> day -> reserved intervals
+    private final Map<Long, Map<LocalDate, DaySchedule>> venues = new ConcurrentHashMap<>();
+
+    // bookingId -> interval it currently occupies, so updates can move or drop it
+    private final Map<Long, Slot> slotsByBooking = new ConcurrentHashMap<>();
+
+    // bookingId -> latest change of a transaction that has not completed yet
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    // shared by normal reads/writes, exclusive for a full rebuild
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready = false;
+
+    public VenueAvailabilityIndex(@Value("${booking.slot-minutes:60}") int slotMinutes) {
+        this.slotMinutes = slotMinutes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            ready = false;
+            venues.clear();
+            slotsByBooking.clear();
+
+            List<BookingSlotDTO> rows = bookingRepository.findActiveBookingSlots();
+            for (BookingSlotDTO row : rows) {
+                Slot slot = toSlot(row);
+                if (slot != null) {
+                    insert(row.getBookingId(), slot);
+                }
+            }
+            // uncommitted changes are not in the rows yet
+            for (Map.Entry<Long, Pending> change : pending.entrySet()) {
+                unindex(change.getKey());
+                if (change.getValue().slot != null) {
+                    insert(change.getKey(), change.getValue().slot);
+                }
+            }
+
+            ready = true;
+            System.out.println("✅ Availability index built from " + rows.size() + " bookings");
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Build the index now if the startup rebuild has not run yet.
+     */
+    public void ensureReady() {
+        if (!ready) {
+            synchronized (this) {
+                if (!ready) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    /**
+     * Index (or re-index) a booking after it was saved. If the surrounding
+     * transaction rolls back, the booking's previous interval is restored.
+     */
+    public void put(BookingEntity booking) {
+        Long venueId = booking.getVenue() != null ? booking.getVenue().getVenueId() : null;
+        apply(booking.getBookingId(), toSlot(new BookingSlotDTO(
+            booking.getBookingId(), venueId, booking.getDate(), booking.getTimeSlot(), booking.getStatus())));
+    }
+
+    public void remove(Long bookingId) {
+        apply(bookingId, null);
+    }
+
+    /**
+     * Drop every interval of a venue, e.g. after the venue and its bookings were deleted.
+     */
+    public void removeVenue(Long venueId) {
+        rebuildLock.readLock().lock();
+        try {
+            venues.remove(venueId);
+            slotsByBooking.values().removeIf(slot -> slot.venueId.equals(venueId));
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * True when the venue has no reserved interval at all on the given day.
+     */
+    public boolean isDayFree(Long venueId, LocalDate day) {
+        DaySchedule schedule = schedule(venueId, day, false);
+        return schedule == null || schedule.isEmpty();
+    }
+
+    /**
+     * True when [start, start + slot length) does not overlap any reserved
+     * interval of the venue on that day, ignoring {@code excludeBookingId}.
+     */
+    public boolean isSlotFree(Long venueId, LocalDate day, Time timeSlot, Long excludeBookingId) {
+        int start = startMinute(timeSlot);
+        int end = endMinute(timeSlot, start);
+        DaySchedule schedule = schedule(venueId, day, false);
+        return schedule == null || !schedule.overlaps(start, end, excludeBookingId);
+    }
+
+    /**
+     * Free [start, end) minute windows of a venue on one day, clipped to
+     * the opening hours [openMinute, closeMinute).
+     */
+    public List<int[]> freeWindows(Long venueId, LocalDate day, int openMinute, int closeMinute) {
+        DaySchedule schedule = schedule(venueId, day, false);
+        List<int[]> reserved = schedule != null ? schedule.intervals() : List.of();
+
+        List<int[]> free = new ArrayList<>();
+        int cursor = openMinute;
+        for (int[] interval : reserved) {
+            if (interval[0] >= closeMinute) {
+                break;
+            }
+            if (interval[0] > cursor) {
+                free.add(new int[] {cursor, interval[0]});
+            }
+            cursor = Math.max(cursor, interval[1]);
+        }
+        if (cursor < closeMinute) {
+            free.add(new int[] {cursor, closeMinute});
+        }
+        return free;
+    }
+
+    public boolean slotsOverlap(Time first, Time second) {
+        int firstStart = startMinute(first);
+        int secondStart = startMinute(second);
+        return firstStart < endMinute(second, secondStart) && secondStart < endMinute(first, firstStart);
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public static LocalDate toLocalDate(Date date) {
+        if (date instanceof java.sql.Date) {
+            return ((java.sql.Date) date).toLocalDate();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private void apply(Long bookingId, Slot slot) {
+        if (bookingId == null) {
+            return;
+        }
+
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        Pending change = null;
+        rebuildLock.readLock().lock();
+        try {
+            Slot previous = unindex(bookingId);
+            if (slot != null) {
+                insert(bookingId, slot);
+            }
+            if (inTransaction) {
+                // an earlier change in the same transaction already knows the committed interval
+                Pending earlier = pending.get(bookingId);
+                change = new Pending(slot, earlier != null ? earlier.before : previous);
+                pending.put(bookingId, change);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+
+        if (inTransaction) {
+            Pending registered = change;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    complete(bookingId, registered, status == STATUS_ROLLED_BACK ? registered.before : registered.slot);
+                }
+            });
+        }
+    }
+
+    // leaves the booking at its committed interval, or the one before a rollback
+    private void complete(Long bookingId, Pending change, Slot settled) {
+        rebuildLock.readLock().lock();
+        try {
+            // a later change of the same booking in the same transaction settles it instead
+            if (pending.remove(bookingId, change)) {
+                unindex(bookingId);
+                if (settled != null) {
+                    insert(bookingId, settled);
+                }
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void insert(Long bookingId, Slot slot) {
+        schedule(slot.venueId, slot.day, true).add(bookingId, slot.start, slot.end);
+        slotsByBooking.put(bookingId, slot);
+    }
+
+    private Slot unindex(Long bookingId) {
+        Slot previous = slotsByBooking.remove(bookingId);
+        if (previous != null) {
+            DaySchedule schedule = schedule(previous.venueId, previous.day, false);
+            if (schedule != null) {
+                schedule.remove(bookingId, previous.start);
+            }
+        }
+        return previous;
+    }
+
+    private DaySchedule schedule(Long venueId, LocalDate day, boolean create) {
+        if (!create) {
+            Map<LocalDate, DaySchedule> days = venues.get(venueId);
+            return days != null ? days.get(day) : null;
+        }
+        return venues.computeIfAbsent(venueId, id -> new ConcurrentHashMap<>())
+            .computeIfAbsent(day, d -> new DaySchedule());
+    }
+
+    private Slot toSlot(BookingSlotDTO booking) {
+        if (booking.getVenueId() == null || booking.getDate() == null || !holdsSlot(booking.getStatus())) {
+            return null;
+        }
+        int start = startMinute(booking.getTimeSlot());
+        int end = endMinute(booking.getTimeSlot(), start);
+        return new Slot(booking.getVenueId(), toLocalDate(booking.getDate()), start, end);
+    }
+
+    // Bookings without a time slot block the whole day
+    private int startMinute(Time timeSlot) {
+        if (timeSlot == null) {
+            return 0;
+        }
+        LocalTime time = timeSlot.toLocalTime();
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private int endMinute(Time timeSlot, int start) {
+        if (timeSlot == null) {
+            return MINUTES_PER_DAY;
+        }
+        return Math.min(start + slotMinutes, MINUTES_PER_DAY);
+    }
+
+    static boolean holdsSlot(String status) {
+        return !"canceled".equals(status);
+    }
+
+    private static class Pending {
+        // null when the booking no longer holds a slot
+        private final Slot slot;
+        // what the booking held before the transaction, restored on rollback
+        private final Slot before;
+
+        Pending(Slot slot, Slot before) {
+            this.slot = slot;
+            this.before = before;
+        }
+    }
+
+    private static class Slot {
+        private final Long venueId;
+        private final LocalDate day;
+        private final int start;
+        private final int end;
+
+        Slot(Long venueId, LocalDate day, int start, int end) {
+            this.venueId = venueId;
+            this.day = day;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Reserved intervals of one venue on one day, keyed by start minute.
+     * Tracking the longest interval bounds every overlap query to the
+     * entries starting in (start - longest, end).
+     */
+    static class DaySchedule {
+        private final TreeMap<Integer, Map<Long, Integer>> byStart = new TreeMap<>();
+        private int longest = 0;
+
+        synchronized void add(Long bookingId, int start, int end) {
+            byStart.computeIfAbsent(start, s -> new HashMap<>()).put(bookingId, end);
+            longest = Math.max(longest, end - start);
+        }
+
+        synchronized void remove(Long bookingId, int start) {
+            Map<Long, Integer> atStart = byStart.get(start);
+            if (atStart != null) {
+                atStart.remove(bookingId);
+                if (atStart.isEmpty()) {
+                    byStart.remove(start);
+                }
+            }
+        }
+
+        synchronized boolean isEmpty() {
+            return byStart.isEmpty();
+        }
+
+        synchronized boolean overlaps(int start, int end, Long excludeBookingId) {
+            for (Map<Long, Integer> atStart : byStart.subMap(start - longest, false, end, false).values()) {
+                for (Map.Entry<Long, Integer> interval : atStart.entrySet()) {
+                    if (interval.getValue() > start && !interval.getKey().equals(excludeBookingId)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        // Reserved intervals ordered by start minute
+        synchronized List<int[]> intervals() {
+            List<int[]> intervals = new ArrayList<>();
+            for (Map.Entry<Integer, Map<Long, Integer>> atStart : byStart.entrySet()) {
+                for (Integer end : atStart.getValue().values()) {
+                    intervals.add(new int[] {atStart.getKey(), end});
+                }
+            }
+            return intervals;
+        }
+    }
+}
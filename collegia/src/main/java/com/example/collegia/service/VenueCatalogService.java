@@ -0,0 +1,132 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.VenueDTO;
+import com.example.collegia.event.VenueChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pre-serialized snapshot of the full venue list served by GET /api/venues.
+ *
+ * The JSON bytes and a strong ETag (SHA-256 of those bytes) are built once and
+ * reused until a venue changes. Changes only mark the snapshot stale; the next
+ * request rebuilds it, so a burst of writes costs a single rebuild.
+ */
+@Service
+public class VenueCatalogService {
+
+    @Autowired
+    private VenueService venueService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // bumped on every venue change; a snapshot is current while its generation matches
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && current.generation == generation.get()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            long target = generation.get();
+            if (current == null || current.generation != target) {
+                current = build(target);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    // after commit, so the rebuild reads the committed venue rows
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVenueChanged(VenueChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    private Snapshot build(long target) {
+        List<VenueDTO> venues = venueService.getAllVenuesAsDTO();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(venues);
+            Snapshot built = new Snapshot(json, "\"" + sha256(json) + "\"", target, venues.size(), Instant.now());
+            System.out.println("✅ Venue catalog rebuilt: " + venues.size() + " venues, " + json.length + " bytes");
+            return built;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize venue catalog", e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class Snapshot {
+        private final byte[] json;
+        private final String etag;
+        private final long generation;
+        private final int venueCount;
+        private final Instant builtAt;
+
+        Snapshot(byte[] json, String etag, long generation, int venueCount, Instant builtAt) {
+            this.json = json;
+            this.etag = etag;
+            this.generation = generation;
+            this.venueCount = venueCount;
+            this.builtAt = builtAt;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public int getVenueCount() {
+            return venueCount;
+        }
+
+        public Instant getBuiltAt() {
+            return builtAt;
+        }
+
+        /**
+         * True when an If-None-Match header names this snapshot (or is "*").
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                // weak comparison, as RFC 9110 requires for If-None-Match
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.VenueDTO;
+import com.example.collegia.dto.VenueFacetResultDTO;
+import com.example.collegia.event.VenueChangedEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index over venue amenities, locations and capacity bands.
+ *
+ * Every venue gets a dense slot number, and each facet value maps to a bitset
+ * of the slots that have it, so a filter such as "projector + sound system +
+ * at least 150 seats in SAL" is a handful of word-wise ANDs. The same call
+ * returns how many venues each facet value would leave: amenity counts are
+ * taken within the result (amenities combine with AND), while location and
+ * capacity counts ignore their own filter so the form can offer alternatives.
+ * Built once the application is ready and updated per venue on every
+ * {@link VenueChangedEvent}.
+ */
+@Component
+public class VenueFacetIndex extends AbstractVenueIndex {
+
+    // lower bound of each capacity band; the last band is open-ended
+    static final int[] CAPACITY_BANDS = {0, 50, 100, 150, 300};
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final List<VenueDTO> venuesBySlot = new ArrayList<>();
+    private final BitSet live = new BitSet();
+
+    // normalized value -> slots, plus the spelling shown for it
+    private final Map<String, BitSet> amenityBits = new HashMap<>();
+    private final Map<String, String> amenityLabels = new HashMap<>();
+    private final Map<String, BitSet> locationBits = new HashMap<>();
+    private final Map<String, String> locationLabels = new HashMap<>();
+    private final BitSet[] bandBits = new BitSet[CAPACITY_BANDS.length];
+
+    public VenueFacetIndex() {
+        for (int band = 0; band < bandBits.length; band++) {
+            bandBits[band] = new BitSet();
+        }
+    }
+
+    @Override
+    protected void replaceAll(List<VenueDTO> venues) {
+        lock.writeLock().lock();
+        try {
+            reset(venues);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("✅ Venue facet index built: " + venues.size() + " venues, "
+            + amenityBits.size() + " amenities, " + locationBits.size() + " locations");
+    }
+
+    // the old facet bits are cleared first, since an update may have dropped an amenity or moved to another band
+    @Override
+    protected void replace(Long venueId, VenueDTO venue) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(venueId);
+            if (slot != null) {
+                clear(slot);
+            }
+            if (venue != null) {
+                // an updated venue keeps its slot, so result order stays stable; a new one is appended
+                set(slot != null ? slot : venuesBySlot.size(), venue);
+            } else if (slot != null) {
+                slots.remove(venueId);
+                venuesBySlot.set(slot, null);
+                // deletes leave holes; renumber once they outnumber the venues
+                if (venuesBySlot.size() > 64 && live.cardinality() < venuesBySlot.size() / 2) {
+                    reset(venuesBySlot.stream().filter(remaining -> remaining != null).toList());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Venues having every one of {@code amenities}, in any of {@code locations}
+     * (all when empty) and within the optional capacity bounds, in index order.
+     * Amenity and location values are matched case-insensitively.
+     */
+    public VenueFacetResultDTO filter(Collection<String> amenities, Collection<String> locations,
+                                      Integer minCapacity, Integer maxCapacity, int page, int size) {
+        lock.readLock().lock();
+        try {
+            BitSet amenityMatch = (BitSet) live.clone();
+            if (amenities != null) {
+                for (String amenity : amenities) {
+                    BitSet bits = amenityBits.get(normalize(amenity));
+                    if (bits == null) {
+                        amenityMatch.clear();
+                        break;
+                    }
+                    amenityMatch.and(bits);
+                }
+            }
+
+            BitSet locationMatch = live;
+            if (locations != null && !locations.isEmpty()) {
+                locationMatch = new BitSet();
+                for (String location : locations) {
+                    BitSet bits = locationBits.get(normalize(location));
+                    if (bits != null) {
+                        locationMatch.or(bits);
+                    }
+                }
+            }
+
+            BitSet capacityMatch = minCapacity == null && maxCapacity == null
+                ? live
+                : capacityBetween(minCapacity != null ? minCapacity : Integer.MIN_VALUE,
+                    maxCapacity != null ? maxCapacity : Integer.MAX_VALUE);
+
+            BitSet result = intersect(amenityMatch, locationMatch, capacityMatch);
+
+            Map<String, Integer> amenityCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            amenityBits.forEach((key, bits) ->
+                amenityCounts.put(amenityLabels.get(key), intersect(result, bits).cardinality()));
+
+            BitSet withoutLocation = intersect(amenityMatch, capacityMatch);
+            Map<String, Integer> locationCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            locationBits.forEach((key, bits) ->
+                locationCounts.put(locationLabels.get(key), intersect(withoutLocation, bits).cardinality()));
+
+            BitSet withoutCapacity = intersect(amenityMatch, locationMatch);
+            Map<String, Integer> bandCounts = new LinkedHashMap<>();
+            for (int band = 0; band < bandBits.length; band++) {
+                bandCounts.put(bandLabel(band), intersect(withoutCapacity, bandBits[band]).cardinality());
+            }
+
+            List<VenueDTO> venues = new ArrayList<>();
+            long skip = (long) page * size;
+            for (int slot = result.nextSetBit(0); slot >= 0 && venues.size() < size; slot = result.nextSetBit(slot + 1)) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    venues.add(venuesBySlot.get(slot));
+                }
+            }
+
+            return new VenueFacetResultDTO(page, size, result.cardinality(), venues,
+                new LinkedHashMap<>(amenityCounts), new LinkedHashMap<>(locationCounts), bandCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // whole bands inside the bounds are taken as they are; only the bands the bounds cut through are checked per venue
+    private BitSet capacityBetween(int min, int max) {
+        BitSet matches = new BitSet();
+        for (int band = 0; band < bandBits.length; band++) {
+            int bandMin = band == 0 ? Integer.MIN_VALUE : CAPACITY_BANDS[band];
+            int bandMax = band + 1 < CAPACITY_BANDS.length ? CAPACITY_BANDS[band + 1] - 1 : Integer.MAX_VALUE;
+            if (bandMax < min || bandMin > max) {
+                continue;
+            }
+            if (bandMin >= min && bandMax <= max) {
+                matches.or(bandBits[band]);
+                continue;
+            }
+            BitSet bits = bandBits[band];
+            for (int slot = bits.nextSetBit(0); slot >= 0; slot = bits.nextSetBit(slot + 1)) {
+                int capacity = venuesBySlot.get(slot).getVenueCapacity();
+                if (capacity >= min && capacity <= max) {
+                    matches.set(slot);
+                }
+            }
+        }
+        return matches;
+    }
+
+    // caller holds the write lock
+    private void reset(List<VenueDTO> venues) {
+        slots.clear();
+        venuesBySlot.clear();
+        live.clear();
+        amenityBits.clear();
+        amenityLabels.clear();
+        locationBits.clear();
+        locationLabels.clear();
+        for (BitSet bits : bandBits) {
+            bits.clear();
+        }
+        for (VenueDTO venue : venues) {
+            set(venuesBySlot.size(), venue);
+        }
+    }
+
+    // caller holds the write lock
+    private void set(int slot, VenueDTO venue) {
+        if (slot == venuesBySlot.size()) {
+            venuesBySlot.add(venue);
+        } else {
+            venuesBySlot.set(slot, venue);
+        }
+        slots.put(venue.getVenueId(), slot);
+        live.set(slot);
+        if (venue.getAmenities() != null) {
+            for (String amenity : venue.getAmenities()) {
+                mark(amenityBits, amenityLabels, amenity, slot);
+            }
+        }
+        mark(locationBits, locationLabels, venue.getVenueLocation(), slot);
+        bandBits[bandOf(venue.getVenueCapacity())].set(slot);
+    }
+
+    // caller holds the write lock; the slot itself stays reserved for its venue
+    private void clear(int slot) {
+        VenueDTO venue = venuesBySlot.get(slot);
+        live.clear(slot);
+        if (venue.getAmenities() != null) {
+            for (String amenity : venue.getAmenities()) {
+                unmark(amenityBits, amenityLabels, amenity, slot);
+            }
+        }
+        unmark(locationBits, locationLabels, venue.getVenueLocation(), slot);
+        bandBits[bandOf(venue.getVenueCapacity())].clear(slot);
+    }
+
+    private static void mark(Map<String, BitSet> index, Map<String, String> labels, String value, int slot) {
+        String key = normalize(value);
+        if (key.isEmpty()) {
+            return;
+        }
+        index.computeIfAbsent(key, k -> new BitSet()).set(slot);
+        labels.putIfAbsent(key, value.trim());
+    }
+
+    private static void unmark(Map<String, BitSet> index, Map<String, String> labels, String value, int slot) {
+        String key = normalize(value);
+        BitSet bits = index.get(key);
+        if (bits == null) {
+            return;
+        }
+        bits.clear(slot);
+        if (bits.isEmpty()) {
+            index.remove(key);
+            labels.remove(key);
+        }
+    }
+
+    private static BitSet intersect(BitSet first, BitSet... others) {
+        BitSet result = (BitSet) first.clone();
+        for (BitSet other : others) {
+            result.and(other);
+        }
+        return result;
+    }
+
+    static int bandOf(int capacity) {
+        int band = 0;
+        while (band + 1 < CAPACITY_BANDS.length && capacity >= CAPACITY_BANDS[band + 1]) {
+            band++;
+        }
+        return band;
+    }
+
+    static String bandLabel(int band) {
+        return band + 1 < CAPACITY_BANDS.length
+            ? CAPACITY_BANDS[band] + "-" + (CAPACITY_BANDS[band + 1] - 1)
+            : CAPACITY_BANDS[band] + "+";
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
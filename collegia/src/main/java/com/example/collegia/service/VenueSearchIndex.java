@@ -0,0 +1,490 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.SuggestionDTO;
+import com.example.collegia.dto.VenueDTO;
+import com.example.collegia.dto.VenueSearchHitDTO;
+import com.example.collegia.dto.VenueSearchResultDTO;
+import com.example.collegia.event.VenueChangedEvent;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over venue name, location, description and amenities.
+ *
+ * Searches are ranked with BM25 over field-weighted term frequencies (a match
+ * in the name counts more than one in the description). A query term with no
+ * exact match falls back to the terms it prefixes, then to terms within one
+ * edit. Autocomplete walks the sorted vocabulary, so it answers from memory
+ * without touching the database. Terms within one edit are looked up in
+ * deletion neighbourhoods of the vocabulary (every term and term prefix with
+ * each single character dropped), so a typo costs a few hash lookups per
+ * character instead of a pass over every term. The index is built once the
+ * application is ready and updated per venue on every {@link VenueChangedEvent}.
+ */
+@Component
+public class VenueSearchIndex extends AbstractVenueIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float AMENITY_WEIGHT = 2.0f;
+    private static final float LOCATION_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // score factors for query terms that only matched as a prefix or with a typo
+    private static final double PREFIX_FACTOR = 0.7;
+    private static final double FUZZY_FACTOR = 0.5;
+    private static final int MAX_EXPANSIONS = 20;
+
+    // term prefixes up to this length are indexed for typo-tolerant autocomplete
+    private static final int FUZZY_PREFIX_LENGTH = 8;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "at", "by", "for", "in", "is", "of", "on", "or", "the", "to", "with");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    // term -> venueId -> weighted term frequency
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+
+    // term -> venues whose name contains it, for venue suggestions
+    private final Map<String, Set<Long>> namePostings = new HashMap<>();
+
+    // term -> number of venues containing it, sorted for prefix walks
+    private final TreeMap<String, Integer> vocabulary = new TreeMap<>();
+
+    // candidates within one edit of a whole term, and of a term prefix
+    private final DeletionNeighbourhood termNeighbours = new DeletionNeighbourhood(0);
+    private final DeletionNeighbourhood prefixNeighbours = new DeletionNeighbourhood(FUZZY_PREFIX_LENGTH);
+
+    private double totalLength = 0;
+
+    @Override
+    protected void replaceAll(List<VenueDTO> venues) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            namePostings.clear();
+            vocabulary.clear();
+            termNeighbours.clear();
+            prefixNeighbours.clear();
+            totalLength = 0;
+            venues.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("✅ Venue search index built: " + venues.size() + " venues, " + vocabulary.size() + " terms");
+    }
+
+    // the old postings go first, so terms the update dropped leave the vocabulary and its neighbourhoods
+    @Override
+    protected void replace(Long venueId, VenueDTO venue) {
+        lock.writeLock().lock();
+        try {
+            remove(venueId);
+            if (venue != null) {
+                add(venue);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked venues matching any of the query terms; venues matching more of
+     * the terms rank higher.
+     */
+    public VenueSearchResultDTO search(String query, int page, int size) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return new VenueSearchResultDTO(query, page, size, 0, new ArrayList<>());
+        }
+
+        List<Map.Entry<Long, Double>> ranked;
+        Map<Long, VenueDTO> venues = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            double averageLength = documentCount > 0 ? totalLength / documentCount : 1;
+
+            Map<Long, Double> scores = new HashMap<>();
+            Map<Long, Integer> matchedTerms = new HashMap<>();
+            for (String term : terms) {
+                Set<Long> matched = new HashSet<>();
+                for (Map.Entry<String, Double> expansion : expand(term).entrySet()) {
+                    Map<Long, Float> postingList = postings.get(expansion.getKey());
+                    double idf = Math.log(1 + (documentCount - postingList.size() + 0.5) / (postingList.size() + 0.5));
+                    for (Map.Entry<Long, Float> posting : postingList.entrySet()) {
+                        double tf = posting.getValue();
+                        double length = documents.get(posting.getKey()).length;
+                        double weight = tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+                        scores.merge(posting.getKey(), expansion.getValue() * idf * weight, Double::sum);
+                        matched.add(posting.getKey());
+                    }
+                }
+                matched.forEach(venueId -> matchedTerms.merge(venueId, 1, Integer::sum));
+            }
+
+            // favour venues that cover more of the query
+            scores.replaceAll((venueId, score) -> score * matchedTerms.get(venueId) / terms.size());
+            scores.keySet().forEach(venueId -> venues.put(venueId, documents.get(venueId).venue));
+
+            ranked = new ArrayList<>(scores.entrySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+            .thenComparing(entry -> venues.get(entry.getKey()).getVenueName(),
+                Comparator.nullsLast(Comparator.naturalOrder())));
+
+        List<VenueSearchHitDTO> hits = new ArrayList<>();
+        int from = (int) Math.min((long) page * size, ranked.size());
+        for (Map.Entry<Long, Double> entry : ranked.subList(from, Math.min(from + size, ranked.size()))) {
+            hits.add(new VenueSearchHitDTO(venues.get(entry.getKey()), entry.getValue()));
+        }
+        return new VenueSearchResultDTO(query, page, size, ranked.size(), hits);
+    }
+
+    /**
+     * Completions for the last word of {@code input}: venues whose name contains
+     * a completed term, then the vocabulary terms the word prefixes (or prefixes
+     * with one typo), most common first.
+     */
+    public List<SuggestionDTO> autocomplete(String input, int limit) {
+        String prefix = lastWord(input);
+        if (prefix.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> candidates = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> term : prefixRange(prefix).entrySet()) {
+                candidates.put(term.getKey(), 2.0 + term.getValue());
+            }
+            // typos only once there is enough of a word to guess from; an edit within the
+            // indexed prefix length is found from the truncated word, the rest is checked per candidate
+            if (prefix.length() >= 3) {
+                String indexed = prefix.substring(0, Math.min(prefix.length(), FUZZY_PREFIX_LENGTH - 1));
+                for (String term : prefixNeighbours.candidates(indexed)) {
+                    if (!candidates.containsKey(term) && prefixWithinOneEdit(prefix, term)) {
+                        candidates.put(term, 1.0 + vocabulary.get(term));
+                    }
+                }
+            }
+
+            List<String> terms = new ArrayList<>(candidates.keySet());
+            terms.sort(Comparator.comparing((String term) -> candidates.get(term) >= 2.0).reversed()
+                .thenComparing(term -> vocabulary.get(term), Comparator.reverseOrder())
+                .thenComparing(Comparator.naturalOrder()));
+
+            List<String> topTerms = terms.subList(0, Math.min(limit, terms.size()));
+
+            // venues named after one of the completions come first: the alphabetically
+            // first few, kept in a bounded heap rather than sorting every match
+            Comparator<VenueDTO> byName = Comparator.comparing(VenueDTO::getVenueName,
+                Comparator.nullsLast(Comparator.naturalOrder()));
+            PriorityQueue<VenueDTO> firstByName = new PriorityQueue<>(byName.reversed());
+            Set<Long> seen = new HashSet<>();
+            for (String term : topTerms) {
+                for (Long venueId : namePostings.getOrDefault(term, Set.of())) {
+                    if (seen.add(venueId)) {
+                        firstByName.add(documents.get(venueId).venue);
+                        if (firstByName.size() > limit) {
+                            firstByName.poll();
+                        }
+                    }
+                }
+            }
+            List<VenueDTO> namedVenues = new ArrayList<>(firstByName);
+            namedVenues.sort(byName);
+
+            List<SuggestionDTO> suggestions = new ArrayList<>();
+            for (VenueDTO venue : namedVenues) {
+                suggestions.add(new SuggestionDTO(venue.getVenueName(), "venue", venue.getVenueId(), 1));
+            }
+            for (String term : topTerms) {
+                suggestions.add(new SuggestionDTO(term, "term", null, vocabulary.get(term)));
+            }
+            return suggestions.subList(0, Math.min(limit, suggestions.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // exact term, else the terms it prefixes, else terms within one edit; with their score factors
+    private Map<String, Double> expand(String term) {
+        Map<String, Double> expansions = new LinkedHashMap<>();
+        if (postings.containsKey(term)) {
+            expansions.put(term, 1.0);
+            return expansions;
+        }
+        for (String candidate : prefixRange(term).keySet()) {
+            if (expansions.size() >= MAX_EXPANSIONS) {
+                break;
+            }
+            expansions.put(candidate, PREFIX_FACTOR);
+        }
+        if (expansions.isEmpty() && term.length() >= 4) {
+            // sorted, so the same expansions are kept whichever order the neighbourhood returns them in
+            for (String candidate : new TreeSet<>(termNeighbours.candidates(term))) {
+                if (expansions.size() < MAX_EXPANSIONS && withinOneEdit(term, candidate)) {
+                    expansions.put(candidate, FUZZY_FACTOR);
+                }
+            }
+        }
+        return expansions;
+    }
+
+    private SortedMap<String, Integer> prefixRange(String prefix) {
+        return vocabulary.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    // caller holds the write lock
+    private void add(VenueDTO venue) {
+        Map<String, Float> terms = new HashMap<>();
+        List<String> nameTerms = tokenize(venue.getVenueName());
+        nameTerms.forEach(term -> terms.merge(term, NAME_WEIGHT, Float::sum));
+        tokenize(venue.getVenueLocation()).forEach(term -> terms.merge(term, LOCATION_WEIGHT, Float::sum));
+        tokenize(venue.getDescription()).forEach(term -> terms.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+        if (venue.getAmenities() != null) {
+            for (String amenity : venue.getAmenities()) {
+                tokenize(amenity).forEach(term -> terms.merge(term, AMENITY_WEIGHT, Float::sum));
+            }
+        }
+
+        float length = 0;
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), t -> new HashMap<>()).put(venue.getVenueId(), term.getValue());
+            if (vocabulary.merge(term.getKey(), 1, Integer::sum) == 1) {
+                termNeighbours.add(term.getKey());
+                prefixNeighbours.add(term.getKey());
+            }
+            length += term.getValue();
+        }
+        for (String term : nameTerms) {
+            namePostings.computeIfAbsent(term, t -> new HashSet<>()).add(venue.getVenueId());
+        }
+        documents.put(venue.getVenueId(), new Document(venue, terms.keySet(), Set.copyOf(nameTerms), length));
+        totalLength += length;
+    }
+
+    // caller holds the write lock
+    private void remove(Long venueId) {
+        Document document = documents.remove(venueId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Map<Long, Float> postingList = postings.get(term);
+            postingList.remove(venueId);
+            if (postingList.isEmpty()) {
+                postings.remove(term);
+                vocabulary.remove(term);
+                termNeighbours.remove(term);
+                prefixNeighbours.remove(term);
+            } else {
+                vocabulary.merge(term, -1, Integer::sum);
+            }
+        }
+        for (String term : document.nameTerms) {
+            Set<Long> named = namePostings.get(term);
+            named.remove(venueId);
+            if (named.isEmpty()) {
+                namePostings.remove(term);
+            }
+        }
+        totalLength -= document.length;
+    }
+
+    /**
+     * Lower-cased, accent-stripped alphanumeric words, without stop words.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT);
+        for (String token : normalized.split("[^\\p{Alnum}]+")) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String lastWord(String input) {
+        if (input == null || input.isBlank() || !Character.isLetterOrDigit(input.charAt(input.length() - 1))) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT);
+        String[] words = normalized.split("[^\\p{Alnum}]+");
+        return words.length > 0 ? words[words.length - 1] : "";
+    }
+
+    /**
+     * True when some prefix of {@code term} is within one insertion, deletion
+     * or substitution of {@code prefix}.
+     */
+    static boolean prefixWithinOneEdit(String prefix, String term) {
+        for (int length = prefix.length() - 1; length <= prefix.length() + 1; length++) {
+            if (length > 0 && length <= term.length() && withinOneEdit(prefix, prefix.length(), term, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean withinOneEdit(String a, String b) {
+        return withinOneEdit(a, a.length(), b, b.length());
+    }
+
+    // compares the first aLength / bLength characters without copying them, as this runs per keystroke
+    private static boolean withinOneEdit(String a, int aLength, String b, int bLength) {
+        if (Math.abs(aLength - bLength) > 1) {
+            return false;
+        }
+        String shorter = aLength <= bLength ? a : b;
+        String longer = aLength <= bLength ? b : a;
+        int shorterLength = Math.min(aLength, bLength);
+        int longerLength = Math.max(aLength, bLength);
+        int i = 0;
+        int j = 0;
+        boolean edited = false;
+        while (i < shorterLength && j < longerLength) {
+            if (shorter.charAt(i) == longer.charAt(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            if (edited) {
+                return false;
+            }
+            edited = true;
+            if (shorterLength == longerLength) {
+                i++;
+            }
+            j++;
+        }
+        return !edited || (i == shorterLength && j == longerLength);
+    }
+
+    /**
+     * Maps every word one deletion away from an indexed term (or, with a
+     * prefix length, from each of its prefixes up to that length) to the terms
+     * it came from. Two words within one edit of each other share such a
+     * deletion, so looking up a word and its own deletions finds every term
+     * within one edit, plus some that callers filter out, such as swaps.
+     */
+    private static class DeletionNeighbourhood {
+        private final Map<String, Set<String>> terms = new HashMap<>();
+
+        // 0 indexes whole terms only
+        private final int prefixLength;
+
+        DeletionNeighbourhood(int prefixLength) {
+            this.prefixLength = prefixLength;
+        }
+
+        void add(String term) {
+            for (String key : keys(term)) {
+                terms.computeIfAbsent(key, k -> new HashSet<>()).add(term);
+            }
+        }
+
+        void remove(String term) {
+            for (String key : keys(term)) {
+                Set<String> sharing = terms.get(key);
+                if (sharing != null) {
+                    sharing.remove(term);
+                    if (sharing.isEmpty()) {
+                        terms.remove(key);
+                    }
+                }
+            }
+        }
+
+        void clear() {
+            terms.clear();
+        }
+
+        Set<String> candidates(String word) {
+            Set<String> candidates = new HashSet<>();
+            for (String key : deletions(word)) {
+                candidates.addAll(terms.getOrDefault(key, Set.of()));
+            }
+            return candidates;
+        }
+
+        private Set<String> keys(String term) {
+            if (prefixLength == 0) {
+                return deletions(term);
+            }
+            Set<String> keys = new HashSet<>();
+            for (int length = 2; length <= Math.min(prefixLength, term.length()); length++) {
+                keys.addAll(deletions(term.substring(0, length)));
+            }
+            return keys;
+        }
+
+        // the word itself and every word with one of its characters dropped
+        private static Set<String> deletions(String word) {
+            Set<String> deletions = new HashSet<>();
+            deletions.add(word);
+            for (int i = 0; i < word.length(); i++) {
+                deletions.add(word.substring(0, i) + word.substring(i + 1));
+            }
+            return deletions;
+        }
+    }
+
+    private static class Document {
+        private final VenueDTO venue;
+        private final Set<String> terms;
+        private final Set<String> nameTerms;
+        private final float length;
+
+        Document(VenueDTO venue, Set<String> terms, Set<String> nameTerms, float length) {
+            this.venue = venue;
+            this.terms = Set.copyOf(terms);
+            this.nameTerms = nameTerms;
+            this.length = length;
+        }
+    }
+}
@@ -1,19 +1,32 @@
 package com.example.collegia.service;
 
+import com.example.collegia.config.SecondLevelCacheConfig;
 import com.example.collegia.entity.CustodianEntity;
 import com.example.collegia.entity.UserEntity;
 import com.example.collegia.entity.VenueEntity;
 import com.example.collegia.dto.VenueDTO;
+import com.example.collegia.event.VenueChangedEvent;
 import com.example.collegia.repository.UserRepository;
 import com.example.collegia.repository.VenueRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class VenueService {
+
+    private static final int LISTING_CHUNK_SIZE = 1000;
     
     @Autowired
     private VenueRepository venueRepository;
@@ -22,6 +35,21 @@ public class VenueService {
     @Autowired
     private UserRepository userRepository; 
 
+    @Autowired
+    private VenueAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private BookingCounterService counterService;
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public VenueEntity createVenue(VenueEntity venue) {
         // If venue has a custodian with userId but not full entity
         if (venue.getCustodian() != null && venue.getCustodian().getUserId() != null) {
@@ -37,26 +65,100 @@ public class VenueService {
             }
         }
         
-        return venueRepository.save(venue);
+        return saveVenue(venue);
     }
-    
 
+    /**
+     * Persist a venue, drop its second-level cache entries once the write
+     * commits and announce the change to the venue read models.
+     */
+    public VenueEntity saveVenue(VenueEntity venue) {
+        boolean created = venue.getVenueId() == null;
+        VenueEntity savedVenue = venueRepository.save(venue);
+        blobReferenceService.syncVenue(savedVenue.getVenueId());
+        evictFromCacheAfterCommit(savedVenue.getVenueId());
+        eventPublisher.publishEvent(new VenueChangedEvent(savedVenue.getVenueId(),
+            created ? VenueChangedEvent.ChangeType.CREATED : VenueChangedEvent.ChangeType.UPDATED));
+        return savedVenue;
+    }
     
     public List<VenueEntity> getAllVenues() {
         return venueRepository.findAll();
     }
     
+    // Venue listings below cost three queries however many venues they return:
+    // the rows with their custodian's name, then all amenities, then all gallery images
+
     public List<VenueDTO> getAllVenuesAsDTO() {
-        List<VenueEntity> venues = venueRepository.findAll();
-        return venues.stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        return withCollections(venueRepository.findAllListings());
+    }
+
+    public List<VenueDTO> getVenuesByCustodianAsDTO(Long custodianId) {
+        return withCollections(venueRepository.findListingsByCustodian(custodianId));
+    }
+
+    public List<VenueDTO> getVenuesByLocationAsDTO(String location) {
+        return withCollections(venueRepository.findListingsByLocation(location));
+    }
+
+    public List<VenueDTO> getVenuesByCapacityAsDTO(int minCapacity) {
+        return withCollections(venueRepository.findListingsByMinCapacity(minCapacity));
+    }
+
+    /**
+     * Venues with the given ids, in the order of {@code venueIds}; unknown ids are skipped.
+     */
+    public List<VenueDTO> getVenuesByIdsAsDTO(List<Long> venueIds) {
+        if (venueIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, VenueDTO> byId = new HashMap<>();
+        for (List<Long> chunk : chunks(venueIds)) {
+            venueRepository.findListingsByIds(chunk).forEach(dto -> byId.put(dto.getVenueId(), dto));
+        }
+        List<VenueDTO> ordered = new ArrayList<>();
+        for (Long venueId : venueIds) {
+            VenueDTO dto = byId.get(venueId);
+            if (dto != null) {
+                ordered.add(dto);
+            }
+        }
+        return withCollections(ordered);
+    }
+
+    private List<VenueDTO> withCollections(List<VenueDTO> venues) {
+        if (venues.isEmpty()) {
+            return venues;
+        }
+        Map<Long, VenueDTO> byId = new HashMap<>();
+        venues.forEach(dto -> byId.put(dto.getVenueId(), dto));
+
+        for (List<Long> chunk : chunks(new ArrayList<>(byId.keySet()))) {
+            for (Object[] row : venueRepository.findAmenitiesByVenueIds(chunk)) {
+                byId.get((Long) row[0]).getAmenities().add((String) row[1]);
+            }
+            for (Object[] row : venueRepository.findGalleryImagesByVenueIds(chunk)) {
+                byId.get((Long) row[0]).getGalleryImages().add((String) row[1]);
+            }
+        }
+        return venues;
+    }
+
+    // keeps IN lists within what the database and the statement cache handle comfortably
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += LISTING_CHUNK_SIZE) {
+            chunks.add(ids.subList(start, Math.min(ids.size(), start + LISTING_CHUNK_SIZE)));
+        }
+        return chunks;
     }
     
     public Optional<VenueEntity> getVenueById(Long id) {
         return venueRepository.findById(id);
     }
     
+    // read-only transaction so the lazy custodian resolves (from the second-level cache) while mapping
+    @Transactional(readOnly = true)
     public Optional<VenueDTO> getVenueByIdAsDTO(Long id) {
         return venueRepository.findById(id)
             .map(this::convertToDTO);
@@ -81,10 +183,19 @@ public class VenueService {
         return dto;
     }
 
+    @Transactional
     public void deleteVenue(Long id) {
         VenueEntity venue = venueRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Venue not found with id: " + id));
+        if (venue.getBookings() != null) {
+            counterService.recordRemoved(venue.getBookings());
+        }
         venueRepository.delete(venue);
+        blobReferenceService.release(BlobReferenceService.venueOwner(id));
+        // bookings are removed with the venue (cascade), so drop their slots too
+        availabilityIndex.removeVenue(id);
+        evictFromCacheAfterCommit(id);
+        eventPublisher.publishEvent(new VenueChangedEvent(id, VenueChangedEvent.ChangeType.DELETED));
     }
 
     public VenueEntity updateVenue(Long id, VenueEntity venueDetails) {
@@ -131,7 +242,35 @@ public class VenueService {
             }
         }
         
-        return venueRepository.save(venue);
+        return saveVenue(venue);
+    }
+
+    /**
+     * Hibernate already keeps the READ_WRITE regions consistent for writes made
+     * through the session; evicting explicitly after commit also covers cached
+     * venue lists and anything changed outside it (bulk SQL, data.sql reloads).
+     */
+    public void evictFromCache(Long venueId) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (venueId != null) {
+            cache.evictEntityData(VenueEntity.class, venueId);
+            cache.evictCollectionData(VenueEntity.class.getName() + ".amenities", venueId);
+            cache.evictCollectionData(VenueEntity.class.getName() + ".galleryImages", venueId);
+        }
+        cache.evictQueryRegion(SecondLevelCacheConfig.VENUE_QUERY_REGION);
+    }
+
+    private void evictFromCacheAfterCommit(Long venueId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictFromCache(venueId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictFromCache(venueId);
+            }
+        });
     }
     
     public List<VenueEntity> getVenuesByLocation(String location) {
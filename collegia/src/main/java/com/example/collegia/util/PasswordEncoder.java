@@ -1,19 +1,83 @@
 package com.example.collegia.util;
 
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
+/**
+ * BCrypt with a work factor that is either configured or, by default,
+ * calibrated at startup: the highest cost whose hash still fits the target
+ * time on this machine, and never below BCrypt's default of 10. Hashes made
+ * at another cost keep verifying, since the cost is part of the hash.
+ *
+ * These calls hash on the calling thread; request handlers go through
+ * PasswordHashingService instead.
+ */
 @Component
 public class PasswordEncoder {
-    
-    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-    
+
+    private static final int MIN_CALIBRATED_STRENGTH = 10;
+
+    private static final int MAX_CALIBRATED_STRENGTH = 16;
+
+    // 0 means calibrate to the target hash time
+    @Value("${auth.password.bcrypt-strength:0}")
+    private int configuredStrength;
+
+    @Value("${auth.password.target-hash-time:100ms}")
+    private Duration targetHashTime = Duration.ofMillis(100);
+
+    private BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+
+    private int strength = MIN_CALIBRATED_STRENGTH;
+
+    @PostConstruct
+    public void init() {
+        if (configuredStrength > 0) {
+            strength = configuredStrength;
+            System.out.println("✅ BCrypt work factor " + strength + " (configured)");
+        } else {
+            strength = calibrate(targetHashTime);
+            System.out.println("✅ BCrypt work factor " + strength + " (calibrated to " + targetHashTime.toMillis() + " ms)");
+        }
+        encoder = new BCryptPasswordEncoder(strength);
+    }
+
     public String encode(String rawPassword) {
         return encoder.encode(rawPassword);
     }
-    
+
     public boolean matches(String rawPassword, String encodedPassword) {
         return encoder.matches(rawPassword, encodedPassword);
     }
-}
 
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Each step up in cost doubles the work, so the minimum cost is timed and
+     * the cost raised while the doubled time still fits the target.
+     */
+    private static int calibrate(Duration target) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_CALIBRATED_STRENGTH);
+        // first run warms up the JIT; the fastest of the rest is the least disturbed
+        probe.encode("calibration");
+        long nanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            nanos = Math.min(nanos, System.nanoTime() - start);
+        }
+
+        int strength = MIN_CALIBRATED_STRENGTH;
+        while (strength < MAX_CALIBRATED_STRENGTH && nanos * 2 <= target.toNanos()) {
+            strength++;
+            nanos *= 2;
+        }
+        return strength;
+    }
+}
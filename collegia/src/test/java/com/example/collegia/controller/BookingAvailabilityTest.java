@@ -0,0 +1,122 @@
+package com.example.collegia.controller;
+
+import com.example.collegia.dto.VenueAvailabilityDTO;
+import com.example.collegia.entity.BookingEntity;
+import com.example.collegia.entity.VenueEntity;
+import com.example.collegia.repository.BookingRepository;
+import com.example.collegia.repository.VenueRepository;
+import com.example.collegia.service.BookingService;
+import com.example.collegia.service.VenueAvailabilityIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Free windows of many venues over a date range from /api/bookings/availability, and its range limits.
+ */
+class BookingAvailabilityTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+    private final VenueRepository venueRepository = mock(VenueRepository.class);
+
+    private VenueAvailabilityIndex index;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findActiveBookingSlots()).thenReturn(List.of());
+        index = new VenueAvailabilityIndex(60);
+        ReflectionTestUtils.setField(index, "bookingRepository", bookingRepository);
+        index.rebuild();
+
+        BookingService bookingService = new BookingService();
+        ReflectionTestUtils.setField(bookingService, "venueRepository", venueRepository);
+        ReflectionTestUtils.setField(bookingService, "availabilityIndex", index);
+        ReflectionTestUtils.setField(bookingService, "dayStart", "07:00");
+        ReflectionTestUtils.setField(bookingService, "dayEnd", "23:00");
+        ReflectionTestUtils.setField(bookingService, "maxAvailabilityDays", 62);
+
+        BookingController controller = new BookingController();
+        ReflectionTestUtils.setField(controller, "bookingService", bookingService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void windowsForEveryVenueAndDay() throws Exception {
+        when(venueRepository.findAvailabilityHeadersByIds(List.of(1L, 2L)))
+            .thenReturn(List.of(new VenueAvailabilityDTO(1L, "Case Room"), new VenueAvailabilityDTO(2L, "Gym")));
+        index.put(booking(10L, 1L, DAY, "09:00:00"));
+        index.put(booking(11L, 2L, DAY.plusDays(1), null));
+
+        mockMvc.perform(get("/api/bookings/availability")
+                .param("venueIds", "1,2").param("from", "2026-03-02").param("to", "2026-03-03"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].venueId").value(1))
+            .andExpect(jsonPath("$[0].freeWindows['2026-03-02'][0].start").value("07:00"))
+            .andExpect(jsonPath("$[0].freeWindows['2026-03-02'][0].end").value("09:00"))
+            .andExpect(jsonPath("$[0].freeWindows['2026-03-02'][1].start").value("10:00"))
+            .andExpect(jsonPath("$[0].freeWindows['2026-03-03'].length()").value(1))
+            .andExpect(jsonPath("$[1].freeWindows['2026-03-02'][0].end").value("23:00"))
+            // a booking without a time slot takes the whole day
+            .andExpect(jsonPath("$[1].freeWindows['2026-03-03'].length()").value(0));
+    }
+
+    @Test
+    void venuesAreFilteredInOneQueryWhenNoIdsAreGiven() throws Exception {
+        when(venueRepository.findAvailabilityHeaders("SAL", 100)).thenReturn(List.of(new VenueAvailabilityDTO(3L, "Hall")));
+
+        mockMvc.perform(get("/api/bookings/availability")
+                .param("location", "SAL").param("minCapacity", "100").param("from", "2026-03-02").param("to", "2026-03-02"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].venueId").value(3));
+        verify(venueRepository, never()).findAvailabilityHeadersByIds(anyList());
+    }
+
+    @Test
+    void rangesBeyondTheConfiguredMaximumAreRejected() throws Exception {
+        // 62 days inclusive is the most one request may ask for
+        mockMvc.perform(get("/api/bookings/availability")
+                .param("venueIds", "1").param("from", "2026-03-01").param("to", "2026-05-01"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/bookings/availability")
+                .param("venueIds", "1").param("from", "2026-03-01").param("to", "2026-05-02"))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string("Date range cannot exceed 62 days"));
+        mockMvc.perform(get("/api/bookings/availability")
+                .param("venueIds", "1").param("from", "2026-03-02").param("to", "2026-03-01"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private static BookingEntity booking(Long id, Long venueId, LocalDate day, String time) {
+        VenueEntity venue = new VenueEntity();
+        venue.setVenueId(venueId);
+        BookingEntity booking = new BookingEntity();
+        booking.setBookingId(id);
+        booking.setVenue(venue);
+        booking.setDate(Date.valueOf(day));
+        booking.setTimeSlot(time != null ? Time.valueOf(time) : null);
+        booking.setStatus("approved");
+        return booking;
+    }
+}
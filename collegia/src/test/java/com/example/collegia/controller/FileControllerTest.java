@@ -0,0 +1,134 @@
+package com.example.collegia.controller;
+
+import com.example.collegia.service.FileStorageService;
+import com.example.collegia.service.ImageDerivativeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Validators, conditional requests and byte ranges of FileController.serveFile.
+ */
+class FileControllerTest {
+
+    private static final String NAME = "3f2504e0-4f89-11d3-9a0c-0305e82c3301.txt";
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    @TempDir
+    Path uploads;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(uploads.resolve(NAME), CONTENT);
+
+        FileStorageService storage = new FileStorageService();
+        ReflectionTestUtils.setField(storage, "uploadDir", uploads.toString());
+        storage.init();
+
+        ImageDerivativeService derivatives = mock(ImageDerivativeService.class);
+        when(derivatives.resolve(anyString(), any())).thenAnswer(call -> call.getArgument(0));
+
+        FileController controller = new FileController();
+        ReflectionTestUtils.setField(controller, "fileStorageService", storage);
+        ReflectionTestUtils.setField(controller, "imageDerivativeService", derivatives);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void storedFilesAreImmutableAndRevalidate() throws Exception {
+        MockHttpServletResponse response = serve(NAME, null, null);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+        assertThat(response.getContentType()).startsWith("text/plain");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable", "max-age=31536000");
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        assertThat(serve(NAME, HttpHeaders.IF_NONE_MATCH, etag).getStatus()).isEqualTo(304);
+        assertThat(serve(NAME, HttpHeaders.IF_NONE_MATCH, "W/" + etag).getStatus()).isEqualTo(304);
+        assertThat(serve(NAME, HttpHeaders.IF_NONE_MATCH, "\"other\"").getStatus()).isEqualTo(200);
+        assertThat(serve(NAME, HttpHeaders.IF_MODIFIED_SINCE, response.getHeader(HttpHeaders.LAST_MODIFIED)).getStatus())
+            .isEqualTo(304);
+    }
+
+    @Test
+    void singleRangeIsPartialContent() throws Exception {
+        MockHttpServletResponse response = serve(NAME, HttpHeaders.RANGE, "bytes=10-15");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("abcdef");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 10-15/36");
+        assertThat(response.getContentLengthLong()).isEqualTo(6);
+
+        assertThat(serve(NAME, HttpHeaders.RANGE, "bytes=-4").getContentAsString()).isEqualTo("wxyz");
+        assertThat(serve(NAME, HttpHeaders.RANGE, "bytes=30-").getContentAsString()).isEqualTo("uvwxyz");
+    }
+
+    @Test
+    void multipleRangesAreMultipart() throws Exception {
+        MockHttpServletResponse response = serve(NAME, HttpHeaders.RANGE, "bytes=0-1, 30-31");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+        String body = response.getContentAsString();
+        assertThat(body).contains("Content-Range: bytes 0-1/36\r\n\r\n01\r\n", "Content-Range: bytes 30-31/36\r\n\r\nuv\r\n");
+        assertThat(response.getContentLengthLong()).isEqualTo(body.getBytes(StandardCharsets.US_ASCII).length);
+    }
+
+    @Test
+    void unsatisfiableAndStaleRanges() throws Exception {
+        MockHttpServletResponse unsatisfiable = serve(NAME, HttpHeaders.RANGE, "bytes=100-200");
+        assertThat(unsatisfiable.getStatus()).isEqualTo(416);
+        assertThat(unsatisfiable.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */36");
+
+        MockHttpServletResponse stale = mockMvc.perform(get("/api/files/uploads/" + NAME)
+                .header(HttpHeaders.RANGE, "bytes=0-1")
+                .header(HttpHeaders.IF_RANGE, "\"older-version\""))
+            .andReturn().getResponse();
+        assertThat(stale.getStatus()).isEqualTo(200);
+        assertThat(stale.getContentAsString()).isEqualTo(CONTENT);
+
+        assertThat(serve("missing.txt", null, null).getStatus()).isEqualTo(404);
+        assertThat(serve(NAME + "?size=huge", null, null).getStatus()).isEqualTo(400);
+    }
+
+    @Test
+    void rangesAreMergedAndValidated() {
+        assertThat(FileController.parseRanges("bytes=0-4,3-9,20-", 30))
+            .containsExactly(new long[] {0, 9}, new long[] {20, 29});
+        assertThat(FileController.parseRanges("bytes=5-2", 30)).isNull();
+        assertThat(FileController.parseRanges("items=0-1", 30)).isNull();
+        assertThat(FileController.parseRanges("bytes=" + String.join(",", List.of(
+            "0-0", "2-2", "4-4", "6-6", "8-8", "10-10", "12-12", "14-14", "16-16",
+            "18-18", "20-20", "22-22", "24-24", "26-26", "28-28", "30-30", "32-32")), 40)).isNull();
+    }
+
+    private MockHttpServletResponse serve(String path, String header, String value) throws Exception {
+        var request = get("/api/files/uploads/" + path);
+        if (header != null) {
+            request.header(header, value);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.collegia.controller;
+
+import com.example.collegia.dto.VenueDTO;
+import com.example.collegia.event.VenueChangedEvent;
+import com.example.collegia.service.VenueCatalogService;
+import com.example.collegia.service.VenueService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * GET /api/venues from the precomputed catalog snapshot: its ETag, 304 revalidations and rebuilds.
+ */
+class VenueCatalogTest {
+
+    private final VenueService venueService = mock(VenueService.class);
+
+    private final List<VenueDTO> venues = new ArrayList<>();
+
+    private VenueCatalogService catalog;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        venues.add(venue(1L, "Hall"));
+        // a copy per call, as a fresh query would return
+        when(venueService.getAllVenuesAsDTO()).thenAnswer(call -> new ArrayList<>(venues));
+
+        catalog = new VenueCatalogService();
+        ReflectionTestUtils.setField(catalog, "venueService", venueService);
+        ReflectionTestUtils.setField(catalog, "objectMapper", new ObjectMapper());
+
+        VenueController controller = new VenueController();
+        ReflectionTestUtils.setField(controller, "venueCatalogService", catalog);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void revalidationWithTheCurrentEtagIsNotModified() throws Exception {
+        MockHttpServletResponse response = list(null);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).contains("\"venueName\":\"Hall\"");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).matches("\"[0-9a-f]{64}\"");
+
+        MockHttpServletResponse notModified = list(etag);
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getContentLength()).isZero();
+        assertThat(notModified.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(list("\"other\", W/" + etag).getStatus()).isEqualTo(304);
+        assertThat(list("*").getStatus()).isEqualTo(304);
+        assertThat(list("\"other\"").getStatus()).isEqualTo(200);
+
+        // every request above was answered from one snapshot
+        verify(venueService, times(1)).getAllVenuesAsDTO();
+    }
+
+    @Test
+    void venueChangeRebuildsTheSnapshotWithANewEtag() throws Exception {
+        String before = list(null).getHeader(HttpHeaders.ETAG);
+        long generation = (long) ReflectionTestUtils.getField(catalog.getSnapshot(), "generation");
+
+        venues.add(venue(2L, "Gym"));
+        // not visible until the change is announced
+        assertThat(list(before).getStatus()).isEqualTo(304);
+        catalog.onVenueChanged(new VenueChangedEvent(2L, VenueChangedEvent.ChangeType.CREATED));
+        catalog.onVenueChanged(new VenueChangedEvent(2L, VenueChangedEvent.ChangeType.UPDATED));
+
+        MockHttpServletResponse response = list(before);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).contains("\"venueName\":\"Gym\"");
+        String after = response.getHeader(HttpHeaders.ETAG);
+        assertThat(after).isNotEqualTo(before);
+        assertThat(list(after).getStatus()).isEqualTo(304);
+        assertThat((long) ReflectionTestUtils.getField(catalog.getSnapshot(), "generation")).isEqualTo(generation + 2);
+
+        // two changes, one rebuild
+        verify(venueService, times(2)).getAllVenuesAsDTO();
+    }
+
+    private MockHttpServletResponse list(String ifNoneMatch) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/venues");
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private static VenueDTO venue(Long id, String name) {
+        VenueDTO venue = new VenueDTO();
+        venue.setVenueId(id);
+        venue.setVenueName(name);
+        venue.setVenueCapacity(100);
+        return venue;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.collegia.repository;
+
+import com.example.collegia.dto.BookingSearchCriteria;
+import com.example.collegia.dto.BookingSummaryDTO;
+import com.example.collegia.entity.BookingEntity;
+import com.example.collegia.entity.CustodianEntity;
+import com.example.collegia.entity.StudentEntity;
+import com.example.collegia.entity.VenueEntity;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Booking listings must cost a constant number of SQL statements, however many rows they return.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class BookingRepositoryTest {
+
+    private static final int BOOKINGS = 1000;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private CustodianEntity custodian;
+    private StudentEntity student;
+
+    @BeforeEach
+    void setUp() {
+        custodian = new CustodianEntity();
+        custodian.setFirstName("Carla");
+        custodian.setLastName("Custodio");
+        custodian.setEmail("custodian@example.com");
+        custodian.setUserType("Custodian");
+        entityManager.persist(custodian);
+
+        List<VenueEntity> venues = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            VenueEntity venue = new VenueEntity();
+            venue.setVenueName("Hall " + i);
+            venue.setVenueLocation(i % 2 == 0 ? "SAL" : "NGE");
+            venue.setVenueCapacity(100 + i);
+            venue.setAmenities(List.of("Projector", "Sound System"));
+            venue.setGalleryImages(List.of("/images/a.jpg", "/images/b.jpg"));
+            venue.setCustodian(custodian);
+            entityManager.persist(venue);
+            venues.add(venue);
+        }
+
+        List<StudentEntity> students = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            StudentEntity s = new StudentEntity();
+            s.setFirstName("Student");
+            s.setLastName(String.valueOf(i));
+            s.setEmail("student" + i + "@example.com");
+            s.setUserType("Student");
+            entityManager.persist(s);
+            students.add(s);
+        }
+        student = students.get(0);
+
+        LocalDate day = LocalDate.of(2025, 3, 1);
+        for (int i = 0; i < BOOKINGS; i++) {
+            BookingEntity booking = new BookingEntity();
+            booking.setEventName("Event " + i);
+            booking.setDate(Date.valueOf(day.plusDays(i % 60)));
+            booking.setTimeSlot(Time.valueOf(String.format("%02d:00:00", 7 + i % 15)));
+            booking.setStatus(i % 4 == 0 ? "pending" : "approved");
+            booking.setVenue(venues.get(i % venues.size()));
+            booking.setCustodian(custodian);
+            booking.setUser(students.get(i % students.size()));
+            entityManager.persist(booking);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void allBookingsListingIsOneStatement() {
+        List<BookingSummaryDTO> bookings = bookingRepository.findAllSummaries();
+
+        assertThat(bookings).hasSize(BOOKINGS);
+        assertThat(bookings.get(0).getVenue().getVenueName()).startsWith("Hall ");
+        assertThat(bookings.get(0).getUser().getFirstName()).isEqualTo("Student");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void custodianListingsAreOneStatementEach() {
+        assertThat(bookingRepository.findSummariesForCustodian(custodian.getUserId())).hasSize(BOOKINGS);
+        assertThat(bookingRepository.findPendingSummariesForCustodian(custodian.getUserId())).hasSize(BOOKINGS / 4);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void userListingsAreOneStatementEach() {
+        assertThat(bookingRepository.findSummariesByUserId(student.getUserId())).hasSize(BOOKINGS / 50);
+        assertThat(bookingRepository.findSummariesByUserAndStatusIn(student.getUserId(), List.of("pending", "approved")))
+            .hasSize(BOOKINGS / 50);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void keysetSearchPagesThroughEveryMatchInOrder() {
+        BookingSearchCriteria criteria = new BookingSearchCriteria();
+        criteria.setStatus("pending");
+
+        List<BookingSummaryDTO> seen = new ArrayList<>();
+        List<BookingSummaryDTO> page = bookingRepository.searchSummaries(criteria, null, null, 100);
+        while (!page.isEmpty()) {
+            seen.addAll(page);
+            BookingSummaryDTO last = page.get(page.size() - 1);
+            page = bookingRepository.searchSummaries(criteria, last.getDate(), last.getBookingId(), 100);
+        }
+
+        assertThat(seen).hasSize(BOOKINGS / 4);
+        assertThat(seen).extracting(BookingSummaryDTO::getBookingId).doesNotHaveDuplicates();
+        assertThat(seen).isSortedAccordingTo((a, b) -> a.getDate().equals(b.getDate())
+            ? a.getBookingId().compareTo(b.getBookingId())
+            : a.getDate().compareTo(b.getDate()));
+    }
+
+    @Test
+    void entityListingFansOutPerAssociation() {
+        // the old path, kept for reference: eager associations add statements per distinct venue/user
+        assertThat(bookingRepository.findAll()).hasSize(BOOKINGS);
+        assertThat(statistics.getPrepareStatementCount()).isGreaterThan(20);
+    }
+}
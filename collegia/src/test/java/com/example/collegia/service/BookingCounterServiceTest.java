@@ -0,0 +1,156 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.CounterReconciliationDTO;
+import com.example.collegia.entity.BookingEntity;
+import com.example.collegia.entity.CustodianEntity;
+import com.example.collegia.entity.VenueEntity;
+import com.example.collegia.repository.BookingCounterRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Incremental counter updates must agree with a full recount, and the
+ * reconciliation must find and repair counters that drifted.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(BookingCounterService.class)
+class BookingCounterServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private BookingCounterService counterService;
+
+    @Autowired
+    private BookingCounterRepository counterRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private CustodianEntity custodian;
+    private VenueEntity venue;
+    private final List<BookingEntity> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        custodian = new CustodianEntity();
+        custodian.setFirstName("Carla");
+        custodian.setLastName("Custodio");
+        custodian.setEmail("custodian@example.com");
+        custodian.setUserType("Custodian");
+        entityManager.persist(custodian);
+
+        venue = new VenueEntity();
+        venue.setVenueName("Hall");
+        venue.setVenueCapacity(100);
+        venue.setCustodian(custodian);
+        entityManager.persist(venue);
+
+        for (int i = 0; i < 6; i++) {
+            BookingEntity booking = new BookingEntity();
+            booking.setEventName("Event " + i);
+            booking.setDate(Date.valueOf(DAY.plusDays(i % 2)));
+            booking.setTimeSlot(Time.valueOf(String.format("%02d:00:00", 8 + i)));
+            booking.setStatus("pending");
+            booking.setVenue(venue);
+            booking.setCustodian(custodian);
+            entityManager.persist(booking);
+            counterService.recordChange(Set.of(), booking);
+            bookings.add(booking);
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void statusChangesMoveBookingsBetweenCounters() {
+        changeStatus(bookings.get(0), "approved");
+        changeStatus(bookings.get(1), "approved");
+        changeStatus(bookings.get(2), "canceled");
+
+        Set<String> countedAs = counterService.keysOf(bookings.get(3));
+        entityManager.remove(bookings.get(3));
+        counterService.recordChange(countedAs, null);
+
+        assertThat(counterService.getCounts(BookingCounterService.STATUS))
+            .containsEntry("pending", 2L)
+            .containsEntry("approved", 2L)
+            .containsEntry("canceled", 1L);
+        // canceled and deleted bookings no longer occupy the venue, custodian or day
+        assertThat(counterService.getCounts(BookingCounterService.VENUE))
+            .containsEntry(String.valueOf(venue.getVenueId()), 4L);
+        assertThat(counterService.getCounts(BookingCounterService.CUSTODIAN))
+            .containsEntry(String.valueOf(custodian.getUserId()), 4L);
+        assertThat(counterService.getCounts(BookingCounterService.DAY))
+            .containsEntry(DAY.toString(), 2L)
+            .containsEntry(DAY.plusDays(1).toString(), 2L);
+        assertThat(counterService.getCounts(BookingCounterService.DAY, DAY.plusDays(1).toString(), DAY.plusDays(7).toString()))
+            .containsOnlyKeys(DAY.plusDays(1).toString());
+
+        entityManager.flush();
+        assertThat(counterService.reconcile(false).getDrifts()).isEmpty();
+    }
+
+    @Test
+    void reconciliationReportsAndRepairsDrift() {
+        counterRepository.increment(BookingCounterService.STATUS, "pending", 5, 36);
+        counterRepository.increment(BookingCounterService.STATUS, "rejected", 0, 3);
+
+        CounterReconciliationDTO report = counterService.reconcile(false);
+        assertThat(report.getDrifts())
+            .extracting(drift -> drift.getKey() + "=" + drift.getActual() + "->" + drift.getExpected())
+            .containsExactlyInAnyOrder("pending=42->6", "rejected=3->0");
+
+        counterService.reconcile(true);
+        assertThat(counterService.getCounts(BookingCounterService.STATUS))
+            .containsEntry("pending", 6L)
+            .containsEntry("rejected", 0L);
+        assertThat(counterService.reconcile(false).getDrifts()).isEmpty();
+    }
+
+    @Test
+    void countersAddUpTheirShards() {
+        // six pending bookings were spread over the shards of one counter
+        assertThat(counterRepository.findAll())
+            .filteredOn(counter -> counter.getDimensionKey().equals("pending"))
+            .allSatisfy(counter -> assertThat(counter.getShard()).isBetween(0, 7));
+        assertThat(counterService.getCounts(BookingCounterService.STATUS)).containsEntry("pending", 6L);
+
+        counterRepository.increment(BookingCounterService.STATUS, "pending", 3, -2);
+        assertThat(counterService.getCounts(BookingCounterService.STATUS)).containsEntry("pending", 4L);
+        assertThat(counterService.reconcile(false).getDrifts())
+            .extracting(drift -> drift.getKey() + "=" + drift.getActual() + "->" + drift.getExpected())
+            .containsExactly("pending=4->6");
+    }
+
+    @Test
+    void repairLeavesCountersThatMovedSinceTheRecount() {
+        counterRepository.increment(BookingCounterService.STATUS, "rejected", 0, 3);
+        // a booking moved shard 0 after the recount read it as 3
+        counterRepository.increment(BookingCounterService.STATUS, "rejected", 0, 1);
+
+        assertThat(counterRepository.addIfUnchanged(BookingCounterService.STATUS, "rejected", 3, -3)).isZero();
+        assertThat(counterRepository.addIfUnchanged(BookingCounterService.STATUS, "rejected", 4, -4)).isEqualTo(1);
+        assertThat(counterService.getCounts(BookingCounterService.STATUS)).containsEntry("rejected", 0L);
+    }
+
+    private void changeStatus(BookingEntity booking, String status) {
+        Set<String> countedAs = counterService.keysOf(booking);
+        booking.setStatus(status);
+        counterService.recordChange(countedAs, booking);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.collegia.service;
+
+import com.example.collegia.entity.BookingEntity;
+import com.example.collegia.entity.UserEntity;
+import com.example.collegia.entity.VenueEntity;
+import com.example.collegia.exception.BookingConflictException;
+import com.example.collegia.repository.BookingRepository;
+import com.example.collegia.repository.UserRepository;
+import com.example.collegia.repository.VenueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stress test for the conflict-checked booking path: racing requests for one
+ * slot must yield exactly one booking, while bookings for different venues
+ * must not serialize behind each other.
+ */
+class BookingServiceConcurrencyTest {
+
+    // simulated round trip of one INSERT
+    private static final long SAVE_LATENCY_MS = 10;
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    private BookingService bookingService;
+    private final Queue<BookingEntity> saved = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        VenueRepository venueRepository = mock(VenueRepository.class);
+
+        AtomicLong ids = new AtomicLong();
+        when(bookingRepository.findActiveBookingSlots()).thenReturn(List.of());
+        when(bookingRepository.save(any(BookingEntity.class))).thenAnswer(invocation -> {
+            BookingEntity booking = invocation.getArgument(0);
+            Thread.sleep(SAVE_LATENCY_MS);
+            booking.setBookingId(ids.incrementAndGet());
+            saved.add(booking);
+            return booking;
+        });
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new UserEntity()));
+        when(venueRepository.findById(anyLong())).thenAnswer(invocation -> {
+            VenueEntity venue = new VenueEntity();
+            venue.setVenueId(invocation.getArgument(0));
+            return Optional.of(venue);
+        });
+
+        VenueAvailabilityIndex index = new VenueAvailabilityIndex(60);
+        ReflectionTestUtils.setField(index, "bookingRepository", bookingRepository);
+
+        bookingService = new BookingService();
+        ReflectionTestUtils.setField(bookingService, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(bookingService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(bookingService, "venueRepository", venueRepository);
+        ReflectionTestUtils.setField(bookingService, "availabilityIndex", index);
+        ReflectionTestUtils.setField(bookingService, "slotLocks", new BookingSlotLocks(64));
+        ReflectionTestUtils.setField(bookingService, "counterService", mock(BookingCounterService.class));
+    }
+
+    @Test
+    void racingRequestsForTheSameSlotProduceExactlyOneBooking() throws Exception {
+        int threads = 32;
+        AtomicInteger conflicts = new AtomicInteger();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            // half the requests ask for 09:00, half for an overlapping 09:30 start
+            String time = i % 2 == 0 ? "09:00:00" : "09:30:00";
+            tasks.add(() -> {
+                try {
+                    bookingService.createBooking(booking(1L, time), 1L);
+                } catch (BookingConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks, threads);
+
+        assertThat(saved).hasSize(1);
+        assertThat(conflicts.get()).isEqualTo(threads - 1);
+    }
+
+    @Test
+    void manyThreadsOverFewSlotsNeverDoubleBook() throws Exception {
+        int venues = 4;
+        int hours = 6;
+        int attemptsPerSlot = 8;
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int attempt = 0; attempt < attemptsPerSlot; attempt++) {
+            for (long venue = 1; venue <= venues; venue++) {
+                for (int hour = 8; hour < 8 + hours; hour++) {
+                    long venueId = venue;
+                    String time = String.format("%02d:00:00", hour);
+                    tasks.add(() -> {
+                        try {
+                            bookingService.createBooking(booking(venueId, time), 1L);
+                        } catch (BookingConflictException ignored) {
+                            // expected for every attempt but the winner
+                        }
+                        return null;
+                    });
+                }
+            }
+        }
+        runConcurrently(tasks, 16);
+
+        Set<String> slots = ConcurrentHashMap.newKeySet();
+        for (BookingEntity booking : saved) {
+            assertThat(slots.add(booking.getVenue().getVenueId() + "@" + booking.getTimeSlot()))
+                .as("double booking of venue %s at %s", booking.getVenue().getVenueId(), booking.getTimeSlot())
+                .isTrue();
+        }
+        assertThat(saved).hasSize(venues * hours);
+    }
+
+    // timing-dependent; run with mvn test -Dtest=BookingServiceConcurrencyTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void bookingsForDifferentVenuesScaleWithThreads() throws Exception {
+        int threads = 8;
+        int bookingsPerVenue = 10;
+
+        long sequential = timeBookings(1, 100, 1, bookingsPerVenue * threads);
+        saved.clear();
+        long parallel = timeBookings(threads, 200, threads, bookingsPerVenue);
+
+        double speedup = (double) sequential / parallel;
+        assertThat(saved).hasSize(threads * bookingsPerVenue);
+        // near-linear: at least half of the ideal speedup
+        assertThat(speedup).isGreaterThan(threads / 2.0);
+    }
+
+    // Each venue gets its own worker; every booking takes a distinct hour so none conflict
+    private long timeBookings(int threads, long firstVenueId, int venues, int bookingsPerVenue) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (long venue = firstVenueId; venue < firstVenueId + venues; venue++) {
+            long venueId = venue;
+            tasks.add(() -> {
+                for (int i = 0; i < bookingsPerVenue; i++) {
+                    LocalDate day = DAY.plusDays(i / 12);
+                    String time = String.format("%02d:00:00", 8 + i % 12);
+                    bookingService.createBooking(booking(venueId, day, time), 1L);
+                }
+                return null;
+            });
+        }
+        long start = System.nanoTime();
+        runConcurrently(tasks, threads);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private void runConcurrently(List<Callable<Void>> tasks, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    return task.call();
+                }));
+            }
+            startGate.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static BookingEntity booking(Long venueId, String time) {
+        return booking(venueId, DAY, time);
+    }
+
+    private static BookingEntity booking(Long venueId, LocalDate day, String time) {
+        VenueEntity venue = new VenueEntity();
+        venue.setVenueId(venueId);
+
+        BookingEntity booking = new BookingEntity();
+        booking.setEventName("Stress test");
+        booking.setDate(java.sql.Date.valueOf(day));
+        booking.setTimeSlot(Time.valueOf(time));
+        booking.setVenue(venue);
+        return booking;
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.ChunkedUploadDTO;
+import com.example.collegia.dto.StoredFileDTO;
+import com.example.collegia.exception.UploadDigestMismatchException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Chunks land at their offsets in any order, retries are harmless and the assembled file is checked by digest.
+ */
+class ChunkedUploadServiceTest {
+
+    private static final int CHUNK = 1024;
+
+    @TempDir
+    Path uploads;
+
+    private ChunkedUploadService service;
+
+    private final byte[] content = new byte[10 * CHUNK + 300];
+
+    @BeforeEach
+    void setUp() {
+        FileStorageService storage = new FileStorageService();
+        ReflectionTestUtils.setField(storage, "uploadDir", uploads.toString());
+        ReflectionTestUtils.setField(storage, "eventPublisher", mock(ApplicationEventPublisher.class));
+        storage.init();
+
+        service = new ChunkedUploadService();
+        ReflectionTestUtils.setField(service, "fileStorageService", storage);
+        ReflectionTestUtils.setField(service, "chunkSize", DataSize.ofBytes(CHUNK));
+
+        new Random(7).nextBytes(content);
+        content[0] = (byte) 0xFF;
+        content[1] = (byte) 0xD8;
+        content[2] = (byte) 0xFF;
+    }
+
+    @Test
+    void parallelOutOfOrderChunksAssembleTheFile() throws Exception {
+        ChunkedUploadDTO upload = service.start("hall.jpg", content.length, sha256(content, 0, content.length));
+        assertThat(upload.getChunkCount()).isEqualTo(11);
+        assertThat(upload.getMissingChunks()).hasSize(11);
+        Path part;
+        try (Stream<Path> files = Files.list(uploads.resolve(FileStorageService.CHUNKED_DIR))) {
+            part = files.findFirst().orElseThrow();
+        }
+        assertThat(Files.size(part)).isEqualTo(content.length);
+
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ChunkedUploadDTO>> sent = new ArrayList<>();
+            for (int index = 10; index >= 0; index--) {
+                int offset = index * CHUNK;
+                sent.add(clients.submit(() -> send(upload.getUploadId(), offset)));
+            }
+            for (Future<ChunkedUploadDTO> chunk : sent) {
+                chunk.get();
+            }
+        } finally {
+            clients.shutdown();
+        }
+        // a retry of a chunk that already arrived changes nothing
+        ChunkedUploadDTO status = send(upload.getUploadId(), 3 * CHUNK);
+        assertThat(status.getMissingChunks()).isEmpty();
+        assertThat(status.getReceivedBytes()).isEqualTo(content.length);
+
+        StoredFileDTO stored = service.complete(upload.getUploadId());
+        assertThat(stored.getContentType()).isEqualTo("image/jpeg");
+        assertThat(uploads.resolve(stored.getFileName())).hasBinaryContent(content);
+        assertThat(part).doesNotExist();
+        assertThat(service.getStatus(upload.getUploadId())).isNull();
+    }
+
+    @Test
+    void incompleteUploadsResumeWhereTheyStopped() throws IOException {
+        ChunkedUploadDTO upload = service.start("hall.jpg", content.length, sha256(content, 0, content.length));
+        for (int index = 0; index < 11; index += 2) {
+            send(upload.getUploadId(), index * CHUNK);
+        }
+
+        assertThatThrownBy(() -> service.complete(upload.getUploadId()))
+            .isInstanceOf(IllegalStateException.class).hasMessageContaining("5 chunks");
+        assertThat(service.getStatus(upload.getUploadId()).getMissingChunks()).containsExactly(1, 3, 5, 7, 9);
+
+        for (int index : service.getStatus(upload.getUploadId()).getMissingChunks()) {
+            send(upload.getUploadId(), index * CHUNK);
+        }
+        assertThat(service.complete(upload.getUploadId()).getSizeBytes()).isEqualTo(content.length);
+    }
+
+    @Test
+    void malformedChunksAreRejected() throws IOException {
+        String uploadId = service.start("hall.jpg", content.length, sha256(content, 0, content.length)).getUploadId();
+
+        assertThatThrownBy(() -> service.writeChunk(uploadId, 100, new ByteArrayInputStream(content, 100, CHUNK), null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.writeChunk(uploadId, 0, new ByteArrayInputStream(content, 0, CHUNK + 1), null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.writeChunk(uploadId, 0, new ByteArrayInputStream(content, 0, CHUNK),
+                sha256(content, 1, CHUNK)))
+            .isInstanceOf(UploadDigestMismatchException.class);
+        assertThat(service.getStatus(uploadId).getReceivedChunks()).isZero();
+        assertThat(service.writeChunk("unknown", 0, new ByteArrayInputStream(content), null)).isNull();
+    }
+
+    @Test
+    void assemblyIsVerifiedByDigest() throws IOException {
+        byte[] other = content.clone();
+        other[5000] ^= 1;
+        String uploadId = service.start("hall.jpg", content.length, sha256(other, 0, other.length)).getUploadId();
+        for (int index = 0; index < 11; index++) {
+            send(uploadId, index * CHUNK);
+        }
+
+        assertThatThrownBy(() -> service.complete(uploadId)).isInstanceOf(UploadDigestMismatchException.class);
+        assertThat(service.getStatus(uploadId)).isNull();
+        try (Stream<Path> files = Files.walk(uploads)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    @Test
+    void abortWaitsForChunksBeingWritten() throws Exception {
+        String uploadId = service.start("hall.jpg", content.length, sha256(content, 0, content.length)).getUploadId();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // a client that stalls halfway through its chunk
+        InputStream stalled = new InputStream() {
+            private int sent;
+
+            @Override
+            public int read() throws IOException {
+                if (sent == CHUNK / 2) {
+                    reading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+                return sent < CHUNK ? content[sent++] & 0xFF : -1;
+            }
+        };
+
+        ExecutorService client = Executors.newSingleThreadExecutor();
+        try {
+            Future<ChunkedUploadDTO> chunk = client.submit(() -> service.writeChunk(uploadId, 0, stalled, null));
+            reading.await();
+            assertThatThrownBy(() -> service.abort(uploadId))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("being written");
+            release.countDown();
+            assertThat(chunk.get().getReceivedChunks()).isEqualTo(1);
+        } finally {
+            client.shutdown();
+        }
+
+        assertThat(service.abort(uploadId)).isTrue();
+        assertThat(service.getStatus(uploadId)).isNull();
+        try (Stream<Path> files = Files.list(uploads.resolve(FileStorageService.CHUNKED_DIR))) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void expiryRemovesIdleSessionsAndLeftoversOnly() throws IOException {
+        String live = service.start("hall.jpg", content.length, sha256(content, 0, content.length)).getUploadId();
+        Path chunked = uploads.resolve(FileStorageService.CHUNKED_DIR);
+        FileTime twoDaysAgo = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+        // a session that was active recently keeps its file, however old the file's timestamp
+        Files.setLastModifiedTime(chunked.resolve(live + ".part"), twoDaysAgo);
+        Path leftover = Files.writeString(chunked.resolve("lost-in-a-restart.part"), "partial");
+        Files.setLastModifiedTime(leftover, twoDaysAgo);
+        Path recent = Files.writeString(chunked.resolve("just-created.part"), "partial");
+
+        service.expireIdleSessions();
+
+        assertThat(service.getStatus(live)).isNotNull();
+        assertThat(chunked.resolve(live + ".part")).exists();
+        assertThat(leftover).doesNotExist();
+        assertThat(recent).exists();
+    }
+
+    private ChunkedUploadDTO send(String uploadId, int offset) throws IOException {
+        int length = Math.min(CHUNK, content.length - offset);
+        return service.writeChunk(uploadId, offset, new ByteArrayInputStream(content, offset, length),
+            sha256(content, offset, length));
+    }
+
+    private static String sha256(byte[] bytes, int offset, int length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(bytes, offset, length);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
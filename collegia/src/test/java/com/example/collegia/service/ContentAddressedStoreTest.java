@@ -0,0 +1,184 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.StoredFileDTO;
+import com.example.collegia.entity.StoredBlobEntity;
+import com.example.collegia.entity.StudentEntity;
+import com.example.collegia.entity.VenueEntity;
+import com.example.collegia.repository.StoredBlobRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Duplicate uploads share one blob, and venue and user URLs keep its reference count.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({FileStorageService.class, BlobReferenceService.class})
+class ContentAddressedStoreTest {
+
+    private static final String URL_PREFIX = "http://localhost:8080/api/files/uploads/";
+
+    @TempDir
+    static Path uploads;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", uploads::toString);
+        registry.add("file.content-addressed", () -> "true");
+    }
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void identicalUploadsAreStoredOnce() throws IOException {
+        String first = fileStorageService.storeFile(upload("hall.JPG", "same bytes"));
+        String second = fileStorageService.storeFile(upload("hall-again.jpg", "same bytes"));
+        String other = fileStorageService.storeFile(upload("stage.jpg", "other bytes"));
+
+        assertThat(first).isEqualTo(second).matches("[0-9a-f]{64}\\.jpg");
+        assertThat(other).isNotEqualTo(first);
+
+        Path stored = fileStorageService.resolvePath(first);
+        assertThat(stored).hasParent(uploads.resolve("blobs").resolve(first.substring(0, 2)).resolve(first.substring(2, 4)));
+        assertThat(stored).hasContent("same bytes");
+        try (Stream<Path> files = Files.walk(uploads.resolve("blobs"))) {
+            assertThat(files.filter(Files::isRegularFile).filter(path -> path.toString().contains(first))).hasSize(1);
+        }
+
+        entityManager.clear();
+        StoredBlobEntity blob = storedBlobRepository.findById(first.substring(0, 64)).orElseThrow();
+        assertThat(blob.getUploadCount()).isEqualTo(2);
+        assertThat(blob.getSizeBytes()).isEqualTo(10);
+        assertThat(blob.getRefCount()).isZero();
+    }
+
+    @Test
+    void venueAndUserUrlsAreReferenceCounted() {
+        String photo = fileStorageService.storeFile(upload("photo.jpg", "photo"));
+        String gallery = fileStorageService.storeFile(upload("gallery.jpg", "gallery"));
+
+        VenueEntity venue = new VenueEntity();
+        venue.setVenueName("Hall");
+        venue.setImage(URL_PREFIX + photo);
+        // the same blob twice on one venue counts once; external links are ignored
+        venue.setGalleryImages(new ArrayList<>(List.of(URL_PREFIX + photo, URL_PREFIX + gallery + "?size=card",
+            "https://example.com/elsewhere.jpg")));
+        entityManager.persist(venue);
+
+        StudentEntity student = new StudentEntity();
+        student.setEmail("blob-owner@example.com");
+        student.setUserType("Student");
+        student.setProfilePhoto(URL_PREFIX + photo);
+        entityManager.persist(student);
+        entityManager.flush();
+
+        blobReferenceService.syncVenue(venue.getVenueId());
+        blobReferenceService.syncUser(student.getUserId());
+        assertThat(refCount(photo)).isEqualTo(2);
+        assertThat(refCount(gallery)).isEqualTo(1);
+
+        VenueEntity reloaded = entityManager.find(VenueEntity.class, venue.getVenueId());
+        reloaded.setGalleryImages(new ArrayList<>());
+        entityManager.flush();
+        blobReferenceService.syncVenue(venue.getVenueId());
+        assertThat(refCount(photo)).isEqualTo(2);
+        assertThat(refCount(gallery)).isZero();
+
+        blobReferenceService.release(BlobReferenceService.userOwner(student.getUserId()));
+        assertThat(refCount(photo)).isEqualTo(1);
+    }
+
+    @Test
+    void reconciliationRepairsDrift() {
+        String photo = fileStorageService.storeFile(upload("drift.jpg", "drift"));
+        StudentEntity student = new StudentEntity();
+        student.setEmail("drift-owner@example.com");
+        student.setUserType("Student");
+        student.setProfilePhoto(URL_PREFIX + photo);
+        entityManager.persist(student);
+        entityManager.flush();
+
+        // written behind the service's back: the missing reference row brings the count with it
+        assertThat(refCount(photo)).isZero();
+        assertThat(blobReferenceService.reconcile()).isEqualTo(1);
+        assertThat(refCount(photo)).isEqualTo(1);
+        assertThat(blobReferenceService.reconcile()).isZero();
+
+        // a count moved without its rows is put back by the difference
+        storedBlobRepository.adjustRefCount(photo, 2);
+        assertThat(blobReferenceService.reconcile()).isEqualTo(1);
+        assertThat(refCount(photo)).isEqualTo(1);
+
+        // an owner deleted behind the service's back gives its references up
+        entityManager.remove(entityManager.find(StudentEntity.class, student.getUserId()));
+        entityManager.flush();
+        assertThat(blobReferenceService.reconcile()).isEqualTo(1);
+        assertThat(refCount(photo)).isZero();
+        assertThat(blobReferenceService.reconcile()).isZero();
+    }
+
+    @Test
+    void discardingRemovesOnlyBlobsNobodyElseUploaded() throws IOException {
+        String shared = fileStorageService.storeFile(upload("shared.jpg", "shared"));
+        StoredFileDTO again;
+        StoredFileDTO fresh;
+        try (InputStream first = stream("shared"); InputStream second = stream("fresh")) {
+            again = fileStorageService.storeStream(first, "shared.jpg");
+            fresh = fileStorageService.storeStream(second, "fresh.jpg");
+        }
+
+        fileStorageService.discard(again);
+        fileStorageService.discard(fresh);
+
+        assertThat(again.isDuplicate()).isTrue();
+        assertThat(fileStorageService.resolvePath(shared)).exists();
+        assertThat(fileStorageService.resolvePath(fresh.getFileName())).doesNotExist();
+        entityManager.clear();
+        assertThat(storedBlobRepository.findById(fresh.getSha256())).isEmpty();
+        assertThat(storedBlobRepository.findById(again.getSha256())).isPresent();
+    }
+
+    private long refCount(String fileName) {
+        entityManager.flush();
+        entityManager.clear();
+        return storedBlobRepository.findById(fileName.substring(0, 64)).orElseThrow().getRefCount();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockMultipartFile upload(String name, String content) {
+        return new MockMultipartFile("file", name, "image/jpeg", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
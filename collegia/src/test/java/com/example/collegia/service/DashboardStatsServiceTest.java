@@ -0,0 +1,152 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.DashboardStatsDTO;
+import com.example.collegia.dto.VenueUtilizationDTO;
+import com.example.collegia.entity.BookingEntity;
+import com.example.collegia.entity.CustodianEntity;
+import com.example.collegia.entity.StudentEntity;
+import com.example.collegia.entity.VenueEntity;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Map.entry;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * The dashboard's grouped queries and counters, its cache and the widest range it accepts.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({DashboardStatsService.class, BookingCounterService.class})
+class DashboardStatsServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private DashboardStatsService statsService;
+
+    @Autowired
+    private BookingCounterService counterService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private CustodianEntity custodian;
+    private VenueEntity hall;
+    private VenueEntity gym;
+
+    @BeforeEach
+    void setUp() {
+        // the service outlives each test's rolled-back data, its cache must not
+        ((Map<?, ?>) ReflectionTestUtils.getField(statsService, "cache")).clear();
+
+        custodian = new CustodianEntity();
+        custodian.setFirstName("Carla");
+        custodian.setLastName("Custodio");
+        custodian.setEmail("custodian@example.com");
+        custodian.setUserType("Custodian");
+        entityManager.persist(custodian);
+        for (int i = 0; i < 2; i++) {
+            StudentEntity student = new StudentEntity();
+            student.setFirstName("Student");
+            student.setLastName(String.valueOf(i));
+            student.setEmail("student" + i + "@example.com");
+            student.setUserType("Student");
+            entityManager.persist(student);
+        }
+
+        hall = venue("Hall");
+        gym = venue("Gym");
+        book(hall, DAY, "08:00:00", "approved");
+        book(hall, DAY, "10:00:00", "pending");
+        book(gym, DAY, "08:00:00", "canceled");
+        book(hall, DAY.plusDays(1), "08:00:00", "canceled");
+        book(hall, DAY.plusDays(2), "08:00:00", "approved");
+        // outside every range asked for below
+        book(gym, DAY.minusDays(1), "08:00:00", "approved");
+        entityManager.flush();
+    }
+
+    @Test
+    void everySectionComesFromItsGroupedQuery() {
+        DashboardStatsDTO stats = statsService.getDashboardStats(DAY, DAY.plusDays(1), false);
+
+        assertThat(stats.getUserCounts())
+            .containsEntry("students", 2L).containsEntry("custodians", 1L)
+            .containsEntry("faculty", 0L).containsEntry("totalUsers", 3L);
+        assertThat(stats.getBookingStatus())
+            .containsEntry("approved", 3L).containsEntry("pending", 1L)
+            .containsEntry("canceled", 2L).containsEntry("rejected", 0L);
+
+        // canceled bookings give their slot back; 16 opening hours a day, two days
+        assertThat(stats.getVenueUtilization()).extracting(VenueUtilizationDTO::getVenueName, VenueUtilizationDTO::getBookings)
+            .containsExactly(tuple("Hall", 2L), tuple("Gym", 0L));
+        assertThat(stats.getVenueUtilization().get(0).getUtilization()).isEqualTo(2.0 / 32);
+
+        // every day of the range is present, empty ones included; canceled ones are left out, as in utilization
+        assertThat(stats.getBookingsPerDay()).containsExactly(
+            entry(DAY, 2L), entry(DAY.plusDays(1), 0L));
+    }
+
+    @Test
+    void dashboardsAreCachedUntilRefreshed() {
+        DashboardStatsDTO first = statsService.getDashboardStats(DAY, DAY.plusDays(2), false);
+        book(hall, DAY.plusDays(2), "12:00:00", "pending");
+        entityManager.flush();
+
+        assertThat(statsService.getDashboardStats(DAY, DAY.plusDays(2), false)).isSameAs(first);
+        // a different window is its own entry
+        assertThat(statsService.getDashboardStats(DAY, DAY.plusDays(1), false)).isNotSameAs(first);
+
+        DashboardStatsDTO refreshed = statsService.getDashboardStats(DAY, DAY.plusDays(2), true);
+        assertThat(refreshed).isNotSameAs(first);
+        assertThat(refreshed.getBookingsPerDay()).containsEntry(DAY.plusDays(2), 2L);
+        assertThat(refreshed.getBookingStatus()).containsEntry("pending", 2L);
+    }
+
+    @Test
+    void rangesBeyondTheConfiguredMaximumAreRejected() {
+        // 366 days inclusive is the widest dashboard
+        assertThat(statsService.getDashboardStats(DAY, DAY.plusDays(365), false).getBookingsPerDay()).hasSize(366);
+        assertThatThrownBy(() -> statsService.getDashboardStats(DAY, DAY.plusDays(366), false))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Date range cannot exceed 366 days");
+        assertThatThrownBy(() -> statsService.getDashboardStats(DAY, DAY.minusDays(1), false))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private VenueEntity venue(String name) {
+        VenueEntity venue = new VenueEntity();
+        venue.setVenueName(name);
+        venue.setVenueCapacity(100);
+        venue.setCustodian(custodian);
+        entityManager.persist(venue);
+        return venue;
+    }
+
+    private void book(VenueEntity venue, LocalDate day, String time, String status) {
+        BookingEntity booking = new BookingEntity();
+        booking.setEventName(venue.getVenueName() + " " + day + " " + time);
+        booking.setDate(Date.valueOf(day));
+        booking.setTimeSlot(Time.valueOf(time));
+        booking.setStatus(status);
+        booking.setVenue(venue);
+        booking.setCustodian(custodian);
+        entityManager.persist(booking);
+        counterService.recordChange(Set.of(), booking);
+    }
+}
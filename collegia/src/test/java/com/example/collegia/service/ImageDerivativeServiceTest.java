@@ -0,0 +1,152 @@
+package com.example.collegia.service;
+
+import com.example.collegia.event.FileStoredEvent;
+import com.example.collegia.service.ImageDerivativeService.Variant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Variant naming, bounded sizes and EXIF orientation of generated image derivatives.
+ */
+class ImageDerivativeServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    private final ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+
+    private ImageDerivativeService service;
+
+    @BeforeEach
+    void setUp() {
+        FileStorageService storage = new FileStorageService();
+        ReflectionTestUtils.setField(storage, "uploadDir", uploads.toString());
+        storage.init();
+
+        service = new ImageDerivativeService();
+        ReflectionTestUtils.setField(service, "fileStorageService", storage);
+        ReflectionTestUtils.setField(service, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(service, "executor", executor);
+    }
+
+    @Test
+    void variantNamesFollowFromTheStoredName() {
+        assertThat(ImageDerivativeService.variantName("abc.jpeg", Variant.CARD)).isEqualTo("abc_card.jpg");
+        assertThat(ImageDerivativeService.variantName("abc.PNG", Variant.THUMB)).isEqualTo("abc_thumb.png");
+        assertThat(ImageDerivativeService.isVariant("abc_full.jpg")).isTrue();
+        assertThat(Variant.fromParameter("original")).isNull();
+        assertThat(Variant.fromParameter("Card")).isEqualTo(Variant.CARD);
+    }
+
+    @Test
+    void variantsAreBoundedAndNeverUpscaled() throws IOException {
+        Files.write(uploads.resolve("wide.jpg"), jpeg(3000, 1000, null));
+        Files.write(uploads.resolve("small.png"), png(120, 80));
+
+        service.generateDerivatives("wide.jpg");
+        service.generateDerivatives("small.png");
+
+        assertThat(dimensions("wide_thumb.jpg")).containsExactly(200, 67);
+        assertThat(dimensions("wide_card.jpg")).containsExactly(640, 213);
+        assertThat(dimensions("wide_full.jpg")).containsExactly(1920, 640);
+        assertThat(dimensions("small_full.png")).containsExactly(120, 80);
+        assertThat(service.resolve("wide.jpg", Variant.CARD)).isEqualTo("wide_card.jpg");
+        assertThat(service.resolve("wide.jpg", null)).isEqualTo("wide.jpg");
+    }
+
+    @Test
+    void exifOrientationIsApplied() throws IOException {
+        // stored landscape, shot portrait: orientation 6 means rotate 90 degrees clockwise
+        Files.write(uploads.resolve("portrait.jpg"), jpeg(400, 200, 6));
+
+        assertThat(ImageDerivativeService.readExifOrientation(uploads.resolve("portrait.jpg"))).isEqualTo(6);
+        service.generateDerivatives("portrait.jpg");
+
+        BufferedImage card = ImageIO.read(uploads.resolve("portrait_card.jpg").toFile());
+        assertThat(card.getWidth()).isEqualTo(200);
+        assertThat(card.getHeight()).isEqualTo(400);
+        // the red left half of the stored image ends up on top
+        assertThat(new Color(card.getRGB(100, 50)).getRed()).isGreaterThan(200);
+        assertThat(new Color(card.getRGB(100, 350)).getBlue()).isGreaterThan(200);
+    }
+
+    @Test
+    void filesThatAreNotImagesAreLeftAlone() throws IOException {
+        Files.writeString(uploads.resolve("notes.jpg"), "not really a photo");
+
+        service.generateDerivatives("notes.jpg");
+
+        assertThat(uploads.resolve("notes_thumb.jpg")).doesNotExist();
+        assertThat(service.resolve("notes.jpg", Variant.THUMB)).isEqualTo("notes.jpg");
+    }
+
+    @Test
+    void jobsRejectedByAFullQueueAreCounted() {
+        doThrow(new TaskRejectedException("queue full")).when(executor).execute(any(Runnable.class));
+
+        for (int i = 0; i < 3; i++) {
+            service.onFileStored(new FileStoredEvent("photo.jpg"));
+        }
+
+        assertThat(service.getStats()).containsEntry("rejected", 3L);
+    }
+
+    private int[] dimensions(String fileName) throws IOException {
+        BufferedImage image = ImageIO.read(uploads.resolve(fileName).toFile());
+        return new int[] {image.getWidth(), image.getHeight()};
+    }
+
+    // left half red, right half blue, optionally with an EXIF orientation segment after SOI
+    private static byte[] jpeg(int width, int height, Integer orientation) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, x < width / 2 ? Color.RED.getRGB() : Color.BLUE.getRGB());
+            }
+        }
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", encoded);
+        byte[] bytes = encoded.toByteArray();
+        if (orientation == null) {
+            return bytes;
+        }
+
+        byte[] exif = {
+            (byte) 0xFF, (byte) 0xE1, 0, 34,
+            'E', 'x', 'i', 'f', 0, 0,
+            'M', 'M', 0, 42, 0, 0, 0, 8,
+            0, 1,
+            0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, orientation.byteValue(), 0, 0,
+            0, 0, 0, 0
+        };
+        ByteArrayOutputStream withExif = new ByteArrayOutputStream();
+        withExif.write(bytes, 0, 2);
+        withExif.write(exif);
+        withExif.write(bytes, 2, bytes.length - 2);
+        return withExif.toByteArray();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", encoded);
+        return encoded.toByteArray();
+    }
+}
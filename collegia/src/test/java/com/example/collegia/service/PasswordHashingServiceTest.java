@@ -0,0 +1,105 @@
+package com.example.collegia.service;
+
+import com.example.collegia.exception.PasswordHashingBusyException;
+import com.example.collegia.util.PasswordEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hashing runs on a bounded pool that turns callers away once its queue is full.
+ */
+class PasswordHashingServiceTest {
+
+    private final ThreadPoolTaskExecutor hashPool = new ThreadPoolTaskExecutor();
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+        hashPool.shutdown();
+    }
+
+    @Test
+    void fullQueueIsRejectedWithRetryAfter() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(anyString())).thenAnswer(call -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return "hashed:" + call.getArgument(0);
+        });
+        PasswordHashingService service = service(encoder, 1, 1);
+
+        // one hashing, one waiting: the pool is full
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("first"), callers);
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("second"), callers);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (hashPool.getQueueSize() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertThatThrownBy(() -> service.encode("third"))
+            .isInstanceOfSatisfying(PasswordHashingBusyException.class,
+                e -> assertThat(e.getRetryAfterSeconds()).isPositive());
+        Map<String, Object> busy = service.getStats();
+        assertThat(busy).containsEntry("queueDepth", 1).containsEntry("active", 1).containsEntry("rejected", 1L);
+
+        release.countDown();
+        assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo("hashed:first");
+        assertThat(queued.get(10, TimeUnit.SECONDS)).isEqualTo("hashed:second");
+        assertThat(service.getStats()).containsEntry("hashes", 2L).containsEntry("queueDepth", 0);
+    }
+
+    @Test
+    void workFactorIsConfiguredOrCalibrated() {
+        PasswordEncoder configured = encoder(4, Duration.ofMillis(100));
+        String hash = configured.encode("secret");
+        assertThat(hash).startsWith("$2a$04$");
+        assertThat(configured.matches("secret", hash)).isTrue();
+
+        // never below BCrypt's default, and capped however generous the target
+        assertThat(encoder(0, Duration.ZERO).getStrength()).isEqualTo(10);
+        assertThat(encoder(0, Duration.ofHours(1)).getStrength()).isEqualTo(16);
+
+        // hashes made at another cost still verify
+        assertThat(encoder(0, Duration.ZERO).matches("secret", hash)).isTrue();
+    }
+
+    private PasswordHashingService service(PasswordEncoder encoder, int threads, int queueCapacity) {
+        hashPool.setCorePoolSize(threads);
+        hashPool.setMaxPoolSize(threads);
+        hashPool.setQueueCapacity(queueCapacity);
+        hashPool.initialize();
+        PasswordHashingService service = new PasswordHashingService();
+        ReflectionTestUtils.setField(service, "passwordEncoder", encoder);
+        ReflectionTestUtils.setField(service, "executor", hashPool);
+        return service;
+    }
+
+    private static PasswordEncoder encoder(int strength, Duration target) {
+        PasswordEncoder encoder = new PasswordEncoder();
+        ReflectionTestUtils.setField(encoder, "configuredStrength", strength);
+        ReflectionTestUtils.setField(encoder, "targetHashTime", target);
+        encoder.init();
+        return encoder;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.UserImportReportDTO;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * CSV and .xlsx rosters, plain or gzipped, are read row by row and keyed by their header.
+ */
+class RosterReaderTest {
+
+    private static final long MAX_BYTES = 1024 * 1024;
+
+    @TempDir
+    Path spool;
+
+    @Test
+    void csvQuotingLineEndingsAndHeaders() throws IOException {
+        String csv = "\uFEFFFirst Name,Last Name,EMAIL,user_type,Course,Notes\r\n"
+            + "Ana,\"Cruz, Jr.\",ana@school.test,Student,\"BS \"\"IT\"\"\",\"two\nlines\"\r\n"
+            + ",,,,,\r\n"
+            + "\n"
+            + "Ben,Reyes,ben@school.test,Faculty\n";
+
+        List<Map<String, Object>> rows = readAll(csv.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).containsEntry("firstName", "Ana").containsEntry("lastName", "Cruz, Jr.")
+            .containsEntry("email", "ana@school.test").containsEntry("userType", "Student")
+            .containsEntry("course", "BS \"IT\"").containsEntry("Notes", "two\nlines");
+        assertThat(rows.get(1)).containsEntry("userType", "Faculty").doesNotContainKey("course");
+    }
+
+    @Test
+    void gzippedSemicolonCsv() throws IOException {
+        byte[] csv = "firstName;lastName;email;userType\nAna;Cruz;ana@school.test;Student\n".getBytes(StandardCharsets.UTF_8);
+
+        List<Map<String, Object>> rows = readAll(gzip(csv));
+
+        assertThat(rows).singleElement().satisfies(row ->
+            assertThat(row).containsEntry("lastName", "Cruz").containsEntry("userType", "Student"));
+    }
+
+    @Test
+    void xlsxSharedAndInlineStringsByCellReference() throws IOException {
+        byte[] xlsx = xlsx(
+            "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                + "<si><t>First Name</t></si><si><t>Last Name</t></si><si><t>Email</t></si>"
+                + "<si><t>User Type</t></si><si><t>Year</t></si>"
+                + "<si><r><t>Cr</t></r><r><t>uz</t></r><rPh><t>KURUZU</t></rPh></si><si><t>Student</t></si></sst>",
+            "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>"
+                + "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c><c r=\"C1\" t=\"s\"><v>2</v></c>"
+                + "<c r=\"D1\" t=\"s\"><v>3</v></c><c r=\"E1\" t=\"s\"><v>4</v></c></row>"
+                + "<row r=\"2\"><c r=\"A2\" t=\"inlineStr\"><is><t>Ana</t></is></c><c r=\"B2\" t=\"s\"><v>5</v></c>"
+                + "<c r=\"C2\" t=\"str\"><v>ana@school.test</v></c><c r=\"D2\" t=\"s\"><v>6</v></c><c r=\"E2\"><v>2.0</v></c></row>"
+                + "<row r=\"4\"><c r=\"C4\" t=\"str\"><v>gap@school.test</v></c></row>"
+                + "</sheetData></worksheet>");
+
+        List<Map<String, Object>> rows = readAll(xlsx);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).containsEntry("firstName", "Ana").containsEntry("lastName", "Cruz")
+            .containsEntry("email", "ana@school.test").containsEntry("userType", "Student").containsEntry("Year", "2");
+        assertThat(rows.get(1)).containsEntry("firstName", "").containsEntry("email", "gap@school.test");
+        try (Stream<Path> left = Files.list(spool)) {
+            assertThat(left).isEmpty();
+        }
+    }
+
+    @Test
+    void unreadableAndOversizedRosters() {
+        byte[] xls = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, 0, 0, 0, 0};
+        assertThatThrownBy(() -> readAll(xls)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining(".xls");
+        assertThatThrownBy(() -> readAll("a,b\n\"open".getBytes(StandardCharsets.UTF_8)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> readAll(new byte[] {'P', 'K', 3, 4, 0, 0}))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        // compresses to a few kilobytes, expands past the limit
+        byte[] bomb = ("email\n" + "x@school.test\n".repeat(100_000)).getBytes(StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> readAll(gzip(bomb))).isInstanceOf(FileUploadSizeException.class);
+    }
+
+    @Test
+    void multipartUploadsAreReadFromTheFilePart() throws IOException {
+        FileStorageService storage = new FileStorageService();
+        ReflectionTestUtils.setField(storage, "uploadDir", spool.toString());
+        storage.init();
+        List<Map<String, Object>> received = new ArrayList<>();
+        UserImportService importer = mock(UserImportService.class);
+        when(importer.importUsers(any(UserImportService.RowSource.class))).thenAnswer(call -> {
+            UserImportService.RowSource rows = call.getArgument(0);
+            for (Map<String, Object> row = rows.next(); row != null; row = rows.next()) {
+                received.add(row);
+            }
+            return new UserImportReportDTO();
+        });
+        RosterImportService service = new RosterImportService();
+        ReflectionTestUtils.setField(service, "userImportService", importer);
+        ReflectionTestUtils.setField(service, "fileStorageService", storage);
+
+        MockHttpServletRequest request = new StreamingUploadServiceTest.Multipart()
+            .field("note", "spring intake")
+            .file("roster", "roster.csv.gz", "application/gzip",
+                gzip("email,userType\nana@school.test,Student\n".getBytes(StandardCharsets.UTF_8)))
+            .request();
+        request.setMethod("POST");
+        service.importRoster(request);
+
+        assertThat(received).singleElement().satisfies(row -> assertThat(row).containsEntry("email", "ana@school.test"));
+    }
+
+    private List<Map<String, Object>> readAll(byte[] content) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (RosterReader reader = RosterReader.open(new ByteArrayInputStream(content), spool, MAX_BYTES)) {
+            for (Map<String, Object> row = reader.next(); row != null; row = reader.next()) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    // the parts of a workbook the reader looks at; the first sheet is not at the default path
+    private static byte[] xlsx(String sharedStrings, String sheet) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            entry(zip, "xl/workbook.xml", "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" "
+                + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                + "<sheets><sheet name=\"Roster\" sheetId=\"1\" r:id=\"rId3\"/></sheets></workbook>");
+            entry(zip, "xl/_rels/workbook.xml.rels",
+                "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Target=\"styles.xml\"/>"
+                + "<Relationship Id=\"rId3\" Target=\"worksheets/roster.xml\"/></Relationships>");
+            entry(zip, "xl/worksheets/roster.xml", sheet);
+            entry(zip, "xl/sharedStrings.xml", sharedStrings);
+        }
+        return out.toByteArray();
+    }
+
+    private static void entry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.collegia.service;
+
+import com.example.collegia.config.SessionTokenFilter;
+import com.example.collegia.dto.SessionPrincipalDTO;
+import com.example.collegia.entity.CustodianEntity;
+import com.example.collegia.entity.UserEntity;
+import com.example.collegia.exception.InvalidSessionTokenException;
+import com.example.collegia.repository.UserRepository;
+import com.example.collegia.repository.VenueRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Session tokens verify by signature and expiry alone, and refresh within their window.
+ */
+class SessionTokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-06-01T08:00:00Z");
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final VenueRepository venueRepository = mock(VenueRepository.class);
+
+    private SessionTokenService service;
+
+    private CustodianEntity custodian;
+
+    @BeforeEach
+    void setUp() {
+        service = service(null);
+        custodian = new CustodianEntity();
+        ReflectionTestUtils.setField(custodian, "userId", 42L);
+        custodian.setFirstName("Rosa");
+        custodian.setLastName("Lim");
+        custodian.setEmail("rosa@school.test");
+        custodian.setUserType("Custodian");
+        when(venueRepository.findVenueIdsByCustodian(42L)).thenReturn(List.of(3L, 7L));
+    }
+
+    @Test
+    void issuedTokensVerifyWithoutTheDatabase() {
+        String token = service.issue(custodian);
+
+        SessionPrincipalDTO principal = service.verify(token);
+
+        assertThat(principal.getUserId()).isEqualTo(42L);
+        assertThat(principal.getEmail()).isEqualTo("rosa@school.test");
+        assertThat(principal.getName()).isEqualTo("Rosa Lim");
+        assertThat(principal.getUserType()).isEqualTo("Custodian");
+        assertThat(principal.getVenueIds()).containsExactly(3L, 7L);
+        assertThat(principal.getIssuedAt()).isEqualTo(NOW);
+        assertThat(principal.getExpiresAt()).isEqualTo(NOW.plus(Duration.ofHours(1)));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void forgedMalformedAndExpiredTokensAreRejected() {
+        String token = service.issue(custodian);
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+        String promoted = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(payload.replace("Custodian", "Admin").getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        assertThatThrownBy(() -> service.verify(promoted)).hasMessage("Invalid token signature");
+        // signed with another server's key
+        assertThatThrownBy(() -> service(null).verify(token)).hasMessage("Invalid token signature");
+        assertThatThrownBy(() -> service.verify("not-a-token")).hasMessage("Malformed token");
+
+        at(NOW.plus(Duration.ofHours(1)));
+        assertThatThrownBy(() -> service.verify(token))
+            .isInstanceOf(InvalidSessionTokenException.class).hasMessage("Token expired");
+    }
+
+    @Test
+    void expiredTokensRefreshWithinTheWindow() {
+        String token = service.issue(custodian);
+        when(userRepository.findById(42L)).thenReturn(Optional.of(custodian));
+
+        at(NOW.plus(Duration.ofHours(5)));
+        SessionPrincipalDTO refreshed = service.verify(service.refresh(token));
+        assertThat(refreshed.getUserId()).isEqualTo(42L);
+        assertThat(refreshed.getExpiresAt()).isEqualTo(NOW.plus(Duration.ofHours(6)));
+
+        at(NOW.plus(Duration.ofHours(26)));
+        assertThatThrownBy(() -> service.refresh(token)).hasMessage("Token expired");
+
+        at(NOW);
+        when(userRepository.findById(42L)).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> service.refresh(token)).hasMessage("User no longer exists");
+    }
+
+    @Test
+    void refreshingStopsAtTheMaximumSessionAge() {
+        ReflectionTestUtils.setField(service, "maxSessionAge", Duration.ofDays(3));
+        when(userRepository.findById(42L)).thenReturn(Optional.of(custodian));
+        String token = service.issue(custodian);
+
+        // refreshed daily, each time after the last token expired
+        for (int hours = 20; hours <= 60; hours += 20) {
+            at(NOW.plus(Duration.ofHours(hours)));
+            token = service.refresh(token);
+            assertThat(service.verify(token).getAuthenticatedAt()).isEqualTo(NOW);
+        }
+
+        // the last token ends with the session, not a full lifetime later
+        at(NOW.plus(Duration.ofHours(71).plusMinutes(30)));
+        String last = service.refresh(token);
+        assertThat(service.verify(last).getExpiresAt()).isEqualTo(NOW.plus(Duration.ofDays(3)));
+
+        at(NOW.plus(Duration.ofDays(3)));
+        String stolen = last;
+        assertThatThrownBy(() -> service.refresh(stolen)).hasMessage("Session expired, sign in again");
+    }
+
+    @Test
+    void filterExposesThePrincipalOfAValidToken() throws Exception {
+        SessionTokenFilter filter = new SessionTokenFilter();
+        ReflectionTestUtils.setField(filter, "sessionTokenService", service);
+        UserEntity student = new UserEntity();
+        ReflectionTestUtils.setField(student, "userId", 5L);
+        student.setUserType("Student");
+
+        MockHttpServletRequest signedIn = new MockHttpServletRequest("GET", "/api/venues");
+        signedIn.addHeader("Authorization", "Bearer " + service.issue(student));
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(signedIn, new MockHttpServletResponse(), chain);
+        assertThat(chain.getRequest()).isSameAs(signedIn);
+        assertThat(((SessionPrincipalDTO) signedIn.getAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE)).getUserId())
+            .isEqualTo(5L);
+
+        // a bad token is flagged, but the request still goes through anonymously
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", "/api/venues");
+        stale.addHeader("Authorization", "Bearer a.b.c");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        chain = new MockFilterChain();
+        filter.doFilter(stale, response, chain);
+        assertThat(chain.getRequest()).isSameAs(stale);
+        assertThat(stale.getAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE)).isNull();
+        assertThat(response.getHeader("WWW-Authenticate")).startsWith("Bearer error=\"invalid_token\"");
+    }
+
+    private void at(Instant instant) {
+        ReflectionTestUtils.setField(service, "clock", Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    private SessionTokenService service(String secret) {
+        SessionTokenService tokens = new SessionTokenService();
+        ReflectionTestUtils.setField(tokens, "secret", secret);
+        ReflectionTestUtils.setField(tokens, "userRepository", userRepository);
+        ReflectionTestUtils.setField(tokens, "venueRepository", venueRepository);
+        ReflectionTestUtils.setField(tokens, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(tokens, "clock", Clock.fixed(NOW, ZoneOffset.UTC));
+        tokens.init();
+        return tokens;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.collegia.service;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Upload throughput of the streaming path against the previous one, where
+ * the multipart parser spools each file part to a temporary file that is
+ * then copied into the store.
+ *
+ * Run with {@code mvn test -Dtest=StreamingUploadBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StreamingUploadBenchmarkTest {
+
+    private static final int FILE_BYTES = 8 * 1024 * 1024;
+    private static final int WARMUP = 3;
+    private static final int ROUNDS = 20;
+
+    @TempDir
+    Path uploads;
+
+    @TempDir
+    Path spool;
+
+    @Test
+    void streamingAgainstSpooling() throws Exception {
+        byte[] content = new byte[FILE_BYTES];
+        new Random(42).nextBytes(content);
+        byte[] body = new StreamingUploadServiceTest.Multipart()
+            .field("venueName", "Benchmark Hall")
+            .file("file", "photo.jpg", "image/jpeg", content)
+            .bytes();
+
+        for (DataSize buffer : new DataSize[] {DataSize.ofKilobytes(8), DataSize.ofKilobytes(64), DataSize.ofKilobytes(256)}) {
+            StreamingUploadService service = StreamingUploadServiceTest.newService(uploads, buffer);
+            FileStorageService storage = (FileStorageService) ReflectionTestUtils.getField(service, "fileStorageService");
+
+            double spooled = throughput(() -> spoolThenStore(storage, body));
+            double streamed = throughput(() -> service.read(request(body)).getFile("file").getSizeBytes());
+            System.out.printf("buffer %6s: spool + copy %7.1f MB/s, streaming %7.1f MB/s (%.2fx)%n",
+                buffer, spooled, streamed, streamed / spooled);
+        }
+    }
+
+    // the previous path: parse to a disk-backed item, then storeFile copies it into place
+    private long spoolThenStore(FileStorageService storage, byte[] body) throws IOException {
+        JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> upload =
+            new JakartaServletFileUpload<>(DiskFileItemFactory.builder().setPath(spool).get());
+        long size = 0;
+        for (DiskFileItem item : upload.parseRequest(request(body))) {
+            if (!item.isFormField()) {
+                try (InputStream in = item.getInputStream()) {
+                    size += storage.storeStream(in, item.getName()).getSizeBytes();
+                }
+            }
+            item.delete();
+        }
+        return size;
+    }
+
+    // MockHttpServletRequest's own stream reads a byte at a time, which would dominate both paths
+    private static MockHttpServletRequest request(byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/files/upload") {
+            private final ServletInputStream in = new ServletInputStream() {
+                private final ByteArrayInputStream bytes = new ByteArrayInputStream(body);
+
+                @Override
+                public int read() {
+                    return bytes.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return bytes.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return bytes.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+
+            @Override
+            public ServletInputStream getInputStream() {
+                return in;
+            }
+        };
+        request.setContentType("multipart/form-data; boundary=" + StreamingUploadServiceTest.BOUNDARY);
+        request.setContent(body);
+        return request;
+    }
+
+    private static double throughput(Upload upload) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            assertThat(upload.run()).isEqualTo(FILE_BYTES);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            upload.run();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return (double) FILE_BYTES * ROUNDS / (1024 * 1024) / seconds;
+    }
+
+    private interface Upload {
+        long run() throws Exception;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.FileUploadResultDTO;
+import com.example.collegia.dto.StoredFileDTO;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Multipart requests are stored part by part, with size, digest and sniffed type computed in the
+ * same pass, and with file parts written in parallel when read concurrently.
+ */
+class StreamingUploadServiceTest {
+
+    static final String BOUNDARY = "----collegia-test-boundary";
+
+    // a PNG signature followed by filler; enough for sniffing
+    static final byte[] PNG = concat(new byte[] {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A},
+        "not a real image body".getBytes(StandardCharsets.US_ASCII));
+
+    private static final Executor WRITERS = Executors.newFixedThreadPool(3);
+
+    @TempDir
+    Path uploads;
+
+    private StreamingUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        service = newService(uploads, DataSize.ofKilobytes(64));
+    }
+
+    @Test
+    void fieldsAndFilesAreReadInOnePass() throws Exception {
+        Multipart body = new Multipart()
+            .field("venueName", "Grand Hall")
+            .file("image", "hall", "application/octet-stream", PNG)
+            .file("galleryImages", "a.jpg", "image/jpeg", "first".getBytes(StandardCharsets.UTF_8))
+            .file("galleryImages", "b.jpg", "image/jpeg", "second".getBytes(StandardCharsets.UTF_8))
+            // an unused file input
+            .file("galleryImages", "", "application/octet-stream", new byte[0]);
+
+        StreamingUploadService.StreamedUpload upload = service.read(body.request());
+
+        assertThat(upload.getField("venueName")).isEqualTo("Grand Hall");
+        StoredFileDTO image = upload.getFile("image");
+        // the name had no extension: it comes from the sniffed type
+        assertThat(image.getFileName()).endsWith(".png");
+        assertThat(image.getContentType()).isEqualTo("image/png");
+        assertThat(image.getSizeBytes()).isEqualTo(PNG.length);
+        assertThat(image.getSha256()).isEqualTo(sha256(PNG));
+        assertThat(uploads.resolve(image.getFileName())).hasBinaryContent(PNG);
+
+        assertThat(upload.getFiles("galleryImages")).hasSize(2)
+            .allSatisfy(file -> assertThat(file.getContentType()).isEqualTo("application/octet-stream"));
+        assertThat(upload.getFile("missing")).isNull();
+        // nothing is left behind in the temporary directory
+        try (Stream<Path> incoming = Files.list(uploads.resolve("incoming"))) {
+            assertThat(incoming).isEmpty();
+        }
+    }
+
+    @Test
+    void tinyBuffersGiveTheSameResult() throws Exception {
+        byte[] content = new byte[100_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        content[0] = (byte) 0xFF;
+        content[1] = (byte) 0xD8;
+        content[2] = (byte) 0xFF;
+        StreamingUploadService small = newService(uploads, DataSize.ofBytes(7));
+
+        StoredFileDTO stored = small.read(new Multipart().file("file", "photo.JPG", "image/jpeg", content).request())
+            .getFile("file");
+
+        assertThat(stored.getFileName()).endsWith(".jpg");
+        assertThat(stored.getContentType()).isEqualTo("image/jpeg");
+        assertThat(stored.getSha256()).isEqualTo(sha256(content));
+        assertThat(uploads.resolve(stored.getFileName())).hasBinaryContent(content);
+    }
+
+    @Test
+    void oversizedFilesAreRejected() {
+        ReflectionTestUtils.setField(service, "maxFileSize", DataSize.ofBytes(10));
+        MockHttpServletRequest request = new Multipart()
+            .file("file", "big.bin", "application/octet-stream", new byte[64]).request();
+
+        assertThatThrownBy(() -> service.read(request)).isInstanceOf(FileUploadSizeException.class);
+    }
+
+    @Test
+    void concurrentWritesReportFailuresPerFile() throws Exception {
+        FileStorageService storage = (FileStorageService) ReflectionTestUtils.getField(service, "fileStorageService");
+        FileStorageService failing = spy(storage);
+        doThrow(new IOException("disk full")).when(failing).storeStream(any(), eq("broken.jpg"));
+        ReflectionTestUtils.setField(service, "fileStorageService", failing);
+
+        Multipart body = new Multipart().field("venueName", "Grand Hall");
+        for (int i = 0; i < 6; i++) {
+            body.file("galleryImages", i == 3 ? "broken.jpg" : "photo" + i + ".jpg", "image/jpeg",
+                ("gallery image " + i).getBytes(StandardCharsets.UTF_8));
+        }
+        StreamingUploadService.StreamedUpload upload = service.readConcurrently(body.request());
+
+        // in request order, whichever write finished first
+        assertThat(upload.getResults()).extracting(FileUploadResultDTO::getOriginalFileName)
+            .containsExactly("photo0.jpg", "photo1.jpg", "photo2.jpg", "broken.jpg", "photo4.jpg", "photo5.jpg");
+        assertThat(upload.getResults()).filteredOn(result -> !result.isSuccess())
+            .singleElement().satisfies(result -> assertThat(result.getError()).isEqualTo("disk full"));
+        assertThat(upload.getFiles("galleryImages")).hasSize(5);
+        assertThat(uploads.resolve(upload.getFiles("galleryImages").get(4).getFileName())).hasContent("gallery image 5");
+    }
+
+    @Test
+    void failedRequestsLeaveNoFilesBehind() throws IOException {
+        ReflectionTestUtils.setField(service, "maxRequestSize", DataSize.ofBytes(1000));
+        Multipart body = new Multipart();
+        for (int i = 0; i < 4; i++) {
+            body.file("galleryImages", "photo" + i + ".jpg", "image/jpeg", new byte[300]);
+        }
+
+        assertThatThrownBy(() -> service.readConcurrently(body.request())).isInstanceOf(FileUploadSizeException.class);
+        try (Stream<Path> files = Files.walk(uploads)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    @Test
+    void signaturesAreSniffed() {
+        assertThat(sniff(0x47, 0x49, 0x46, 0x38, 0x39, 0x61)).isEqualTo("image/gif");
+        assertThat(sniff('%', 'P', 'D', 'F', '-', '1')).isEqualTo("application/pdf");
+        assertThat(sniff('R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P')).isEqualTo("image/webp");
+        assertThat(sniff(0xFF, 0xD8)).isEqualTo("application/octet-stream");
+    }
+
+    static StreamingUploadService newService(Path uploads, DataSize buffer) {
+        FileStorageService storage = new FileStorageService();
+        ReflectionTestUtils.setField(storage, "uploadDir", uploads.toString());
+        ReflectionTestUtils.setField(storage, "copyBufferSize", buffer);
+        ReflectionTestUtils.setField(storage, "eventPublisher", mock(ApplicationEventPublisher.class));
+        storage.init();
+
+        StreamingUploadService service = new StreamingUploadService();
+        ReflectionTestUtils.setField(service, "fileStorageService", storage);
+        ReflectionTestUtils.setField(service, "uploadExecutor", WRITERS);
+        return service;
+    }
+
+    private static String sniff(int... bytes) {
+        byte[] head = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            head[i] = (byte) bytes[i];
+        }
+        return FileStorageService.sniffContentType(head, head.length);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] joined = new byte[a.length + b.length];
+        System.arraycopy(a, 0, joined, 0, a.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    /**
+     * A multipart/form-data body built by hand.
+     */
+    static class Multipart {
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        Multipart field(String name, String value) {
+            return part("Content-Disposition: form-data; name=\"" + name + "\"\r\n",
+                value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Multipart file(String name, String fileName, String contentType, byte[] content) {
+            return part("Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: " + contentType + "\r\n", content);
+        }
+
+        MockHttpServletRequest request() {
+            MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/upload");
+            request.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+            request.setContent(bytes());
+            return request;
+        }
+
+        byte[] bytes() {
+            ByteArrayOutputStream closed = new ByteArrayOutputStream();
+            closed.writeBytes(body.toByteArray());
+            closed.writeBytes(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+            return closed.toByteArray();
+        }
+
+        private Multipart part(String headers, byte[] content) {
+            body.writeBytes(("--" + BOUNDARY + "\r\n" + headers + "\r\n").getBytes(StandardCharsets.UTF_8));
+            body.writeBytes(content);
+            body.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+            return this;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.collegia.service;
+
+import com.example.collegia.config.AsyncConfig;
+import com.example.collegia.dto.UploadSweepReportDTO;
+import com.example.collegia.entity.StudentEntity;
+import com.example.collegia.entity.VenueEntity;
+import com.example.collegia.repository.StoredBlobRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unreferenced uploads past the grace period are reported, quarantined and finally purged.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({UploadGarbageCollector.class, FileStorageService.class, BlobReferenceService.class, ChunkedUploadService.class,
+    AsyncConfig.class})
+class UploadGarbageCollectorTest {
+
+    private static final String URL_PREFIX = "http://localhost:8080/api/files/uploads/";
+    private static final FileTime TWO_DAYS_AGO = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+
+    @TempDir
+    static Path uploads;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", uploads::toString);
+        registry.add("file.content-addressed", () -> "true");
+        registry.add("file.gc.max-files-per-second", () -> "0");
+    }
+
+    @Autowired
+    private UploadGarbageCollector collector;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // the directory outlives each test's rolled-back database
+    @AfterEach
+    void emptyUploadDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(uploads)) {
+            files.sorted(Comparator.reverseOrder()).filter(path -> !path.equals(uploads)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void orphansPastTheGracePeriodAreQuarantinedThenPurged() throws IOException {
+        // the collector's totals outlive each test
+        long sweepsBefore = (Long) collector.getStats().get("sweeps");
+        long removedBefore = (Long) collector.getStats().get("filesRemoved");
+        String venueImage = store("venue.jpg", "venue image");
+        String gallery = store("gallery.jpg", "gallery image");
+        String photo = store("photo.png", "profile photo");
+        String replaced = store("replaced.jpg", "replaced image");
+        String justUploaded = store("new.jpg", "not saved yet");
+        Path liveVariant = write(venueImage.replace(".jpg", "_thumb.jpg"));
+        Path orphanVariant = write(replaced.replace(".jpg", "_card.jpg"));
+        Path legacyOrphan = write("3f2504e0-4f89-11d3-9a0c-0305e82c3301.jpg");
+        Path crashedUpload = write("incoming/upload-123.tmp");
+
+        VenueEntity venue = new VenueEntity();
+        venue.setVenueName("Hall");
+        venue.setImage(URL_PREFIX + venueImage);
+        venue.setGalleryImages(new ArrayList<>(List.of(URL_PREFIX + gallery + "?size=card")));
+        entityManager.persist(venue);
+        StudentEntity student = new StudentEntity();
+        student.setEmail("sweep-owner@example.com");
+        student.setUserType("Student");
+        student.setProfilePhoto(URL_PREFIX + photo);
+        entityManager.persist(student);
+        entityManager.flush();
+
+        for (String name : List.of(venueImage, gallery, photo, replaced)) {
+            Files.setLastModifiedTime(fileStorageService.resolvePath(name), TWO_DAYS_AGO);
+        }
+        for (Path file : List.of(liveVariant, orphanVariant, legacyOrphan, crashedUpload)) {
+            Files.setLastModifiedTime(file, TWO_DAYS_AGO);
+        }
+
+        UploadSweepReportDTO dryRun = collector.sweep(true);
+        assertThat(dryRun.getOrphansFound()).isEqualTo(4);
+        assertThat(dryRun.getRecentFilesSkipped()).isEqualTo(1);
+        assertThat(dryRun.getFilesRemoved()).isZero();
+        assertThat(fileStorageService.resolvePath(replaced)).exists();
+
+        UploadSweepReportDTO sweep = collector.sweep(false);
+        assertThat(sweep.getFilesRemoved()).isEqualTo(4);
+        assertThat(sweep.getBytesReclaimed()).isEqualTo(dryRun.getOrphanBytes());
+        for (String live : List.of(venueImage, gallery, photo, justUploaded)) {
+            assertThat(fileStorageService.resolvePath(live)).exists();
+        }
+        assertThat(liveVariant).exists();
+        assertThat(fileStorageService.resolvePath(replaced)).doesNotExist();
+        assertThat(orphanVariant).doesNotExist();
+        assertThat(crashedUpload).doesNotExist();
+        // removed blobs lose their row; quarantined uploads keep their relative path
+        assertThat(storedBlobRepository.existsByFileName(replaced)).isFalse();
+        Path quarantined = uploads.resolve(UploadGarbageCollector.QUARANTINE_DIR).resolve(uploads.relativize(legacyOrphan));
+        assertThat(quarantined).exists();
+        assertThat(uploads.resolve(UploadGarbageCollector.QUARANTINE_DIR).resolve("incoming")).doesNotExist();
+
+        // nothing left to do until the retention period has passed
+        assertThat(collector.sweep(false).getFilesRemoved()).isZero();
+        Files.setLastModifiedTime(quarantined, FileTime.from(Instant.now().minus(Duration.ofDays(8))));
+        assertThat(collector.sweep(false).getQuarantinePurged()).isEqualTo(1);
+        assertThat(quarantined).doesNotExist();
+        assertThat(collector.getStats())
+            .containsEntry("filesRemoved", removedBefore + 4).containsEntry("sweeps", sweepsBefore + 4);
+    }
+
+    @Test
+    void blobsStillCountingReferencesAreKept() throws IOException {
+        String referenced = store("kept.jpg", "still counted");
+        storedBlobRepository.adjustRefCount(referenced, 1);
+        Files.setLastModifiedTime(fileStorageService.resolvePath(referenced), TWO_DAYS_AGO);
+
+        UploadSweepReportDTO sweep = collector.sweep(false);
+
+        assertThat(sweep.getReferencedBlobsSkipped()).isEqualTo(1);
+        assertThat(fileStorageService.resolvePath(referenced)).exists();
+    }
+
+    @Test
+    void chunkedUploadsInProgressSurviveASweep() throws IOException {
+        byte[] content = "resumed after a long pause".getBytes(StandardCharsets.UTF_8);
+        String uploadId = chunkedUploadService.start("notes.txt", content.length, sha256(content)).getUploadId();
+        Path part;
+        try (Stream<Path> files = Files.list(uploads.resolve(FileStorageService.CHUNKED_DIR))) {
+            part = files.findFirst().orElseThrow();
+        }
+        // idle for longer than the grace period, but within the session TTL
+        Files.setLastModifiedTime(part, TWO_DAYS_AGO);
+
+        UploadSweepReportDTO sweep = collector.sweep(false);
+
+        assertThat(sweep.getFilesScanned()).isZero();
+        assertThat(part).exists();
+        chunkedUploadService.writeChunk(uploadId, 0, new ByteArrayInputStream(content), null);
+        assertThat(fileStorageService.resolvePath(chunkedUploadService.complete(uploadId).getFileName()))
+            .hasBinaryContent(content);
+    }
+
+    private String store(String name, String content) {
+        return fileStorageService.storeFile(new MockMultipartFile("file", name, "image/jpeg",
+            content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String sha256(byte[] bytes) {
+        return HexFormat.of().formatHex(FileStorageService.sha256().digest(bytes));
+    }
+
+    private static Path write(String relativePath) throws IOException {
+        Path file = uploads.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, relativePath);
+    }
+}
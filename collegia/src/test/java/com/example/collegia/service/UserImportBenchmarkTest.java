@@ -0,0 +1,143 @@
+package com.example.collegia.service;
+
+import com.example.collegia.config.AsyncConfig;
+import com.example.collegia.dto.UserImportReportDTO;
+import com.example.collegia.entity.CoordinatorEntity;
+import com.example.collegia.entity.FacultyEntity;
+import com.example.collegia.entity.StudentEntity;
+import com.example.collegia.entity.UserEntity;
+import com.example.collegia.repository.UserRepository;
+import com.example.collegia.util.PasswordEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imports 10,000 spreadsheet rows through the former per-row path (an
+ * existence query, a BCrypt hash for non-subtype users and a save per row)
+ * and through UserImportService, against the in-memory test database.
+ *
+ * Run with {@code mvn test -Dtest=UserImportBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@Import({UserImportService.class, PasswordEncoder.class, AsyncConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserImportBenchmarkTest {
+
+    private static final int ROWS = 10_000;
+    private static final String[] TYPES = {"Student", "Faculty", "Coordinator", "Custodian"};
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteImportedUsers() {
+        UserImportServiceTest.deleteUsers(jdbcTemplate, "@legacy.bench");
+        UserImportServiceTest.deleteUsers(jdbcTemplate, "@bulk.bench");
+    }
+
+    @Test
+    void bulkImportAgainstPerRowImport() {
+        // warm both paths up on a small import first
+        perRow(rows(200, "@legacy.bench"));
+        userImportService.importUsers(rows(200, "@bulk.bench"));
+        deleteImportedUsers();
+
+        List<Map<String, Object>> legacyRows = rows(ROWS, "@legacy.bench");
+        long started = System.nanoTime();
+        int legacyImported = perRow(legacyRows);
+        long legacyMillis = (System.nanoTime() - started) / 1_000_000;
+
+        List<Map<String, Object>> bulkRows = rows(ROWS, "@bulk.bench");
+        started = System.nanoTime();
+        UserImportReportDTO report = userImportService.importUsers(bulkRows);
+        long bulkMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(legacyImported).isEqualTo(ROWS);
+        assertThat(report.getImported()).isEqualTo(ROWS);
+        System.out.printf("%d rows on %d cores: per row %d ms (%.0f rows/s), bulk %d ms (%.0f rows/s), %.1fx%n",
+            ROWS, Runtime.getRuntime().availableProcessors(),
+            legacyMillis, ROWS * 1000.0 / legacyMillis, bulkMillis, ROWS * 1000.0 / bulkMillis,
+            (double) legacyMillis / bulkMillis);
+    }
+
+    // the import loop as it was in UserController
+    private int perRow(List<Map<String, Object>> rows) {
+        int imported = 0;
+        for (Map<String, Object> row : rows) {
+            String email = (String) row.get("email");
+            if (userRepository.existsByEmail(email)) {
+                continue;
+            }
+            UserEntity user;
+            switch ((String) row.get("userType")) {
+                case "Student": {
+                    StudentEntity student = new StudentEntity();
+                    student.setCourse((String) row.get("course"));
+                    student.setOrganization("");
+                    student.setPassword(UserImportService.DEFAULT_PASSWORD);
+                    user = student;
+                    break;
+                }
+                case "Faculty": {
+                    FacultyEntity faculty = new FacultyEntity();
+                    faculty.setDepartment((String) row.get("department"));
+                    faculty.setPassword(UserImportService.DEFAULT_PASSWORD);
+                    user = faculty;
+                    break;
+                }
+                case "Coordinator": {
+                    CoordinatorEntity coordinator = new CoordinatorEntity();
+                    coordinator.setAffiliation((String) row.get("affiliation"));
+                    coordinator.setPassword(UserImportService.DEFAULT_PASSWORD);
+                    user = coordinator;
+                    break;
+                }
+                default:
+                    user = new UserEntity();
+                    user.setPassword(passwordEncoder.encode(UserImportService.DEFAULT_PASSWORD));
+            }
+            user.setFirstName((String) row.get("firstName"));
+            user.setLastName((String) row.get("lastName"));
+            user.setEmail(email);
+            user.setUserType((String) row.get("userType"));
+            user.setFirstLogin(true);
+            userRepository.save(user);
+            imported++;
+        }
+        return imported;
+    }
+
+    private static List<Map<String, Object>> rows(int count, String domain) {
+        List<Map<String, Object>> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(UserImportServiceTest.row("First" + i, "Last" + i, "user" + i + domain, TYPES[i % TYPES.length],
+                "course", "BSIT", "department", "CCS", "affiliation", "SSG"));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.collegia.service;
+
+import com.example.collegia.config.AsyncConfig;
+import com.example.collegia.controller.UserController;
+import com.example.collegia.dto.UserImportErrorDTO;
+import com.example.collegia.dto.UserImportJobDTO;
+import com.example.collegia.entity.StudentEntity;
+import com.example.collegia.entity.UserImportJobEntity;
+import com.example.collegia.repository.UserImportJobRepository;
+import com.example.collegia.repository.UserRepository;
+import com.example.collegia.util.PasswordEncoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.example.collegia.service.UserImportServiceTest.row;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Background import jobs record progress with each chunk, resume after their
+ * last committed chunk and can be cancelled.
+ */
+@DataJpaTest(properties = "users.import.batch-size=2")
+@ActiveProfiles("test")
+@Import({UserImportJobService.class, UserImportService.class, PasswordEncoder.class, AsyncConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+// jobs commit from the import executor; the rows are removed after each test
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserImportJobServiceTest {
+
+    private static final String DOMAIN = "@jobs.test";
+
+    @Autowired
+    private UserImportJobService jobService;
+
+    @Autowired
+    private UserImportJobRepository jobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteJobsAndUsers() {
+        jdbcTemplate.update("DELETE FROM user_import_job_error");
+        jdbcTemplate.update("DELETE FROM user_import_job");
+        UserImportServiceTest.deleteUsers(jdbcTemplate, DOMAIN);
+    }
+
+    @Test
+    void jobsRunInTheBackgroundAndKeepTheirErrors() throws Exception {
+        UserImportJobDTO submitted = jobService.submit(List.of(
+            row("Ana", "Cruz", "ana" + DOMAIN, "Student"),
+            row("Ben", "Reyes", "ben" + DOMAIN, "Faculty"),
+            row("Cara", "", "cara" + DOMAIN, "Student"),
+            row("Dan", "Go", "dan" + DOMAIN, "Custodian"),
+            row("Eve", "Uy", "eve" + DOMAIN, "Coordinator")));
+        assertThat(submitted.getStatus()).isIn(UserImportJobService.QUEUED, UserImportJobService.RUNNING);
+
+        UserImportJobDTO job = awaitEnd(submitted.getJobId());
+
+        assertThat(job.getStatus()).isEqualTo(UserImportJobService.COMPLETED);
+        assertThat(job.getProcessedRows()).isEqualTo(5);
+        assertThat(job.getImported()).isEqualTo(4);
+        assertThat(job.getSkipped()).isEqualTo(1);
+        assertThat(job.getRowsPerSecond()).isPositive();
+        assertThat(jobService.getErrors(job.getJobId(), 0, 100))
+            .extracting(UserImportErrorDTO::getRow, UserImportErrorDTO::getReason)
+            .containsExactly(tuple(3, "Missing lastName"));
+        assertThat(jobRepository.findById(job.getJobId()).orElseThrow().getRowsJson()).isNull();
+        assertThat(userRepository.findByEmail("eve" + DOMAIN)).isPresent();
+
+        // a subscriber to an ended job gets the final state and the stream closes
+        UserController controller = new UserController();
+        ReflectionTestUtils.setField(controller, "userImportJobService", jobService);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        MvcResult events = mockMvc.perform(get("/api/users/import-jobs/" + job.getJobId() + "/events")).andReturn();
+        String stream = mockMvc.perform(asyncDispatch(events)).andReturn().getResponse().getContentAsString();
+        assertThat(stream).startsWith("event:done\ndata:{").contains("\"imported\":4");
+    }
+
+    @Test
+    void interruptedJobsResumeAfterTheLastCommittedChunk() throws Exception {
+        List<Map<String, Object>> rows = List.of(
+            row("Ana", "Cruz", "ana" + DOMAIN, "Student"),
+            row("Ben", "Reyes", "ben" + DOMAIN, "Student"),
+            row("Cara", "Lim", "cara" + DOMAIN, "Student"),
+            row("Ana", "Again", "ana" + DOMAIN, "Student"),
+            row("Dan", "Go", "dan" + DOMAIN, "Student"));
+
+        // the first chunk (rows 1 and 2) was committed, then the server stopped
+        StudentEntity ana = student("ana");
+        StudentEntity ben = student("ben");
+        userRepository.insertAll(List.of(ana, ben));
+        UserImportJobEntity interrupted = job(UserImportJobService.RUNNING, rows);
+        interrupted.setProcessedRows(2);
+        interrupted.setImported(2);
+        jobRepository.save(interrupted);
+
+        assertThat(jobService.resumeInterrupted()).isEqualTo(1);
+        UserImportJobDTO job = awaitEnd(interrupted.getJobId());
+
+        assertThat(job.getStatus()).isEqualTo(UserImportJobService.COMPLETED);
+        assertThat(job.getResumedFromRow()).isEqualTo(2);
+        assertThat(job.getImported()).isEqualTo(4);
+        // the committed rows are not reported as already registered, and row 4 is still a duplicate of row 1
+        assertThat(jobService.getErrors(job.getJobId(), 0, 100))
+            .extracting(UserImportErrorDTO::getRow, UserImportErrorDTO::getReason)
+            .containsExactly(tuple(4, "Duplicate of row 1"));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_entity WHERE email LIKE ?",
+            Long.class, "%" + DOMAIN)).isEqualTo(4);
+    }
+
+    @Test
+    void cancelledJobsDoNotRun() throws JsonProcessingException {
+        UserImportJobEntity queued = jobRepository.save(job(UserImportJobService.QUEUED,
+            List.of(row("Ana", "Cruz", "ana" + DOMAIN, "Student"))));
+
+        assertThat(jobService.cancel(queued.getJobId()).getStatus()).isEqualTo(UserImportJobService.CANCELLED);
+        jobService.run(queued.getJobId());
+
+        assertThat(jobService.getJob(queued.getJobId()).getStatus()).isEqualTo(UserImportJobService.CANCELLED);
+        assertThat(userRepository.findByEmail("ana" + DOMAIN)).isEmpty();
+
+        UserImportJobEntity completed = job(UserImportJobService.COMPLETED, List.of());
+        jobRepository.save(completed);
+        assertThat(jobService.cancel(completed.getJobId()).getStatus()).isEqualTo(UserImportJobService.COMPLETED);
+        assertThat(jobService.cancel("no-such-job")).isNull();
+    }
+
+    private UserImportJobDTO awaitEnd(String jobId) throws InterruptedException {
+        for (int i = 0; i < 300; i++) {
+            UserImportJobDTO job = jobService.getJob(jobId);
+            if (UserImportJobService.isFinished(job.getStatus())) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Import job " + jobId + " did not end");
+    }
+
+    private UserImportJobEntity job(String status, List<Map<String, Object>> rows) throws JsonProcessingException {
+        UserImportJobEntity job = new UserImportJobEntity();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setStatus(status);
+        job.setTotalRows(rows.size());
+        job.setCreatedAt(Instant.now());
+        job.setRowsJson(objectMapper.writeValueAsString(rows));
+        return job;
+    }
+
+    private StudentEntity student(String name) {
+        StudentEntity student = new StudentEntity();
+        student.setFirstName(name);
+        student.setEmail(name + DOMAIN);
+        student.setUserType("Student");
+        student.setPassword(passwordEncoder.encode(UserImportService.DEFAULT_PASSWORD));
+        return student;
+    }
+}
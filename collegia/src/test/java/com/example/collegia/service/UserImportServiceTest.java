@@ -0,0 +1,155 @@
+package com.example.collegia.service;
+
+import com.example.collegia.config.AsyncConfig;
+import com.example.collegia.dto.UserImportErrorDTO;
+import com.example.collegia.dto.UserImportReportDTO;
+import com.example.collegia.entity.CoordinatorEntity;
+import com.example.collegia.entity.FacultyEntity;
+import com.example.collegia.entity.StudentEntity;
+import com.example.collegia.entity.UserEntity;
+import com.example.collegia.repository.UserRepository;
+import com.example.collegia.util.PasswordEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Bulk import writes users and their subtype rows in batches and reports every skipped row.
+ */
+@DataJpaTest(properties = "users.import.batch-size=3")
+@ActiveProfiles("test")
+@Import({UserImportService.class, PasswordEncoder.class, AsyncConfig.class})
+// each chunk commits on its own, as in production; the rows are removed after each test
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserImportServiceTest {
+
+    private static final String DOMAIN = "@import.test";
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteImportedUsers() {
+        deleteUsers(jdbcTemplate, DOMAIN);
+    }
+
+    @Test
+    void validRowsAreImportedAndTheRestReported() {
+        UserEntity registered = new UserEntity();
+        registered.setEmail("taken" + DOMAIN);
+        registered.setUserType("Admin");
+        userRepository.save(registered);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(row("Ana", "Cruz", "ana" + DOMAIN, "Student", "course", "BSIT", "organization", "ACM"));
+        rows.add(row("Ben", "Reyes", "ben" + DOMAIN, "Faculty", "department", "CCS"));
+        rows.add(row("Cara", "Lim", "cara" + DOMAIN, "Coordinator", "affiliation", "SSG"));
+        rows.add(row("Dan", "Go", "dan" + DOMAIN, "Custodian", "password", "s3cret-pass"));
+        rows.add(row("Eve", "", "eve" + DOMAIN, "Student"));
+        rows.add(row("Ana", "Again", "ANA" + DOMAIN, "Student"));
+        rows.add(row("Tess", "Ken", "TAKEN" + DOMAIN, "Faculty"));
+        rows.add(row("Fay", "Uy", "not-an-email", "Student"));
+        rows.add(row("Gil", "Tan", "gil" + DOMAIN, "Student", "password", "123"));
+
+        UserImportReportDTO report = userImportService.importUsers(rows);
+
+        assertThat(report.getReceived()).isEqualTo(9);
+        assertThat(report.getImported()).isEqualTo(4);
+        assertThat(report.getSkipped()).isEqualTo(5);
+        assertThat(report.getMessage()).isEqualTo("Imported: 4 | Skipped: 5");
+        assertThat(report.getErrors()).extracting(UserImportErrorDTO::getRow, UserImportErrorDTO::getReason)
+            .containsExactly(
+                tuple(5, "Missing lastName"),
+                tuple(6, "Duplicate of row 1"),
+                tuple(7, "Email already registered"),
+                tuple(8, "Invalid email"),
+                tuple(9, "Password must be at least 6 characters long"));
+
+        StudentEntity ana = (StudentEntity) userRepository.findByEmail("ana" + DOMAIN).orElseThrow();
+        assertThat(ana.getFirstName()).isEqualTo("Ana");
+        assertThat(ana.getCourse()).isEqualTo("BSIT");
+        assertThat(ana.getOrganization()).isEqualTo("ACM");
+        assertThat(ana.isFirstLogin()).isTrue();
+        assertThat(passwordEncoder.matches(UserImportService.DEFAULT_PASSWORD, ana.getPassword())).isTrue();
+
+        assertThat(((FacultyEntity) userRepository.findByEmail("ben" + DOMAIN).orElseThrow()).getDepartment())
+            .isEqualTo("CCS");
+        assertThat(((CoordinatorEntity) userRepository.findByEmail("cara" + DOMAIN).orElseThrow()).getAffiliation())
+            .isEqualTo("SSG");
+
+        UserEntity dan = userRepository.findByEmail("dan" + DOMAIN).orElseThrow();
+        assertThat(dan).isExactlyInstanceOf(UserEntity.class);
+        assertThat(dan.getUserType()).isEqualTo("Custodian");
+        assertThat(passwordEncoder.matches("s3cret-pass", dan.getPassword())).isTrue();
+    }
+
+    @Test
+    void aRowTheDatabaseRejectsOnlyCostsItself() {
+        // the column holds 255 characters, so this row fails its whole batch of three
+        String tooLong = "x".repeat(300) + DOMAIN;
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) {
+            rows.add(row("User", "No" + i, (i == 5 ? tooLong : "user" + i + DOMAIN), "Student"));
+        }
+
+        UserImportReportDTO report = userImportService.importUsers(rows);
+
+        assertThat(report.getImported()).isEqualTo(6);
+        assertThat(report.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(5);
+            assertThat(error.getReason()).startsWith("Could not be saved");
+        });
+        assertThat(userRepository.findByEmail(tooLong)).isEmpty();
+        assertThat(userRepository.findByEmail("user4" + DOMAIN)).isPresent();
+        assertThat(userRepository.findByEmail("user6" + DOMAIN)).isPresent();
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM student_entity s JOIN user_entity u ON u.user_id = s.user_id WHERE u.email LIKE ?",
+            Long.class, "%" + DOMAIN)).isEqualTo(6);
+        // BCrypt salts every hash, so one value across all three chunks means the default was hashed once
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(DISTINCT password) FROM user_entity WHERE email LIKE ?", Long.class, "%" + DOMAIN)).isEqualTo(1);
+    }
+
+    static Map<String, Object> row(String firstName, String lastName, String email, String userType, String... extra) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("firstName", firstName);
+        row.put("lastName", lastName);
+        row.put("email", email);
+        row.put("userType", userType);
+        for (int i = 0; i < extra.length; i += 2) {
+            row.put(extra[i], extra[i + 1]);
+        }
+        return row;
+    }
+
+    static void deleteUsers(JdbcTemplate jdbcTemplate, String domain) {
+        String owned = " WHERE user_id IN (SELECT user_id FROM user_entity WHERE email LIKE ?)";
+        for (String table : new String[] {"student_entity", "faculty_entity", "coordinator_entity"}) {
+            jdbcTemplate.update("DELETE FROM " + table + owned, "%" + domain);
+        }
+        jdbcTemplate.update("DELETE FROM user_entity WHERE email LIKE ?", "%" + domain);
+    }
+}
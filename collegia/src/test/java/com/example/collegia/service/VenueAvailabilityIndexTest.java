@@ -0,0 +1,141 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.BookingSlotDTO;
+import com.example.collegia.entity.BookingEntity;
+import com.example.collegia.entity.VenueEntity;
+import com.example.collegia.repository.BookingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reserved intervals, free windows, and how transactions and rebuilds move them.
+ */
+class VenueAvailabilityIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+    private static final Long VENUE = 1L;
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+
+    private final List<BookingSlotDTO> committed = new ArrayList<>();
+
+    private VenueAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(bookingRepository.findActiveBookingSlots()).thenReturn(committed);
+        index = new VenueAvailabilityIndex(60);
+        ReflectionTestUtils.setField(index, "bookingRepository", bookingRepository);
+        index.rebuild();
+    }
+
+    @AfterEach
+    void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void bookingWithoutTimeSlotHoldsTheWholeDay() {
+        index.put(booking(10L, null, "approved"));
+
+        assertThat(index.isDayFree(VENUE, DAY)).isFalse();
+        assertThat(index.isSlotFree(VENUE, DAY, Time.valueOf("07:00:00"), null)).isFalse();
+        assertThat(index.isSlotFree(VENUE, DAY, Time.valueOf("23:00:00"), null)).isFalse();
+        assertThat(index.freeWindows(VENUE, DAY, 7 * 60, 23 * 60)).isEmpty();
+        // the booking itself may move within its own day
+        assertThat(index.isSlotFree(VENUE, DAY, Time.valueOf("09:00:00"), 10L)).isTrue();
+        assertThat(index.isDayFree(VENUE, DAY.plusDays(1))).isTrue();
+    }
+
+    @Test
+    void freeWindowsSkipReservedIntervals() {
+        index.put(booking(10L, "09:00:00", "approved"));
+        index.put(booking(11L, "09:30:00", "pending"));
+        index.put(booking(12L, "14:00:00", "approved"));
+        index.put(booking(13L, "16:00:00", "canceled"));
+
+        assertThat(index.freeWindows(VENUE, DAY, 7 * 60, 23 * 60))
+            .containsExactly(new int[] {420, 540}, new int[] {630, 840}, new int[] {900, 1380});
+        assertThat(index.isSlotFree(VENUE, DAY, Time.valueOf("10:30:00"), null)).isTrue();
+        assertThat(index.isSlotFree(VENUE, DAY, Time.valueOf("08:30:00"), null)).isFalse();
+
+        index.remove(12L);
+        assertThat(index.freeWindows(VENUE, DAY, 7 * 60, 23 * 60))
+            .containsExactly(new int[] {420, 540}, new int[] {630, 1380});
+    }
+
+    @Test
+    void rollbackRestoresTheIntervalHeldBeforeTheTransaction() {
+        index.put(booking(10L, "09:00:00", "approved"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.put(booking(10L, "11:00:00", "approved"));
+        index.put(booking(10L, "13:00:00", "approved"));
+        assertThat(index.isSlotFree(VENUE, DAY, Time.valueOf("09:00:00"), null)).isTrue();
+        assertThat(index.isSlotFree(VENUE, DAY, Time.valueOf("13:00:00"), null)).isFalse();
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(index.freeWindows(VENUE, DAY, 0, 24 * 60))
+            .containsExactly(new int[] {0, 540}, new int[] {600, 1440});
+    }
+
+    @Test
+    void rebuildKeepsChangesOfOpenTransactions() {
+        committed.add(slot(10L, "09:00:00"));
+        index.rebuild();
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.put(booking(20L, "14:00:00", "pending"));
+        index.remove(10L);
+        // another thread rebuilds before the transaction commits
+        index.rebuild();
+        assertThat(index.isSlotFree(VENUE, DAY, Time.valueOf("14:00:00"), null)).isFalse();
+        assertThat(index.isSlotFree(VENUE, DAY, Time.valueOf("09:00:00"), null)).isTrue();
+
+        committed.remove(0);
+        committed.add(slot(20L, "14:00:00"));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        index.rebuild();
+        assertThat(index.freeWindows(VENUE, DAY, 0, 24 * 60))
+            .containsExactly(new int[] {0, 840}, new int[] {900, 1440});
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static BookingEntity booking(Long id, String time, String status) {
+        VenueEntity venue = new VenueEntity();
+        venue.setVenueId(VENUE);
+        BookingEntity booking = new BookingEntity();
+        booking.setBookingId(id);
+        booking.setVenue(venue);
+        booking.setDate(Date.valueOf(DAY));
+        booking.setTimeSlot(time != null ? Time.valueOf(time) : null);
+        booking.setStatus(status);
+        return booking;
+    }
+
+    private static BookingSlotDTO slot(Long id, String time) {
+        return new BookingSlotDTO(id, VENUE, Date.valueOf(DAY), Time.valueOf(time), "approved");
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.collegia.service;
+
+import com.example.collegia.config.SecondLevelCacheConfig;
+import com.example.collegia.dto.VenueDTO;
+import com.example.collegia.entity.CustodianEntity;
+import com.example.collegia.entity.VenueEntity;
+import com.example.collegia.repository.BookingCounterRepository;
+import com.example.collegia.repository.CustodianRepository;
+import com.example.collegia.repository.VenueRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Venue reads are served from the second-level cache after the first load,
+ * and writes through VenueService are visible on the next read.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({SecondLevelCacheConfig.class, VenueService.class, VenueAvailabilityIndex.class, BookingCounterService.class,
+    BlobReferenceService.class})
+// every call commits on its own, as it does behind the controllers, so cache puts and invalidations happen
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VenueCacheTest {
+
+    @Autowired
+    private VenueService venueService;
+
+    @Autowired
+    private VenueRepository venueRepository;
+
+    @Autowired
+    private CustodianRepository custodianRepository;
+
+    @Autowired
+    private BookingCounterRepository counterRepository;
+
+    @Autowired
+    private BookingCounterService counterService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Long venueId;
+
+    @BeforeEach
+    void setUp() {
+        CustodianEntity custodian = new CustodianEntity();
+        custodian.setFirstName("Carla");
+        custodian.setLastName("Custodio");
+        custodian.setEmail("cache-custodian@example.com");
+        custodian.setUserType("Custodian");
+        custodian = custodianRepository.save(custodian);
+
+        for (int i = 0; i < 5; i++) {
+            VenueEntity venue = new VenueEntity();
+            venue.setVenueName("Hall " + i);
+            venue.setVenueCapacity(100 + i);
+            venue.setAmenities(List.of("Projector", "Sound System"));
+            venue.setGalleryImages(List.of("/images/a.jpg"));
+            venue.setCustodian(custodian);
+            venueId = venueService.createVenue(venue).getVenueId();
+        }
+
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        venueRepository.deleteAll();
+        custodianRepository.deleteAll();
+        counterRepository.deleteAll();
+    }
+
+    @Test
+    void secondVenueReadIsServedFromCache() {
+        VenueDTO first = venueService.getVenueByIdAsDTO(venueId).orElseThrow();
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+
+        VenueDTO second = venueService.getVenueByIdAsDTO(venueId).orElseThrow();
+
+        assertThat(second.getAmenities()).containsExactly("Projector", "Sound System");
+        assertThat(second.getCustodianName()).isEqualTo(first.getCustodianName()).isEqualTo("Carla Custodio");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstRead);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void venueListIsServedFromQueryCache() {
+        assertThat(venueService.getAllVenues()).hasSize(5);
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+
+        assertThat(venueService.getAllVenues()).hasSize(5);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstRead);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void updatesAreVisibleOnTheNextRead() {
+        venueService.getVenueByIdAsDTO(venueId).orElseThrow();
+        venueService.getAllVenues();
+
+        VenueEntity details = new VenueEntity();
+        details.setVenueName("Renamed Hall");
+        details.setAmenities(List.of("Stage"));
+        venueService.updateVenue(venueId, details);
+
+        VenueDTO updated = venueService.getVenueByIdAsDTO(venueId).orElseThrow();
+        assertThat(updated.getVenueName()).isEqualTo("Renamed Hall");
+        assertThat(updated.getAmenities()).containsExactly("Stage");
+        assertThat(venueService.getAllVenues())
+            .extracting(VenueEntity::getVenueName).contains("Renamed Hall");
+
+        venueService.deleteVenue(venueId);
+        assertThat(venueService.getVenueByIdAsDTO(venueId)).isEmpty();
+        assertThat(venueService.getAllVenues()).hasSize(4);
+    }
+
+    @Test
+    void bookingCounterWritesDoNotFlushTheVenueCache() {
+        venueService.getAllVenues();
+
+        new TransactionTemplate(transactionManager)
+            .executeWithoutResult(status -> counterRepository.increment("status", "pending", 0, 1));
+        long statementsBefore = statistics.getPrepareStatementCount();
+
+        assertThat(venueService.getAllVenues()).hasSize(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsBefore);
+        assertThat(counterService.getCounts("status")).containsEntry("pending", 1L);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.VenueDTO;
+import com.example.collegia.dto.VenueFacetResultDTO;
+import com.example.collegia.event.VenueChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Filter combinations, facet counts and incremental updates of the venue facet index.
+ */
+class VenueFacetIndexTest {
+
+    private VenueService venueService;
+    private VenueFacetIndex index;
+    private final List<VenueDTO> venues = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        venues.add(venue(1L, "Audio Visual Room", "SAL", 40, "Projector", "Sound System"));
+        venues.add(venue(2L, "Main Auditorium", "NGE", 800, "Stage", "Sound System", "Projector"));
+        venues.add(venue(3L, "Chemistry Lab", "SAL", 150, "Projector"));
+        venues.add(venue(4L, "Conference Room", "GLE", 60, "Aircon"));
+        venues.add(venue(5L, "SAL Function Hall", "sal", 220, "projector", "Sound System", "Aircon"));
+
+        venueService = mock(VenueService.class);
+        when(venueService.getAllVenuesAsDTO()).thenReturn(venues);
+
+        index = new VenueFacetIndex();
+        ReflectionTestUtils.setField(index, "venueService", venueService);
+        index.rebuild();
+    }
+
+    @Test
+    void combinedFiltersIntersect() {
+        VenueFacetResultDTO result = index.filter(List.of("Projector", "sound system"), List.of("SAL"), 150, null, 0, 10);
+
+        assertThat(result.getTotal()).isEqualTo(1);
+        assertThat(result.getVenues()).extracting(VenueDTO::getVenueId).containsExactly(5L);
+
+        assertThat(index.filter(List.of("Projector", "Whiteboard"), null, null, null, 0, 10).getTotal()).isZero();
+        assertThat(index.filter(null, List.of("SAL", "GLE"), null, null, 0, 10).getVenues())
+            .extracting(VenueDTO::getVenueId).containsExactly(1L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void capacityBoundsCutThroughBands() {
+        // 150-299 band is whole, the 100-149 band is cut by the lower bound
+        assertThat(index.filter(null, null, 120, 299, 0, 10).getVenues())
+            .extracting(VenueDTO::getVenueId).containsExactly(3L, 5L);
+        assertThat(index.filter(null, null, null, 59, 0, 10).getVenues())
+            .extracting(VenueDTO::getVenueId).containsExactly(1L);
+        assertThat(index.filter(null, null, 300, 100, 0, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void facetCountsComeWithTheResult() {
+        VenueFacetResultDTO result = index.filter(List.of("Projector"), List.of("SAL"), null, null, 0, 10);
+
+        assertThat(result.getTotal()).isEqualTo(3);
+        // amenities are counted within the result
+        assertThat(result.getAmenities())
+            .containsEntry("Projector", 3).containsEntry("Sound System", 2).containsEntry("Aircon", 1)
+            .containsEntry("Stage", 0);
+        // locations and capacity bands ignore their own filter
+        assertThat(result.getLocations()).containsEntry("SAL", 3).containsEntry("NGE", 1).containsEntry("GLE", 0);
+        assertThat(result.getCapacityBands()).containsExactly(
+            Map.entry("0-49", 1), Map.entry("50-99", 0), Map.entry("100-149", 0), Map.entry("150-299", 2), Map.entry("300+", 0));
+    }
+
+    @Test
+    void resultsArePaginated() {
+        VenueFacetResultDTO second = index.filter(null, null, null, null, 1, 2);
+
+        assertThat(second.getTotal()).isEqualTo(5);
+        assertThat(second.getVenues()).extracting(VenueDTO::getVenueId).containsExactly(3L, 4L);
+        assertThat(index.filter(null, null, null, null, 3, 2).getVenues()).isEmpty();
+    }
+
+    @Test
+    void venueChangesAreIndexedIncrementally() {
+        VenueDTO refitted = venue(4L, "Conference Room", "GLE", 180, "Aircon", "Projector");
+        VenueDTO added = venue(6L, "Music Room", "NGE", 30, "Sound System");
+        when(venueService.getVenuesByIdsAsDTO(List.of(4L))).thenReturn(List.of(refitted));
+        when(venueService.getVenuesByIdsAsDTO(List.of(6L))).thenReturn(List.of(added));
+
+        index.onVenueChanged(new VenueChangedEvent(4L, VenueChangedEvent.ChangeType.UPDATED));
+        index.onVenueChanged(new VenueChangedEvent(6L, VenueChangedEvent.ChangeType.CREATED));
+        assertThat(index.filter(List.of("Projector"), null, 150, null, 0, 10).getVenues())
+            .extracting(VenueDTO::getVenueId).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(index.filter(null, List.of("NGE"), null, 49, 0, 10).getVenues())
+            .extracting(VenueDTO::getVenueId).containsExactly(6L);
+
+        index.onVenueChanged(new VenueChangedEvent(2L, VenueChangedEvent.ChangeType.DELETED));
+        VenueFacetResultDTO result = index.filter(null, null, null, null, 0, 10);
+        assertThat(result.getTotal()).isEqualTo(5);
+        assertThat(result.getAmenities()).doesNotContainKey("Stage");
+        assertThat(result.getCapacityBands()).containsEntry("300+", 0);
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    private static VenueDTO venue(Long id, String name, String location, int capacity, String... amenities) {
+        return new VenueDTO(id, name, location, capacity, null, null,
+            List.of(amenities), List.of(), null, null);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.VenueDTO;
+import com.example.collegia.entity.CustodianEntity;
+import com.example.collegia.entity.VenueEntity;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Venue listings must cost the same three SQL statements whether they return one venue or a hundred.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({VenueService.class, VenueAvailabilityIndex.class, BookingCounterService.class, BlobReferenceService.class})
+class VenueListingQueryCountTest {
+
+    private static final int VENUES = 100;
+
+    @Autowired
+    private VenueService venueService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private final List<CustodianEntity> custodians = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 4; i++) {
+            CustodianEntity custodian = new CustodianEntity();
+            custodian.setFirstName("Custodian");
+            custodian.setLastName(String.valueOf(i));
+            custodian.setEmail("listing-custodian" + i + "@example.com");
+            custodian.setUserType("Custodian");
+            entityManager.persist(custodian);
+            custodians.add(custodian);
+        }
+
+        for (int i = 0; i < VENUES; i++) {
+            VenueEntity venue = new VenueEntity();
+            venue.setVenueName("Hall " + i);
+            venue.setVenueLocation(i % 2 == 0 ? "SAL" : "NGE");
+            venue.setVenueCapacity(50 + i);
+            // every tenth venue has no custodian, amenities or gallery
+            if (i % 10 != 0) {
+                venue.setAmenities(List.of("Projector", "Sound System", "Aircon"));
+                venue.setGalleryImages(List.of("/images/" + i + "-a.jpg", "/images/" + i + "-b.jpg"));
+                venue.setCustodian(custodians.get(i % custodians.size()));
+            }
+            entityManager.persist(venue);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void allVenuesListingIsThreeStatements() {
+        List<VenueDTO> venues = venueService.getAllVenuesAsDTO();
+
+        assertThat(venues).hasSize(VENUES);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+
+        VenueDTO withCollections = venues.get(1);
+        assertThat(withCollections.getAmenities()).containsExactlyInAnyOrder("Projector", "Sound System", "Aircon");
+        assertThat(withCollections.getGalleryImages()).hasSize(2);
+        assertThat(withCollections.getCustodianName()).isEqualTo("Custodian 1");
+
+        VenueDTO bare = venues.get(0);
+        assertThat(bare.getAmenities()).isEmpty();
+        assertThat(bare.getGalleryImages()).isEmpty();
+        assertThat(bare.getCustodianId()).isNull();
+        assertThat(bare.getCustodianName()).isNull();
+    }
+
+    @Test
+    void filteredListingsAreThreeStatementsEach() {
+        assertThat(venueService.getVenuesByCustodianAsDTO(custodians.get(1).getUserId()))
+            .isNotEmpty()
+            .allSatisfy(venue -> assertThat(venue.getAmenities()).hasSize(3));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+
+        statistics.clear();
+        assertThat(venueService.getVenuesByLocationAsDTO("sal")).hasSize(VENUES / 2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+
+        statistics.clear();
+        assertThat(venueService.getVenuesByCapacityAsDTO(100)).hasSize(VENUES - 50);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void listingByIdsKeepsTheRequestedOrder() {
+        List<VenueDTO> all = venueService.getAllVenuesAsDTO();
+        List<Long> ids = List.of(all.get(7).getVenueId(), all.get(3).getVenueId(), -1L, all.get(5).getVenueId());
+
+        statistics.clear();
+        List<VenueDTO> venues = venueService.getVenuesByIdsAsDTO(ids);
+
+        assertThat(venues).extracting(VenueDTO::getVenueName).containsExactly("Hall 7", "Hall 3", "Hall 5");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+}
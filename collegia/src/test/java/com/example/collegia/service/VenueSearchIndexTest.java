@@ -0,0 +1,147 @@
+package com.example.collegia.service;
+
+import com.example.collegia.dto.SuggestionDTO;
+import com.example.collegia.dto.VenueDTO;
+import com.example.collegia.dto.VenueSearchResultDTO;
+import com.example.collegia.event.VenueChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ranking, fallbacks and incremental updates of the in-memory venue search index.
+ */
+class VenueSearchIndexTest {
+
+    private VenueService venueService;
+    private VenueSearchIndex index;
+    private final List<VenueDTO> venues = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        venues.add(venue(1L, "Audio Visual Room", "SAL", "Small screening room", "Projector", "Sound System"));
+        venues.add(venue(2L, "Main Auditorium", "NGE", "Large hall for assemblies and concerts", "Stage", "Sound System"));
+        venues.add(venue(3L, "Chemistry Lab", "SAL", "Laboratory with fume hoods", "Projector"));
+        venues.add(venue(4L, "Conference Room", "GLE", "Meeting room with a projector screen", "Aircon"));
+
+        venueService = mock(VenueService.class);
+        when(venueService.getAllVenuesAsDTO()).thenReturn(venues);
+
+        index = new VenueSearchIndex();
+        ReflectionTestUtils.setField(index, "venueService", venueService);
+        index.rebuild();
+    }
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        VenueSearchResultDTO result = index.search("auditorium", 0, 10);
+
+        assertThat(result.getTotal()).isEqualTo(1);
+        assertThat(result.getHits().get(0).getVenue().getVenueId()).isEqualTo(2L);
+
+        // "room" is in three names and one description
+        List<Long> ranked = index.search("room", 0, 10).getHits().stream()
+            .map(hit -> hit.getVenue().getVenueId()).toList();
+        assertThat(ranked).containsExactlyInAnyOrder(1L, 4L);
+    }
+
+    @Test
+    void venuesMatchingMoreTermsRankFirst() {
+        List<Long> ranked = index.search("projector sound", 0, 10).getHits().stream()
+            .map(hit -> hit.getVenue().getVenueId()).toList();
+
+        assertThat(ranked.get(0)).isEqualTo(1L);
+        assertThat(ranked).contains(2L, 3L, 4L);
+    }
+
+    @Test
+    void prefixesAndTyposStillMatch() {
+        assertThat(index.search("audit", 0, 10).getHits())
+            .extracting(hit -> hit.getVenue().getVenueId()).containsExactly(2L);
+        assertThat(index.search("chemsitry", 0, 10).getTotal()).isZero();
+        assertThat(index.search("chemistri", 0, 10).getHits())
+            .extracting(hit -> hit.getVenue().getVenueId()).containsExactly(3L);
+    }
+
+    @Test
+    void resultsArePaginated() {
+        VenueSearchResultDTO first = index.search("projector sound stage aircon", 0, 2);
+        VenueSearchResultDTO second = index.search("projector sound stage aircon", 1, 2);
+
+        assertThat(first.getTotal()).isEqualTo(4);
+        assertThat(first.getHits()).hasSize(2);
+        assertThat(second.getHits()).hasSize(2);
+        assertThat(index.search("projector sound stage aircon", 2, 2).getHits()).isEmpty();
+    }
+
+    @Test
+    void autocompleteToleratesOneTypo() {
+        assertThat(index.autocomplete("Main audi", 5))
+            .extracting(SuggestionDTO::getText).contains("Main Auditorium", "auditorium", "audio");
+        assertThat(index.autocomplete("chen", 5))
+            .extracting(SuggestionDTO::getText).contains("Chemistry Lab", "chemistry");
+        assertThat(index.autocomplete("audi ", 5)).isEmpty();
+    }
+
+    @Test
+    void venueChangesAreIndexedIncrementally() {
+        VenueDTO renamed = venue(3L, "Biology Lab", "SAL", "Laboratory with microscopes", "Projector");
+        when(venueService.getVenuesByIdsAsDTO(List.of(3L))).thenReturn(List.of(renamed));
+
+        index.onVenueChanged(new VenueChangedEvent(3L, VenueChangedEvent.ChangeType.UPDATED));
+        assertThat(index.search("chemistry", 0, 10).getTotal()).isZero();
+        assertThat(index.search("biology", 0, 10).getTotal()).isEqualTo(1);
+        // typos reach the new terms and no longer the old ones
+        assertThat(index.search("biolgy", 0, 10).getTotal()).isEqualTo(1);
+        assertThat(index.search("chemistri", 0, 10).getTotal()).isZero();
+        assertThat(index.autocomplete("microsc", 5)).extracting(SuggestionDTO::getText).contains("microscopes");
+        assertThat(index.autocomplete("mikroscopes", 5)).extracting(SuggestionDTO::getText).contains("microscopes");
+
+        index.onVenueChanged(new VenueChangedEvent(3L, VenueChangedEvent.ChangeType.DELETED));
+        assertThat(index.search("biology", 0, 10).getTotal()).isZero();
+        assertThat(index.autocomplete("micro", 5)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    // timing-dependent; run with mvn test -Dtest=VenueSearchIndexTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void autocompleteAnswersInUnderAMillisecond() {
+        for (long id = 10; id < 1010; id++) {
+            venues.add(venue(id, "Room " + id + " Annex", id % 2 == 0 ? "SAL" : "NGE",
+                "Seminar room number " + id, "Projector", "Whiteboard"));
+        }
+        index.rebuild();
+
+        String[] inputs = {"pro", "semi", "whitebo", "anex", "audi", "roo", "projecter"};
+        for (int i = 0; i < 2000; i++) {
+            index.autocomplete(inputs[i % inputs.length], 8);
+        }
+        // best of several batches, so a GC pause or a busy build machine does not decide the result
+        int calls = 1000;
+        double averageMicros = Double.MAX_VALUE;
+        for (int batch = 0; batch < 5; batch++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                index.autocomplete(inputs[i % inputs.length], 8);
+            }
+            averageMicros = Math.min(averageMicros, (System.nanoTime() - start) / 1000.0 / calls);
+        }
+
+        System.out.printf("autocomplete over 1004 venues: %.1f µs per call%n", averageMicros);
+        assertThat(averageMicros).isLessThan(1000);
+    }
+
+    private static VenueDTO venue(Long id, String name, String location, String description, String... amenities) {
+        return new VenueDTO(id, name, location, 100, null, description,
+            List.of(amenities), List.of(), null, null);
+    }
+}